@@ -7,6 +7,10 @@ import org.springframework.stereotype.Component;
 /**
  * AuthorizationHeaderFilter is a custom filter for Spring Cloud Gateway that adds an Authorization header to requests.
  * This filter checks if the Authorization header is present in the incoming request and forwards it to downstream services.
+ * <p>
+ * The request is mutated rather than rebuilt, so all other headers are kept; the W3C {@code traceparent}
+ * header of the gateway's span is added afterwards by the gateway's observed routing filter, which lets the
+ * downstream services continue the trace.
  */
 @Component
 class AuthorizationHeaderFilter extends org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory<AuthorizationHeaderFilter.Config> {
@@ -63,6 +63,10 @@ public class EntryPointApiGateway {
                         .uri("lb://auth-service"))
                 .route(r -> r.path("/api/job/**")
                         .uri("lb://printer-service"))
+                .route(r -> r.path("/api/gcode/**")
+                        .uri("lb://printer-service"))
+                .route(r -> r.path("/api/catalog/**")
+                        .uri("lb://printer-service"))
                 .build();
     }
 
@@ -86,6 +90,8 @@ public class EntryPointApiGateway {
     /**
      * Configures the CORS filter for the gateway.
      * This method sets up the CORS configuration to allow specific origins, methods, and headers.
+     * The headers of resumable G-code uploads, ranged downloads and idempotent order requests are allowed
+     * and exposed to browsers, as is the {@code Location} of asynchronous placement tickets.
      *
      * @return A CorsWebFilter with the configured CORS settings.
      */
@@ -93,8 +99,9 @@ public class EntryPointApiGateway {
     public CorsWebFilter corsWebFilter() {
         CorsConfiguration corsConfig = new CorsConfiguration();
         corsConfig.setAllowedOrigins(Arrays.asList("*"));
-        corsConfig.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        corsConfig.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "RC-Code"));
+        corsConfig.setAllowedMethods(Arrays.asList("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        corsConfig.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "RC-Code", "Upload-Offset", "Range", "Idempotency-Key"));
+        corsConfig.setExposedHeaders(Arrays.asList("Upload-Offset", "ETag", "Content-Range", "Accept-Ranges", "Location", "Idempotent-Replayed"));
         corsConfig.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
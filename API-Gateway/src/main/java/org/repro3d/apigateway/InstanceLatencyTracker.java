@@ -0,0 +1,132 @@
+package org.repro3d.apigateway;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * InstanceLatencyTracker keeps per-instance load statistics for the latency-aware load balancer.
+ * For every downstream instance it tracks the number of in-flight requests and an exponentially
+ * weighted moving average (EWMA) of the observed response latency.
+ * <p>
+ * The average decays towards zero while an instance receives no traffic, so an instance that was
+ * slow in the past is probed again after a while instead of being excluded forever.
+ */
+public class InstanceLatencyTracker {
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final double alpha;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final long initialLatencyNanos;
+    private final LongSupplier clock;
+
+    /**
+     * Constructs an {@code InstanceLatencyTracker}.
+     *
+     * @param alpha               Weight of a new latency sample in the moving average (0..1].
+     * @param decayNanos          Time constant in nanoseconds after which an idle average has decayed to ~37%.
+     * @param failurePenaltyNanos Latency in nanoseconds recorded for a failed request.
+     * @param initialLatencyNanos Latency assumed for instances without any samples yet.
+     * @param clock               Source of the current time in nanoseconds.
+     */
+    public InstanceLatencyTracker(double alpha, long decayNanos, long failurePenaltyNanos, long initialLatencyNanos, LongSupplier clock) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]");
+        }
+        this.alpha = alpha;
+        this.decayNanos = decayNanos;
+        this.failurePenaltyNanos = failurePenaltyNanos;
+        this.initialLatencyNanos = initialLatencyNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Records that a request has been sent to the given instance.
+     *
+     * @param instance The instance chosen for the request.
+     */
+    public void onRequestStart(ServiceInstance instance) {
+        stats(instance).inFlight.incrementAndGet();
+    }
+
+    /**
+     * Records the completion of a request to the given instance.
+     *
+     * @param instance     The instance that served the request.
+     * @param latencyNanos The observed latency in nanoseconds.
+     * @param failed       {@code true} if the request failed; the failure penalty is recorded instead of the latency.
+     */
+    public void onRequestComplete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        Stats s = stats(instance);
+        s.inFlight.updateAndGet(current -> Math.max(0, current - 1));
+        s.record(failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos, clock.getAsLong());
+    }
+
+    /**
+     * Calculates the load score of an instance. Lower is better.
+     * <p>
+     * The score is the decayed latency average multiplied by the number of requests the instance
+     * would be handling if it got the next one, which penalizes both slow and busy instances.
+     *
+     * @param instance The instance to score.
+     * @return The load score of the instance.
+     */
+    public double score(ServiceInstance instance) {
+        Stats s = stats(instance);
+        return s.latency(clock.getAsLong()) * (s.inFlight.get() + 1);
+    }
+
+    /**
+     * Returns the number of requests currently in flight for the given instance.
+     *
+     * @param instance The instance to look up.
+     * @return The number of in-flight requests.
+     */
+    public int inFlight(ServiceInstance instance) {
+        return stats(instance).inFlight.get();
+    }
+
+    private Stats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new Stats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Mutable statistics of a single instance. Latency updates are rare compared to reads,
+     * so they are simply synchronized on the instance.
+     */
+    private class Stats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private double ewmaNanos = -1;
+        private long lastUpdateNanos;
+
+        synchronized void record(long latencyNanos, long now) {
+            if (ewmaNanos < 0) {
+                ewmaNanos = latencyNanos;
+            } else {
+                ewmaNanos = alpha * latencyNanos + (1 - alpha) * decayed(now);
+            }
+            lastUpdateNanos = now;
+        }
+
+        synchronized double latency(long now) {
+            return ewmaNanos < 0 ? initialLatencyNanos : Math.max(decayed(now), 1);
+        }
+
+        private double decayed(long now) {
+            long idle = now - lastUpdateNanos;
+            if (idle <= 0 || decayNanos <= 0) {
+                return ewmaNanos;
+            }
+            return ewmaNanos * Math.exp(-(double) idle / decayNanos);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.repro3d.apigateway;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * LatencyAwareLoadBalancer picks a downstream instance using the "power of two choices" strategy.
+ * Two distinct instances are sampled at random and the one with the lower load score
+ * (see {@link InstanceLatencyTracker#score(ServiceInstance)}) is chosen.
+ * <p>
+ * Compared to round-robin this steers traffic away from replicas that are slow or busy,
+ * e.g. a PrinterService instance that is blocked on webcam streams, while still spreading
+ * load randomly enough to avoid herding onto a single "best" instance.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceLatencyTracker tracker;
+
+    /**
+     * Constructs a {@code LatencyAwareLoadBalancer} for a single service.
+     *
+     * @param serviceInstanceListSupplierProvider Provider of the instance list supplier of the service.
+     * @param serviceId                           The ID of the service being balanced.
+     * @param tracker                             Latency and in-flight statistics shared with the lifecycle callbacks.
+     */
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, InstanceLatencyTracker tracker) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.tracker = tracker;
+    }
+
+    /**
+     * Chooses an instance for the given request.
+     *
+     * @param request The load balancer request.
+     * @return A {@link Mono} emitting the chosen instance, or an empty response if none is available.
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    /**
+     * Chooses an instance from the given list.
+     *
+     * @param instances The currently available instances.
+     * @return The chosen instance wrapped in a {@link Response}.
+     */
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances == null || instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(tracker.score(a) <= tracker.score(b) ? a : b);
+    }
+
+    /**
+     * Returns the ID of the service this balancer is responsible for.
+     *
+     * @return The service ID.
+     */
+    public String getServiceId() {
+        return serviceId;
+    }
+}
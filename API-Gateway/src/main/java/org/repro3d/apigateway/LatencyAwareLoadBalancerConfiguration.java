@@ -0,0 +1,37 @@
+package org.repro3d.apigateway;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer configuration that replaces the default round-robin balancer
+ * with the {@link LatencyAwareLoadBalancer}.
+ * <p>
+ * This class is registered through {@code @LoadBalancerClients(defaultConfiguration = ...)} in
+ * {@link LoadBalancerConfig} and instantiated once per downstream service in its own child context.
+ * It is intentionally not annotated with {@code @Configuration} so that component scanning
+ * does not pick it up in the main application context.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    /**
+     * Creates the latency-aware balancer for the service of the current child context.
+     *
+     * @param environment         The child context environment holding the service name.
+     * @param clientFactory       Factory providing the instance list supplier of the service.
+     * @param tracker             The statistics shared by all services, defined in the main context.
+     * @return The load balancer for the service.
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(Environment environment,
+                                                                                   LoadBalancerClientFactory clientFactory,
+                                                                                   InstanceLatencyTracker tracker) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, tracker);
+    }
+}
@@ -0,0 +1,76 @@
+package org.repro3d.apigateway;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+/**
+ * LatencyTrackingLifecycle feeds the {@link InstanceLatencyTracker} from the gateway's load balancer
+ * lifecycle callbacks. The gateway invokes {@link #onStartRequest} once an instance has been chosen
+ * and {@link #onComplete} when the proxied exchange finishes.
+ */
+class LatencyTrackingLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final InstanceLatencyTracker tracker;
+
+    /**
+     * Constructs a {@code LatencyTrackingLifecycle}.
+     *
+     * @param tracker The tracker that collects per-instance statistics.
+     */
+    LatencyTrackingLifecycle(InstanceLatencyTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+        // Nothing to do before an instance has been chosen.
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        tracker.onRequestStart(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        long latency = 0;
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() > 0) {
+            latency = System.nanoTime() - context.getRequestStartTime();
+        }
+        tracker.onRequestComplete(lbResponse.getServer(), latency, isFailure(completionContext));
+    }
+
+    private static boolean isFailure(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        ResponseData response = completionContext.getClientResponse();
+        return response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+    }
+}
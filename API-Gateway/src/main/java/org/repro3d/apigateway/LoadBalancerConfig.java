@@ -0,0 +1,50 @@
+package org.repro3d.apigateway;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * LoadBalancerConfig switches all {@code lb://} routes of the gateway to latency-aware instance selection.
+ * <p>
+ * The {@link InstanceLatencyTracker} lives in the main context so that statistics survive for the
+ * lifetime of the gateway and are shared between the per-service balancer contexts and the
+ * lifecycle callbacks invoked by the gateway's load balancer filter.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Creates the tracker holding latency and in-flight statistics of all downstream instances.
+     *
+     * @param alpha          Weight of a new latency sample in the moving average.
+     * @param decay          Time after which the average of an idle instance has decayed to ~37%.
+     * @param failurePenalty Latency recorded for failed requests.
+     * @param initialLatency Latency assumed for instances that have not served any request yet.
+     * @return The shared tracker.
+     */
+    @Bean
+    public InstanceLatencyTracker instanceLatencyTracker(
+            @Value("${gateway.loadbalancer.ewma-alpha:0.3}") double alpha,
+            @Value("${gateway.loadbalancer.decay:10s}") Duration decay,
+            @Value("${gateway.loadbalancer.failure-penalty:1s}") Duration failurePenalty,
+            @Value("${gateway.loadbalancer.initial-latency:1ms}") Duration initialLatency) {
+        return new InstanceLatencyTracker(alpha, decay.toNanos(), failurePenalty.toNanos(),
+                initialLatency.toNanos(), System::nanoTime);
+    }
+
+    /**
+     * Creates the lifecycle callbacks that record request start and completion per instance.
+     *
+     * @param tracker The tracker to feed.
+     * @return The lifecycle bean picked up by the gateway's load balancer filter.
+     */
+    @Bean
+    LatencyTrackingLifecycle latencyTrackingLifecycle(InstanceLatencyTracker tracker) {
+        return new LatencyTrackingLifecycle(tracker);
+    }
+}
@@ -0,0 +1,149 @@
+package org.repro3d.apigateway;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.cloud.loadbalancer.support.SimpleObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-instance harness for the {@link LatencyAwareLoadBalancer}.
+ * Simulates instances with different response times on a synthetic clock and compares the share of
+ * requests the latency-aware balancer and Spring Cloud's default round-robin balancer send to the
+ * slow instance.
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE_ID = "printer-service";
+
+    private final List<ServiceInstance> instances = new ArrayList<>();
+    private final Map<ServiceInstance, Long> latencies = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        addInstance("fast-1", 8081, 2);
+        addInstance("fast-2", 8082, 2);
+        addInstance("slow", 8083, 80);
+    }
+
+    @Test
+    void latencyAwareBalancerAvoidsSlowInstance() {
+        ServiceInstanceListSupplier supplier = ServiceInstanceListSuppliers.from(SERVICE_ID, instances.toArray(new ServiceInstance[0]));
+
+        AtomicLong roundRobinClock = new AtomicLong();
+        RoundRobinLoadBalancer roundRobin = new RoundRobinLoadBalancer(new SimpleObjectProvider<>(supplier), SERVICE_ID);
+        double roundRobinShare = slowShare(roundRobin, newTracker(roundRobinClock), roundRobinClock);
+
+        AtomicLong clock = new AtomicLong();
+        InstanceLatencyTracker tracker = newTracker(clock);
+        LatencyAwareLoadBalancer latencyAware = new LatencyAwareLoadBalancer(new SimpleObjectProvider<>(supplier), SERVICE_ID, tracker);
+        double latencyAwareShare = slowShare(latencyAware, tracker, clock);
+
+        assertEquals(1.0 / 3, roundRobinShare, 0.01);
+        assertTrue(latencyAwareShare < 0.02, "latency-aware balancer sent " + latencyAwareShare + " of the requests to the slow instance");
+    }
+
+    @Test
+    void slowAndBusyInstancesScoreHigher() {
+        AtomicLong clock = new AtomicLong();
+        InstanceLatencyTracker tracker = newTracker(clock);
+        ServiceInstance fast = instances.get(0);
+        ServiceInstance slow = instances.get(2);
+
+        tracker.onRequestStart(fast);
+        tracker.onRequestComplete(fast, 2_000_000, false);
+        tracker.onRequestStart(slow);
+        tracker.onRequestComplete(slow, 80_000_000, false);
+        assertTrue(tracker.score(slow) > tracker.score(fast));
+
+        tracker.onRequestStart(fast);
+        tracker.onRequestStart(fast);
+        assertEquals(2, tracker.inFlight(fast));
+        assertEquals(3 * 2_000_000, tracker.score(fast), 1);
+    }
+
+    @Test
+    void idleInstanceDecaysAndFailuresArePenalized() {
+        AtomicLong clock = new AtomicLong();
+        InstanceLatencyTracker tracker = newTracker(clock);
+        ServiceInstance slow = instances.get(2);
+
+        tracker.onRequestStart(slow);
+        tracker.onRequestComplete(slow, 80_000_000, false);
+        double before = tracker.score(slow);
+        clock.addAndGet(30_000_000_000L);
+        assertTrue(tracker.score(slow) < before / 10, "score should decay while the instance is idle");
+
+        tracker.onRequestStart(slow);
+        tracker.onRequestComplete(slow, 1_000_000, true);
+        assertTrue(tracker.score(slow) >= 0.3 * 1_000_000_000L, "failures should record the failure penalty");
+    }
+
+    @Test
+    void unseenInstancesAreSpreadByInFlightCount() {
+        InstanceLatencyTracker tracker = newTracker(new AtomicLong());
+        LatencyAwareLoadBalancer balancer = new LatencyAwareLoadBalancer(null, SERVICE_ID, tracker);
+        List<ServiceInstance> pair = instances.subList(0, 2);
+
+        for (int i = 0; i < 10; i++) {
+            tracker.onRequestStart(balancer.choose(pair).getServer());
+        }
+
+        assertEquals(5, tracker.inFlight(pair.get(0)));
+        assertEquals(5, tracker.inFlight(pair.get(1)));
+    }
+
+    private InstanceLatencyTracker newTracker(AtomicLong clock) {
+        return new InstanceLatencyTracker(0.3, 10_000_000_000L, 1_000_000_000L, 1_000_000L, clock::get);
+    }
+
+    /**
+     * Sends requests through the given balancer with a fixed concurrency, completing each after the
+     * response time of its instance on the synthetic clock, and returns the share of the requests
+     * measured after a short warm-up that went to the slow instance.
+     */
+    private double slowShare(ReactorServiceInstanceLoadBalancer balancer, InstanceLatencyTracker tracker, AtomicLong clock) {
+        int concurrency = 8;
+        int warmUp = 64;
+        int total = 2000;
+        PriorityQueue<long[]> inFlight = new PriorityQueue<>(Comparator.comparingLong((long[] request) -> request[0]));
+        int slowPicks = 0;
+        for (int sent = 0; sent < warmUp + total; sent++) {
+            if (inFlight.size() == concurrency) {
+                long[] done = inFlight.poll();
+                clock.set(done[0]);
+                ServiceInstance instance = instances.get((int) done[1]);
+                tracker.onRequestComplete(instance, latencies.get(instance), false);
+            }
+            ServiceInstance chosen = balancer.choose(new DefaultRequest<>(new RequestDataContext())).block().getServer();
+            tracker.onRequestStart(chosen);
+            inFlight.add(new long[]{clock.get() + latencies.get(chosen), instances.indexOf(chosen)});
+            if (sent >= warmUp && "slow".equals(chosen.getInstanceId())) {
+                slowPicks++;
+            }
+        }
+        return (double) slowPicks / total;
+    }
+
+    private void addInstance(String name, int port, long latencyMillis) {
+        ServiceInstance instance = new DefaultServiceInstance(name, SERVICE_ID, "127.0.0.1", port, false);
+        instances.add(instance);
+        latencies.put(instance, latencyMillis * 1_000_000);
+    }
+}
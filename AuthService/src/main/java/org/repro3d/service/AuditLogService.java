@@ -8,6 +8,7 @@ import org.repro3d.utils.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -69,6 +70,7 @@ public class AuditLogService {
      *
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the list of all audit logs.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllAuditLogs() {
         List<AuditLog> auditLogs = auditLogRepository.findAll();
         return ResponseEntity.ok(new ApiResponse(true, "Audit logs retrieved successfully.", auditLogs));
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.repro3d.model.User;
 import org.repro3d.utils.ApiResponse;
 
@@ -88,6 +89,7 @@ public class UserService {
      *
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the list of all users.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllUsers() {
         List<User> users = userRepository.findAll();
         return ResponseEntity.ok(new ApiResponse(true, "Users retrieved successfully", users));
@@ -0,0 +1,44 @@
+-- Tables owned by the Authentication Service. Existing tables of GeneralDb are kept as they are.
+
+CREATE TABLE IF NOT EXISTS role (
+    role_id   BIGINT NOT NULL AUTO_INCREMENT,
+    role_name VARCHAR(45),
+    PRIMARY KEY (role_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_entity (
+    user_id       BIGINT NOT NULL AUTO_INCREMENT,
+    email         VARCHAR(50),
+    billing_addr  VARCHAR(100),
+    password_hash VARCHAR(256),
+    role          BIGINT,
+    PRIMARY KEY (user_id),
+    -- Login and the order history look users up by email.
+    CONSTRAINT user_entity_email UNIQUE (email),
+    CONSTRAINT user_entity_role_fk FOREIGN KEY (role) REFERENCES role (role_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS log_action (
+    la_id  BIGINT NOT NULL AUTO_INCREMENT,
+    action VARCHAR(45),
+    PRIMARY KEY (la_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS audit_log (
+    audit_id  BIGINT NOT NULL AUTO_INCREMENT,
+    user_id   BIGINT,
+    action_id BIGINT,
+    timestamp DATETIME(6),
+    PRIMARY KEY (audit_id),
+    CONSTRAINT audit_log_user_fk FOREIGN KEY (user_id) REFERENCES user_entity (user_id),
+    CONSTRAINT audit_log_action_fk FOREIGN KEY (action_id) REFERENCES log_action (la_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS front_config (
+    id           BIGINT NOT NULL AUTO_INCREMENT,
+    config_key   VARCHAR(255) NOT NULL,
+    config_value VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    -- The front end reads its settings by key.
+    CONSTRAINT front_config_key UNIQUE (config_key)
+) ENGINE = InnoDB;
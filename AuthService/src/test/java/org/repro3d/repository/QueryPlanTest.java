@@ -0,0 +1,35 @@
+package org.repro3d.repository;
+
+import org.junit.jupiter.api.Test;
+import org.repro3d.utils.QueryPlanJpaTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.repro3d.utils.QueryPlans.assertUsesIndex;
+
+/**
+ * Runs the hot queries of the Auth Service on the schema of its migrations, in H2 emulating MariaDB,
+ * and checks the index each of them is planned with.
+ */
+@QueryPlanJpaTest
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FrontConfigRepository frontConfigRepository;
+
+    @Test
+    void userByEmail_UsesEmailIndex() {
+        assertUsesIndex(jdbcTemplate, "user_entity_email", () -> userRepository.findByEmail("maker@example.com"));
+    }
+
+    @Test
+    void frontConfigByKey_UsesKeyIndex() {
+        assertUsesIndex(jdbcTemplate, "front_config_key", () -> frontConfigRepository.findByKey("title"));
+    }
+}
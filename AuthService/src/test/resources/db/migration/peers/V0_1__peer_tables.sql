@@ -0,0 +1,49 @@
+-- Tables of other services that the entities of the Authentication Service map, created for the query plan tests as the
+-- migrations of their owners create them. Foreign keys between services are left out, as in production.
+
+CREATE TABLE IF NOT EXISTS status (
+    status_id BIGINT NOT NULL AUTO_INCREMENT,
+    status    VARCHAR(45),
+    PRIMARY KEY (status_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS printer (
+    printer_id BIGINT NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255),
+    location   VARCHAR(255),
+    ip_addr    VARCHAR(255),
+    apikey     VARCHAR(255),
+    PRIMARY KEY (printer_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_progress (
+    order_id           BIGINT NOT NULL,
+    total_items        INTEGER,
+    waiting            INTEGER,
+    in_progress        INTEGER,
+    awaiting_pickup    INTEGER,
+    done               INTEGER,
+    remaining_est_time INTEGER,
+    eta                DATETIME(6),
+    updated_at         DATETIME(6),
+    PRIMARY KEY (order_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    event_id     BIGINT NOT NULL AUTO_INCREMENT,
+    source       VARCHAR(50) NOT NULL,
+    destination  VARCHAR(50) NOT NULL,
+    type         VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT,
+    payload      LONGTEXT,
+    created_at   DATETIME(6) NOT NULL,
+    published_at DATETIME(6),
+    PRIMARY KEY (event_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS inbox_event (
+    event_id    BIGINT NOT NULL,
+    source      VARCHAR(50) NOT NULL,
+    received_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id, source)
+) ENGINE = InnoDB;
@@ -1,8 +1,11 @@
 package org.repro3d;
 
+import org.repro3d.utils.EventProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for BillingService.
@@ -10,6 +13,8 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
+@EnableConfigurationProperties(EventProperties.class)
 public class EntryPointBillingService {
 
     /**
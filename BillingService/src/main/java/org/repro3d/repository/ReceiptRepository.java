@@ -13,4 +13,12 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface ReceiptRepository extends JpaRepository <Receipt, Long> {
+
+    /**
+     * Checks whether an order already has a receipt.
+     *
+     * @param orderId The ID of the order.
+     * @return {@code true} if a receipt references the order.
+     */
+    boolean existsByOrderOrderId(Long orderId);
 }
\ No newline at end of file
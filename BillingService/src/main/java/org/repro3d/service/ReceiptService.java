@@ -1,13 +1,17 @@
 package org.repro3d.service;
 
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Order;
 import org.repro3d.model.Receipt;
 import org.repro3d.repository.OrderRepository;
 import org.repro3d.repository.ReceiptRepository;
 import org.repro3d.utils.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +54,30 @@ public class ReceiptService {
         return ResponseEntity.ok(new ApiResponse(true, "Receipt created successfully.", savedReceipt));
     }
 
+    /**
+     * Records the receipt of an order placed in the OrderService, once per order: the order is paid
+     * with a redeem code when it is placed. Runs in the transaction of the event inbox and reads
+     * nothing of the order beyond the event.
+     *
+     * @param event The event of the placed order, carrying its date and total.
+     */
+    @EventListener
+    public void onOrderPlaced(DomainEvent event) {
+        Long orderId = event.getAggregateId();
+        if (!DomainEvent.ORDER_PLACED.equals(event.getType()) || receiptRepository.existsByOrderOrderId(orderId)) {
+            return;
+        }
+        Long orderDate = event.payloadLong("orderDate");
+        Receipt receipt = new Receipt();
+        receipt.setPaidOn(Instant.ofEpochMilli(orderDate != null ? orderDate : event.getCreatedAt().getTime()).toString());
+        receipt.setSumTotal(event.payloadLong("total"));
+        // The order row lives in the Order Service, so the receipt only references its ID.
+        Order order = new Order();
+        order.setOrderId(orderId);
+        receipt.setOrder(order);
+        receiptRepository.save(receipt);
+    }
+
     /**
      * Retrieves a receipt by its ID.
      *
@@ -67,6 +95,7 @@ public class ReceiptService {
      *
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with a list of all receipts.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllReceipts() {
         List<Receipt> receipts = receiptRepository.findAll();
         return ResponseEntity.ok(new ApiResponse(true, "Receipts retrieved successfully.", receipts));
@@ -1,11 +1,13 @@
 package org.repro3d.service;
 
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Order;
 import org.repro3d.model.RedeemCode;
 import org.repro3d.repository.OrderRepository;
 import org.repro3d.repository.RedeemCodeRepository;
 import org.repro3d.utils.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -79,6 +81,25 @@ public class RedeemCodeService {
         }
     }
 
+    /**
+     * Marks a redeem code consumed by an order of the OrderService as used, if it is not yet. Runs in
+     * the transaction of the event inbox.
+     *
+     * @param event The event of the consumed redeem code.
+     */
+    @EventListener
+    public void onRedeemCodeConsumed(DomainEvent event) {
+        if (!DomainEvent.REDEEM_CODE_CONSUMED.equals(event.getType())) {
+            return;
+        }
+        redeemCodeRepository.findById(event.getAggregateId())
+                .filter(redeemCode -> !Boolean.TRUE.equals(redeemCode.getUsed()))
+                .ifPresent(redeemCode -> {
+                    redeemCode.setUsed(true);
+                    redeemCodeRepository.save(redeemCode);
+                });
+    }
+
     /**
      * Retrieves a redeem code by its ID.
      *
@@ -96,6 +117,7 @@ public class RedeemCodeService {
      *
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with a list of all redeem codes.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllRedeemCodes() {
         List<RedeemCode> redeemCodes = redeemCodeRepository.findAll();
         return ResponseEntity.ok(new ApiResponse(true, "Redeem codes retrieved successfully.", redeemCodes));
@@ -0,0 +1,39 @@
+-- Tables owned by the Billing Service. Existing tables of GeneralDb are kept as they are.
+-- Orders are owned by the Order Service, so receipts reference them without a foreign key.
+
+CREATE TABLE IF NOT EXISTS redeem_codes (
+    rc_id   BIGINT NOT NULL AUTO_INCREMENT,
+    rc_code VARCHAR(100),
+    used    BIT,
+    PRIMARY KEY (rc_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS receipt (
+    receipt_id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id   BIGINT,
+    sum_total  BIGINT,
+    paid_on    VARCHAR(45),
+    PRIMARY KEY (receipt_id)
+) ENGINE = InnoDB;
+
+-- Domain events, shared with the Order and Printer Services.
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    event_id     BIGINT NOT NULL AUTO_INCREMENT,
+    source       VARCHAR(50) NOT NULL,
+    destination  VARCHAR(50) NOT NULL,
+    type         VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT,
+    payload      LONGTEXT,
+    created_at   DATETIME(6) NOT NULL,
+    published_at DATETIME(6),
+    PRIMARY KEY (event_id),
+    INDEX outbox_event_pending (source, destination, published_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS inbox_event (
+    event_id    BIGINT NOT NULL,
+    source      VARCHAR(50) NOT NULL,
+    received_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id, source)
+) ENGINE = InnoDB;
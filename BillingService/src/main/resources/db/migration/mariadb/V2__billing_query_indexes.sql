@@ -0,0 +1,7 @@
+-- Indexes matching the lookups of the Billing Service.
+
+-- RedeemCodeRepository.findByRcCode, also used by the Order Service when placing an order.
+CREATE INDEX IF NOT EXISTS redeem_codes_code ON redeem_codes (rc_code);
+
+-- ReceiptRepository.existsByOrderOrderId
+CREATE INDEX IF NOT EXISTS receipt_order ON receipt (order_id);
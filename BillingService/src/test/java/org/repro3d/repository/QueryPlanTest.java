@@ -0,0 +1,35 @@
+package org.repro3d.repository;
+
+import org.junit.jupiter.api.Test;
+import org.repro3d.utils.QueryPlanJpaTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.repro3d.utils.QueryPlans.assertUsesIndex;
+
+/**
+ * Runs the hot queries of the Billing Service on the schema of its migrations, in H2 emulating MariaDB,
+ * and checks the index each of them is planned with.
+ */
+@QueryPlanJpaTest
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RedeemCodeRepository redeemCodeRepository;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Test
+    void redeemCodeByCode_UsesCodeIndex() {
+        assertUsesIndex(jdbcTemplate, "redeem_codes_code", () -> redeemCodeRepository.findByRcCode("CODE-1"));
+    }
+
+    @Test
+    void receiptOfOrder_UsesOrderIndex() {
+        assertUsesIndex(jdbcTemplate, "receipt_order", () -> receiptRepository.existsByOrderOrderId(1L));
+    }
+}
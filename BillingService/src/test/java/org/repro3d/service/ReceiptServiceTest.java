@@ -5,9 +5,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Order;
 import org.repro3d.model.Receipt;
 import org.repro3d.repository.OrderRepository;
@@ -18,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class ReceiptServiceTest {
@@ -176,4 +179,28 @@ public class ReceiptServiceTest {
         assertNotNull(response.getBody());
         assertFalse(response.getBody().isSuccess());
     }
+
+    @Test
+    void onOrderPlaced_RecordsReceiptOfOrder() {
+        when(receiptRepository.existsByOrderOrderId(5L)).thenReturn(false);
+
+        receiptService.onOrderPlaced(new DomainEvent(3L, "order-service", DomainEvent.ORDER_PLACED, 5L,
+                Map.of("orderDate", 0L, "total", 30), new Date()));
+
+        ArgumentCaptor<Receipt> receipt = ArgumentCaptor.forClass(Receipt.class);
+        verify(receiptRepository).save(receipt.capture());
+        assertEquals(5L, receipt.getValue().getOrder().getOrderId());
+        verifyNoInteractions(orderRepository);
+        assertEquals(30L, receipt.getValue().getSumTotal());
+        assertEquals("1970-01-01T00:00:00Z", receipt.getValue().getPaidOn());
+    }
+
+    @Test
+    void onOrderPlaced_SkipsOrderWithReceipt() {
+        when(receiptRepository.existsByOrderOrderId(5L)).thenReturn(true);
+
+        receiptService.onOrderPlaced(new DomainEvent(3L, "order-service", DomainEvent.ORDER_PLACED, 5L, Map.of(), new Date()));
+
+        verify(receiptRepository, never()).save(any(Receipt.class));
+    }
 }
@@ -2,14 +2,26 @@ package org.repro3d;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.repro3d.utils.EventProperties;
+import org.repro3d.utils.IdempotencyProperties;
+import org.repro3d.utils.PlacementProperties;
+import org.repro3d.utils.SearchProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for OrderService.
- * Uses DiscoveryClient.
+ * Uses DiscoveryClient, caching of the catalog and scheduling, which refreshes the item search index
+ * and polls the queue of orders accepted for placement.
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableScheduling
+@EnableCaching
+@EnableConfigurationProperties({SearchProperties.class, EventProperties.class, PlacementProperties.class,
+        IdempotencyProperties.class})
 public class EntryPointOrderService {
 
     /**
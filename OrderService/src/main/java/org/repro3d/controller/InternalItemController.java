@@ -0,0 +1,51 @@
+package org.repro3d.controller;
+
+import org.repro3d.service.ItemService;
+import org.repro3d.utils.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for notifications between the instances of the OrderService.
+ * <p>
+ * Its endpoints are not routed by the gateway; they are called by other instances after they
+ * changed an item, and only accept requests carrying the secret shared by the services
+ * ({@link org.repro3d.utils.InternalRequestFilter}).
+ */
+@RestController
+@RequestMapping("/internal/item")
+public class InternalItemController {
+
+    private final ItemService itemService;
+
+    /**
+     * Constructs an {@code InternalItemController} with the necessary {@link ItemService}.
+     * @param itemService The service applying the changes.
+     */
+    @Autowired
+    public InternalItemController(ItemService itemService) {
+        this.itemService = itemService;
+    }
+
+    /**
+     * Applies an item change made by another instance to the local cache and search index.
+     * @param id The ID of the changed item.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating
+     *         the result of the operation.
+     */
+    @PostMapping("/{id}/changed")
+    public ResponseEntity<ApiResponse> itemChanged(@PathVariable Long id) {
+        return itemService.itemChanged(id);
+    }
+
+    /**
+     * Applies items added in bulk, as told to another instance, to the local cache and search index.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating
+     *         the result of the operation.
+     */
+    @PostMapping("/changed")
+    public ResponseEntity<ApiResponse> catalogChanged() {
+        return itemService.catalogChanged();
+    }
+}
@@ -10,7 +10,7 @@ import org.springframework.web.bind.annotation.*;
 /**
  * Controller for managing {@link Item} entities.
  * Provides endpoints for CRUD operations on items, including creation, retrieval,
- * updating, and deletion of items, as well as searching for items by name.
+ * updating, and deletion of items, as well as searching for items by name or by words with facets.
  */
 @RestController
 @RequestMapping("/api/item")
@@ -60,14 +60,30 @@ public class ItemController {
     }
 
     /**
-     * Finds items by their name.
-     * @param name The name to search for.
+     * Searches items. With {@code name}, items with exactly that name are returned; otherwise the search
+     * index matches the words of {@code q} against the name, description and material of the items.
+     * @param name The exact name to search for.
+     * @param q The words to search for, matched as prefixes and with typos; blank to browse all items.
+     * @param material The material to filter by.
+     * @param minCost The lowest cost to include.
+     * @param maxCost The cost to include items below.
+     * @param offset The number of matching items to skip.
+     * @param limit The maximum number of items to return.
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with a list
-     *         of items that match the specified name. If no items are found, returns an empty list.
+     *         of items that match the specified name, or with a page of matching items and facet counts.
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse> getItemsByName(@RequestParam String name) {
-        return itemService.findByName(name);
+    public ResponseEntity<ApiResponse> searchItems(@RequestParam(required = false) String name,
+                                                   @RequestParam(required = false) String q,
+                                                   @RequestParam(required = false) String material,
+                                                   @RequestParam(required = false) Long minCost,
+                                                   @RequestParam(required = false) Long maxCost,
+                                                   @RequestParam(defaultValue = "0") int offset,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+        if (name != null) {
+            return itemService.findByName(name);
+        }
+        return itemService.searchItems(q, material, minCost, maxCost, offset, limit);
     }
 
     /**
@@ -7,7 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.repro3d.service.OrderService;
 import org.repro3d.utils.ApiResponse;
-import java.util.Objects;
+import org.repro3d.utils.IdempotencyStore;
 
 /**
  * Controller for managing {@link Order} entities.
@@ -20,53 +20,47 @@ public class OrderController {
 
     private final OrderService orderService;
     private final OrderItemsService orderItemService;
+    private final IdempotencyStore idempotencyStore;
 
     /**
      * Constructs an {@code OrderController} with the necessary {@link OrderService}.
      * @param orderService The service used to perform operations on orders.
+     * @param orderItemService The service creating the order items and jobs of placed orders.
+     * @param idempotencyStore The store answering retried requests with their original response.
      */
     @Autowired
-    public OrderController(OrderService orderService, OrderItemsService orderItemService) {
+    public OrderController(OrderService orderService, OrderItemsService orderItemService, IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
         this.orderItemService = orderItemService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
      * Creates a new order.
      * @param order The order to be created.
+     * @param idempotencyKey Optional key of the request; a retry with the same key returns the original
+     *         response without creating another order.
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating
      *         the result of the operation.
      */
     @PostMapping
-    public ResponseEntity<ApiResponse> createOrder(@RequestBody Order order) {
-        return orderService.createOrder(order);
+    public ResponseEntity<ApiResponse> createOrder(@RequestBody Order order,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyStore.execute("create", idempotencyKey, order, () -> orderService.createOrder(order));
     }
 
     /**
      * Creates an order and creates the order items and jobs for it.
      * @param po {@link PlaceOrder} Custom request body.
+     * @param idempotencyKey Optional key of the request; a retry with the same key returns the original
+     *         response without placing the order again.
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating
       *         the result of the operation.
      */
     @PostMapping("/place")
-    public ResponseEntity<ApiResponse> placeOrder(@RequestBody PlaceOrder po) {
-        ResponseEntity<ApiResponse> order = orderService.createOrder(po.getOrder());
-        for (Item item : po.getItems()) {
-
-            Job j = new Job();
-            j.setItem(item);
-            j.setStart_date(po.getOrder().getOrderDate());
-            j.setStatus(new Status(1L, "Waiting"));
-
-
-            OrderItems oi = new OrderItems();
-            oi.setItem(item);
-            oi.setOrder((Order) Objects.requireNonNull(order.getBody()).getData());
-
-
-            orderItemService.placeOrderItem(oi, j);
-        }
-        return order;
+    public ResponseEntity<ApiResponse> placeOrder(@RequestBody PlaceOrder po,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyStore.execute("place", idempotencyKey, po, () -> orderItemService.placeOrder(po));
     }
 
     /**
@@ -80,6 +74,18 @@ public class OrderController {
         return orderService.getOrderById(id);
     }
 
+    /**
+     * Retrieves the print progress of an order: the number of its items per job status and the
+     * estimated time until all of them are printed.
+     * @param id The ID of the order.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the progress of the
+     *         order if found, or an error message otherwise.
+     */
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<ApiResponse> getOrderProgress(@PathVariable Long id) {
+        return orderService.getOrderProgress(id);
+    }
+
     /**
      * Retrieves all orders.
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with a list
@@ -107,6 +113,22 @@ public class OrderController {
     public ResponseEntity<ApiResponse> getOrdersByEmail(@RequestParam String email) {
         return orderService.getOrdersByEmail(email);
     }
+
+    /**
+     * Retrieves a page of the order history of a user, with the items of the orders and the
+     * status of their print jobs.
+     * @param email The email of the user whose orders are to be retrieved.
+     * @param before The {@code nextBefore} of the previous page; omitted for the newest orders.
+     * @param limit The maximum number of orders to return.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the page of the
+     *         order history, or an error message if the user is not found.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<ApiResponse> getOrderHistory(@RequestParam String email,
+                                                       @RequestParam(required = false) Long before,
+                                                       @RequestParam(defaultValue = "20") int limit) {
+        return orderService.getOrderHistory(email, before, limit);
+    }
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse> updateOrder(@PathVariable Long id, @RequestBody Order order) {
         return orderService.updateOrder(id, order);
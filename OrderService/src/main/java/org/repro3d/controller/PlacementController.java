@@ -0,0 +1,59 @@
+package org.repro3d.controller;
+
+import org.repro3d.model.PlaceOrder;
+import org.repro3d.model.PlacementTicket;
+import org.repro3d.service.PlacementService;
+import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for the asynchronous placement of orders.
+ * Accepted orders are answered with a {@link PlacementTicket} that clients poll until the order is
+ * placed or rejected.
+ */
+@RestController
+@RequestMapping("/api/order/placements")
+public class PlacementController {
+
+    private final PlacementService placementService;
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Constructs a {@code PlacementController} with the necessary {@link PlacementService}.
+     * @param placementService The service accepting the orders and reporting their placement.
+     * @param idempotencyStore The store answering retried requests with their original response.
+     */
+    @Autowired
+    public PlacementController(PlacementService placementService, IdempotencyStore idempotencyStore) {
+        this.placementService = placementService;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * Accepts an order for placement in the background.
+     * @param po {@link PlaceOrder} Custom request body; only the IDs of its items are used.
+     * @param idempotencyKey Optional key of the request; a retry with the same key returns the original
+     *         ticket without queuing the order again.
+     * @return A {@link ResponseEntity} with status 202, the location of the ticket and an {@link ApiResponse}
+     *         with the ticket, or status 400 if the user or redeem code is invalid.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse> acceptOrder(@RequestBody PlaceOrder po,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyStore.execute("accept", idempotencyKey, po, () -> placementService.acceptOrder(po));
+    }
+
+    /**
+     * Retrieves the state of a placement.
+     * @param ticketId The ID of the ticket returned when the order was accepted.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the ticket, or an error
+     *         message if it is not found.
+     */
+    @GetMapping("/{ticketId}")
+    public ResponseEntity<ApiResponse> getTicket(@PathVariable String ticketId) {
+        return placementService.getTicket(ticketId);
+    }
+}
@@ -0,0 +1,69 @@
+package org.repro3d.model;
+
+import lombok.Value;
+
+/**
+ * An immutable copy of an {@link Item}, as served from the catalog cache.
+ * <p>
+ * Cached items are shared between requests, so they are kept apart from the entities of the
+ * persistence context. The copy serializes to the same properties as the item.
+ */
+@Value
+public class CatalogItem {
+
+    /**
+     * The unique identifier for the item.
+     */
+    Long item_id;
+
+    /**
+     * The name of the item.
+     */
+    String name;
+
+    /**
+     * A brief description of the item.
+     */
+    String description;
+
+    /**
+     * The estimated time (in minutes) it takes to produce the item.
+     */
+    Integer est_time;
+
+    /**
+     * The dimensions of the item, including length, width, and height.
+     */
+    String dimensions;
+
+    /**
+     * A reference to a g-code file associated with the item.
+     */
+    String file_ref;
+
+    /**
+     * The material from which the item is intended to be made.
+     */
+    String material;
+
+    /**
+     * The cost associated with the item.
+     */
+    Long cost;
+
+    /**
+     * Image url associated with the item.
+     */
+    String image_url;
+
+    /**
+     * Copies an item.
+     *
+     * @param item The item, e.g. an entity loaded from the repository.
+     * @return The copy.
+     */
+    public static CatalogItem of(Item item) {
+        return new CatalogItem(item.getItem_id(), item.getName(), item.getDescription(), item.getEst_time(),
+                item.getDimensions(), item.getFile_ref(), item.getMaterial(), item.getCost(), item.getImage_url());
+    }
+}
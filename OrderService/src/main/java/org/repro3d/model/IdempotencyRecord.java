@@ -0,0 +1,82 @@
+package org.repro3d.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * The response to a request made with an {@code Idempotency-Key}, recorded in the transaction of the
+ * request so a retry with the same key gets the same response instead of repeating the request.
+ * <p>
+ * The records are written with JDBC by the {@code IdempotencyStore}; the entity defines the table.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idempotency_record_created", columnList = "created_at"))
+@IdClass(IdempotencyRecord.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    /**
+     * The operation the key was used for, e.g. {@code place}, so the same key sent to two endpoints
+     * stands for two requests.
+     */
+    @Id
+    @Column(name = "operation", length = 20)
+    private String operation;
+
+    /**
+     * The key chosen by the client.
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    /**
+     * The SHA-256 of the request body, used to reject a key reused for another request.
+     */
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    /**
+     * The HTTP status of the response.
+     */
+    @Column(name = "status", nullable = false)
+    private int status;
+
+    /**
+     * The {@code Location} header of the response, if any.
+     */
+    @Column(name = "location")
+    private String location;
+
+    /**
+     * The body of the response, as JSON.
+     */
+    @Column(name = "body", columnDefinition = "LONGTEXT")
+    private String body;
+
+    /**
+     * The date of the request.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    /**
+     * The identity of a record: the operation and the key.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String operation;
+
+        private String idempotencyKey;
+    }
+}
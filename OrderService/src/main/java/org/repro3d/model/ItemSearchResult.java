@@ -0,0 +1,64 @@
+package org.repro3d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of items matching a search, with the facet counts of all matching items.
+ * <p>
+ * Each facet counts the items matching the query and the filters of the other facet, so the
+ * counts show how many items choosing another value would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSearchResult {
+
+    /**
+     * The number of items matching the query and both filters.
+     */
+    private int total;
+
+    /**
+     * The requested page of matching items, best matches first.
+     */
+    private List<Item> items;
+
+    /**
+     * The number of matching items per material, most frequent first.
+     */
+    private Map<String, Integer> materials;
+
+    /**
+     * The number of matching items per cost range.
+     */
+    private List<CostRange> costRanges;
+
+    /**
+     * A cost range facet.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CostRange {
+
+        /**
+         * The lowest cost in the range.
+         */
+        private Long min;
+
+        /**
+         * The cost the range ends before, or {@code null} for the last range.
+         */
+        private Long max;
+
+        /**
+         * The number of matching items in the range.
+         */
+        private int count;
+    }
+}
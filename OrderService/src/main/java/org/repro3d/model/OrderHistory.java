@@ -0,0 +1,30 @@
+package org.repro3d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of the order history of a user, newest orders first.
+ * <p>
+ * Pages are addressed by the ID of the last order already seen rather than by an offset, so a page
+ * is read through the index on the order ID however deep into the history it is, and orders placed
+ * while paging do not shift the following pages.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistory {
+
+    /**
+     * The orders of the page with their items and jobs.
+     */
+    private List<OrderHistoryEntry> orders;
+
+    /**
+     * The value of {@code before} requesting the next page, or {@code null} if this is the last page.
+     */
+    private Long nextBefore;
+}
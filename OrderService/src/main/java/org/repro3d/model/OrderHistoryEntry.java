@@ -0,0 +1,50 @@
+package org.repro3d.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An order in the order history of a user, read as a projection instead of an {@link Order} entity,
+ * so serializing it loads no associations.
+ */
+@Data
+@NoArgsConstructor
+public class OrderHistoryEntry {
+
+    /**
+     * Unique identifier for the order.
+     */
+    private Long orderId;
+
+    /**
+     * The date and time when the order was placed.
+     */
+    private Date orderDate;
+
+    /**
+     * The redeem code the order was paid with.
+     */
+    private String redeemCode;
+
+    /**
+     * The items of the order with the status of their print jobs.
+     */
+    private List<OrderHistoryItem> items = new ArrayList<>();
+
+    /**
+     * Constructs an order without items, as selected by the order history query.
+     *
+     * @param orderId    The ID of the order.
+     * @param orderDate  The date the order was placed.
+     * @param redeemCode The code of the redeem code of the order.
+     */
+    public OrderHistoryEntry(Long orderId, Date orderDate, String redeemCode) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.redeemCode = redeemCode;
+    }
+}
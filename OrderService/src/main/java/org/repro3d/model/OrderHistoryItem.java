@@ -0,0 +1,63 @@
+package org.repro3d.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * An item of an order in the order history, with the print job producing it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryItem {
+
+    /**
+     * The order the item belongs to, used to assign the item to its {@link OrderHistoryEntry}.
+     */
+    @JsonIgnore
+    private Long orderId;
+
+    /**
+     * Unique identifier for the order-item association.
+     */
+    private Long oi_id;
+
+    /**
+     * The ID of the ordered item.
+     */
+    private Long item_id;
+
+    /**
+     * The name of the ordered item.
+     */
+    private String name;
+
+    /**
+     * The cost of the ordered item.
+     */
+    private Long cost;
+
+    /**
+     * The ID of the print job of the item, or {@code null} if none was created.
+     */
+    private Long job_id;
+
+    /**
+     * The status of the print job, e.g. 'Waiting' or 'Completed'.
+     */
+    private String status;
+
+    /**
+     * The start date and time of the print job.
+     */
+    private Date start_date;
+
+    /**
+     * The end date and time of the print job.
+     */
+    private Date end_date;
+}
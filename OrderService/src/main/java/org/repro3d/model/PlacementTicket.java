@@ -0,0 +1,141 @@
+package org.repro3d.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An order accepted for asynchronous placement and the outcome of its placement.
+ * <p>
+ * The ticket keeps what is needed to place the order later: the user, the redeem code, the order date
+ * and the IDs of the items, which are read from the catalog when the order is placed. Clients poll it
+ * by its ID until it is {@link State#PLACED} or {@link State#FAILED}.
+ */
+@Entity
+@Table(name = "placement_ticket", indexes = @Index(name = "placement_ticket_state", columnList = "state, created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlacementTicket {
+
+    /**
+     * The states of a ticket.
+     */
+    public enum State {
+        /**
+         * Accepted and waiting to be placed.
+         */
+        QUEUED,
+        /**
+         * Placed; the ticket names the created order.
+         */
+        PLACED,
+        /**
+         * Rejected when it was placed; the ticket holds the reason.
+         */
+        FAILED
+    }
+
+    /**
+     * Unique, unguessable identifier of the ticket.
+     */
+    @Id
+    @Column(name = "ticket_id", length = 36)
+    private String ticketId;
+
+    /**
+     * The state of the placement.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 10, nullable = false)
+    private State state;
+
+    /**
+     * The ID of the user placing the order.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The redeem code paying for the order.
+     */
+    @Column(name = "rc_code", length = 100, nullable = false)
+    private String rcCode;
+
+    /**
+     * The date the order was placed by the client.
+     */
+    @Column(name = "order_date")
+    private Date orderDate;
+
+    /**
+     * The comma-separated IDs of the items, one per ordered item.
+     */
+    @JsonIgnore
+    @Column(name = "item_ids", length = 2000, nullable = false)
+    private String itemIds;
+
+    /**
+     * The ID of the created order, once placed.
+     */
+    @Column(name = "order_id")
+    private Long orderId;
+
+    /**
+     * The reason the placement failed.
+     */
+    @Column(name = "message")
+    private String message;
+
+    /**
+     * The date the ticket was accepted.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    /**
+     * The date the ticket was placed or failed.
+     */
+    @Column(name = "completed_at")
+    private Date completedAt;
+
+    /**
+     * Returns the IDs of the items, in the order they were ordered.
+     *
+     * @return The item IDs.
+     */
+    @JsonIgnore
+    public List<Long> getItemIdList() {
+        return Arrays.stream(itemIds.split(",")).map(Long::valueOf).toList();
+    }
+
+    /**
+     * Sets the IDs of the items.
+     *
+     * @param ids The item IDs, one per ordered item.
+     */
+    public void setItemIdList(List<Long> ids) {
+        this.itemIds = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Ends the placement.
+     *
+     * @param state   {@link State#PLACED} or {@link State#FAILED}.
+     * @param orderId The ID of the created order, {@code null} if it failed.
+     * @param message The outcome of the placement.
+     */
+    public void complete(State state, Long orderId, String message) {
+        this.state = state;
+        this.orderId = orderId;
+        this.message = message;
+        this.completedAt = new Date();
+    }
+}
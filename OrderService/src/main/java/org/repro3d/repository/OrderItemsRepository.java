@@ -1,10 +1,15 @@
 package org.repro3d.repository;
 
 import org.repro3d.model.Order;
+import org.repro3d.model.OrderHistoryItem;
 import org.repro3d.model.OrderItems;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,4 +19,27 @@ import java.util.List;
 @Repository
 public interface OrderItemsRepository extends JpaRepository<OrderItems, Long> {
     List<OrderItems> findByOrder(Order order);
+
+    /**
+     * Finds the items of several orders with the status of their print jobs in one query.
+     *
+     * @param orderIds The IDs of the orders.
+     * @return The items of the orders, in the order they were added.
+     */
+    @Query("SELECT new org.repro3d.model.OrderHistoryItem(o.orderId, oi.oi_id, i.item_id, i.name, i.cost, "
+            + "j.job_id, s.status, j.start_date, j.end_date) "
+            + "FROM OrderItems oi JOIN oi.order o LEFT JOIN oi.item i LEFT JOIN oi.job j LEFT JOIN j.status s "
+            + "WHERE o.orderId IN :orderIds ORDER BY oi.oi_id")
+    List<OrderHistoryItem> findHistoryItemsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Links an order item to the job the Printer Service created for it, unless it is linked already.
+     *
+     * @param orderItemId The ID of the order item.
+     * @param jobId       The ID of the job.
+     * @return The number of order items linked, 0 or 1.
+     */
+    @Modifying
+    @Query(value = "UPDATE order_items SET job_id = :jobId WHERE oi_id = :orderItemId AND job_id IS NULL", nativeQuery = true)
+    int linkJob(@Param("orderItemId") Long orderItemId, @Param("jobId") Long jobId);
 }
@@ -0,0 +1,51 @@
+package org.repro3d.repository;
+
+import jakarta.persistence.LockModeType;
+import org.repro3d.model.OrderProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for {@link OrderProgress} entities.
+ * This interface extends JpaRepository, providing CRUD operations and the queries recalculating the progress of an order.
+ */
+@Repository
+public interface OrderProgressRepository extends JpaRepository<OrderProgress, Long> {
+
+    /**
+     * Finds the order a job was placed with.
+     *
+     * @param jobId The ID of the job.
+     * @return The ID of the order, or an empty {@link Optional} if the job belongs to no order.
+     */
+    @Query("SELECT oi.order.orderId FROM OrderItems oi WHERE oi.job.job_id = :jobId")
+    Optional<Long> findOrderIdByJobId(@Param("jobId") Long jobId);
+
+    /**
+     * Finds the progress of an order and locks it until the end of the transaction, so concurrent
+     * recalculations of the same order are applied one after another.
+     *
+     * @param orderId The ID of the order.
+     * @return The progress, or an empty {@link Optional} if none was recorded yet.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM OrderProgress p WHERE p.orderId = :orderId")
+    Optional<OrderProgress> findForUpdate(@Param("orderId") Long orderId);
+
+    /**
+     * Finds the jobs of the items of an order.
+     *
+     * @param orderId The ID of the order.
+     * @return One entry per item of the order.
+     */
+    @Query("SELECT s.status_id AS statusId, i.est_time AS estTime, j.start_date AS startDate "
+            + "FROM OrderItems oi LEFT JOIN oi.job j LEFT JOIN j.status s LEFT JOIN oi.item i "
+            + "WHERE oi.order.orderId = :orderId")
+    List<OrderProgress.JobState> findJobStatesByOrderId(@Param("orderId") Long orderId);
+}
@@ -1,8 +1,13 @@
     package org.repro3d.repository;
 
     import org.repro3d.model.Order;
+    import org.repro3d.model.OrderHistoryEntry;
     import org.repro3d.model.User;
+    import org.springframework.data.domain.Limit;
+    import org.springframework.data.jpa.repository.EntityGraph;
     import org.springframework.data.jpa.repository.JpaRepository;
+    import org.springframework.data.jpa.repository.Query;
+    import org.springframework.data.repository.query.Param;
     import org.springframework.stereotype.Repository;
 
     import java.util.List;
@@ -14,4 +19,27 @@
     @Repository
     public interface OrderRepository extends JpaRepository<Order, Long> {
         List<Order> findAllByUser(User user);
+
+        /**
+         * Finds the orders of a user together with the user, its role and the redeem code, so serializing
+         * them needs no further queries.
+         *
+         * @param email The email of the user.
+         * @return The orders of the user, newest first.
+         */
+        @EntityGraph(attributePaths = {"user", "user.role", "redeemCode"})
+        List<Order> findAllByUserEmailOrderByOrderIdDesc(String email);
+
+        /**
+         * Finds a page of the order history of a user, newest first, without their items.
+         *
+         * @param email  The email of the user.
+         * @param before The order ID the page ends before.
+         * @param limit  The maximum number of orders.
+         * @return The orders placed before {@code before}.
+         */
+        @Query("SELECT new org.repro3d.model.OrderHistoryEntry(o.orderId, o.orderDate, rc.rcCode) "
+                + "FROM Order o JOIN o.user u LEFT JOIN o.redeemCode rc "
+                + "WHERE u.email = :email AND o.orderId < :before ORDER BY o.orderId DESC")
+        List<OrderHistoryEntry> findHistoryByEmail(@Param("email") String email, @Param("before") Long before, Limit limit);
     }
@@ -0,0 +1,57 @@
+package org.repro3d.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.repro3d.model.PlacementTicket;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for {@link PlacementTicket} entities.
+ * This interface extends JpaRepository, providing CRUD operations and the queries of the placement queue.
+ */
+@Repository
+public interface PlacementTicketRepository extends JpaRepository<PlacementTicket, String> {
+
+    /**
+     * Finds the oldest tickets in a state and locks them until the end of the transaction. Tickets locked
+     * by other workers are skipped, so concurrent workers, on this or other instances, take disjoint batches.
+     *
+     * @param state The state, {@link PlacementTicket.State#QUEUED} for the tickets to place.
+     * @param limit The maximum number of tickets.
+     * @return The tickets, oldest first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<PlacementTicket> findByStateOrderByCreatedAt(PlacementTicket.State state, Limit limit);
+
+    /**
+     * Finds a ticket and locks it until the end of the transaction, waiting for a worker holding it.
+     *
+     * @param ticketId The ID of the ticket.
+     * @return The ticket, empty if it was deleted.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM PlacementTicket t WHERE t.ticketId = :ticketId")
+    Optional<PlacementTicket> findForUpdate(@Param("ticketId") String ticketId);
+
+    /**
+     * Deletes the placed and failed tickets completed before a date.
+     *
+     * @param before The date.
+     * @return The number of deleted tickets.
+     */
+    @Modifying
+    @Query("DELETE FROM PlacementTicket t WHERE t.completedAt < :before")
+    int deleteCompletedBefore(@Param("before") Date before);
+}
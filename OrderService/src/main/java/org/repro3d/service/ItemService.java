@@ -1,9 +1,16 @@
 package org.repro3d.service;
 
+import org.repro3d.model.CatalogItem;
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Item;
+import org.repro3d.model.ItemSearchResult;
 import org.repro3d.repository.ItemRepository;
 import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.ItemCatalogCache;
+import org.repro3d.utils.ItemChangePublisher;
+import org.repro3d.utils.ItemSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
@@ -13,21 +20,34 @@ import java.util.Optional;
 /**
  * Service class for handling operations related to {@link Item} entities.
  * This service encapsulates the business logic for creating, retrieving, updating, and deleting items,
- * interacting with the {@link ItemRepository} to perform these operations.
+ * interacting with the {@link ItemRepository} to perform these operations. Reads are served from the
+ * {@link ItemCatalogCache}. Every change is applied to the {@link ItemSearchIndex} as well, which answers
+ * searches without querying the database, and published to the other instances of the service. Items
+ * the Printer Service changed arrive as {@link DomainEvent}s and are applied the same way.
  */
 @Service
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemCatalogCache itemCatalogCache;
+    private final ItemChangePublisher itemChangePublisher;
 
     /**
-     * Constructs an item service with the necessary item repository.
+     * Constructs an item service with the necessary item repository, search index and cache.
      *
-     * @param itemRepository The repository used for item data operations.
+     * @param itemRepository      The repository used for item data operations.
+     * @param itemSearchIndex     The index used for searching items.
+     * @param itemCatalogCache    The cache serving item reads.
+     * @param itemChangePublisher The publisher notifying the other instances of changed items.
      */
     @Autowired
-    public ItemService(ItemRepository itemRepository) {
+    public ItemService(ItemRepository itemRepository, ItemSearchIndex itemSearchIndex,
+                       ItemCatalogCache itemCatalogCache, ItemChangePublisher itemChangePublisher) {
         this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemCatalogCache = itemCatalogCache;
+        this.itemChangePublisher = itemChangePublisher;
     }
 
     /**
@@ -38,6 +58,8 @@ public class ItemService {
      */
     public ResponseEntity<ApiResponse> createItem(Item item) {
         Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        changed(savedItem.getItem_id());
         return ResponseEntity.ok(new ApiResponse(true, "Item created successfully", savedItem));
     }
 
@@ -48,7 +70,7 @@ public class ItemService {
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the item if found, or an error message otherwise.
      */
     public ResponseEntity<ApiResponse> getItemById(Long id) {
-        Optional<Item> item = itemRepository.findById(id);
+        Optional<CatalogItem> item = Optional.ofNullable(itemCatalogCache.findById(id));
         if (item.isPresent()) {
             return ResponseEntity.ok(new ApiResponse(true, "Item found", item.get()));
         } else {
@@ -63,7 +85,7 @@ public class ItemService {
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the list of found items or an error message if none found.
      */
     public ResponseEntity<ApiResponse> findByName(String name) {
-        List<Item> items = itemRepository.findByName(name);
+        List<CatalogItem> items = itemCatalogCache.findByName(name);
         if (!items.isEmpty()) {
             return ResponseEntity.ok(new ApiResponse(true, "Items found with name: " + name, items));
         } else {
@@ -71,13 +93,31 @@ public class ItemService {
         }
     }
 
+    /**
+     * Searches items by words of their name, description and material, tolerating prefixes and typos,
+     * optionally filtered by material and cost.
+     *
+     * @param query    The words to search for; blank to browse all items.
+     * @param material The material to filter by, or {@code null}.
+     * @param minCost  The lowest cost to include, or {@code null}.
+     * @param maxCost  The cost to include items below, or {@code null}.
+     * @param offset   The number of matching items to skip.
+     * @param limit    The maximum number of items to return.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the {@link ItemSearchResult},
+     *         holding the page of items and the material and cost range facets.
+     */
+    public ResponseEntity<ApiResponse> searchItems(String query, String material, Long minCost, Long maxCost, int offset, int limit) {
+        ItemSearchResult result = itemSearchIndex.search(query, material, minCost, maxCost, offset, limit);
+        return ResponseEntity.ok(new ApiResponse(true, "Found " + result.getTotal() + " items", result));
+    }
+
     /**
      * Retrieves all items in the repository.
      *
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the list of all items.
      */
     public ResponseEntity<ApiResponse> getAllItems() {
-        Iterable<Item> items = itemRepository.findAll();
+        List<CatalogItem> items = itemCatalogCache.findAll();
         return ResponseEntity.ok(new ApiResponse(true, "Items retrieved successfully", items));
     }
 
@@ -100,6 +140,8 @@ public class ItemService {
                     item.setCost(itemDetails.getCost());
                     item.setImage_url(itemDetails.getImage_url());
                     itemRepository.save(item);
+                    itemSearchIndex.index(item);
+                    changed(id);
                     return ResponseEntity.ok(new ApiResponse(true, "Item updated successfully", item));
                 }).orElseGet(() -> ResponseEntity.ok(new ApiResponse(false, "Item not found for ID: " + id, null)));
     }
@@ -113,9 +155,62 @@ public class ItemService {
     public ResponseEntity<ApiResponse> deleteItem(Long id) {
         if (itemRepository.existsById(id)) {
             itemRepository.deleteById(id);
+            itemSearchIndex.remove(id);
+            changed(id);
             return ResponseEntity.ok(new ApiResponse(true, "Item deleted successfully", null));
         } else {
             return ResponseEntity.ok(new ApiResponse(false, "Item not found for ID: " + id, null));
         }
     }
+
+    /**
+     * Applies a change another instance made to an item: the item is evicted from the cache and
+     * reloaded into the search index.
+     *
+     * @param id The ID of the changed item.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating the result of the operation.
+     */
+    public ResponseEntity<ApiResponse> itemChanged(Long id) {
+        itemCatalogCache.evict(id);
+        itemRepository.findById(id).ifPresentOrElse(itemSearchIndex::index, () -> itemSearchIndex.remove(id));
+        return ResponseEntity.ok(new ApiResponse(true, "Item change applied", null));
+    }
+
+    /**
+     * Applies a change the Printer Service made to items, here and on the other instances.
+     *
+     * @param event An item whose estimates were recomputed, or a catalog import that added items.
+     */
+    @EventListener
+    public void onEvent(DomainEvent event) {
+        switch (event.getType()) {
+            case DomainEvent.ITEM_CHANGED -> {
+                itemChanged(event.getAggregateId());
+                itemChangePublisher.publish(event.getAggregateId());
+            }
+            case DomainEvent.ITEMS_IMPORTED -> {
+                catalogChanged();
+                itemChangePublisher.publishCatalog();
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Applies items another instance was told were added in bulk: the cache is cleared and the search
+     * index rebuilt.
+     *
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating the result of the operation.
+     */
+    public ResponseEntity<ApiResponse> catalogChanged() {
+        itemCatalogCache.evictAll();
+        itemSearchIndex.rebuild();
+        return ResponseEntity.ok(new ApiResponse(true, "Catalog change applied", null));
+    }
+
+    private void changed(Long id) {
+        itemCatalogCache.evict(id);
+        itemChangePublisher.publish(id);
+    }
 }
@@ -1,23 +1,41 @@
 package org.repro3d.service;
 
-import org.repro3d.model.Job;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.Item;
 import org.repro3d.model.Order;
+import org.repro3d.model.PlaceOrder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.repro3d.model.OrderItems;
+import org.repro3d.repository.ItemRepository;
 import org.repro3d.repository.JobRepository;
 import org.repro3d.repository.OrderItemsRepository;
 import org.repro3d.repository.OrderRepository;
 import org.repro3d.utils.ApiResponse;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing operations related to OrderItems entities.
  * Handles creation, retrieval, update, and deletion of order items,
  * working with the OrderItemsRepository.
+ * <p>
+ * The print jobs of placed orders are created by the Printer Service from the
+ * {@link DomainEvent#ORDER_PLACED} event; the order items are linked to them by the job events
+ * it sends back.
  */
 @Service
 public class OrderItemsService {
@@ -25,6 +43,9 @@ public class OrderItemsService {
     private final OrderItemsRepository orderItemsRepository;
     private final JobRepository jobRepository;
     private final OrderRepository orderRepository;
+    private final ItemRepository itemRepository;
+    private final OrderService orderService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Initializes a new instance of the OrderItemsService with the required repositories.
@@ -32,12 +53,75 @@ public class OrderItemsService {
      * @param orderItemsRepository The repository used for data operations on order items.
      * @param jobRepository        The repository used for accessing job data.
      * @param orderRepository      The repository used for accessing order data.
+     * @param itemRepository       The repository reading the ordered items.
+     * @param orderService         The service creating the orders of placed orders.
+     * @param eventPublisher       The publisher raising the events of placed orders.
      */
     @Autowired
-    public OrderItemsService(OrderItemsRepository orderItemsRepository, JobRepository jobRepository, OrderRepository orderRepository) {
+    public OrderItemsService(OrderItemsRepository orderItemsRepository, JobRepository jobRepository, OrderRepository orderRepository,
+                             ItemRepository itemRepository, OrderService orderService, ApplicationEventPublisher eventPublisher) {
         this.orderItemsRepository = orderItemsRepository;
         this.jobRepository = jobRepository;
         this.orderRepository = orderRepository;
+        this.itemRepository = itemRepository;
+        this.orderService = orderService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Places an order: creates the order and an order item for each of its items, and raises a
+     * {@link DomainEvent#ORDER_PLACED} event with them, all in one transaction. The Printer Service
+     * creates the waiting jobs of the items from the event.
+     * <p>
+     * Only the IDs of the given items are used: the items are loaded from the database, and their stored
+     * costs make up the total of the order. An order naming an unknown item is rejected.
+     *
+     * @param po The order and its items.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the created order, or the
+     *         error of the order creation.
+     */
+    @Transactional
+    public ResponseEntity<ApiResponse> placeOrder(PlaceOrder po) {
+        if (po.getItems() == null || po.getItems().length == 0
+                || Arrays.stream(po.getItems()).map(item -> item != null ? item.getItem_id() : null).anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order and item IDs are required", null));
+        }
+        List<Long> itemIds = Arrays.stream(po.getItems()).map(Item::getItem_id).toList();
+        Map<Long, Item> storedItems = itemRepository.findAllById(itemIds.stream().distinct().toList()).stream()
+                .collect(Collectors.toMap(Item::getItem_id, Function.identity()));
+        for (Long itemId : itemIds) {
+            if (!storedItems.containsKey(itemId)) {
+                return ResponseEntity.badRequest().body(new ApiResponse(false, "Item not found for ID: " + itemId, null));
+            }
+        }
+        ResponseEntity<ApiResponse> created = orderService.createOrder(po.getOrder());
+        if (created.getBody() == null || !(created.getBody().getData() instanceof Order order)) {
+            return created;
+        }
+        List<Map<String, Object>> items = new ArrayList<>();
+        long total = 0;
+        for (Long itemId : itemIds) {
+            Item item = storedItems.get(itemId);
+            OrderItems orderItems = new OrderItems();
+            orderItems.setItem(item);
+            orderItems.setOrder(order);
+            OrderItems savedOrderItems = orderItemsRepository.save(orderItems);
+
+            Map<String, Object> placed = new LinkedHashMap<>();
+            placed.put("orderItemId", savedOrderItems.getOi_id());
+            placed.put("itemId", item.getItem_id());
+            placed.put("cost", item.getCost());
+            items.add(placed);
+            total += item.getCost() != null ? item.getCost() : 0;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", order.getUser() != null ? order.getUser().getUserId() : null);
+        payload.put("orderDate", order.getOrderDate() != null ? order.getOrderDate().getTime() : null);
+        payload.put("rcCode", order.getRedeemCode() != null ? order.getRedeemCode().getRcCode() : null);
+        payload.put("items", items);
+        payload.put("total", total);
+        eventPublisher.publishEvent(DomainEvent.of(DomainEvent.ORDER_PLACED, order.getOrderId(), payload));
+        return created;
     }
 
     /**
@@ -59,27 +143,26 @@ public class OrderItemsService {
     }
 
     /**
-     * Creates and saves a new order with a new job.
+     * Links an order item to the job the Printer Service created for it, on the first job event naming
+     * the order item. Runs in the transaction of the event inbox, before the progress of the order is
+     * recalculated.
      *
-     * @param orderItems The order item to be created.
-     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the result of the create operation.
+     * @param event A job event of the Printer Service.
      */
-    public ResponseEntity<ApiResponse> placeOrderItem(OrderItems orderItems, Job job) {
-        if (orderItems.getOrder() == null) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order is null, cannot create OrderItem or Job", null));
-        }
-
-        boolean orderExists = orderRepository.existsById(orderItems.getOrder().getOrderId());
-
-        if (!orderExists) {
-            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order does not exist, cannot create OrderItem or Job", null));
+    @EventListener
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onJobEvent(DomainEvent event) {
+        switch (event.getType()) {
+            case DomainEvent.JOB_CREATED, DomainEvent.JOB_STARTED, DomainEvent.JOB_COMPLETED, DomainEvent.JOB_PICKED_UP,
+                 DomainEvent.JOB_UPDATED -> {
+                Long orderItemId = event.payloadLong("orderItemId");
+                if (orderItemId != null) {
+                    orderItemsRepository.linkJob(orderItemId, event.getAggregateId());
+                }
+            }
+            default -> {
+            }
         }
-
-        Job savedJob = jobRepository.save(job);
-        orderItems.setJob(savedJob);
-
-        OrderItems savedOrderItems = orderItemsRepository.save(orderItems);
-        return ResponseEntity.ok(new ApiResponse(true, "Order item and job created successfully.", savedOrderItems));
     }
 
 
@@ -88,6 +171,7 @@ public class OrderItemsService {
      *
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with a list of all order items.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllOrderItems() {
         Iterable<OrderItems> orderItems = orderItemsRepository.findAll();
         if (orderItems.iterator().hasNext()) {
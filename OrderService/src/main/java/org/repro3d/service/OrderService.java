@@ -1,9 +1,19 @@
 package org.repro3d.service;
 
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.OrderHistory;
+import org.repro3d.model.OrderHistoryEntry;
+import org.repro3d.model.OrderHistoryItem;
+import org.repro3d.model.OrderProgress;
+import org.repro3d.repository.OrderItemsRepository;
+import org.repro3d.repository.OrderProgressRepository;
 import org.repro3d.repository.RedeemCodeRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.repro3d.model.Order;
 import org.repro3d.model.User;
 import org.repro3d.model.RedeemCode;
@@ -12,7 +22,10 @@ import org.repro3d.repository.UserRepository;
 import org.repro3d.utils.ApiResponse;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for handling operations related to {@link Order} entities.
@@ -22,12 +35,21 @@ import java.util.Optional;
 @Service
 public class OrderService {
 
+    /**
+     * The largest number of orders returned in one page of the order history.
+     */
+    static final int MAX_HISTORY_PAGE = 100;
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
 
     private final RedeemCodeRepository redeemCodeRepository;
 
+    private final OrderItemsRepository orderItemsRepository;
+
+    private final OrderProgressRepository orderProgressRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new OrderService with the specified OrderRepository and UserRepository.
@@ -35,20 +57,30 @@ public class OrderService {
      * @param orderRepository The repository for managing {@link Order} entities.
      * @param userRepository  The repository for managing {@link User} entities.
      * @param redeemCodeRepository  The repository for managing {@link RedeemCode} entities.
+     * @param orderItemsRepository  The repository reading the items of the orders for the order history.
+     * @param orderProgressRepository  The repository reading the progress of the orders.
+     * @param eventPublisher  The publisher raising the events of consumed redeem codes.
      */
     @Autowired
-    public OrderService(OrderRepository orderRepository, UserRepository userRepository, RedeemCodeRepository redeemCodeRepository) {
+    public OrderService(OrderRepository orderRepository, UserRepository userRepository, RedeemCodeRepository redeemCodeRepository,
+                        OrderItemsRepository orderItemsRepository, OrderProgressRepository orderProgressRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.redeemCodeRepository = redeemCodeRepository;
+        this.orderItemsRepository = orderItemsRepository;
+        this.orderProgressRepository = orderProgressRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Creates a new order, checking if the associated User and RedeemCode exist.
+     * Creates a new order, checking if the associated User and RedeemCode exist. The redeem code is
+     * marked as used and a {@link DomainEvent#REDEEM_CODE_CONSUMED} event is raised with the order.
      *
      * @param order The order to be created.
      * @return ResponseEntity containing ApiResponse indicating the outcome.
      */
+    @Transactional
     public ResponseEntity<ApiResponse> createOrder(Order order) {
         if (order.getUser() == null || !userRepository.existsById(order.getUser().getUserId())) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, "User not found for ID: " + (order.getUser() != null ? order.getUser().getUserId() : "null"), null));
@@ -68,6 +100,8 @@ public class OrderService {
         
         order.setRedeemCode(redeemCode);
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(DomainEvent.of(DomainEvent.REDEEM_CODE_CONSUMED, redeemCode.getRc_id(),
+                Map.of("rcCode", redeemCode.getRcCode(), "orderId", savedOrder.getOrderId())));
         return ResponseEntity.ok(new ApiResponse(true, "Order created successfully.", savedOrder));
     }
 
@@ -83,11 +117,25 @@ public class OrderService {
                 .orElseGet(() -> ResponseEntity.ok(new ApiResponse(false, "Order not found for ID: " + id, null)));
     }
 
+    /**
+     * Retrieves the print progress of an order, kept up to date from the events the Printer Service
+     * raises as it changes the status of the jobs of the order.
+     *
+     * @param id The ID of the order.
+     * @return ResponseEntity containing ApiResponse with the {@link OrderProgress} or an error message.
+     */
+    public ResponseEntity<ApiResponse> getOrderProgress(Long id) {
+        Optional<OrderProgress> progress = orderProgressRepository.findById(id);
+        return progress.map(value -> ResponseEntity.ok(new ApiResponse(true, "Order progress found.", value)))
+                .orElseGet(() -> ResponseEntity.ok(new ApiResponse(false, "Order progress not found for ID: " + id, null)));
+    }
+
     /**
      * Retrieves all orders.
      *
      * @return ResponseEntity containing ApiResponse with all orders or an error message.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllOrders() {
         List<Order> orders = orderRepository.findAll();
         if (!orders.isEmpty()) {
@@ -132,21 +180,51 @@ public class OrderService {
 
     /**
      * Retrieves all orders for a user by their email.
+     * The orders are read together with their user and redeem code, newest first.
      * @param email The email of the user whose orders are to be retrieved.
      * @return ResponseEntity containing ApiResponse with the orders or an error message.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getOrdersByEmail(String email) {
-        Optional<User> user = userRepository.findByEmail(email);
-        if (!user.isPresent()) {
+        List<Order> orders = orderRepository.findAllByUserEmailOrderByOrderIdDesc(email);
+        if (!orders.isEmpty()) {
+            return ResponseEntity.ok(new ApiResponse(true, "Orders retrieved successfully for user with email: " + email, orders));
+        } else if (userRepository.findByEmail(email).isEmpty()) {
+            return ResponseEntity.ok(new ApiResponse(false, "User not found with email: " + email, null));
+        } else {
+            return ResponseEntity.ok(new ApiResponse(false, "No orders found for user with email: " + email, null));
+        }
+    }
+
+    /**
+     * Retrieves a page of the order history of a user: the orders, newest first, with their items and the
+     * status of the print jobs. A page takes two queries however many orders and items it holds.
+     *
+     * @param email  The email of the user whose orders are to be retrieved.
+     * @param before The ID of the last order of the previous page, {@code null} for the first page.
+     * @param limit  The maximum number of orders, at most {@value #MAX_HISTORY_PAGE}.
+     * @return ResponseEntity containing ApiResponse with the {@link OrderHistory} or an error message.
+     */
+    @Transactional(readOnly = true)
+    public ResponseEntity<ApiResponse> getOrderHistory(String email, Long before, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Limit must be between 1 and " + MAX_HISTORY_PAGE, null));
+        }
+        List<OrderHistoryEntry> orders = orderRepository.findHistoryByEmail(email, before != null ? before : Long.MAX_VALUE, Limit.of(limit));
+        if (orders.isEmpty() && before == null && userRepository.findByEmail(email).isEmpty()) {
             return ResponseEntity.ok(new ApiResponse(false, "User not found with email: " + email, null));
         }
 
-        List<Order> orders = orderRepository.findAllByUser(user.get());
-        if (orders.isEmpty()) {
-            return ResponseEntity.ok(new ApiResponse(false, "No orders found for user with email: " + email, null));
-        } else {
-            return ResponseEntity.ok(new ApiResponse(true, "Orders retrieved successfully for user with email: " + email, orders));
+        if (!orders.isEmpty()) {
+            Map<Long, OrderHistoryEntry> byId = orders.stream()
+                    .collect(Collectors.toMap(OrderHistoryEntry::getOrderId, Function.identity()));
+            for (OrderHistoryItem item : orderItemsRepository.findHistoryItemsByOrderIds(byId.keySet())) {
+                byId.get(item.getOrderId()).getItems().add(item);
+            }
         }
+        Long nextBefore = orders.size() == limit ? orders.get(orders.size() - 1).getOrderId() : null;
+        return ResponseEntity.ok(new ApiResponse(true, "Order history retrieved successfully for user with email: " + email,
+                new OrderHistory(orders, nextBefore)));
     }
 
 
@@ -0,0 +1,121 @@
+package org.repro3d.service;
+
+import org.repro3d.model.Item;
+import org.repro3d.model.Order;
+import org.repro3d.model.PlaceOrder;
+import org.repro3d.model.PlacementTicket;
+import org.repro3d.model.RedeemCode;
+import org.repro3d.repository.PlacementTicketRepository;
+import org.repro3d.repository.RedeemCodeRepository;
+import org.repro3d.repository.UserRepository;
+import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.OrderPlacementQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service class accepting orders for asynchronous placement and reporting their outcome.
+ * <p>
+ * Accepting an order only checks that its user and redeem code exist and stores a
+ * {@link PlacementTicket}; the {@link OrderPlacementQueue} places it afterwards with all the checks
+ * of a synchronous placement, so an order accepted here can still fail, e.g. when its redeem code was
+ * used by another order in the meantime.
+ */
+@Service
+public class PlacementService {
+
+    private final PlacementTicketRepository ticketRepository;
+    private final UserRepository userRepository;
+    private final RedeemCodeRepository redeemCodeRepository;
+    private final OrderPlacementQueue placementQueue;
+
+    /**
+     * Constructs a {@code PlacementService}.
+     *
+     * @param ticketRepository     The repository storing the tickets.
+     * @param userRepository       The repository checking the users of the orders.
+     * @param redeemCodeRepository The repository checking the redeem codes of the orders.
+     * @param placementQueue       The queue placing the accepted orders.
+     */
+    @Autowired
+    public PlacementService(PlacementTicketRepository ticketRepository, UserRepository userRepository,
+                            RedeemCodeRepository redeemCodeRepository, OrderPlacementQueue placementQueue) {
+        this.ticketRepository = ticketRepository;
+        this.userRepository = userRepository;
+        this.redeemCodeRepository = redeemCodeRepository;
+        this.placementQueue = placementQueue;
+    }
+
+    /**
+     * Accepts an order for placement.
+     *
+     * @param po The order and its items, each with its ID.
+     * @return A {@link ResponseEntity} with status 202 and the location of the {@link PlacementTicket},
+     *         or status 400 if the order cannot be placed.
+     */
+    public ResponseEntity<ApiResponse> acceptOrder(PlaceOrder po) {
+        Order order = po.getOrder();
+        if (order == null || po.getItems() == null || po.getItems().length == 0
+                || Arrays.stream(po.getItems()).map(item -> item != null ? item.getItem_id() : null).anyMatch(Objects::isNull)) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Order and item IDs are required", null));
+        }
+        if (order.getUser() == null || order.getUser().getUserId() == null || !userRepository.existsById(order.getUser().getUserId())) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "User not found for ID: " + (order.getUser() != null ? order.getUser().getUserId() : "null"), null));
+        }
+        Optional<RedeemCode> redeemCode = order.getRedeemCode() != null && order.getRedeemCode().getRcCode() != null
+                ? redeemCodeRepository.findByRcCode(order.getRedeemCode().getRcCode())
+                : Optional.empty();
+        if (redeemCode.isEmpty() || Boolean.TRUE.equals(redeemCode.get().getUsed())) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Invalid or already used redeem code.", null));
+        }
+
+        Date now = new Date();
+        PlacementTicket ticket = new PlacementTicket();
+        ticket.setTicketId(UUID.randomUUID().toString());
+        ticket.setState(PlacementTicket.State.QUEUED);
+        ticket.setUserId(order.getUser().getUserId());
+        ticket.setRcCode(redeemCode.get().getRcCode());
+        ticket.setOrderDate(order.getOrderDate() != null ? order.getOrderDate() : now);
+        ticket.setItemIdList(Arrays.stream(po.getItems()).map(Item::getItem_id).toList());
+        ticket.setCreatedAt(now);
+        PlacementTicket saved = ticketRepository.save(ticket);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Accepted in the transaction of an Idempotency-Key: the workers can only see the ticket once committed.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    placementQueue.wake();
+                }
+            });
+        } else {
+            placementQueue.wake();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/order/placements/" + saved.getTicketId()))
+                .body(new ApiResponse(true, "Order accepted for placement.", saved));
+    }
+
+    /**
+     * Retrieves a placement ticket by its ID.
+     *
+     * @param ticketId The ID of the ticket.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the ticket, which names
+     *         the created order once placed, or an error message if it is not found.
+     */
+    public ResponseEntity<ApiResponse> getTicket(String ticketId) {
+        return ticketRepository.findById(ticketId)
+                .map(ticket -> ResponseEntity.ok(new ApiResponse(true, "Placement " + ticket.getState().name().toLowerCase() + ".", ticket)))
+                .orElseGet(() -> ResponseEntity.ok(new ApiResponse(false, "Placement not found for ID: " + ticketId, null)));
+    }
+}
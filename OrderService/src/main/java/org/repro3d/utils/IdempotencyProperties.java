@@ -0,0 +1,24 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link IdempotencyStore}, bound from {@code repro3d.idempotency.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "repro3d.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Time a key is honored; a retry after it is handled as a new request.
+     */
+    private Duration ttl = Duration.ofDays(1);
+
+    /**
+     * Maximum number of responses kept in memory in front of the table.
+     */
+    private long cacheSize = 10_000;
+}
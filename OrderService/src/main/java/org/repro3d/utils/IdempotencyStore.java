@@ -0,0 +1,231 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.repro3d.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs requests made with an {@code Idempotency-Key} at most once and answers their retries with the
+ * original response.
+ * <p>
+ * The key is inserted into the {@link IdempotencyRecord} table at the start of the request's
+ * transaction and the response is stored with it before the commit, so the response is kept exactly
+ * when the changes of the request are. A rejected request (a status other than 2xx) is rolled back with
+ * its key, so it can be retried with the same key once the client fixed its cause. A concurrent retry
+ * blocks on the key until the first request commits and then replays its response; if the first request
+ * is rolled back, the retry runs it. A key expired by the TTL is deleted only when its row was read, since
+ * deleting an absent key locks the gap it would be inserted into and makes concurrent first requests with
+ * the same key deadlock; a request losing such a deadlock reads the key again like a concurrent retry.
+ * Committed responses are kept in memory in front of the table, so a retry usually reads no row, and
+ * are deleted after the {@link IdempotencyProperties#getTtl() TTL}.
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * The longest key accepted.
+     */
+    static final int MAX_KEY_LENGTH = 100;
+
+    static final String FIND = "SELECT request_hash, status, location, body, created_at FROM idempotency_record "
+            + "WHERE operation = ? AND idempotency_key = ?";
+    static final String DELETE_EXPIRED_KEY = "DELETE FROM idempotency_record WHERE operation = ? AND idempotency_key = ? AND created_at < ?";
+    static final String INSERT = "INSERT INTO idempotency_record (operation, idempotency_key, request_hash, status, created_at) VALUES (?, ?, ?, 0, ?)";
+    static final String UPDATE = "UPDATE idempotency_record SET status = ?, location = ?, body = ? WHERE operation = ? AND idempotency_key = ?";
+    static final String DELETE_KEY = "DELETE FROM idempotency_record WHERE operation = ? AND idempotency_key = ?";
+    static final String DELETE_EXPIRED = "DELETE FROM idempotency_record WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+    private final Cache<IdempotencyRecord.Key, IdempotencyRecord> responses;
+
+    /**
+     * Constructs an {@code IdempotencyStore}.
+     *
+     * @param jdbcTemplate        The template reading and writing the records.
+     * @param transactionTemplate The template running each request in a transaction with its record.
+     * @param objectMapper        The mapper hashing the requests and storing the responses as JSON.
+     * @param properties          The TTL of the keys and the size of the in-memory cache.
+     */
+    @Autowired
+    public IdempotencyStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                            IdempotencyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    /**
+     * Runs a request unless a request with the same key was already made.
+     *
+     * @param operation The operation of the request, e.g. {@code place}.
+     * @param key       The {@code Idempotency-Key} header, {@code null} to run the request without one.
+     * @param request   The body of the request; a key reused with another body is rejected.
+     * @param action    The request, run in the transaction recording its key.
+     * @return The response of the request, the original response if it is a retry, status 422 if the key
+     *         was used for another request, or status 409 if the original request could not be read.
+     */
+    public ResponseEntity<ApiResponse> execute(String operation, String key, Object request, Supplier<ResponseEntity<ApiResponse>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters", null));
+        }
+        IdempotencyRecord.Key id = new IdempotencyRecord.Key(operation, key);
+        String requestHash = hash(request);
+        IdempotencyRecord original = find(id);
+        if (original == null || isExpired(original)) {
+            boolean expired = original != null;
+            try {
+                return transactionTemplate.execute(status -> run(id, requestHash, expired, action, status));
+            } catch (DuplicateKeyException | PessimisticLockingFailureException e) {
+                original = find(id);
+                if (original == null || isExpired(original)) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                            .body(new ApiResponse(false, "A request with this Idempotency-Key is in progress", null));
+                }
+            }
+        }
+        if (!original.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(new ApiResponse(false, "Idempotency-Key was used for another request", null));
+        }
+        return replay(original);
+    }
+
+    /**
+     * Deletes the records older than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${repro3d.idempotency.purge-rate:PT1H}")
+    public void purge() {
+        jdbcTemplate.update(DELETE_EXPIRED, expiry());
+    }
+
+    private ResponseEntity<ApiResponse> run(IdempotencyRecord.Key id, String requestHash, boolean expired,
+                                            Supplier<ResponseEntity<ApiResponse>> action, TransactionStatus status) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        if (expired) {
+            jdbcTemplate.update(DELETE_EXPIRED_KEY, id.getOperation(), id.getIdempotencyKey(), expiry());
+        }
+        jdbcTemplate.update(INSERT, id.getOperation(), id.getIdempotencyKey(), requestHash, now);
+
+        ResponseEntity<ApiResponse> response = action.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            jdbcTemplate.update(DELETE_KEY, id.getOperation(), id.getIdempotencyKey());
+            if (status.isNewTransaction()) {
+                status.setRollbackOnly();
+            }
+            return response;
+        }
+        URI location = response.getHeaders().getLocation();
+        IdempotencyRecord record = new IdempotencyRecord(id.getOperation(), id.getIdempotencyKey(), requestHash,
+                response.getStatusCode().value(), location != null ? location.toString() : null, toJson(response.getBody()), now);
+        jdbcTemplate.update(UPDATE, record.getStatus(), record.getLocation(), record.getBody(), id.getOperation(), id.getIdempotencyKey());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    responses.put(id, record);
+                }
+            });
+        }
+        return response;
+    }
+
+    /**
+     * Reads the record of a key, including a record expired by the TTL but not purged yet.
+     */
+    private IdempotencyRecord find(IdempotencyRecord.Key id) {
+        IdempotencyRecord cached = responses.getIfPresent(id);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+        List<IdempotencyRecord> stored = jdbcTemplate.query(FIND, (rs, rowNum) -> new IdempotencyRecord(
+                id.getOperation(), id.getIdempotencyKey(), rs.getString("request_hash"), rs.getInt("status"),
+                rs.getString("location"), rs.getString("body"), rs.getTimestamp("created_at")),
+                id.getOperation(), id.getIdempotencyKey());
+        if (stored.isEmpty()) {
+            return null;
+        }
+        if (!isExpired(stored.get(0))) {
+            responses.put(id, stored.get(0));
+        }
+        return stored.get(0);
+    }
+
+    private boolean isExpired(IdempotencyRecord record) {
+        return record.getCreatedAt().before(expiry());
+    }
+
+    private ResponseEntity<ApiResponse> replay(IdempotencyRecord record) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getStatus()).header("Idempotent-Replayed", "true");
+        if (record.getLocation() != null) {
+            builder.location(URI.create(record.getLocation()));
+        }
+        if (record.getBody() == null) {
+            return builder.build();
+        }
+        try {
+            JsonNode body = objectMapper.readTree(record.getBody());
+            JsonNode data = body.get("data");
+            return builder.body(new ApiResponse(body.path("success").asBoolean(), body.path("message").asText(null),
+                    data == null || data.isNull() ? null : data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response is not JSON", e);
+        }
+    }
+
+    private String toJson(ApiResponse body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request cannot be hashed", e);
+        }
+    }
+
+    private Timestamp expiry() {
+        return new Timestamp(System.currentTimeMillis() - properties.getTtl().toMillis());
+    }
+}
@@ -0,0 +1,115 @@
+package org.repro3d.utils;
+
+import org.repro3d.model.CatalogItem;
+import org.repro3d.model.Item;
+import org.repro3d.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Read-through cache of the catalog, in front of the {@link ItemRepository}.
+ * <p>
+ * Items are cached by ID, together with the full catalog and the results of name lookups, in the
+ * Caffeine caches configured by {@code spring.cache.*}. Loads are synchronized per key, so an
+ * eviction issued after a write waits for a concurrent load of the old value and then removes it.
+ * Cached items are shared between requests, so they are held as immutable {@link CatalogItem} copies
+ * rather than entities. Items are loaded from the primary, so a load right after an eviction does not
+ * cache a row the replica has not caught up with for the lifetime of the entry.
+ */
+@Component
+public class ItemCatalogCache {
+
+    /**
+     * Cache of items by ID.
+     */
+    public static final String ITEMS = "items";
+
+    /**
+     * Cache of the full catalog.
+     */
+    public static final String CATALOG = "catalog";
+
+    /**
+     * Cache of the items by name.
+     */
+    public static final String ITEMS_BY_NAME = "itemsByName";
+
+    private final ItemRepository itemRepository;
+
+    /**
+     * Constructs an {@code ItemCatalogCache}.
+     *
+     * @param itemRepository The repository the items are loaded from.
+     */
+    @Autowired
+    public ItemCatalogCache(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    /**
+     * Finds an item by its ID.
+     *
+     * @param id The ID of the item.
+     * @return The item, or {@code null} if it does not exist.
+     */
+    @Cacheable(cacheNames = ITEMS, sync = true)
+    public CatalogItem findById(Long id) {
+        return PrimaryReads.call(() -> itemRepository.findById(id)).map(CatalogItem::of).orElse(null);
+    }
+
+    /**
+     * Finds all items.
+     *
+     * @return The catalog.
+     */
+    @Cacheable(cacheNames = CATALOG, key = "'all'", sync = true)
+    public List<CatalogItem> findAll() {
+        return copy(PrimaryReads.call(itemRepository::findAll));
+    }
+
+    /**
+     * Finds the items with a name.
+     *
+     * @param name The name of the items.
+     * @return The items with the name.
+     */
+    @Cacheable(cacheNames = ITEMS_BY_NAME, sync = true)
+    public List<CatalogItem> findByName(String name) {
+        return copy(PrimaryReads.call(() -> itemRepository.findByName(name)));
+    }
+
+    /**
+     * Evicts an item after it was created, updated or deleted, with the catalog and all name lookups.
+     *
+     * @param id The ID of the item.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ITEMS, key = "#id"),
+            @CacheEvict(cacheNames = CATALOG, key = "'all'"),
+            @CacheEvict(cacheNames = ITEMS_BY_NAME, allEntries = true)
+    })
+    public void evict(Long id) {
+        // The annotations do the work.
+    }
+
+    /**
+     * Evicts all items, the catalog and all name lookups, after items were added in bulk.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ITEMS, allEntries = true),
+            @CacheEvict(cacheNames = CATALOG, allEntries = true),
+            @CacheEvict(cacheNames = ITEMS_BY_NAME, allEntries = true)
+    })
+    public void evictAll() {
+        // The annotations do the work.
+    }
+
+    private static List<CatalogItem> copy(List<Item> items) {
+        return items.stream().map(CatalogItem::of).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package org.repro3d.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tells the other instances of the OrderService about changed items, so they evict them from their
+ * {@link ItemCatalogCache} and update their {@link ItemSearchIndex}.
+ * <p>
+ * The instances are found through the discovery client and notified in the background with
+ * {@code POST /internal/item/{id}/changed}, or {@code POST /internal/item/changed} after items were
+ * added in bulk, paths the gateway does not route. The requests carry the secret shared by the services,
+ * which the {@link InternalRequestFilter} of the peer checks. A missed notification
+ * leaves an instance with a stale item only until its cache entries expire.
+ */
+@Component
+public class ItemChangePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemChangePublisher.class);
+
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final String serviceId;
+    private final RestClient restClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructs an {@code ItemChangePublisher}.
+     *
+     * @param discoveryClient The client listing the instances of the service.
+     * @param registration    The registration of this instance, used to skip it.
+     * @param serviceId       The ID the service is registered under.
+     * @param timeout         The time allowed to connect to and get the response of an instance.
+     * @param secret          The secret shared by the services.
+     */
+    @Autowired
+    public ItemChangePublisher(DiscoveryClient discoveryClient, ObjectProvider<Registration> registration,
+                               @Value("${spring.application.name}") String serviceId,
+                               @Value("${repro3d.item-cache.peer-timeout:1s}") Duration timeout,
+                               @Value("${repro3d.internal.secret:}") String secret) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.serviceId = serviceId;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).executor(executor).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultHeader(InternalRequestFilter.HEADER, secret)
+                .build();
+    }
+
+    /**
+     * Notifies the other instances that an item was created, updated or deleted.
+     *
+     * @param id The ID of the item.
+     */
+    public void publish(Long id) {
+        notifyPeers("/internal/item/" + id + "/changed", "itemId=" + id);
+    }
+
+    /**
+     * Notifies the other instances that items were added in bulk.
+     */
+    public void publishCatalog() {
+        notifyPeers("/internal/item/changed", "catalog");
+    }
+
+    private void notifyPeers(String path, String change) {
+        Registration self = registration.getIfAvailable();
+        List<ServiceInstance> peers = discoveryClient.getInstances(serviceId).stream()
+                .filter(peer -> self == null || !peer.getInstanceId().equals(self.getInstanceId()))
+                .toList();
+        for (ServiceInstance peer : peers) {
+            executor.execute(() -> {
+                try {
+                    restClient.post()
+                            .uri(peer.getUri() + path)
+                            .retrieve()
+                            .toBodilessEntity();
+                } catch (RuntimeException e) {
+                    log.warn("Item change not delivered change={} instance={} error={}", change, peer.getUri(), e.toString());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,666 @@
+package org.repro3d.utils;
+
+import org.repro3d.model.Item;
+import org.repro3d.model.ItemSearchResult;
+import org.repro3d.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the name, description and material of all items.
+ * <p>
+ * Every word of a query must match a word of an item, exactly, as a prefix or, for words of three
+ * characters or more other than numbers, within one or two typos, found through a trigram index of the dictionary. Matches
+ * in the name weigh more than in the material and the description, and exact matches more than
+ * prefix and fuzzy ones. Results can be filtered by material and cost and come with facet counts.
+ * <p>
+ * The {@code ItemService} updates the index with every change it makes or is told about by the
+ * Printer Service; the index is also rebuilt from the database at {@code repro3d.search.refresh-rate}
+ * to pick up changes whose notification was lost.
+ * Searches share a read lock and never touch the database.
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float NAME_WEIGHT = 3;
+    private static final float MATERIAL_WEIGHT = 2;
+    private static final float DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR = 0.5f;
+
+    private final ItemRepository itemRepository;
+    private final SearchProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private Segment segment;
+    /**
+     * Changes made while a rebuild reads the database, replayed on the rebuilt index; {@code null}
+     * values are removals.
+     */
+    private Map<Long, Item> pending;
+
+    /**
+     * Constructs an {@code ItemSearchIndex}.
+     *
+     * @param itemRepository The repository the index is built from.
+     * @param properties     The search settings.
+     */
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository, SearchProperties properties) {
+        this.itemRepository = itemRepository;
+        this.properties = properties;
+        this.segment = new Segment(properties.getCostRanges());
+    }
+
+    /**
+     * Rebuilds the index from all items in the database, at startup, periodically and after an import.
+     * Rebuilds run one at a time.
+     */
+    @Scheduled(fixedDelayString = "${repro3d.search.refresh-rate:PT5M}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildSegment();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildSegment() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Segment fresh = new Segment(properties.getCostRanges());
+            for (Item item : PrimaryReads.call(itemRepository::findAll)) {
+                fresh.add(copy(item));
+            }
+            lock.writeLock().lock();
+            try {
+                pending.forEach((id, item) -> {
+                    if (item == null) {
+                        fresh.remove(id);
+                    } else {
+                        fresh.add(item);
+                    }
+                });
+                segment = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Item search index rebuilt items={} terms={} took={}ms", fresh.size(), fresh.postings.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().lock();
+            pending = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an item to the index, or replaces its previous version.
+     *
+     * @param item The saved item.
+     */
+    public void index(Item item) {
+        Item copy = copy(item);
+        lock.writeLock().lock();
+        try {
+            segment.add(copy);
+            if (pending != null) {
+                pending.put(copy.getItem_id(), copy);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @param id The ID of the deleted item.
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(id);
+            if (pending != null) {
+                pending.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the items.
+     *
+     * @param query    The words to search for; blank to browse all items.
+     * @param material The material to filter by, ignoring case, or {@code null}.
+     * @param minCost  The lowest cost to include, or {@code null}.
+     * @param maxCost  The cost to include items below, or {@code null}.
+     * @param offset   The number of matching items to skip.
+     * @param limit    The maximum number of items to return, capped at {@code repro3d.search.max-results}.
+     * @return The page of matching items and the facet counts.
+     */
+    public ItemSearchResult search(String query, String material, Long minCost, Long maxCost, int offset, int limit) {
+        List<String> words = tokenize(query);
+        lock.readLock().lock();
+        try {
+            Segment index = segment;
+            // Matching items are kept as a list of ordinals, their scores in an array indexed by ordinal.
+            Ordinals candidates = null;
+            float[] scores = null;
+            for (String word : words) {
+                float[] best = new float[index.capacity()];
+                Ordinals matches = index.match(word, best);
+                if (candidates == null) {
+                    candidates = matches;
+                    scores = best;
+                } else {
+                    Ordinals both = new Ordinals(Math.min(candidates.size, matches.size));
+                    for (int i = 0; i < candidates.size; i++) {
+                        int ordinal = candidates.values[i];
+                        if (best[ordinal] > 0) {
+                            scores[ordinal] += best[ordinal];
+                            both.add(ordinal);
+                        }
+                    }
+                    candidates = both;
+                }
+                if (candidates.size == 0) {
+                    break;
+                }
+            }
+            if (candidates == null) {
+                candidates = index.all();
+                scores = new float[index.capacity()];
+            }
+
+            // Facets and filters work on the columns precomputed per ordinal, without touching the items.
+            List<Long> bounds = index.costBounds;
+            int[] costCounts = new int[bounds.size() + 1];
+            int[] materialCounts = new int[index.materials.size()];
+            Integer materialFilter = material == null ? null : index.materialIds.getOrDefault(material.toLowerCase(Locale.ROOT), -1);
+            boolean costFiltered = minCost != null || maxCost != null;
+            long min = minCost == null ? Long.MIN_VALUE : minCost;
+            long max = maxCost == null ? Long.MAX_VALUE : maxCost;
+            int total = 0;
+            int from = Math.max(offset, 0);
+            TopHits top = new TopHits(index, scores, (int) Math.min((long) from + Math.max(0, Math.min(limit, properties.getMaxResults())),
+                    candidates.size));
+            for (int i = 0; i < candidates.size; i++) {
+                int ordinal = candidates.values[i];
+                int materialId = index.materialOf[ordinal];
+                int costRange = index.costRangeOf[ordinal];
+                long cost = index.costs[ordinal];
+                boolean materialMatches = materialFilter == null || materialId == materialFilter;
+                boolean costMatches = !costFiltered || costRange >= 0 && cost >= min && cost < max;
+                if (costMatches && materialId >= 0) {
+                    materialCounts[materialId]++;
+                }
+                if (materialMatches && costRange >= 0) {
+                    costCounts[costRange]++;
+                }
+                if (materialMatches && costMatches) {
+                    total++;
+                    top.offer(ordinal);
+                }
+            }
+            Map<String, Integer> materials = new HashMap<>();
+            for (int i = 0; i < materialCounts.length; i++) {
+                if (materialCounts[i] > 0) {
+                    materials.put(index.materials.get(i), materialCounts[i]);
+                }
+            }
+
+            List<Item> page = new ArrayList<>();
+            for (int i = from; i < top.size; i++) {
+                page.add(index.items[top.best[i]]);
+            }
+            Map<String, Integer> materialFacet = new LinkedHashMap<>();
+            materials.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(entry -> materialFacet.put(entry.getKey(), entry.getValue()));
+            List<ItemSearchResult.CostRange> costFacet = new ArrayList<>(costCounts.length);
+            for (int i = 0; i < costCounts.length; i++) {
+                costFacet.add(new ItemSearchResult.CostRange(i == 0 ? 0L : bounds.get(i - 1),
+                        i < bounds.size() ? bounds.get(i) : null, costCounts[i]));
+            }
+            return new ItemSearchResult(total, page, materialFacet, costFacet);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-case words without diacritics.
+     *
+     * @param text The text, or {@code null}.
+     * @return The words of the text.
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        for (String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Computes the Damerau-Levenshtein distance (optimal string alignment) of two words, giving up
+     * once it exceeds a limit.
+     *
+     * @param a   The first word.
+     * @param b   The second word.
+     * @param max The largest distance of interest.
+     * @return The distance, or {@code max + 1} if it is larger than {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        // Only cells within max of the diagonal can stay within max edits; the band is bordered
+        // with cells holding max + 1.
+        int outside = max + 1;
+        int[] previous2 = new int[b.length() + 2];
+        int[] previous = new int[b.length() + 2];
+        int[] current = new int[b.length() + 2];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = Math.min(j, outside);
+        }
+        previous[b.length() + 1] = outside;
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = Math.min(i, outside);
+            current[from - 1] = from == 1 ? current[0] : outside;
+            current[to + 1] = outside;
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                char cb = b.charAt(j - 1);
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + (ca == cb ? 0 : 1));
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return outside;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], outside);
+    }
+
+    private static int maxEdits(String word) {
+        if (word.chars().noneMatch(Character::isLetter)) {
+            // A number with a typo is another valid number, such as a neighbouring size or part number.
+            return 0;
+        }
+        return word.length() < 3 ? 0 : word.length() < 6 ? 1 : 2;
+    }
+
+    private static Item copy(Item item) {
+        // The index keeps its own copies, which are never modified, so searches can return them.
+        return new Item(item.getItem_id(), item.getName(), item.getDescription(), item.getEst_time(), item.getDimensions(),
+                item.getFile_ref(), item.getMaterial(), item.getCost(), item.getImage_url());
+    }
+
+    /**
+     * A growable list of item ordinals.
+     */
+    private static final class Ordinals {
+
+        private int[] values;
+        private int size;
+
+        Ordinals(int capacity) {
+            values = new int[Math.max(capacity, 4)];
+        }
+
+        void add(int ordinal) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = ordinal;
+        }
+    }
+
+    /**
+     * Selects the best hits, by score and then by name, without sorting all of them: the best hits
+     * seen so far are kept in order and a hit only enters if it beats the last one.
+     */
+    private static final class TopHits {
+
+        private final Segment index;
+        private final float[] scores;
+        private final int[] best;
+        private int size;
+
+        TopHits(Segment index, float[] scores, int capacity) {
+            this.index = index;
+            this.scores = scores;
+            this.best = new int[capacity];
+        }
+
+        void offer(int ordinal) {
+            if (best.length == 0 || size == best.length && index.compare(scores, ordinal, best[size - 1]) >= 0) {
+                return;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (index.compare(scores, best[middle], ordinal) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            System.arraycopy(best, low, best, low + 1, (size == best.length ? size - 1 : size) - low);
+            best[low] = ordinal;
+            size = Math.min(size + 1, best.length);
+        }
+    }
+
+    /**
+     * The items containing a word, as parallel arrays of item ordinals and weights.
+     */
+    private static final class Posting {
+
+        private int[] ordinals = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size++] = weight;
+        }
+
+        void remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    weights[i] = weights[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The index data: the indexed items by ordinal, the postings of every word and the trigrams of
+     * the dictionary. Ordinals of removed items are reused.
+     */
+    private static final class Segment {
+
+        private final List<Long> costBounds;
+        private Item[] items = new Item[64];
+        private String[][] wordsByOrdinal = new String[64][];
+        private String[] sortKeys = new String[64];
+        private long[] nameKeys = new long[64];
+        private long[] ids = new long[64];
+        private long[] costs = new long[64];
+        private int[] costRangeOf = new int[64];
+        private int[] materialOf = new int[64];
+        private int capacity;
+        /**
+         * Material names as first seen, by the ID they are counted under; materials differing only by
+         * case share an ID.
+         */
+        private final List<String> materials = new ArrayList<>();
+        private final Map<String, Integer> materialIds = new HashMap<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+        private final TreeMap<String, Posting> postings = new TreeMap<>();
+        private final Map<String, Set<String>> wordsByTrigram = new HashMap<>();
+
+        Segment(List<Long> costBounds) {
+            this.costBounds = costBounds;
+        }
+
+        int size() {
+            return ordinals.size();
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        Ordinals all() {
+            Ordinals all = new Ordinals(ordinals.size());
+            for (int ordinal = 0; ordinal < capacity; ordinal++) {
+                if (items[ordinal] != null) {
+                    all.add(ordinal);
+                }
+            }
+            return all;
+        }
+
+        void add(Item item) {
+            remove(item.getItem_id());
+            Map<String, Float> weights = new HashMap<>();
+            for (String word : tokenize(item.getName())) {
+                weights.merge(word, NAME_WEIGHT, Math::max);
+            }
+            for (String word : tokenize(item.getMaterial())) {
+                weights.merge(word, MATERIAL_WEIGHT, Math::max);
+            }
+            for (String word : tokenize(item.getDescription())) {
+                weights.merge(word, DESCRIPTION_WEIGHT, Math::max);
+            }
+            int ordinal = freeOrdinals.isEmpty() ? capacity++ : freeOrdinals.pop();
+            if (ordinal == items.length) {
+                items = Arrays.copyOf(items, ordinal * 2);
+                wordsByOrdinal = Arrays.copyOf(wordsByOrdinal, ordinal * 2);
+                sortKeys = Arrays.copyOf(sortKeys, ordinal * 2);
+                nameKeys = Arrays.copyOf(nameKeys, ordinal * 2);
+                ids = Arrays.copyOf(ids, ordinal * 2);
+                costs = Arrays.copyOf(costs, ordinal * 2);
+                costRangeOf = Arrays.copyOf(costRangeOf, ordinal * 2);
+                materialOf = Arrays.copyOf(materialOf, ordinal * 2);
+            }
+            items[ordinal] = item;
+            sortKeys[ordinal] = item.getName() == null ? null : item.getName().toLowerCase(Locale.ROOT);
+            nameKeys[ordinal] = nameKey(sortKeys[ordinal]);
+            ids[ordinal] = item.getItem_id();
+            costs[ordinal] = item.getCost() == null ? 0 : item.getCost();
+            costRangeOf[ordinal] = item.getCost() == null ? -1 : costRange(item.getCost());
+            materialOf[ordinal] = item.getMaterial() == null ? -1 : materialIds.computeIfAbsent(item.getMaterial().toLowerCase(Locale.ROOT), key -> {
+                materials.add(item.getMaterial());
+                return materials.size() - 1;
+            });
+            wordsByOrdinal[ordinal] = weights.keySet().toArray(new String[0]);
+            ordinals.put(item.getItem_id(), ordinal);
+            weights.forEach((word, weight) -> postings.computeIfAbsent(word, this::addWord).add(ordinal, weight));
+        }
+
+        void remove(Long id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            for (String word : wordsByOrdinal[ordinal]) {
+                Posting posting = postings.get(word);
+                posting.remove(ordinal);
+                if (posting.size == 0) {
+                    postings.remove(word);
+                    for (String trigram : trigrams(word)) {
+                        Set<String> similar = wordsByTrigram.get(trigram);
+                        similar.remove(word);
+                        if (similar.isEmpty()) {
+                            wordsByTrigram.remove(trigram);
+                        }
+                    }
+                }
+            }
+            items[ordinal] = null;
+            wordsByOrdinal[ordinal] = null;
+            sortKeys[ordinal] = null;
+            freeOrdinals.push(ordinal);
+        }
+
+        /**
+         * Orders two hits: higher scores first, then by name with unnamed items last, then by ID.
+         */
+        int compare(float[] scores, int a, int b) {
+            int byScore = Float.compare(scores[b], scores[a]);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byKey = Long.compareUnsigned(nameKeys[a], nameKeys[b]);
+            if (byKey != 0) {
+                return byKey;
+            }
+            String nameA = sortKeys[a];
+            String nameB = sortKeys[b];
+            if (nameA != null && nameB != null) {
+                int byName = nameA.compareTo(nameB);
+                if (byName != 0) {
+                    return byName;
+                }
+            } else if (nameA != nameB) {
+                return nameA == null ? 1 : -1;
+            }
+            return Long.compare(ids[a], ids[b]);
+        }
+
+        /**
+         * Packs the first eight characters of a name into a number ordered like the names, so most
+         * comparisons need not read the names. Packing stops at the first character above Latin-1;
+         * names with equal keys are compared in full.
+         */
+        private static long nameKey(String name) {
+            if (name == null) {
+                return -1L;
+            }
+            long key = 0;
+            boolean packing = true;
+            for (int i = 0; i < 8; i++) {
+                char c = i < name.length() ? name.charAt(i) : 0;
+                packing &= c <= 0xFE;
+                key = key << 8 | (packing ? c : 0xFF);
+            }
+            return key;
+        }
+
+        private int costRange(long cost) {
+            int range = 0;
+            while (range < costBounds.size() && cost >= costBounds.get(range)) {
+                range++;
+            }
+            return range;
+        }
+
+        /**
+         * Finds the items containing a word, or a word it is a prefix of or a typo of.
+         *
+         * @param word The word.
+         * @param best Receives the best score of every matching item, by ordinal.
+         * @return The ordinals of the matching items.
+         */
+        Ordinals match(String word, float[] best) {
+            Ordinals matches = new Ordinals(Math.min(capacity, 1024));
+            for (Map.Entry<String, Posting> entry : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                collect(entry.getValue(), entry.getKey().length() == word.length() ? 1 : PREFIX_FACTOR, best, matches);
+            }
+            int maxEdits = maxEdits(word);
+            if (maxEdits > 0) {
+                // A word within k edits shares all but at most 3k of the trigrams of the query word.
+                Set<String> trigrams = trigrams(word);
+                Map<String, Integer> shared = new HashMap<>();
+                for (String trigram : trigrams) {
+                    for (String candidate : wordsByTrigram.getOrDefault(trigram, Set.of())) {
+                        shared.merge(candidate, 1, Integer::sum);
+                    }
+                }
+                int required = Math.max(1, trigrams.size() - 3 * maxEdits);
+                for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+                    if (candidate.getValue() < required || candidate.getKey().startsWith(word)) {
+                        continue;
+                    }
+                    int distance = distance(word, candidate.getKey(), maxEdits);
+                    if (distance <= maxEdits) {
+                        collect(postings.get(candidate.getKey()), FUZZY_FACTOR / distance, best, matches);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        private static void collect(Posting posting, float factor, float[] best, Ordinals matches) {
+            for (int i = 0; i < posting.size; i++) {
+                int ordinal = posting.ordinals[i];
+                float score = posting.weights[i] * factor;
+                if (best[ordinal] == 0) {
+                    matches.add(ordinal);
+                }
+                if (score > best[ordinal]) {
+                    best[ordinal] = score;
+                }
+            }
+        }
+
+        private Posting addWord(String word) {
+            for (String trigram : trigrams(word)) {
+                wordsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(word);
+            }
+            return new Posting();
+        }
+
+        /**
+         * The trigrams of a word padded with a boundary marker on both sides, one per letter.
+         */
+        private static Set<String> trigrams(String word) {
+            String padded = "$" + word + "$";
+            Set<String> trigrams = new HashSet<>();
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+            return trigrams;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.repro3d.utils;
+
+import jakarta.annotation.PreDestroy;
+import org.repro3d.model.Item;
+import org.repro3d.model.Order;
+import org.repro3d.model.PlaceOrder;
+import org.repro3d.model.PlacementTicket;
+import org.repro3d.model.RedeemCode;
+import org.repro3d.model.User;
+import org.repro3d.repository.ItemRepository;
+import org.repro3d.repository.PlacementTicketRepository;
+import org.repro3d.service.OrderItemsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Places the orders accepted as {@link PlacementTicket}s in the background.
+ * <p>
+ * At most {@link PlacementProperties#getWorkers()} workers run at a time. Each takes a batch of the
+ * oldest queued tickets, skipping those locked by other workers, and places their orders with
+ * {@link OrderItemsService#placeOrder(PlaceOrder)} in one transaction, recording the outcome on the
+ * tickets in that transaction as well. A batch that fails as a whole, e.g. on a database error, is
+ * rolled back and its tickets are placed again one per transaction, so one bad order cannot hold back
+ * the others. Workers are started when a ticket is accepted and by a polling tick, which picks up the
+ * tickets accepted by other instances or left queued by a restart.
+ */
+@Component
+public class OrderPlacementQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPlacementQueue.class);
+
+    private final PlacementTicketRepository ticketRepository;
+    private final ItemRepository itemRepository;
+    private final OrderItemsService orderItemsService;
+    private final TransactionTemplate transactionTemplate;
+    private final PlacementProperties properties;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("order-placement-", 0).factory());
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    /**
+     * Constructs an {@code OrderPlacementQueue}.
+     *
+     * @param ticketRepository    The repository of the tickets.
+     * @param itemRepository      The repository reading the ordered items.
+     * @param orderItemsService   The service placing the orders.
+     * @param transactionTemplate The template running each batch in a transaction.
+     * @param properties          The number of workers, the batch size and the retention of the tickets.
+     */
+    @Autowired
+    public OrderPlacementQueue(PlacementTicketRepository ticketRepository, ItemRepository itemRepository,
+                               OrderItemsService orderItemsService, TransactionTemplate transactionTemplate,
+                               PlacementProperties properties) {
+        this.ticketRepository = ticketRepository;
+        this.itemRepository = itemRepository;
+        this.orderItemsService = orderItemsService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Starts a worker unless the maximum number of them is running; a running worker picks up the
+     * request before it stops.
+     */
+    public void wake() {
+        requested.set(true);
+        int active;
+        do {
+            active = activeWorkers.get();
+            if (active >= properties.getWorkers()) {
+                return;
+            }
+        } while (!activeWorkers.compareAndSet(active, active + 1));
+        workers.execute(this::drain);
+    }
+
+    /**
+     * Starts a worker in case tickets were queued by other instances or before a restart.
+     */
+    @Scheduled(fixedDelayString = "${repro3d.placement.poll-rate:PT5S}")
+    public void poll() {
+        wake();
+    }
+
+    /**
+     * Deletes the placed and failed tickets older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${repro3d.placement.purge-rate:PT1H}")
+    public void purge() {
+        Date before = new Date(System.currentTimeMillis() - properties.getRetention().toMillis());
+        transactionTemplate.executeWithoutResult(status -> ticketRepository.deleteCompletedBefore(before));
+    }
+
+    /**
+     * Places the orders of a batch of queued tickets.
+     *
+     * @return The number of tickets taken; fewer than the batch size once the queue is drained.
+     */
+    public int placeBatch() {
+        List<String> taken = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<PlacementTicket> tickets = ticketRepository.findByStateOrderByCreatedAt(
+                        PlacementTicket.State.QUEUED, Limit.of(properties.getBatchSize()));
+                tickets.forEach(ticket -> taken.add(ticket.getTicketId()));
+                place(tickets);
+            });
+        } catch (RuntimeException e) {
+            if (taken.size() <= 1) {
+                taken.forEach(ticketId -> fail(ticketId, e));
+            } else {
+                log.warn("Order placement batch failed, placing its {} tickets one by one error={}", taken.size(), e.toString());
+                taken.forEach(this::placeAlone);
+            }
+        }
+        return taken.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    private void drain() {
+        try {
+            do {
+                requested.set(false);
+                while (placeBatch() >= properties.getBatchSize()) {
+                    // The batch was full, more tickets may be queued.
+                }
+            } while (requested.get());
+        } catch (RuntimeException e) {
+            log.warn("Order placement worker failed error={}", e.toString());
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        if (requested.get()) {
+            wake();
+        }
+    }
+
+    private void placeAlone(String ticketId) {
+        try {
+            // Locked and checked again, as another worker may have taken the ticket since the batch rolled back.
+            transactionTemplate.executeWithoutResult(status -> ticketRepository.findForUpdate(ticketId)
+                    .filter(ticket -> ticket.getState() == PlacementTicket.State.QUEUED)
+                    .ifPresent(ticket -> place(List.of(ticket))));
+        } catch (RuntimeException e) {
+            fail(ticketId, e);
+        }
+    }
+
+    private void fail(String ticketId, RuntimeException e) {
+        log.warn("Order placement failed ticketId={} error={}", ticketId, e.toString());
+        transactionTemplate.executeWithoutResult(status -> ticketRepository.findById(ticketId)
+                .ifPresent(ticket -> ticket.complete(PlacementTicket.State.FAILED, null, "Order could not be placed.")));
+    }
+
+    private void place(List<PlacementTicket> tickets) {
+        if (tickets.isEmpty()) {
+            return;
+        }
+        Map<Long, Item> items = itemRepository.findAllById(tickets.stream()
+                        .flatMap(ticket -> ticket.getItemIdList().stream())
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Item::getItem_id, Function.identity()));
+        for (PlacementTicket ticket : tickets) {
+            List<Long> itemIds = ticket.getItemIdList();
+            if (!items.keySet().containsAll(itemIds)) {
+                ticket.complete(PlacementTicket.State.FAILED, null, "Item not found.");
+                continue;
+            }
+            Order order = new Order(null, ticket.getOrderDate(), new User(), new RedeemCode());
+            order.getUser().setUserId(ticket.getUserId());
+            order.getRedeemCode().setRcCode(ticket.getRcCode());
+            ResponseEntity<ApiResponse> placed = orderItemsService.placeOrder(
+                    new PlaceOrder(order, itemIds.stream().map(items::get).toArray(Item[]::new)));
+            ApiResponse response = placed.getBody();
+            if (response != null && response.isSuccess() && response.getData() instanceof Order created) {
+                ticket.complete(PlacementTicket.State.PLACED, created.getOrderId(), response.getMessage());
+            } else {
+                ticket.complete(PlacementTicket.State.FAILED, null, response != null ? response.getMessage() : "Order could not be placed.");
+            }
+        }
+    }
+}
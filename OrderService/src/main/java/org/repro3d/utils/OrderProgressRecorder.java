@@ -0,0 +1,82 @@
+package org.repro3d.utils;
+
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.OrderProgress;
+import org.repro3d.repository.OrderProgressRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+/**
+ * Keeps the {@link OrderProgress} of the orders up to date with the status of their jobs.
+ * <p>
+ * The progress is recorded with the placed order, in the transaction creating its jobs, and
+ * recalculated on every job event of the Printer Service, in the transaction of its inbox. A failed
+ * recalculation therefore fails the delivery of the event, which is retried. The row is locked while
+ * it is recalculated, so a recalculation that read the jobs before a concurrent change cannot
+ * overwrite the one that read them after it.
+ */
+@Component
+public class OrderProgressRecorder {
+
+    private final OrderProgressRepository orderProgressRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs an {@code OrderProgressRecorder}.
+     *
+     * @param orderProgressRepository The repository reading the jobs of the orders and storing their progress.
+     * @param transactionTemplate     The template running each recalculation in a transaction holding the row lock.
+     */
+    @Autowired
+    public OrderProgressRecorder(OrderProgressRepository orderProgressRepository, TransactionTemplate transactionTemplate) {
+        this.orderProgressRepository = orderProgressRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Recalculates the progress of the order an event is about.
+     *
+     * @param event A placed order or a changed job.
+     */
+    @EventListener
+    public void onEvent(DomainEvent event) {
+        switch (event.getType()) {
+            case DomainEvent.ORDER_PLACED -> orderPlaced(event.getAggregateId());
+            case DomainEvent.JOB_CREATED, DomainEvent.JOB_STARTED, DomainEvent.JOB_COMPLETED, DomainEvent.JOB_PICKED_UP, DomainEvent.JOB_UPDATED ->
+                    jobChanged(event.getAggregateId());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Records the progress of an order whose items and jobs were created.
+     *
+     * @param orderId The ID of the order.
+     */
+    public void orderPlaced(Long orderId) {
+        recalculate(orderId);
+    }
+
+    /**
+     * Recalculates the progress of the order of a job whose status changed. Jobs that belong to no
+     * order are ignored.
+     *
+     * @param jobId The ID of the job.
+     */
+    public void jobChanged(Long jobId) {
+        orderProgressRepository.findOrderIdByJobId(jobId).ifPresent(this::recalculate);
+    }
+
+    private void recalculate(Long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            OrderProgress progress = orderProgressRepository.findForUpdate(orderId).orElseGet(() -> new OrderProgress(orderId));
+            progress.update(orderProgressRepository.findJobStatesByOrderId(orderId), new Date());
+            orderProgressRepository.saveAndFlush(progress);
+        });
+    }
+}
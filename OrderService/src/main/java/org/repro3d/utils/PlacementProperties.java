@@ -0,0 +1,36 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link OrderPlacementQueue}, bound from {@code repro3d.placement.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "repro3d.placement")
+public class PlacementProperties {
+
+    /**
+     * Maximum number of workers placing queued orders at the same time; each holds one database
+     * connection while it places a batch. Zero leaves the tickets queued.
+     */
+    private int workers = 4;
+
+    /**
+     * Maximum number of orders placed in one transaction.
+     */
+    private int batchSize = 20;
+
+    /**
+     * Interval at which the queue is checked for tickets accepted by other instances or left over by
+     * a restart; tickets accepted by this instance are placed right away.
+     */
+    private Duration pollRate = Duration.ofSeconds(5);
+
+    /**
+     * Time placed and failed tickets are kept for clients to read their outcome.
+     */
+    private Duration retention = Duration.ofDays(1);
+}
@@ -0,0 +1,31 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the {@link ItemSearchIndex}, bound from {@code repro3d.search.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "repro3d.search")
+public class SearchProperties {
+
+    /**
+     * Interval at which the index is rebuilt from the database, picking up items written by other
+     * services such as catalog imports of the PrinterService.
+     */
+    private Duration refreshRate = Duration.ofMinutes(5);
+
+    /**
+     * Upper bounds of the cost ranges counted as facets; a last range collects the costs above.
+     */
+    private List<Long> costRanges = List.of(10L, 25L, 50L, 100L);
+
+    /**
+     * Maximum number of items returned by one search.
+     */
+    private int maxResults = 100;
+}
@@ -0,0 +1,95 @@
+-- Tables owned by the Order Service. Existing tables of GeneralDb are kept as they are.
+-- Users, redeem codes and jobs are owned by other services, so they are referenced without foreign keys.
+
+CREATE TABLE IF NOT EXISTS item (
+    item_id     BIGINT NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    est_time    INTEGER,
+    dimensions  VARCHAR(255),
+    file_ref    VARCHAR(255),
+    material    VARCHAR(255),
+    cost        BIGINT,
+    image_url   VARCHAR(255),
+    PRIMARY KEY (item_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_entity (
+    order_id   BIGINT NOT NULL AUTO_INCREMENT,
+    order_date DATETIME(6),
+    user_id    BIGINT,
+    rc_id      BIGINT,
+    PRIMARY KEY (order_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_items (
+    oi_id    BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT,
+    item_id  BIGINT,
+    job_id   BIGINT,
+    PRIMARY KEY (oi_id),
+    CONSTRAINT order_items_order_fk FOREIGN KEY (order_id) REFERENCES order_entity (order_id),
+    CONSTRAINT order_items_item_fk FOREIGN KEY (item_id) REFERENCES item (item_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_progress (
+    order_id           BIGINT NOT NULL,
+    total_items        INTEGER,
+    waiting            INTEGER,
+    in_progress        INTEGER,
+    awaiting_pickup    INTEGER,
+    done               INTEGER,
+    remaining_est_time INTEGER,
+    eta                DATETIME(6),
+    updated_at         DATETIME(6),
+    PRIMARY KEY (order_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS placement_ticket (
+    ticket_id    VARCHAR(36) NOT NULL,
+    state        VARCHAR(16) NOT NULL,
+    user_id      BIGINT NOT NULL,
+    rc_code      VARCHAR(100) NOT NULL,
+    order_date   DATETIME(6),
+    item_ids     VARCHAR(2000) NOT NULL,
+    order_id     BIGINT,
+    message      VARCHAR(255),
+    created_at   DATETIME(6) NOT NULL,
+    completed_at DATETIME(6),
+    PRIMARY KEY (ticket_id),
+    INDEX placement_ticket_state (state, created_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS idempotency_record (
+    operation       VARCHAR(20) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash    VARCHAR(64) NOT NULL,
+    status          INTEGER NOT NULL,
+    location        VARCHAR(255),
+    body            LONGTEXT,
+    created_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (operation, idempotency_key),
+    INDEX idempotency_record_created (created_at)
+) ENGINE = InnoDB;
+
+-- Domain events, shared with the Printer and Billing Services.
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    event_id     BIGINT NOT NULL AUTO_INCREMENT,
+    source       VARCHAR(50) NOT NULL,
+    destination  VARCHAR(50) NOT NULL,
+    type         VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT,
+    payload      LONGTEXT,
+    created_at   DATETIME(6) NOT NULL,
+    published_at DATETIME(6),
+    PRIMARY KEY (event_id),
+    INDEX outbox_event_pending (source, destination, published_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS inbox_event (
+    event_id    BIGINT NOT NULL,
+    source      VARCHAR(50) NOT NULL,
+    received_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id, source)
+) ENGINE = InnoDB;
@@ -0,0 +1,20 @@
+-- Indexes matching the queries of the Order Service and the queries other services run on its tables.
+
+-- OrderRepository.findAllByUser, and the orders and history page of a user found by email, newest first:
+-- the equality on user_id followed by order_id serves ORDER BY order_id DESC and the keyset condition.
+CREATE INDEX IF NOT EXISTS order_entity_user_order ON order_entity (user_id, order_id);
+
+-- The orders of a redeem code (Billing Service).
+CREATE INDEX IF NOT EXISTS order_entity_redeem_code ON order_entity (rc_id);
+
+-- OrderItemsRepository.findByOrder, the items of a history page and the job states of an order are served by
+-- the index of order_items_order_fk, which InnoDB orders by oi_id within an order.
+
+-- OrderProgressRepository.findOrderIdByJobId, run for every job event of the Printer Service.
+CREATE INDEX IF NOT EXISTS order_items_job ON order_items (job_id);
+
+-- ItemRepository.findByName
+CREATE INDEX IF NOT EXISTS item_name ON item (name);
+
+-- The estimates of the items printed from an uploaded file (Printer Service).
+CREATE INDEX IF NOT EXISTS item_file_ref ON item (file_ref);
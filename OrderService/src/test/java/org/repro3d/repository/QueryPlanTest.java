@@ -0,0 +1,84 @@
+package org.repro3d.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Order;
+import org.repro3d.model.PlacementTicket;
+import org.repro3d.model.User;
+import org.repro3d.utils.QueryPlanJpaTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.repro3d.utils.QueryPlans.assertUsesIndex;
+
+/**
+ * Runs the hot queries of the Order Service on the schema of its migrations, in H2 emulating MariaDB,
+ * and checks the index each of them is planned with.
+ */
+@QueryPlanJpaTest
+class QueryPlanTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemsRepository orderItemsRepository;
+
+    @Autowired
+    private OrderProgressRepository orderProgressRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PlacementTicketRepository placementTicketRepository;
+
+    private User user;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.merge(new User(null, "maker@example.com", "Street 1", null));
+        order = entityManager.merge(new Order(null, new Date(), user, null));
+        entityManager.flush();
+    }
+
+    @Test
+    void ordersOfUser_UseUserOrderIndex() {
+        assertUsesIndex(jdbcTemplate, "order_entity_user_order", () -> orderRepository.findAllByUser(user));
+    }
+
+    @Test
+    void itemsOfOrder_UseOrderIndex() {
+        assertUsesIndex(jdbcTemplate, "order_items_order_fk", () -> orderItemsRepository.findByOrder(order));
+        assertUsesIndex(jdbcTemplate, "order_items_order_fk", () -> orderItemsRepository.findHistoryItemsByOrderIds(List.of(order.getOrderId())));
+        assertUsesIndex(jdbcTemplate, "order_items_order_fk", () -> orderProgressRepository.findJobStatesByOrderId(order.getOrderId()));
+    }
+
+    @Test
+    void orderOfJob_UsesJobIndex() {
+        assertUsesIndex(jdbcTemplate, "order_items_job", () -> orderProgressRepository.findOrderIdByJobId(1L));
+    }
+
+    @Test
+    void itemByName_UsesNameIndex() {
+        assertUsesIndex(jdbcTemplate, "item_name", () -> itemRepository.findByName("Benchy"));
+    }
+
+    @Test
+    void queuedTickets_UseStateIndex() {
+        assertUsesIndex(jdbcTemplate, "placement_ticket_state",
+                () -> placementTicketRepository.findByStateOrderByCreatedAt(PlacementTicket.State.QUEUED, Limit.of(10)));
+    }
+}
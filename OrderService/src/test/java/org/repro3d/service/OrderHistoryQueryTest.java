@@ -0,0 +1,133 @@
+package org.repro3d.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.*;
+import org.repro3d.utils.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(OrderService.class)
+class OrderHistoryQueryTest {
+
+    private static final String EMAIL = "maker@example.com";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderService orderService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void getOrderHistory_PagesWithTwoQueriesPerPage() throws Exception {
+        createOrders(25);
+
+        Statistics statistics = statistics();
+        OrderHistory first = history(null, 20);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        objectMapper.writeValueAsString(first);
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        assertEquals(20, first.getOrders().size());
+        OrderHistoryEntry newest = first.getOrders().get(0);
+        assertEquals("CODE-24", newest.getRedeemCode());
+        assertEquals(List.of("Item 24-0", "Item 24-1"), newest.getItems().stream().map(OrderHistoryItem::getName).toList());
+        assertEquals("Waiting", newest.getItems().get(0).getStatus());
+
+        OrderHistory second = history(first.getNextBefore(), 20);
+        assertEquals(5, second.getOrders().size());
+        assertEquals("CODE-0", second.getOrders().get(4).getRedeemCode());
+        assertNull(second.getNextBefore());
+    }
+
+    @Test
+    void getOrdersByEmail_LoadsAssociationsInBoundedQueries() throws Exception {
+        createOrders(5);
+        long fewOrders = serializedOrdersByEmailStatements();
+        createOrders(30);
+        long manyOrders = serializedOrdersByEmailStatements();
+
+        assertEquals(fewOrders, manyOrders);
+        assertTrue(manyOrders <= 2, "statements: " + manyOrders);
+    }
+
+    @Test
+    void getOrderHistory_ReportsUnknownUser() {
+        ResponseEntity<ApiResponse> response = orderService.getOrderHistory("nobody@example.com", null, 20);
+        assertFalse(response.getBody().isSuccess());
+        assertEquals(400, orderService.getOrderHistory(EMAIL, null, 0).getStatusCode().value());
+    }
+
+    private OrderHistory history(Long before, int limit) {
+        ResponseEntity<ApiResponse> response = orderService.getOrderHistory(EMAIL, before, limit);
+        assertTrue(response.getBody().isSuccess());
+        return (OrderHistory) response.getBody().getData();
+    }
+
+    private long serializedOrdersByEmailStatements() throws Exception {
+        Statistics statistics = statistics();
+        ResponseEntity<ApiResponse> response = orderService.getOrdersByEmail(EMAIL);
+        objectMapper.writeValueAsString(response.getBody().getData());
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+
+    private void createOrders(int count) {
+        User user = entityManager.createQuery("SELECT u FROM User u WHERE u.email = :email", User.class)
+                .setParameter("email", EMAIL).getResultStream().findFirst().orElse(null);
+        if (user == null) {
+            Role role = new Role();
+            role.setRoleName("Customer");
+            entityManager.persist(role);
+            user = new User(null, EMAIL, "1 Filament Street", role);
+            entityManager.persist(user);
+        }
+        Status waiting = new Status(null, "Waiting");
+        entityManager.persist(waiting);
+        for (int o = 0; o < count; o++) {
+            RedeemCode code = new RedeemCode(null, "CODE-" + o, true);
+            entityManager.persist(code);
+            Order order = new Order(null, new Date(), user, code);
+            entityManager.persist(order);
+            for (int i = 0; i < 2; i++) {
+                Item item = new Item(null, "Item " + o + "-" + i, null, null, null, null, "PLA", 10L, null);
+                entityManager.persist(item);
+                Job job = new Job(null, item, null, waiting, new Date(), null);
+                entityManager.persist(job);
+                entityManager.persist(new OrderItems(null, item, job, order));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
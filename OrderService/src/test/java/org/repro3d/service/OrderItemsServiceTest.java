@@ -3,13 +3,19 @@ package org.repro3d.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.Item;
 import org.repro3d.model.Job;
 import org.repro3d.model.Order;
 import org.repro3d.model.OrderItems;
+import org.repro3d.model.PlaceOrder;
+import org.repro3d.repository.ItemRepository;
 import org.repro3d.repository.JobRepository;
 import org.repro3d.repository.OrderItemsRepository;
 import org.repro3d.repository.OrderRepository;
@@ -35,6 +41,15 @@ class OrderItemsServiceTest {
 
     private OrderItemsRepository orderItemsRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderItemsService orderItemsService;
 
@@ -69,6 +84,36 @@ class OrderItemsServiceTest {
         assertEquals(orderItem, response.getBody().getData());
     }
 
+    @Test
+    void placeOrderRejectsUnknownItem() {
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(new Item(1L, "Bracket", null, 30, null, null, "PLA", 10L, null)));
+
+        ResponseEntity<ApiResponse> response = orderItemsService.placeOrder(new PlaceOrder(new Order(),
+                new Item[]{new Item(1L, null, null, null, null, null, null, 0L, null), new Item(2L, null, null, null, null, null, null, 0L, null)}));
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Item not found for ID: 2", response.getBody().getMessage());
+        verifyNoInteractions(orderService, orderItemsRepository, eventPublisher);
+    }
+
+    @Test
+    void placeOrderTotalsStoredCosts() {
+        Order order = new Order();
+        order.setOrderId(1L);
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(new Item(1L, "Bracket", null, 30, null, null, "PLA", 10L, null)));
+        when(orderService.createOrder(any(Order.class))).thenReturn(ResponseEntity.ok(new ApiResponse(true, "Order created successfully.", order)));
+        when(orderItemsRepository.save(any(OrderItems.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // The client claims the item costs nothing; the stored cost of 10 is charged for each of the two.
+        Item claimed = new Item(1L, "Bracket", null, 30, null, null, "PLA", 0L, null);
+        orderItemsService.placeOrder(new PlaceOrder(order, new Item[]{claimed, claimed}));
+
+        ArgumentCaptor<DomainEvent> event = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(20L, event.getValue().payloadLong("total"));
+        verify(orderItemsRepository, times(2)).save(argThat(saved -> saved.getItem().getCost() == 10L));
+    }
+
     @Test
     void getOrderItemByIdFound() {
         when(orderItemsRepository.findById(anyLong())).thenReturn(Optional.of(orderItem));
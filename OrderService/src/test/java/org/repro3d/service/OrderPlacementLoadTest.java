@@ -0,0 +1,206 @@
+package org.repro3d.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.repro3d.controller.OrderController;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.Item;
+import org.repro3d.model.Order;
+import org.repro3d.model.PlaceOrder;
+import org.repro3d.model.RedeemCode;
+import org.repro3d.model.User;
+import org.repro3d.repository.ItemRepository;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.OrderItemsRepository;
+import org.repro3d.repository.OrderProgressRepository;
+import org.repro3d.repository.OrderRepository;
+import org.repro3d.repository.RedeemCodeRepository;
+import org.repro3d.repository.UserRepository;
+import org.repro3d.utils.EmbeddedServletServer;
+import org.repro3d.utils.IdempotencyProperties;
+import org.repro3d.utils.IdempotencyStore;
+import org.repro3d.utils.OrderProgressRecorder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compares order placement throughput on Tomcat's bounded platform-thread pool and on virtual threads.
+ * <p>
+ * Every repository call holds one of {@value #POOL_SIZE} simulated JDBC connections (HikariCP's default
+ * pool size) for {@value #QUERY_MILLIS} ms. Placement is bound by that pool in both modes, so virtual
+ * threads do not raise its throughput; their gain is that waiting placements no longer occupy the
+ * platform threads other endpoints need. On few cores virtual threads can even lose some throughput,
+ * because a connection handed to a parked virtual thread idles until a carrier is free, so the test
+ * only guards against a collapse, e.g. from carriers pinned while waiting for a connection.
+ */
+class OrderPlacementLoadTest {
+
+    private static final int POOL_SIZE = 10;
+    private static final long QUERY_MILLIS = 2;
+    private static final int CLIENTS = 300;
+    private static final Duration RUN = Duration.ofSeconds(3);
+
+    private final Semaphore connections = new Semaphore(POOL_SIZE, true);
+    private OrderController orderController;
+
+    @BeforeEach
+    void setUp() {
+        OrderRepository orderRepository = mock(OrderRepository.class, withSettings().stubOnly());
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        RedeemCodeRepository redeemCodeRepository = mock(RedeemCodeRepository.class, withSettings().stubOnly());
+        JobRepository jobRepository = mock(JobRepository.class, withSettings().stubOnly());
+        ItemRepository itemRepository = mock(ItemRepository.class, withSettings().stubOnly());
+        OrderItemsRepository orderItemsRepository = mock(OrderItemsRepository.class, withSettings().stubOnly());
+        OrderProgressRepository orderProgressRepository = mock(OrderProgressRepository.class, withSettings().stubOnly());
+
+        Answer<Boolean> exists = invocation -> {
+            query();
+            return true;
+        };
+        Answer<Object> save = invocation -> {
+            query();
+            return invocation.getArgument(0);
+        };
+        when(userRepository.existsById(anyLong())).then(exists);
+        when(orderRepository.existsById(anyLong())).then(exists);
+        when(redeemCodeRepository.findByRcCode(anyString())).then(invocation -> {
+            query();
+            return Optional.of(new RedeemCode(1L, invocation.getArgument(0), false));
+        });
+        when(redeemCodeRepository.save(any())).then(save);
+        when(orderRepository.save(any())).then(invocation -> {
+            Order order = (Order) save.answer(invocation);
+            order.setOrderId(1L);
+            return order;
+        });
+        when(itemRepository.findAllById(any())).then(invocation -> {
+            query();
+            List<Item> items = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                items.add(new Item((Long) id, "Item" + id, "", 60, "", "item" + id + ".gcode", "PLA", 10L, ""));
+            }
+            return items;
+        });
+        when(orderItemsRepository.save(any())).then(save);
+        when(orderProgressRepository.findForUpdate(anyLong())).then(invocation -> {
+            query();
+            return Optional.empty();
+        });
+        when(orderProgressRepository.findJobStatesByOrderId(anyLong())).then(invocation -> {
+            query();
+            return List.of();
+        });
+        when(orderProgressRepository.saveAndFlush(any())).then(save);
+
+        // Placed orders record their progress through the OrderPlaced event, in the placement transaction.
+        OrderProgressRecorder orderProgressRecorder = new OrderProgressRecorder(orderProgressRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class, withSettings().stubOnly())));
+        ApplicationEventPublisher eventPublisher = event -> orderProgressRecorder.onEvent((DomainEvent) event);
+        OrderService orderService = new OrderService(orderRepository, userRepository, redeemCodeRepository, orderItemsRepository,
+                orderProgressRepository, eventPublisher);
+        orderController = new OrderController(orderService,
+                new OrderItemsService(orderItemsRepository, jobRepository, orderRepository, itemRepository, orderService, eventPublisher),
+                new IdempotencyStore(mock(JdbcTemplate.class), mock(TransactionTemplate.class), new ObjectMapper(), new IdempotencyProperties()));
+    }
+
+    @Test
+    void virtualThreadsKeepPlacementThroughput() throws Exception {
+        Result platform = run(EmbeddedServletServer.Mode.PLATFORM);
+        Result virtual = run(EmbeddedServletServer.Mode.VIRTUAL);
+        System.out.printf("Order placements with %d clients: platform=%s, virtual=%s%n", CLIENTS, platform, virtual);
+
+        assertEquals(0, platform.failures());
+        assertEquals(0, virtual.failures());
+        assertTrue(virtual.perSecond() >= platform.perSecond() * 0.5);
+    }
+
+    /**
+     * Simulates a JDBC round trip on a connection from the pool.
+     */
+    private void query() throws InterruptedException {
+        connections.acquire();
+        try {
+            Thread.sleep(QUERY_MILLIS);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private Result run(EmbeddedServletServer.Mode mode) throws Exception {
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                Item[] items = new Item[3];
+                Arrays.setAll(items, i -> new Item((long) i, "Item" + i, "", 60, "", "item" + i + ".gcode", "PLA", 10L, ""));
+                Order order = new Order(null, new Date(), new User(1L, "user@example.com", "Street", null),
+                        new RedeemCode(null, "CODE", false));
+                resp.setStatus(orderController.placeOrder(new PlaceOrder(order, items), null).getStatusCode().value());
+            }
+        };
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Integer> failures = new ConcurrentLinkedQueue<>();
+        try (EmbeddedServletServer server = EmbeddedServletServer.start(mode, servlet);
+             HttpClient client = HttpClient.newHttpClient();
+             var clients = Executors.newFixedThreadPool(CLIENTS)) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/api/order/place"))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long deadline = System.nanoTime() + RUN.toNanos();
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 200) {
+                            latencies.add(System.nanoTime() - start);
+                        } else {
+                            failures.add(status);
+                        }
+                    }
+                    return null;
+                });
+            }
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(RUN.toSeconds() + 30, TimeUnit.SECONDS));
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long p99 = sorted.length == 0 ? 0 : sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+        return new Result(sorted.length / (double) RUN.toSeconds(), TimeUnit.NANOSECONDS.toMillis(p99), failures.size());
+    }
+
+    private record Result(double perSecond, long p99Millis, int failures) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f/s (p99 %d ms)", perSecond, p99Millis);
+        }
+    }
+}
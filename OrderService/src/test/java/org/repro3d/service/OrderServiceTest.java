@@ -7,6 +7,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Order;
 import org.repro3d.model.RedeemCode;
 import org.repro3d.model.User;
@@ -16,6 +17,7 @@ import org.repro3d.repository.UserRepository;
 import org.repro3d.utils.ApiResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Optional;
@@ -34,6 +36,9 @@ public class OrderServiceTest {
     @Mock
     private RedeemCodeRepository redeemCodeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -58,6 +63,11 @@ public class OrderServiceTest {
         assertEquals(200, response.getStatusCodeValue());
         assertTrue(response.getBody().isSuccess());
         assertEquals(order, response.getBody().getData());
+        assertTrue(redeemCode.getUsed());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof DomainEvent domainEvent
+                && DomainEvent.REDEEM_CODE_CONSUMED.equals(domainEvent.getType())
+                && domainEvent.getAggregateId().equals(2L)
+                && domainEvent.payloadLong("orderId").equals(1L)));
     }
 
     @Test
@@ -0,0 +1,202 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.controller.OrderController;
+import org.repro3d.model.*;
+import org.repro3d.service.OrderItemsService;
+import org.repro3d.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({OrderController.class, IdempotencyStore.class, OrderService.class, OrderItemsService.class})
+class IdempotencyStoreTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private OrderController orderController;
+
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("MERGE INTO status (status_id, status) KEY (status_id) VALUES "
+                + "(1, 'Waiting'), (2, 'In Progress'), (3, 'Awaiting Pick Up'), (4, 'Done')");
+        user = new User(null, "maker@example.com", "Street 1", null);
+        entityManager.persist(user);
+        item = new Item(null, "Bracket", null, 30, null, null, "PLA", 10L, null);
+        entityManager.persist(item);
+        entityManager.flush();
+    }
+
+    @Test
+    void placeOrder_RetryReturnsOriginalResponseWithoutPlacingAgain() {
+        entityManager.persist(new RedeemCode(null, "CODE", false));
+
+        ResponseEntity<ApiResponse> placed = orderController.placeOrder(placeOrder("CODE"), "retry-1");
+        ResponseEntity<ApiResponse> retried = orderController.placeOrder(placeOrder("CODE"), "retry-1");
+
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertEquals("true", retried.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(placed.getBody().getMessage(), retried.getBody().getMessage());
+        assertEquals(((Order) placed.getBody().getData()).getOrderId(), ((JsonNode) retried.getBody().getData()).get("orderId").asLong());
+        assertEquals(1L, count("SELECT count(*) FROM order_entity"));
+        assertEquals(1L, count("SELECT count(*) FROM order_items"));
+    }
+
+    @Test
+    void execute_ReplaysStoredResponseOnAnotherInstance() {
+        entityManager.persist(new RedeemCode(null, "CODE", false));
+        orderController.placeOrder(placeOrder("CODE"), "retry-2");
+
+        IdempotencyStore otherInstance = new IdempotencyStore(jdbcTemplate, transactionTemplate, objectMapper, properties);
+        ResponseEntity<ApiResponse> retried = otherInstance.execute("place", "retry-2", placeOrder("CODE"),
+                () -> fail("A retry must not place the order again"));
+
+        assertTrue(retried.getBody().isSuccess());
+        assertEquals("true", retried.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void execute_RejectsKeyReusedForAnotherRequest() {
+        entityManager.persist(new RedeemCode(null, "CODE", false));
+        entityManager.persist(new RedeemCode(null, "OTHER", false));
+        orderController.placeOrder(placeOrder("CODE"), "retry-3");
+
+        ResponseEntity<ApiResponse> reused = orderController.placeOrder(placeOrder("OTHER"), "retry-3");
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals(1L, count("SELECT count(*) FROM order_entity"));
+    }
+
+    @Test
+    void execute_RunsRetryOfRejectedRequestAgain() {
+        ResponseEntity<ApiResponse> rejected = orderController.placeOrder(placeOrder("LATER"), "retry-4");
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        assertEquals(0L, count("SELECT count(*) FROM idempotency_record"));
+
+        entityManager.persist(new RedeemCode(null, "LATER", false));
+        ResponseEntity<ApiResponse> placed = orderController.placeOrder(placeOrder("LATER"), "retry-4");
+
+        assertTrue(placed.getBody().isSuccess());
+        assertNull(placed.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void purge_DeletesKeysOlderThanTtl() {
+        entityManager.persist(new RedeemCode(null, "CODE", false));
+        orderController.placeOrder(placeOrder("CODE"), "retry-5");
+        jdbcTemplate.update("UPDATE idempotency_record SET created_at = ?", new Date(System.currentTimeMillis() - properties.getTtl().toMillis() - 1000));
+
+        idempotencyStore.purge();
+
+        assertEquals(0L, count("SELECT count(*) FROM idempotency_record"));
+    }
+
+    @Test
+    void execute_RunsRequestAgainOnceItsKeyExpired() {
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyStore.execute("place", "retry-6", "request", () -> ok(runs));
+        jdbcTemplate.update("UPDATE idempotency_record SET created_at = ?", new Date(System.currentTimeMillis() - properties.getTtl().toMillis() - 1000));
+
+        IdempotencyStore otherInstance = new IdempotencyStore(jdbcTemplate, transactionTemplate, objectMapper, properties);
+        ResponseEntity<ApiResponse> rerun = otherInstance.execute("place", "retry-6", "request", () -> ok(runs));
+
+        assertNull(rerun.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(2, runs.get());
+        assertEquals(1L, count("SELECT count(*) FROM idempotency_record"));
+    }
+
+    @Test
+    void execute_RunsConcurrentRequestsWithSameNewKeyOnce() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<ApiResponse>> first = executor.submit(() -> idempotencyStore.execute("place", "concurrent-1", "request", () -> {
+                started.countDown();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ok(runs);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<ResponseEntity<ApiResponse>> second = executor.submit(() -> idempotencyStore.execute("place", "concurrent-1", "request", () -> ok(runs)));
+
+            for (ResponseEntity<ApiResponse> response : List.of(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS))) {
+                assertTrue(response.getStatusCode().is2xxSuccessful() || response.getStatusCode() == HttpStatus.CONFLICT,
+                        () -> "Unexpected status " + response.getStatusCode());
+            }
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+            // The requests committed in their own transactions, outside the one rolling back this test.
+            TransactionTemplate cleanup = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            cleanup.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            cleanup.executeWithoutResult(status -> jdbcTemplate.update("DELETE FROM idempotency_record WHERE idempotency_key = 'concurrent-1'"));
+        }
+    }
+
+    private static ResponseEntity<ApiResponse> ok(AtomicInteger runs) {
+        return ResponseEntity.ok(new ApiResponse(true, "Run " + runs.incrementAndGet(), null));
+    }
+
+    private long count(String sql) {
+        entityManager.flush();
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private PlaceOrder placeOrder(String rcCode) {
+        Order order = new Order(null, new Date(0), new User(user.getUserId(), null, null, null), new RedeemCode(null, rcCode, null));
+        return new PlaceOrder(order, new Item[]{new Item(item.getItem_id(), "Bracket", null, 30, null, null, "PLA", 10L, null)});
+    }
+}
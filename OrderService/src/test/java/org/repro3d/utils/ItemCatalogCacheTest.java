@@ -0,0 +1,127 @@
+package org.repro3d.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.CatalogItem;
+import org.repro3d.model.Item;
+import org.repro3d.repository.ItemRepository;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemCatalogCacheTest {
+
+    private AnnotationConfigApplicationContext context;
+    private ItemRepository itemRepository;
+    private ItemCatalogCache cache;
+
+    @Configuration
+    @EnableCaching
+    static class CacheConfig {
+
+        @Bean
+        ItemRepository itemRepository() {
+            return mock(ItemRepository.class);
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(ItemCatalogCache.ITEMS, ItemCatalogCache.CATALOG, ItemCatalogCache.ITEMS_BY_NAME);
+        }
+
+        @Bean
+        ItemCatalogCache itemCatalogCache(ItemRepository itemRepository) {
+            return new ItemCatalogCache(itemRepository);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(CacheConfig.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        cache = context.getBean(ItemCatalogCache.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void findById_LoadsOnceUntilEvicted() {
+        Item benchy = new Item(1L, "3DBenchy", null, 60, null, null, "PLA", 5L, null);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(benchy));
+        when(itemRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertEquals(CatalogItem.of(benchy), cache.findById(1L));
+        assertEquals(CatalogItem.of(benchy), cache.findById(1L));
+        assertNull(cache.findById(2L));
+        assertNull(cache.findById(2L));
+        verify(itemRepository, times(1)).findById(1L);
+        verify(itemRepository, times(1)).findById(2L);
+
+        cache.evict(2L);
+        cache.findById(1L);
+        cache.findById(2L);
+        verify(itemRepository, times(1)).findById(1L);
+        verify(itemRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void evict_AlsoEvictsCatalogAndNameLookups() {
+        Item benchy = new Item(1L, "3DBenchy", null, 60, null, null, "PLA", 5L, null);
+        when(itemRepository.findAll()).thenReturn(List.of(benchy));
+        when(itemRepository.findByName("3DBenchy")).thenReturn(List.of(benchy));
+
+        assertEquals(List.of(CatalogItem.of(benchy)), cache.findAll());
+        assertEquals(List.of(CatalogItem.of(benchy)), cache.findAll());
+        assertEquals(List.of(CatalogItem.of(benchy)), cache.findByName("3DBenchy"));
+        assertEquals(List.of(CatalogItem.of(benchy)), cache.findByName("3DBenchy"));
+        verify(itemRepository, times(1)).findAll();
+        verify(itemRepository, times(1)).findByName("3DBenchy");
+
+        cache.evict(7L);
+        cache.findAll();
+        cache.findByName("3DBenchy");
+        verify(itemRepository, times(2)).findAll();
+        verify(itemRepository, times(2)).findByName("3DBenchy");
+    }
+
+    @Test
+    void evictAll_ForgetsItemsThatDidNotExistYet() {
+        Item benchy = new Item(1L, "3DBenchy", null, 60, null, null, "PLA", 5L, null);
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(itemRepository.findAll()).thenReturn(List.of());
+
+        assertNull(cache.findById(1L));
+        assertEquals(List.of(), cache.findAll());
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(benchy));
+        when(itemRepository.findAll()).thenReturn(List.of(benchy));
+        cache.evictAll();
+        assertEquals(CatalogItem.of(benchy), cache.findById(1L));
+        assertEquals(List.of(CatalogItem.of(benchy)), cache.findAll());
+    }
+
+    @Test
+    void findById_CachesCopyUnaffectedByChangesToEntity() {
+        Item benchy = new Item(1L, "3DBenchy", null, 60, null, null, "PLA", 5L, null);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(benchy));
+
+        CatalogItem cached = cache.findById(1L);
+        benchy.setCost(99L);
+
+        assertEquals(5L, cached.getCost());
+        assertEquals(5L, cache.findById(1L).getCost());
+    }
+}
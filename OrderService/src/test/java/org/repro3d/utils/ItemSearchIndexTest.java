@@ -0,0 +1,110 @@
+package org.repro3d.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Item;
+import org.repro3d.model.ItemSearchResult;
+import org.repro3d.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemSearchIndexTest {
+
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(1L, "3DBenchy", "The jolly little tugboat", "PLA", 5L),
+                item(2L, "Wall bracket", "Sturdy shelf bracket", "PETG", 12L),
+                item(3L, "Cable clip", "Clip for a bracket-mounted cable", "PLA", 2L),
+                item(4L, "Planetary gearbox", "Gearbox with herringbone gears", "Nylon", 60L),
+                item(5L, "Vase", "Spiral vase in Crème", "PLA", null)));
+        index = new ItemSearchIndex(itemRepository, new SearchProperties());
+        index.rebuild();
+    }
+
+    @Test
+    void search_MatchesPrefixesAndTyposRankingNamesFirst() {
+        assertEquals(List.of(2L, 3L), ids(index.search("brack", null, null, null, 0, 20)));
+        assertEquals(List.of(2L, 3L), ids(index.search("braket", null, null, null, 0, 20)));
+        assertEquals(List.of(4L), ids(index.search("gearbx herringbone", null, null, null, 0, 20)));
+        assertEquals(List.of(5L), ids(index.search("creme", null, null, null, 0, 20)));
+        assertEquals(List.of(), ids(index.search("bracket nylon", null, null, null, 0, 20)));
+        assertEquals(5, index.search(" ", null, null, null, 0, 20).getTotal());
+    }
+
+    @Test
+    void search_FiltersAndCountsFacets() {
+        ItemSearchResult result = index.search(null, "pla", 0L, 10L, 0, 1);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of(1L), ids(result));
+        // Each facet ignores its own filter.
+        assertEquals(2, result.getMaterials().get("PLA"));
+        assertNull(result.getMaterials().get("PETG"));
+        assertEquals(2, result.getCostRanges().get(0).getCount());
+        assertEquals(0, result.getCostRanges().get(1).getCount());
+        assertEquals(new ItemSearchResult.CostRange(100L, null, 0), result.getCostRanges().get(4));
+    }
+
+    @Test
+    void index_AppliesChangesAlsoDuringRebuild() {
+        index.index(item(6L, "Bracket for pegboard", null, "PLA", 3L));
+        index.remove(2L);
+        assertEquals(List.of(6L, 3L), ids(index.search("bracket", null, null, null, 0, 20)));
+        assertEquals(List.of(), ids(index.search("sturdy", null, null, null, 0, 20)));
+
+        // An item created while the rebuild reads the database stays indexed.
+        when(itemRepository.findAll()).thenAnswer(invocation -> {
+            index.index(item(7L, "Bracket mount", null, "PLA", 3L));
+            return List.of(item(2L, "Wall bracket", "Sturdy shelf bracket", "PETG", 12L));
+        });
+        index.rebuild();
+        assertEquals(List.of(7L, 2L), ids(index.search("bracket", null, null, null, 0, 20)));
+    }
+
+    @Test
+    void search_StaysFastOnLargeCatalog() {
+        List<Item> catalog = LongStream.range(0, 20_000)
+                .mapToObj(id -> item(id, "Part " + id + " bracket" + (id % 500), "Spare part number " + id, id % 2 == 0 ? "PLA" : "PETG", id % 120))
+                .toList();
+        when(itemRepository.findAll()).thenReturn(catalog);
+        index.rebuild();
+
+        for (int i = 0; i < 200; i++) {
+            index.search("braket12", "PLA", 10L, 50L, 0, 20);
+        }
+        long start = System.nanoTime();
+        ItemSearchResult result = null;
+        for (int i = 0; i < 100; i++) {
+            result = index.search("braket12", "PLA", 10L, 50L, 0, 20);
+        }
+        long micros = (System.nanoTime() - start) / 100 / 1000;
+
+        assertTrue(result.getTotal() > 0);
+        // Generous bound for slow CI machines; a search typically takes well under a millisecond.
+        assertTrue(micros < 20_000, "search took " + micros + "us");
+    }
+
+    @Test
+    void distance_CountsTranspositionsAsOneEdit() {
+        assertEquals(1, ItemSearchIndex.distance("bracket", "brakcet", 2));
+        assertEquals(2, ItemSearchIndex.distance("gearbox", "garbx", 2));
+        assertEquals(3, ItemSearchIndex.distance("vase", "clip", 2));
+    }
+
+    private static List<Long> ids(ItemSearchResult result) {
+        return result.getItems().stream().map(Item::getItem_id).toList();
+    }
+
+    private static Item item(Long id, String name, String description, String material, Long cost) {
+        return new Item(id, name, description, 60, "10x10x10", null, material, cost, null);
+    }
+}
@@ -0,0 +1,119 @@
+package org.repro3d.utils;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.*;
+import org.repro3d.service.OrderItemsService;
+import org.repro3d.service.OrderService;
+import org.repro3d.service.PlacementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "repro3d.placement.workers=0",
+        "repro3d.placement.batch-size=10"
+})
+@Import({OrderPlacementQueue.class, PlacementService.class, OrderItemsService.class, OrderService.class})
+class OrderPlacementQueueTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlacementService placementService;
+
+    @Autowired
+    private OrderPlacementQueue placementQueue;
+
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("MERGE INTO status (status_id, status) KEY (status_id) VALUES "
+                + "(1, 'Waiting'), (2, 'In Progress'), (3, 'Awaiting Pick Up'), (4, 'Done')");
+        user = new User(null, "maker@example.com", "Street 1", null);
+        entityManager.persist(user);
+        item = new Item(null, "Bracket", null, 30, null, null, "PLA", 10L, null);
+        entityManager.persist(item);
+        entityManager.persist(new RedeemCode(null, "CODE", false));
+        entityManager.persist(new RedeemCode(null, "USED", true));
+        entityManager.flush();
+    }
+
+    @Test
+    void acceptOrder_QueuesTicketPlacedByNextBatch() {
+        ResponseEntity<ApiResponse> accepted = placementService.acceptOrder(placeOrder("CODE", item.getItem_id(), item.getItem_id()));
+
+        assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+        PlacementTicket ticket = (PlacementTicket) accepted.getBody().getData();
+        assertEquals("/api/order/placements/" + ticket.getTicketId(), accepted.getHeaders().getLocation().toString());
+        assertEquals(PlacementTicket.State.QUEUED, ticket.getState());
+
+        assertEquals(1, placementQueue.placeBatch());
+        entityManager.flush();
+        entityManager.clear();
+
+        PlacementTicket placed = (PlacementTicket) placementService.getTicket(ticket.getTicketId()).getBody().getData();
+        assertEquals(PlacementTicket.State.PLACED, placed.getState());
+        assertNotNull(placed.getCompletedAt());
+        assertEquals(2L, entityManager.createQuery("SELECT count(oi) FROM OrderItems oi WHERE oi.order.orderId = :orderId", Long.class)
+                .setParameter("orderId", placed.getOrderId())
+                .getSingleResult());
+        assertEquals(0, placementQueue.placeBatch());
+    }
+
+    @Test
+    void placeBatch_FailsOnlyTheTicketsThatCannotBePlaced() {
+        String first = ticketId(placementService.acceptOrder(placeOrder("CODE", item.getItem_id())));
+        String sameCode = ticketId(placementService.acceptOrder(placeOrder("CODE", item.getItem_id())));
+        String unknownItem = ticketId(placementService.acceptOrder(placeOrder("CODE", -1L)));
+
+        assertEquals(3, placementQueue.placeBatch());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(PlacementTicket.State.PLACED, entityManager.find(PlacementTicket.class, first).getState());
+        PlacementTicket rejected = entityManager.find(PlacementTicket.class, sameCode);
+        assertEquals(PlacementTicket.State.FAILED, rejected.getState());
+        assertEquals("Invalid or already used redeem code.", rejected.getMessage());
+        assertEquals("Item not found.", entityManager.find(PlacementTicket.class, unknownItem).getMessage());
+    }
+
+    @Test
+    void acceptOrder_RejectsUsedRedeemCodeWithoutTicket() {
+        ResponseEntity<ApiResponse> rejected = placementService.acceptOrder(placeOrder("USED", item.getItem_id()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        assertEquals(0L, entityManager.createQuery("SELECT count(t) FROM PlacementTicket t", Long.class).getSingleResult());
+    }
+
+    private PlaceOrder placeOrder(String rcCode, Long... itemIds) {
+        Order order = new Order(null, new Date(), new User(user.getUserId(), null, null, null), new RedeemCode(null, rcCode, null));
+        Item[] items = new Item[itemIds.length];
+        for (int i = 0; i < itemIds.length; i++) {
+            items[i] = new Item(itemIds[i], null, null, null, null, null, null, null, null);
+        }
+        return new PlaceOrder(order, items);
+    }
+
+    private static String ticketId(ResponseEntity<ApiResponse> accepted) {
+        return ((PlacementTicket) accepted.getBody().getData()).getTicketId();
+    }
+}
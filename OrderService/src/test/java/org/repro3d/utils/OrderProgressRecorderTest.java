@@ -0,0 +1,145 @@
+package org.repro3d.utils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.*;
+import org.repro3d.service.OrderItemsService;
+import org.repro3d.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.application.name=order-service",
+        "repro3d.events.enabled=true",
+        "repro3d.events.subscribers[OrderPlaced]=printer-service,billing-service"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({OrderProgressRecorder.class, OrderService.class, OrderItemsService.class, EventOutbox.class, EventInbox.class})
+class OrderProgressRecorderTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderItemsService orderItemsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EventInbox eventInbox;
+
+    @Test
+    void placeOrder_RecordsProgressAndStoresEventForEachSubscriber() {
+        Order order = placeOrder();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        OrderProgress progress = (OrderProgress) orderService.getOrderProgress(order.getOrderId()).getBody().getData();
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, progress.getTotalItems());
+        assertEquals(3, progress.getWaiting());
+        assertEquals(75, progress.getRemainingEstTime());
+        assertNotNull(progress.getEta());
+
+        List<Map<String, Object>> outbox = jdbcTemplate.queryForList(
+                "SELECT destination, aggregate_id, payload FROM outbox_event WHERE type = 'OrderPlaced' ORDER BY destination");
+        assertEquals(List.of("billing-service", "printer-service"), outbox.stream().map(row -> row.get("destination")).toList());
+        assertEquals(order.getOrderId(), ((Number) outbox.get(0).get("aggregate_id")).longValue());
+        assertTrue(outbox.get(0).get("payload").toString().contains("\"total\":30"));
+        assertTrue(outbox.get(0).get("payload").toString().contains("\"orderItemId\":"));
+        assertEquals(0L, entityManager.createQuery("SELECT count(j) FROM Job j", Long.class).getSingleResult());
+    }
+
+    @Test
+    void jobEvent_LinksJobAndRecalculatesProgressOnceWhenRedelivered() {
+        Order order = placeOrder();
+        OrderItems orderItem = entityManager.createQuery("SELECT oi FROM OrderItems oi WHERE oi.order.orderId = :orderId ORDER BY oi.oi_id",
+                        OrderItems.class)
+                .setParameter("orderId", order.getOrderId())
+                .setMaxResults(1)
+                .getSingleResult();
+        assertNull(orderItem.getJob());
+        // The job as the Printer Service creates and starts it.
+        Job job = new Job(null, orderItem.getItem(), null, new Status(2L, "In Progress"),
+                new Date(System.currentTimeMillis() - 20 * 60_000), null);
+        entityManager.persist(job);
+        entityManager.flush();
+
+        DomainEvent started = new DomainEvent(7L, "printer-service", DomainEvent.JOB_STARTED, job.getJob_id(),
+                Map.of("orderItemId", orderItem.getOi_id()), new Date());
+        assertEquals(1, eventInbox.receive(List.of(started)));
+        assertEquals(0, eventInbox.receive(List.of(started)));
+        entityManager.clear();
+
+        assertEquals(job.getJob_id(), entityManager.find(OrderItems.class, orderItem.getOi_id()).getJob().getJob_id());
+        OrderProgress progress = entityManager.find(OrderProgress.class, order.getOrderId());
+        assertEquals(2, progress.getWaiting());
+        assertEquals(1, progress.getInProgress());
+        assertEquals(55, progress.getRemainingEstTime());
+    }
+
+    @Test
+    void jobEvent_IgnoresJobsOfNoOrder() {
+        Status waiting = mergeStatuses();
+        Item item = new Item(null, "Spare part", null, 10, null, null, "PLA", 1L, null);
+        entityManager.persist(item);
+        Job job = new Job(null, item, null, waiting, new Date(), null);
+        entityManager.persist(job);
+
+        eventInbox.receive(List.of(new DomainEvent(8L, "printer-service", DomainEvent.JOB_COMPLETED, job.getJob_id(), Map.of(), new Date())));
+
+        assertEquals(0L, entityManager.createQuery("SELECT count(p) FROM OrderProgress p", Long.class).getSingleResult());
+    }
+
+    private Status mergeStatuses() {
+        jdbcTemplate.update("MERGE INTO status (status_id, status) KEY (status_id) VALUES "
+                + "(1, 'Waiting'), (2, 'In Progress'), (3, 'Awaiting Pick Up'), (4, 'Done')");
+        return entityManager.find(Status.class, 1L);
+    }
+
+    private Order placeOrder() {
+        mergeStatuses();
+        User user = new User(null, "maker@example.com", "Street 1", null);
+        entityManager.persist(user);
+        entityManager.persist(new RedeemCode(null, "CODE", false));
+        Item[] items = new Item[3];
+        Integer[] estTimes = {45, 30, null};
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(null, "Item" + i, null, estTimes[i], null, null, "PLA", 10L, null);
+            entityManager.persist(items[i]);
+        }
+        entityManager.flush();
+
+        Order order = new Order(null, new Date(), user, new RedeemCode(null, "CODE", false));
+        ApiResponse response = orderItemsService.placeOrder(new PlaceOrder(order, items)).getBody();
+        assertTrue(response.isSuccess());
+        entityManager.flush();
+        entityManager.clear();
+        return (Order) response.getData();
+    }
+}
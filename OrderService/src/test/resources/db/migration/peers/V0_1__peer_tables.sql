@@ -0,0 +1,51 @@
+-- Tables of other services that the entities of the Order Service map, created for the query plan tests as the
+-- migrations of their owners create them. Foreign keys between services are left out, as in production.
+
+CREATE TABLE IF NOT EXISTS role (
+    role_id   BIGINT NOT NULL AUTO_INCREMENT,
+    role_name VARCHAR(45),
+    PRIMARY KEY (role_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_entity (
+    user_id       BIGINT NOT NULL AUTO_INCREMENT,
+    email         VARCHAR(50),
+    billing_addr  VARCHAR(100),
+    password_hash VARCHAR(256),
+    role          BIGINT,
+    PRIMARY KEY (user_id),
+    CONSTRAINT user_entity_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS redeem_codes (
+    rc_id   BIGINT NOT NULL AUTO_INCREMENT,
+    rc_code VARCHAR(100),
+    used    BIT,
+    PRIMARY KEY (rc_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS status (
+    status_id BIGINT NOT NULL AUTO_INCREMENT,
+    status    VARCHAR(45),
+    PRIMARY KEY (status_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS printer (
+    printer_id BIGINT NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255),
+    location   VARCHAR(255),
+    ip_addr    VARCHAR(255),
+    apikey     VARCHAR(255),
+    PRIMARY KEY (printer_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS job (
+    job_id        BIGINT NOT NULL AUTO_INCREMENT,
+    item_id       BIGINT,
+    printer_id    BIGINT,
+    status_id     BIGINT,
+    start_date    DATETIME(6),
+    end_date      DATETIME(6),
+    order_item_id BIGINT,
+    PRIMARY KEY (job_id)
+) ENGINE = InnoDB;
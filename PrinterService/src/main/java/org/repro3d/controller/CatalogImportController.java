@@ -0,0 +1,56 @@
+package org.repro3d.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.repro3d.service.CatalogImportService;
+import org.repro3d.utils.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Controller for bulk catalog imports.
+ * <p>
+ * This class provides RESTful web APIs to import a ZIP archive of G-code files as items and to poll
+ * the progress of the import. The archive is streamed from the connection to the disk.
+ */
+@RestController
+@RequestMapping("/api/catalog/imports")
+public class CatalogImportController {
+
+    private final CatalogImportService catalogImportService;
+
+    /**
+     * Constructs a {@code CatalogImportController} with a dependency on {@link CatalogImportService}.
+     *
+     * @param catalogImportService The service used for importing catalogs.
+     */
+    @Autowired
+    public CatalogImportController(CatalogImportService catalogImportService) {
+        this.catalogImportService = catalogImportService;
+    }
+
+    /**
+     * Starts importing the ZIP archive in the request body.
+     *
+     * @param request The request whose body is the archive.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the queued import.
+     * @throws IOException If the archive cannot be received.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse> startImport(HttpServletRequest request) throws IOException {
+        return catalogImportService.startImport(request.getInputStream());
+    }
+
+    /**
+     * Retrieves the progress of an import.
+     *
+     * @param id The ID of the import.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the import.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse> getImport(@PathVariable Long id) {
+        return catalogImportService.getImport(id);
+    }
+}
@@ -0,0 +1,144 @@
+package org.repro3d.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.repro3d.service.GcodeService;
+import org.repro3d.utils.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * Controller for the G-code files of the G-code store.
+ * <p>
+ * This class provides RESTful web APIs to upload files as resumable series of chunks, to analyze
+ * them and to download stored files, whole or by byte range. Request and response bodies are streamed
+ * between the connection and the disk.
+ */
+@RestController
+@RequestMapping("/api/gcode")
+public class GcodeController {
+
+    private final GcodeService gcodeService;
+
+    /**
+     * Constructs a {@code GcodeController} with a dependency on {@link GcodeService}.
+     *
+     * @param gcodeService The service used for uploading and downloading G-code files.
+     */
+    @Autowired
+    public GcodeController(GcodeService gcodeService) {
+        this.gcodeService = gcodeService;
+    }
+
+    /**
+     * Starts a resumable upload.
+     *
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the ID of the upload.
+     * @throws IOException If the upload cannot be created.
+     */
+    @PostMapping("/uploads")
+    public ResponseEntity<ApiResponse> createUpload() throws IOException {
+        return gcodeService.createUpload();
+    }
+
+    /**
+     * Retrieves the offset an upload reached, to resume it from.
+     *
+     * @param uploadId The ID of the upload.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the offset of the upload.
+     * @throws IOException If the upload cannot be read.
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<ApiResponse> getUpload(@PathVariable String uploadId) throws IOException {
+        return gcodeService.getUpload(uploadId);
+    }
+
+    /**
+     * Appends the request body as the next chunk of an upload.
+     *
+     * @param uploadId The ID of the upload.
+     * @param offset   The offset the chunk starts at, from the {@code Upload-Offset} header.
+     * @param request  The request whose body is the chunk.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the offset after the chunk.
+     * @throws IOException If the upload cannot be read.
+     */
+    @PatchMapping("/uploads/{uploadId}")
+    public ResponseEntity<ApiResponse> appendChunk(@PathVariable String uploadId,
+                                                   @RequestHeader(GcodeService.UPLOAD_OFFSET) long offset,
+                                                   HttpServletRequest request) throws IOException {
+        return gcodeService.appendChunk(uploadId, offset, request.getInputStream());
+    }
+
+    /**
+     * Completes an upload, adding its file to the store.
+     *
+     * @param uploadId The ID of the upload.
+     * @param sha256   The SHA-256 hash the client computed for the file, if it should be verified.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the hash, size and analysis of the file.
+     * @throws IOException If the file cannot be stored.
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<ApiResponse> completeUpload(@PathVariable String uploadId,
+                                                      @RequestParam(required = false) String sha256) throws IOException {
+        return gcodeService.completeUpload(uploadId, sha256);
+    }
+
+    /**
+     * Discards an upload.
+     *
+     * @param uploadId The ID of the upload.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating the result of the delete operation.
+     * @throws IOException If the upload cannot be deleted.
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<ApiResponse> deleteUpload(@PathVariable String uploadId) throws IOException {
+        return gcodeService.deleteUpload(uploadId);
+    }
+
+    /**
+     * Analyzes a stored file and records its print-time, dimension and material estimates on the items printing it.
+     *
+     * @param hash The SHA-256 hash of the file.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the analysis of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    @PostMapping("/{hash}/analysis")
+    public ResponseEntity<ApiResponse> analyzeFile(@PathVariable String hash) throws IOException {
+        return gcodeService.analyzeFile(hash);
+    }
+
+    /**
+     * Downloads a stored file, honouring a single-range {@code Range} header.
+     *
+     * @param hash     The SHA-256 hash of the file.
+     * @param request  The download request.
+     * @param response The response the file is written to.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with an error message if the file
+     *         or range is not found; the file itself is written to the response.
+     * @throws IOException If the file cannot be sent.
+     */
+    @GetMapping("/{hash}")
+    public ResponseEntity<ApiResponse> downloadFile(@PathVariable String hash,
+                                                    HttpServletRequest request,
+                                                    HttpServletResponse response) throws IOException {
+        return gcodeService.downloadFile(hash, request, response);
+    }
+
+    /**
+     * Downloads the PNG thumbnail of a stored file, as referenced by the {@code image_url} of imported items.
+     *
+     * @param hash     The SHA-256 hash of the file.
+     * @param response The response the thumbnail is written to.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with an error message if the file
+     *         has no thumbnail; the thumbnail itself is written to the response.
+     * @throws IOException If the thumbnail cannot be sent.
+     */
+    @GetMapping("/{hash}/thumbnail")
+    public ResponseEntity<ApiResponse> downloadThumbnail(@PathVariable String hash,
+                                                         HttpServletResponse response) throws IOException {
+        return gcodeService.downloadThumbnail(hash, response);
+    }
+}
@@ -0,0 +1,45 @@
+package org.repro3d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The metadata of one G-code file of a catalog import archive, read from its {@code catalog.json}.
+ * Fields left out are taken from the file name and the analysis of the file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogEntry {
+
+    /**
+     * The path of the G-code file within the archive.
+     */
+    private String file;
+
+    /**
+     * The name of the item, by default the file name without extension.
+     */
+    private String name;
+
+    /**
+     * A brief description of the item.
+     */
+    private String description;
+
+    /**
+     * The cost of the item.
+     */
+    private Long cost;
+
+    /**
+     * The material of the item, by default the filament type named in the file.
+     */
+    private String material;
+
+    /**
+     * Image url of the item, by default the thumbnail of the file.
+     */
+    private String image_url;
+}
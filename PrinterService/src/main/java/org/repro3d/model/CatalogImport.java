@@ -0,0 +1,96 @@
+package org.repro3d.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Represents a bulk catalog import: an archive of G-code files whose files are stored, analyzed
+ * and added as items. Clients poll it to follow the progress of the import.
+ */
+@Entity
+@Table(name = "catalog_import")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImport {
+
+    /**
+     * The import is waiting to start.
+     */
+    public static final String QUEUED = "QUEUED";
+
+    /**
+     * The files of the archive are being analyzed.
+     */
+    public static final String RUNNING = "RUNNING";
+
+    /**
+     * The items were created.
+     */
+    public static final String COMPLETED = "COMPLETED";
+
+    /**
+     * The archive could not be read or the items not created; no item was created.
+     */
+    public static final String FAILED = "FAILED";
+
+    /**
+     * The unique identifier for the import.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "import_id")
+    private Long importId;
+
+    /**
+     * The state of the import: {@code QUEUED}, {@code RUNNING}, {@code COMPLETED} or {@code FAILED}.
+     */
+    @Column(length = 16, nullable = false)
+    private String status;
+
+    /**
+     * The number of G-code files in the archive.
+     */
+    @Column(name = "total_files")
+    private int totalFiles;
+
+    /**
+     * The number of files stored and analyzed so far, including failed ones.
+     */
+    @Column(name = "processed_files")
+    private int processedFiles;
+
+    /**
+     * The number of files that could not be stored or analyzed and were skipped.
+     */
+    @Column(name = "failed_files")
+    private int failedFiles;
+
+    /**
+     * The number of items created once all files were processed.
+     */
+    @Column(name = "created_items")
+    private int createdItems;
+
+    /**
+     * The reason the import failed, or the files that were skipped.
+     */
+    @Column(length = 2000)
+    private String message;
+
+    /**
+     * The date and time the import was requested.
+     */
+    @Column(name = "created_at")
+    private Date createdAt;
+
+    /**
+     * The date and time the import completed or failed.
+     */
+    @Column(name = "finished_at")
+    private Date finishedAt;
+}
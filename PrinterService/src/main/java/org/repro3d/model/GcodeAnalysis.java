@@ -0,0 +1,72 @@
+package org.repro3d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The print-time and filament estimates computed from a G-code file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GcodeAnalysis {
+
+    /**
+     * The estimated print time in seconds.
+     */
+    private long printTime;
+
+    /**
+     * The length of filament extruded in mm.
+     */
+    private double filamentLength;
+
+    /**
+     * The weight of filament extruded in grams.
+     */
+    private double filamentWeight;
+
+    /**
+     * The number of layers printed.
+     */
+    private int layers;
+
+    /**
+     * The extent of the printed part along the X axis in mm.
+     */
+    private double width;
+
+    /**
+     * The extent of the printed part along the Y axis in mm.
+     */
+    private double depth;
+
+    /**
+     * The height of the printed part above the bed in mm.
+     */
+    private double height;
+
+    /**
+     * The filament type recorded by the slicer, or {@code null} if the file does not state it.
+     */
+    private String material;
+
+    /**
+     * Returns the estimated print time in the unit of {@link Item#getEst_time()}.
+     *
+     * @return The print time in minutes, rounded up.
+     */
+    public int getEstTime() {
+        return (int) Math.ceil(printTime / 60.0);
+    }
+
+    /**
+     * Returns the bounding box in the format of {@link Item#getDimensions()}.
+     *
+     * @return The width, depth and height in whole mm, rounded up, as {@code <width>x<depth>x<height>}.
+     */
+    public String getDimensions() {
+        return (long) Math.ceil(width) + "x" + (long) Math.ceil(depth) + "x" + (long) Math.ceil(height);
+    }
+}
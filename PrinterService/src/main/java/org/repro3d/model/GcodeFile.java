@@ -0,0 +1,29 @@
+package org.repro3d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A G-code file of the G-code store.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GcodeFile {
+
+    /**
+     * The SHA-256 hash of the file, used as the {@code file_ref} of the items printing it.
+     */
+    private String hash;
+
+    /**
+     * The size of the file in bytes.
+     */
+    private long size;
+
+    /**
+     * The estimates computed from the file.
+     */
+    private GcodeAnalysis analysis;
+}
@@ -0,0 +1,24 @@
+package org.repro3d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The state of a resumable G-code upload, returned after every chunk.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GcodeUpload {
+
+    /**
+     * The ID of the upload.
+     */
+    private String uploadId;
+
+    /**
+     * The number of bytes received so far, which is the offset the next chunk must start at.
+     */
+    private long offset;
+}
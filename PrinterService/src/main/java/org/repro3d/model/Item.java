@@ -57,7 +57,7 @@ public class Item {
     /**
      * The cost associated with the item.
      */
-    private String cost;
+    private Long cost;
     /**
      * Image url associated with the item.
      */
@@ -12,7 +12,8 @@ import java.util.Date;
  * <p>
  * This entity stores information about a job, including its associated printer,
  * status, and the start and end dates of the job. It is linked to specific items
- * by their item ID, which references an external entity in the OrderDB.
+ * by their item ID, which references an external entity in the OrderDB. Jobs of placed orders
+ * are created from the events of the Order Service and keep the ID of their order item.
  */
 @Entity
 @Table(name = "job")
@@ -63,4 +64,11 @@ public class Job {
      */
     @Column
     private Date end_date;
+
+    /**
+     * The ID of the order item this job prints, owned by the Order Service, or {@code null} for
+     * jobs created through the API.
+     */
+    @Column(name = "order_item_id")
+    private Long orderItemId;
 }
@@ -0,0 +1,53 @@
+package org.repro3d.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.Date;
+
+/**
+ * Records a G-code file of the G-code store that was uploaded to a printer.
+ * <p>
+ * Jobs printing a stored file are only dispatched to printers holding it, so the dispatch never
+ * waits for an upload. The records are removed together with their printer, and by the
+ * {@link org.repro3d.utils.GcodeStager} once the file is found missing from the printer.
+ */
+@Entity
+@Table(name = "printer_file", uniqueConstraints = @UniqueConstraint(columnNames = {"printer_id", "file_hash"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrinterFile {
+
+    /**
+     * The unique identifier for the record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "pf_id")
+    private Long pfId;
+
+    /**
+     * The printer holding the file.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "printer_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Printer printer;
+
+    /**
+     * The SHA-256 hash of the file.
+     */
+    @Column(name = "file_hash", length = 64, nullable = false)
+    private String fileHash;
+
+    /**
+     * The date and time the upload completed.
+     */
+    @Column(name = "uploaded_at")
+    private Date uploadedAt;
+}
@@ -0,0 +1,14 @@
+package org.repro3d.repository;
+
+import org.repro3d.model.CatalogImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for {@link CatalogImport} entities.
+ * <p>
+ * Records the progress of catalog imports for clients polling them.
+ */
+@Repository
+public interface CatalogImportRepository extends JpaRepository<CatalogImport, Long> {
+}
@@ -1,15 +1,60 @@
 package org.repro3d.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.repro3d.model.Item;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * Repository interface for {@link Item} entities.
  * <p>
- * This interface extends {@link JpaRepository}, and is used solely to check for existence of an item
- * in applicable methods.
+ * This interface extends {@link JpaRepository}, and is used to check for existence of an item
+ * in applicable methods and to record the estimates computed from the G-code files of items.
  */
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+
+    /**
+     * Records the estimates computed from a G-code file on every item printing it. Only these columns
+     * are written, leaving the rest of the items to the OrderService.
+     *
+     * @param fileRef    The file reference of the items.
+     * @param estTime    The estimated print time in minutes.
+     * @param dimensions The bounding box of the printed part.
+     * @return The number of items updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Item i set i.est_time = :estTime, i.dimensions = :dimensions where i.file_ref = :fileRef")
+    int updateEstimatesByFileRef(@Param("fileRef") String fileRef, @Param("estTime") Integer estTime,
+                                 @Param("dimensions") String dimensions);
+
+    /**
+     * Records the estimates and the filament type read from a G-code file on every item printing it.
+     *
+     * @param fileRef    The file reference of the items.
+     * @param estTime    The estimated print time in minutes.
+     * @param dimensions The bounding box of the printed part.
+     * @param material   The filament type.
+     * @return The number of items updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("update Item i set i.est_time = :estTime, i.dimensions = :dimensions, i.material = :material where i.file_ref = :fileRef")
+    int updateEstimatesAndMaterialByFileRef(@Param("fileRef") String fileRef, @Param("estTime") Integer estTime,
+                                            @Param("dimensions") String dimensions, @Param("material") String material);
+
+    /**
+     * Finds the IDs of the items printing a G-code file.
+     *
+     * @param fileRef The file reference of the items.
+     * @return The IDs of the items.
+     */
+    @Query("select i.item_id from Item i where i.file_ref = :fileRef")
+    List<Long> findIdsByFileRef(@Param("fileRef") String fileRef);
 }
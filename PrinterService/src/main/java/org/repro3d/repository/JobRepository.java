@@ -3,10 +3,14 @@ package org.repro3d.repository;
 import org.repro3d.model.Printer;
 import org.repro3d.model.Status;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.repro3d.model.Job;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Repository interface for {@link Job} entities.
@@ -20,6 +24,15 @@ public interface JobRepository extends JpaRepository<Job, Long> {
 
     boolean existsByPrinterAndStatusNot(Printer printer, Status status);
 
-    boolean existsByPrinterAndStatus(Printer printer, Status status);
+    long countByStatus(Status status);
+
+    /**
+     * Finds the printers holding a job in one of the given states.
+     *
+     * @param statusIds The IDs of the states.
+     * @return The IDs of the printers, each once.
+     */
+    @Query("SELECT j.printer.printer_id FROM Job j WHERE j.status.status_id IN :statusIds GROUP BY j.printer.printer_id")
+    Set<Long> findPrinterIdsByStatusIds(@Param("statusIds") Collection<Long> statusIds);
 }
 
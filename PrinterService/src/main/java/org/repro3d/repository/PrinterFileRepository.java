@@ -0,0 +1,41 @@
+package org.repro3d.repository;
+
+import org.repro3d.model.PrinterFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository interface for {@link PrinterFile} entities.
+ * <p>
+ * Tracks which printers hold which files of the G-code store.
+ */
+@Repository
+public interface PrinterFileRepository extends JpaRepository<PrinterFile, Long> {
+
+    /**
+     * Finds the printers holding a file.
+     *
+     * @param fileHash The SHA-256 hash of the file.
+     * @return The IDs of the printers the file was uploaded to.
+     */
+    @Query("select pf.printer.printer_id from PrinterFile pf where pf.fileHash = :fileHash")
+    List<Long> findPrinterIdsByFileHash(@Param("fileHash") String fileHash);
+
+    /**
+     * Forgets that a printer holds a file, after it was found missing from the printer's storage.
+     *
+     * @param printerId The ID of the printer.
+     * @param fileHash  The SHA-256 hash of the file.
+     * @return The number of records removed.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from PrinterFile pf where pf.printer.printer_id = :printerId and pf.fileHash = :fileHash")
+    int deleteByPrinterIdAndFileHash(@Param("printerId") Long printerId, @Param("fileHash") String fileHash);
+}
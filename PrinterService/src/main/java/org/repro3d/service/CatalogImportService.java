@@ -0,0 +1,350 @@
+package org.repro3d.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.repro3d.model.CatalogEntry;
+import org.repro3d.model.CatalogImport;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.GcodeAnalysis;
+import org.repro3d.model.Item;
+import org.repro3d.repository.CatalogImportRepository;
+import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.GcodeAnalyzer;
+import org.repro3d.utils.GcodeProperties;
+import org.repro3d.utils.GcodeStore;
+import org.repro3d.utils.GcodeThumbnailer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Service for bulk catalog imports.
+ * <p>
+ * An import is a ZIP archive of G-code files, optionally with a {@code catalog.json} array of
+ * {@link CatalogEntry} metadata. The archive is spooled to disk and processed in the background:
+ * each file is added to the {@link GcodeStore}, analyzed and given a thumbnail on a fork-join pool
+ * bounded by {@code repro3d.gcode.import-parallelism}, then all items are inserted as JDBC batches
+ * in a single transaction, so an import adds either all its items or none. The transaction raises an
+ * {@link DomainEvent#ITEMS_IMPORTED} event, so the Order Service refreshes its cache and search index. Clients follow the
+ * progress by polling the {@link CatalogImport}; the pool only counts the processed files, and the import thread
+ * saves the counts at most once per second.
+ */
+@Service
+public class CatalogImportService {
+
+    /**
+     * Name of the metadata file within an archive.
+     */
+    static final String CATALOG = "catalog.json";
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+    private static final int BATCH_SIZE = 500;
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final String INSERT_ITEM = "insert into item (name, description, est_time, dimensions, file_ref, material, cost, image_url) "
+            + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final GcodeStore gcodeStore;
+    private final GcodeAnalyzer gcodeAnalyzer;
+    private final GcodeThumbnailer gcodeThumbnailer;
+    private final CatalogImportRepository catalogImportRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Path importDir;
+    private final long maxImportSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a {@code CatalogImportService}.
+     *
+     * @param gcodeStore              The store the files are added to.
+     * @param gcodeAnalyzer           The analyzer computing the estimates of the files.
+     * @param gcodeThumbnailer        The thumbnailer providing the images of the items.
+     * @param properties              The G-code settings holding the store directory, the import parallelism and the
+     *                                maximum archive size.
+     * @param catalogImportRepository The repository recording the progress of imports.
+     * @param jdbcTemplate            The template used for inserting the items in batches.
+     * @param transactionTemplate     The template running the inserts in one transaction.
+     * @param eventPublisher          The publisher raising the events of the imports.
+     * @param objectMapper            The mapper reading the metadata of archives.
+     */
+    @Autowired
+    public CatalogImportService(GcodeStore gcodeStore, GcodeAnalyzer gcodeAnalyzer, GcodeThumbnailer gcodeThumbnailer,
+                                GcodeProperties properties, CatalogImportRepository catalogImportRepository,
+                                JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.gcodeStore = gcodeStore;
+        this.gcodeAnalyzer = gcodeAnalyzer;
+        this.gcodeThumbnailer = gcodeThumbnailer;
+        this.catalogImportRepository = catalogImportRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.importDir = properties.getStoreDir().resolve("imports");
+        this.maxImportSize = properties.getImportMaxSize().toBytes();
+        this.pool = new ForkJoinPool(properties.getImportParallelism());
+    }
+
+    /**
+     * Stops the analysis of running imports.
+     */
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Spools an archive to disk and starts importing it in the background.
+     *
+     * @param archive The request body holding the ZIP archive.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the queued {@link CatalogImport},
+     *         or an error message if the body is not a ZIP archive or exceeds the maximum size.
+     * @throws IOException If the archive cannot be written.
+     */
+    public ResponseEntity<ApiResponse> startImport(InputStream archive) throws IOException {
+        Files.createDirectories(importDir);
+        Path file = Files.createTempFile(importDir, "import-", ".zip");
+        try {
+            if (!spool(archive, file)) {
+                Files.deleteIfExists(file);
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(new ApiResponse(false, "Catalog import exceeds the maximum size of " + maxImportSize + " bytes.", null));
+            }
+            new ZipFile(file.toFile()).close();
+        } catch (ZipException e) {
+            Files.deleteIfExists(file);
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Catalog import is not a ZIP archive.", null));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        CatalogImport job = new CatalogImport();
+        job.setStatus(CatalogImport.QUEUED);
+        job.setCreatedAt(new Date());
+        CatalogImport saved = catalogImportRepository.save(job);
+        log.info("Catalog import queued importId={} size={}", saved.getImportId(), Files.size(file));
+        // The import updates its own copy while the queued state is returned.
+        CatalogImport running = new CatalogImport(saved.getImportId(), saved.getStatus(), 0, 0, 0, 0, null, saved.getCreatedAt(), null);
+        Thread.ofVirtual().name("catalog-import-" + saved.getImportId()).start(() -> runImport(running, file));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse(true, "Catalog import started successfully.", saved));
+    }
+
+    /**
+     * Retrieves the progress of an import.
+     *
+     * @param id The ID of the import.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the {@link CatalogImport},
+     *         or an error message if not found.
+     */
+    public ResponseEntity<ApiResponse> getImport(Long id) {
+        Optional<CatalogImport> job = catalogImportRepository.findById(id);
+        return job.map(value -> ResponseEntity.ok(new ApiResponse(true, "Catalog import retrieved successfully.", value)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse(false, "Catalog import not found for ID: " + id, null)));
+    }
+
+    /**
+     * Imports a spooled archive and deletes it. Files that cannot be stored or analyzed are skipped
+     * and listed in the message of the import.
+     *
+     * @param job     The import.
+     * @param archive The spooled archive.
+     */
+    void runImport(CatalogImport job, Path archive) {
+        long start = System.nanoTime();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            List<CatalogEntry> entries = readEntries(zip);
+            job.setStatus(CatalogImport.RUNNING);
+            job.setTotalFiles(entries.size());
+            catalogImportRepository.save(job);
+
+            List<ForkJoinTask<Item>> tasks = new ArrayList<>(entries.size());
+            for (CatalogEntry entry : entries) {
+                tasks.add(pool.submit(() -> importFile(zip, entry, processed, failed)));
+            }
+            List<Item> items = new ArrayList<>(entries.size());
+            List<String> skipped = new ArrayList<>();
+            long savedAt = System.nanoTime();
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    items.add(tasks.get(i).get());
+                } catch (ExecutionException e) {
+                    skipped.add(entries.get(i).getFile() + " (" + e.getCause().toString() + ")");
+                }
+                if (System.nanoTime() - savedAt >= PROGRESS_INTERVAL) {
+                    job.setProcessedFiles(processed.get());
+                    job.setFailedFiles(failed.get());
+                    catalogImportRepository.save(job);
+                    savedAt = System.nanoTime();
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                insertItems(items);
+                if (!items.isEmpty()) {
+                    eventPublisher.publishEvent(DomainEvent.of(DomainEvent.ITEMS_IMPORTED, job.getImportId(), Map.of("items", items.size())));
+                }
+            });
+            job.setCreatedItems(items.size());
+            job.setStatus(CatalogImport.COMPLETED);
+            if (!skipped.isEmpty()) {
+                job.setMessage(abbreviate("Skipped " + skipped.size() + " files: " + String.join(", ", skipped)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, "Catalog import was interrupted.");
+        } catch (Exception e) {
+            log.warn("Catalog import failed importId={} error={}", job.getImportId(), e.toString());
+            fail(job, abbreviate("Catalog import failed: " + e.getMessage()));
+        } finally {
+            try {
+                Files.deleteIfExists(archive);
+            } catch (IOException e) {
+                log.warn("Failed to delete catalog archive {} error={}", archive, e.toString());
+            }
+        }
+        job.setProcessedFiles(processed.get());
+        job.setFailedFiles(failed.get());
+        job.setFinishedAt(new Date());
+        catalogImportRepository.save(job);
+        log.info("Catalog import finished importId={} status={} files={} failed={} items={} took={}ms", job.getImportId(),
+                job.getStatus(), job.getTotalFiles(), job.getFailedFiles(), job.getCreatedItems(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<CatalogEntry> readEntries(ZipFile zip) throws IOException {
+        ZipEntry catalog = zip.getEntry(CATALOG);
+        if (catalog != null) {
+            try (InputStream in = zip.getInputStream(catalog)) {
+                return objectMapper.readValue(in, new TypeReference<List<CatalogEntry>>() { });
+            }
+        }
+        // Without metadata every G-code file becomes an item named after the file.
+        return Collections.list(zip.entries()).stream()
+                .filter(entry -> !entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".gcode"))
+                .map(entry -> new CatalogEntry(entry.getName(), null, null, null, null, null))
+                .toList();
+    }
+
+    private Item importFile(ZipFile zip, CatalogEntry entry, AtomicInteger processed, AtomicInteger failed) throws IOException {
+        boolean succeeded = false;
+        try {
+            ZipEntry zipEntry = entry.getFile() == null ? null : zip.getEntry(entry.getFile());
+            if (zipEntry == null || zipEntry.isDirectory()) {
+                throw new IOException("not found in archive");
+            }
+            String hash;
+            try (InputStream in = zip.getInputStream(zipEntry)) {
+                hash = gcodeStore.store(in);
+            }
+            Path file = gcodeStore.find(hash).orElseThrow();
+
+            // The thumbnail is drawn during the analysis so the file is read once.
+            Optional<byte[]> embedded = gcodeThumbnailer.embedded(file);
+            GcodeThumbnailer.Preview preview = embedded.isEmpty() ? gcodeThumbnailer.preview() : null;
+            GcodeAnalysis analysis = gcodeAnalyzer.analyze(file, preview);
+            gcodeStore.storeThumbnail(hash, embedded.isPresent() ? embedded.get() : preview.toPng());
+
+            Item item = new Item();
+            item.setName(entry.getName() != null ? entry.getName() : baseName(entry.getFile()));
+            item.setDescription(entry.getDescription());
+            item.setEst_time(analysis.getEstTime());
+            item.setDimensions(analysis.getDimensions());
+            item.setFile_ref(hash);
+            item.setMaterial(entry.getMaterial() != null ? entry.getMaterial() : analysis.getMaterial());
+            item.setCost(entry.getCost());
+            item.setImage_url(entry.getImage_url() != null ? entry.getImage_url() : "/api/gcode/" + hash + "/thumbnail");
+            succeeded = true;
+            return item;
+        } finally {
+            if (!succeeded) {
+                failed.incrementAndGet();
+            }
+            processed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes an archive to a file unless it exceeds the maximum size.
+     *
+     * @return {@code false} if the archive exceeds the maximum size; the file then holds its first part.
+     */
+    private boolean spool(InputStream archive, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long size = 0;
+            int read;
+            while ((read = archive.read(buffer)) != -1) {
+                size += read;
+                if (size > maxImportSize) {
+                    return false;
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return true;
+    }
+
+    private void insertItems(List<Item> items) {
+        // Items use IDENTITY keys, which keep Hibernate from batching inserts; JDBC batches do.
+        jdbcTemplate.batchUpdate(INSERT_ITEM, items, BATCH_SIZE, (statement, item) -> {
+            statement.setString(1, item.getName());
+            statement.setString(2, item.getDescription());
+            statement.setObject(3, item.getEst_time());
+            statement.setString(4, item.getDimensions());
+            statement.setString(5, item.getFile_ref());
+            statement.setString(6, item.getMaterial());
+            statement.setObject(7, item.getCost());
+            statement.setString(8, item.getImage_url());
+        });
+    }
+
+    private void fail(CatalogImport job, String message) {
+        job.setStatus(CatalogImport.FAILED);
+        job.setCreatedItems(0);
+        job.setMessage(message);
+    }
+
+    private static String baseName(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 2000 ? message : message.substring(0, 1997) + "...";
+    }
+}
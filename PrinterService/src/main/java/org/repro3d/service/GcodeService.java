@@ -0,0 +1,354 @@
+package org.repro3d.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.GcodeAnalysis;
+import org.repro3d.model.GcodeFile;
+import org.repro3d.model.GcodeUpload;
+import org.repro3d.repository.ItemRepository;
+import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.GcodeAnalyzer;
+import org.repro3d.utils.GcodeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Service for uploading G-code files to the {@link GcodeStore} and downloading them.
+ * <p>
+ * Uploads are resumable: a client creates an upload, sends the file as chunks at increasing offsets
+ * and completes it to get the hash to use as the {@code file_ref} of an item. After an interrupted
+ * chunk it asks for the offset reached and continues from there. Completed files are analyzed by
+ * the {@link GcodeAnalyzer}, whose estimates replace those of the items printing them. Every item updated raises an
+ * {@link DomainEvent#ITEM_CHANGED} event, so the Order Service refreshes its cache and search index. Downloads support single byte
+ * ranges and are sent with the container's sendfile support when available, or else with
+ * {@link FileChannel#transferTo}, so file contents never pass through the heap.
+ */
+@Service
+public class GcodeService {
+
+    /**
+     * Header carrying the offset of a chunk in requests and the offset reached in responses.
+     */
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    private static final Logger log = LoggerFactory.getLogger(GcodeService.class);
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final GcodeStore gcodeStore;
+    private final GcodeAnalyzer gcodeAnalyzer;
+    private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactionOperations;
+
+    /**
+     * Constructs a {@code GcodeService}.
+     *
+     * @param gcodeStore            The store holding the files.
+     * @param gcodeAnalyzer         The analyzer computing the estimates of the files.
+     * @param itemRepository        The repository used for recording the estimates on the items.
+     * @param eventPublisher        The publisher raising the events of the changed items.
+     * @param transactionOperations The transactions storing the estimates together with their events.
+     */
+    @Autowired
+    public GcodeService(GcodeStore gcodeStore, GcodeAnalyzer gcodeAnalyzer, ItemRepository itemRepository,
+                        ApplicationEventPublisher eventPublisher, TransactionOperations transactionOperations) {
+        this.gcodeStore = gcodeStore;
+        this.gcodeAnalyzer = gcodeAnalyzer;
+        this.itemRepository = itemRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionOperations = transactionOperations;
+    }
+
+    /**
+     * Starts a resumable upload.
+     *
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the new {@link GcodeUpload}.
+     * @throws IOException If the upload cannot be created.
+     */
+    public ResponseEntity<ApiResponse> createUpload() throws IOException {
+        GcodeUpload upload = new GcodeUpload(gcodeStore.createUpload(), 0);
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, "0")
+                .body(new ApiResponse(true, "Upload created successfully.", upload));
+    }
+
+    /**
+     * Retrieves the offset an upload reached, to resume it from.
+     *
+     * @param uploadId The ID of the upload.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the {@link GcodeUpload},
+     *         or an error message if not found.
+     * @throws IOException If the upload cannot be read.
+     */
+    public ResponseEntity<ApiResponse> getUpload(String uploadId) throws IOException {
+        OptionalLong offset = gcodeStore.uploadOffset(uploadId);
+        if (offset.isEmpty()) {
+            return uploadNotFound(uploadId);
+        }
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, Long.toString(offset.getAsLong()))
+                .body(new ApiResponse(true, "Upload retrieved successfully.", new GcodeUpload(uploadId, offset.getAsLong())));
+    }
+
+    /**
+     * Appends a chunk to an upload.
+     *
+     * @param uploadId The ID of the upload.
+     * @param offset   The offset the chunk starts at.
+     * @param chunk    The request body holding the chunk.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the {@link GcodeUpload} after
+     *         the chunk, or with its current offset if the chunk was rejected.
+     * @throws IOException If the upload cannot be read.
+     */
+    public ResponseEntity<ApiResponse> appendChunk(String uploadId, long offset, InputStream chunk) throws IOException {
+        OptionalLong current = gcodeStore.uploadOffset(uploadId);
+        if (current.isEmpty()) {
+            return uploadNotFound(uploadId);
+        }
+        if (current.getAsLong() != offset) {
+            return offsetConflict(uploadId, current.getAsLong(), "Chunk offset " + offset + " does not match the upload offset.");
+        }
+        try {
+            long next = gcodeStore.appendUpload(uploadId, offset, chunk);
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET, Long.toString(next))
+                    .body(new ApiResponse(true, "Chunk appended successfully.", new GcodeUpload(uploadId, next)));
+        } catch (NoSuchFileException e) {
+            return uploadNotFound(uploadId);
+        } catch (IllegalStateException e) {
+            return offsetConflict(uploadId, gcodeStore.uploadOffset(uploadId).orElse(offset), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ApiResponse(false, e.getMessage(), new GcodeUpload(uploadId, offset)));
+        } catch (IOException e) {
+            // The bytes received before the failure are kept, the client resumes after them.
+            long reached = gcodeStore.uploadOffset(uploadId).orElse(offset);
+            log.warn("G-code chunk interrupted uploadId={} offset={} error={}", uploadId, reached, e.toString());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .header(UPLOAD_OFFSET, Long.toString(reached))
+                    .body(new ApiResponse(false, "Failed to write chunk for upload ID: " + uploadId, new GcodeUpload(uploadId, reached)));
+        }
+    }
+
+    /**
+     * Completes an upload, adding its file to the store and recording its estimates on the items printing it.
+     *
+     * @param uploadId     The ID of the upload.
+     * @param expectedHash The SHA-256 hash the client computed for the file, or {@code null} to skip the check.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the stored {@link GcodeFile}
+     *         and its analysis, or an error message if not found or the file is rejected.
+     * @throws IOException If the file cannot be read or moved.
+     */
+    public ResponseEntity<ApiResponse> completeUpload(String uploadId, String expectedHash) throws IOException {
+        try {
+            String hash = gcodeStore.completeUpload(uploadId, expectedHash);
+            Path file = gcodeStore.find(hash).orElseThrow();
+            long size = Files.size(file);
+            log.info("G-code file stored hash={} size={}", hash, size);
+            GcodeAnalysis analysis = analyze(hash, file);
+            return ResponseEntity.ok(new ApiResponse(true, "Upload completed successfully.", new GcodeFile(hash, size, analysis)));
+        } catch (NoSuchFileException e) {
+            return uploadNotFound(uploadId);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    /**
+     * Analyzes a stored file again and records its estimates on the items printing it, such as items
+     * created after the file was uploaded.
+     *
+     * @param hash The SHA-256 hash of the file.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the {@link GcodeAnalysis},
+     *         or an error message if not found.
+     * @throws IOException If the file cannot be read.
+     */
+    public ResponseEntity<ApiResponse> analyzeFile(String hash) throws IOException {
+        Optional<Path> file = gcodeStore.find(hash);
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse(false, "G-code file not found for hash: " + hash, null));
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "G-code file analyzed successfully.", analyze(hash, file.get())));
+    }
+
+    private GcodeAnalysis analyze(String hash, Path file) throws IOException {
+        long start = System.nanoTime();
+        GcodeAnalysis analysis = gcodeAnalyzer.analyze(file);
+        int items = transactionOperations.execute(status -> recordEstimates(hash, analysis));
+        log.info("G-code file analyzed hash={} printTime={}s layers={} filament={}g items={} took={}ms", hash, analysis.getPrintTime(),
+                analysis.getLayers(), Math.round(analysis.getFilamentWeight()), items, (System.nanoTime() - start) / 1_000_000);
+        return analysis;
+    }
+
+    private int recordEstimates(String hash, GcodeAnalysis analysis) {
+        int items = analysis.getMaterial() == null
+                ? itemRepository.updateEstimatesByFileRef(hash, analysis.getEstTime(), analysis.getDimensions())
+                : itemRepository.updateEstimatesAndMaterialByFileRef(hash, analysis.getEstTime(), analysis.getDimensions(), analysis.getMaterial());
+        if (items > 0) {
+            // The items are locked by the update, so the IDs read now are those it changed.
+            for (Long itemId : itemRepository.findIdsByFileRef(hash)) {
+                eventPublisher.publishEvent(DomainEvent.of(DomainEvent.ITEM_CHANGED, itemId, Map.of("fileRef", hash)));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Discards an upload.
+     *
+     * @param uploadId The ID of the upload.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} indicating the result of the
+     *         delete operation.
+     * @throws IOException If the upload cannot be deleted.
+     */
+    public ResponseEntity<ApiResponse> deleteUpload(String uploadId) throws IOException {
+        if (!gcodeStore.deleteUpload(uploadId)) {
+            return uploadNotFound(uploadId);
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Upload deleted successfully.", null));
+    }
+
+    /**
+     * Writes a stored file, or the byte range of it requested by a single-range {@code Range} header,
+     * to the response.
+     * <p>
+     * Stored files never change, so the hash doubles as a strong ETag and the file may be cached
+     * indefinitely. Requests with several ranges are answered with the whole file.
+     *
+     * @param hash     The SHA-256 hash of the file.
+     * @param request  The download request.
+     * @param response The response the file is written to.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with an error message if the file
+     *         or range is not found, or {@code null} once the response has been handled.
+     * @throws IOException If the file cannot be read or the response written.
+     */
+    public ResponseEntity<ApiResponse> downloadFile(String hash, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Path> file = gcodeStore.find(hash);
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse(false, "G-code file not found for hash: " + hash, null));
+        }
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + hash + "\"")) {
+            return null;
+        }
+        long length = Files.size(file.get());
+        long start = 0;
+        long end = length - 1;
+        List<HttpRange> ranges = parseRanges(request.getHeader(HttpHeaders.RANGE));
+        if (ranges.size() == 1) {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+            if (start >= length) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .body(new ApiResponse(false, "Range not satisfiable for G-code file of " + length + " bytes.", null));
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + GcodeStore.printerFileName(hash) + "\"");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setContentLengthLong(end - start + 1);
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return null;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the range from the page cache once the handler returns.
+            request.setAttribute(SENDFILE_FILENAME, file.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.get(), StandardOpenOption.READ)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, output);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the PNG thumbnail of a stored file to the response.
+     *
+     * @param hash     The SHA-256 hash of the file.
+     * @param response The response the thumbnail is written to.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with an error message if the file
+     *         has no thumbnail, or {@code null} once the response has been handled.
+     * @throws IOException If the thumbnail cannot be read or the response written.
+     */
+    public ResponseEntity<ApiResponse> downloadThumbnail(String hash, HttpServletResponse response) throws IOException {
+        Optional<Path> thumbnail = gcodeStore.findThumbnail(hash);
+        if (thumbnail.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse(false, "Thumbnail not found for hash: " + hash, null));
+        }
+        response.setContentType(MediaType.IMAGE_PNG_VALUE);
+        // Thumbnails are replaced when a file is imported again, unlike the files themselves.
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=86400");
+        response.setContentLengthLong(Files.size(thumbnail.get()));
+        Files.copy(thumbnail.get(), response.getOutputStream());
+        return null;
+    }
+
+    private static List<HttpRange> parseRanges(String header) {
+        if (header == null) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored and the whole file sent.
+            return List.of();
+        }
+    }
+
+    private static ResponseEntity<ApiResponse> uploadNotFound(String uploadId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ApiResponse(false, "Upload not found for ID: " + uploadId, null));
+    }
+
+    private static ResponseEntity<ApiResponse> offsetConflict(String uploadId, long offset, String message) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(UPLOAD_OFFSET, Long.toString(offset))
+                .body(new ApiResponse(false, message, new GcodeUpload(uploadId, offset)));
+    }
+}
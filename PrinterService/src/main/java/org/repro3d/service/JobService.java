@@ -1,23 +1,30 @@
 package org.repro3d.service;
 
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Status;
 import org.repro3d.repository.StatusRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.repro3d.model.Job;
 import org.repro3d.repository.ItemRepository;
 import org.repro3d.repository.JobRepository;
 import org.repro3d.utils.ApiResponse;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Service class for handling operations related to {@link Job} entities.
  * <p>
  * Encapsulates the business logic for creating, retrieving, updating, and deleting jobs,
- * interacting with the {@link JobRepository} to perform these operations.
+ * interacting with the {@link JobRepository} to perform these operations. The waiting jobs of
+ * placed orders are created here from the events of the Order Service.
  */
 @Service
 public class JobService {
@@ -27,17 +34,22 @@ public class JobService {
 
     private StatusRepository statusRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Constructs a {@code JobService} with the necessary {@link JobRepository}.
      *
      * @param jobRepository    The repository used for data operations on jobs.
      * @param statusRepository
+     * @param eventPublisher   The publisher raising the events of changed jobs.
      */
     @Autowired
-    public JobService(JobRepository jobRepository, ItemRepository itemRepository, StatusRepository statusRepository) {
+    public JobService(JobRepository jobRepository, ItemRepository itemRepository, StatusRepository statusRepository,
+                      ApplicationEventPublisher eventPublisher) {
         this.jobRepository = jobRepository;
         this.itemRepository = itemRepository;
         this.statusRepository = statusRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -54,6 +66,36 @@ public class JobService {
         return ResponseEntity.ok(new ApiResponse(true, "Job created successfully.", savedJob));
     }
 
+    /**
+     * Creates a waiting job for every item of an order placed in the OrderService, and raises a
+     * {@link DomainEvent#JOB_CREATED} event for each, so the OrderService links its order items to them.
+     * Runs in the transaction of the event inbox; the jobs are dispatched once it is committed.
+     *
+     * @param event The event of the placed order, carrying its date and items.
+     */
+    @EventListener
+    public void onOrderPlaced(DomainEvent event) {
+        if (!DomainEvent.ORDER_PLACED.equals(event.getType()) || event.getPayload() == null
+                || !(event.getPayload().get("items") instanceof List<?> items)) {
+            return;
+        }
+        Long orderDate = event.payloadLong("orderDate");
+        Date startDate = orderDate != null ? new Date(orderDate) : event.getCreatedAt();
+        for (Object placed : items) {
+            if (!(placed instanceof Map<?, ?> orderItem) || !(orderItem.get("orderItemId") instanceof Number orderItemId)
+                    || !(orderItem.get("itemId") instanceof Number itemId)) {
+                continue;
+            }
+            Job job = new Job();
+            job.setItem(itemRepository.getReferenceById(itemId.longValue()));
+            job.setStatus(new Status(1L, "Waiting"));
+            job.setStart_date(startDate);
+            job.setOrderItemId(orderItemId.longValue());
+            Job savedJob = jobRepository.save(job);
+            eventPublisher.publishEvent(PrinterService.jobEvent(DomainEvent.JOB_CREATED, savedJob));
+        }
+    }
+
     /**
      * Retrieves a job by its ID.
      *
@@ -74,6 +116,7 @@ public class JobService {
      *
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with a list of all jobs.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllJobs() {
         List<Job> jobs = jobRepository.findAll();
         return ResponseEntity.ok(new ApiResponse(true, "Jobs retrieved successfully", jobs));
@@ -86,6 +129,7 @@ public class JobService {
      * @param jobDetails The new details for the job.
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the updated job, or an error message if the job was not found.
      */
+    @Transactional
     public ResponseEntity<ApiResponse> updateJob(Long id, Job jobDetails) {
         return jobRepository.findById(id)
                 .map(job -> {
@@ -98,6 +142,7 @@ public class JobService {
                     job.setStart_date(jobDetails.getStart_date());
                     job.setEnd_date(jobDetails.getEnd_date());
                     Job updatedJob = jobRepository.save(job);
+                    eventPublisher.publishEvent(PrinterService.jobEvent(DomainEvent.JOB_UPDATED, updatedJob));
                     return ResponseEntity.ok(new ApiResponse(true, "Job updated successfully.", updatedJob));
                 }).orElseGet(() -> ResponseEntity.ok(new ApiResponse(false, "Job not found for ID: " + id, null)));
     }
@@ -112,6 +157,7 @@ public class JobService {
      * @param id The ID of the job to update.
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the updated job, or an error message if the job was not found or if the status transition is not allowed.
      */
+    @Transactional
     public ResponseEntity<ApiResponse> markAsDone(Long id) {
         return jobRepository.findById(id)
                 .map(job -> {
@@ -120,6 +166,7 @@ public class JobService {
                         newStatus.setStatus_id(4L);
                         job.setStatus(newStatus);
                         Job updatedJob = jobRepository.save(job);
+                        eventPublisher.publishEvent(PrinterService.jobEvent(DomainEvent.JOB_PICKED_UP, updatedJob));
                         return ResponseEntity.ok(new ApiResponse(true, "Job status updated successfully.", updatedJob));
                     } else {
                         return ResponseEntity.badRequest().body(new ApiResponse(false, "Job status is not 'Awaiting Pick Up', cannot update to 'Done'.", null));
@@ -1,28 +1,39 @@
 package org.repro3d.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.servlet.http.HttpServletResponse;
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Job;
 import org.repro3d.model.Status;
 import org.repro3d.repository.JobRepository;
+import org.repro3d.utils.BusyPrinters;
+import org.repro3d.utils.GcodeStore;
 import org.repro3d.utils.GlobalExceptionHandler;
+import org.repro3d.utils.OctoPrintClient;
+import org.repro3d.utils.PrintMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 import org.repro3d.model.Printer;
 import org.repro3d.repository.PrinterRepository;
 import org.repro3d.utils.ApiResponse;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service class for handling operations related to {@link Printer} entities.
@@ -33,25 +44,43 @@ import java.util.List;
 @Service
 public class PrinterService {
 
+    private static final Logger log = LoggerFactory.getLogger(PrinterService.class);
+
+    /**
+     * Number of webcam buffers requested ahead of the one being written to the client.
+     */
+    private static final int WEBCAM_PREFETCH = 8;
+
     private final PrinterRepository printerRepository;
     private final JobRepository jobRepository;
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private final OctoPrintClient octoPrintClient;
+    private final PrintMetrics printMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactionOperations;
+    private final BusyPrinters busyPrinters;
 
     /**
      * Constructs a {@code PrinterService} with the necessary {@link PrinterRepository}.
      *
      * @param printerRepository The repository used for data operations on printers.
      * @param jobRepository     The repository used for data operations on jobs.
-     * @param webClientBuilder  The WebClient builder for making HTTP requests.
-     * @param objectMapper      The object mapper for JSON parsing.
+     * @param octoPrintClient   The client for the OctoPrint API of the printers.
+     * @param printMetrics      The meters of the print pipeline.
+     * @param eventPublisher  The publisher raising the events of started and completed jobs.
+     * @param transactionOperations The transactions storing a job together with its event.
+     * @param busyPrinters    The printers holding a job.
      */
     @Autowired
-    public PrinterService(PrinterRepository printerRepository, JobRepository jobRepository, WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
+    public PrinterService(PrinterRepository printerRepository, JobRepository jobRepository, OctoPrintClient octoPrintClient,
+                          PrintMetrics printMetrics, ApplicationEventPublisher eventPublisher,
+                          TransactionOperations transactionOperations, BusyPrinters busyPrinters) {
         this.printerRepository = printerRepository;
         this.jobRepository = jobRepository;
-        this.webClient = webClientBuilder.build();
-        this.objectMapper = objectMapper;
+        this.octoPrintClient = octoPrintClient;
+        this.printMetrics = printMetrics;
+        this.eventPublisher = eventPublisher;
+        this.transactionOperations = transactionOperations;
+        this.busyPrinters = busyPrinters;
     }
 
     /**
@@ -71,6 +100,7 @@ public class PrinterService {
      * @return A {@link ResponseEntity} containing an {@link ApiResponse} with a list
      * of all printers.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<ApiResponse> getAllPrinters() {
         List<Printer> printers = printerRepository.findAll();
         return ResponseEntity.ok(new ApiResponse(true, "Printers retrieved successfully", printers));
@@ -141,85 +171,68 @@ public class PrinterService {
 
     /**
      * Checks if a printer is available for use.
+     * <p>
+     * A printer is available if no job is assigned to it and OctoPrint reports it as operational.
+     * Printers that cannot be reached count as unavailable. Assigned jobs are looked up in the
+     * {@link BusyPrinters}, so checking a printer takes no database query.
      *
      * @param printer The printer to check for availability.
-     * @return {@code true} if the printer is available, {@code false} otherwise.
+     * @return A {@link Mono} emitting {@code true} if the printer is available, {@code false} otherwise.
      */
-    public boolean isPrinterAvailable(Printer printer) {
-        if (jobRepository.existsByPrinterAndStatus(printer, new Status(2L, "In Progress"))) {
-            System.out.println("Printer ID " + printer.getPrinter_id() + " is currently assigned to an ongoing job.");
-            return false;
-        }
-
-        if (jobRepository.existsByPrinterAndStatus(printer, new Status(3L, "Awaiting Pick Up"))) {
-            System.out.println("Printer ID " + printer.getPrinter_id() + " has job awaiting pick up.");
-            return false;
-        }
-
-        String url = "http://" + printer.getIp_addr() + "/api/printer";
-        try {
-            System.out.println("Checking printer availability at: " + url);
-            String response = webClient.get()
-                    .uri(url)
-                    .header("X-Api-Key", printer.getApikey())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-            System.out.println("Response: " + response);
-
-            JsonNode jsonResponse = objectMapper.readTree(response);
-            String state = jsonResponse.path("state").path("text").asText();
-            System.out.println("Printer state: " + state);
+    public Mono<Boolean> isPrinterAvailable(Printer printer) {
+        return Mono.fromCallable(() -> hasAssignedJob(printer))
+                .flatMap(assigned -> assigned ? Mono.just(false) : octoPrintClient.getPrinterState(printer)
+                        .map(jsonResponse -> {
+                            String state = jsonResponse.path("state").path("text").asText();
+                            log.debug("Printer state printerId={} state={}", printer.getPrinter_id(), state);
+                            return "Operational".equalsIgnoreCase(state);
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Printer availability check failed printerId={} error={}", printer.getPrinter_id(), e.toString());
+                            return Mono.just(false);
+                        }));
+    }
 
-            return "Operational".equalsIgnoreCase(state);
-        } catch (Exception e) {
-            System.out.println("Error checking printer availability: " + e.getMessage());
-            return false;
+    private boolean hasAssignedJob(Printer printer) {
+        if (busyPrinters.isBusy(printer)) {
+            log.debug("Printer busy printerId={}", printer.getPrinter_id());
+            return true;
         }
+        return false;
     }
 
     /**
-     * Starts a print job on the specified printer.
+     * Starts a print job on the specified printer and records the job as in progress.
+     * <p>
+     * Until a job is started, its start date holds the date it was placed, which is used to record
+     * the time the job waited.
      *
      * @param printer The printer on which to start the job.
      * @param job     The job to be started.
-     * @return {@code true} if the job started successfully, {@code false} otherwise.
+     * @return A {@link Mono} emitting {@code true} if the job started successfully, {@code false} otherwise.
      */
-    public boolean startPrintJob(Printer printer, Job job) {
-        String jobStartUrl = "http://" + printer.getIp_addr() + "/api/files/local/" + job.getItem().getFile_ref();
-
-        try {
-            System.out.println("Starting print job at: " + jobStartUrl);
-            ObjectNode startRequest = objectMapper.createObjectNode();
-            startRequest.put("command", "select");
-            startRequest.put("print", true);
-            System.out.println("Start request: " + startRequest.toString());
-
-            WebClient.ResponseSpec responseSpec = webClient.post()
-                    .uri(jobStartUrl)
-                    .header("X-Api-Key", printer.getApikey())
-                    .header("Content-Type", "application/json")
-                    .bodyValue(startRequest.toString())
-                    .retrieve();
-
-            HttpStatus statusCode = (HttpStatus) responseSpec.toBodilessEntity().block().getStatusCode();
-
-            System.out.println("Start job response status: " + statusCode);
-
-            if (statusCode == HttpStatus.NO_CONTENT || statusCode == HttpStatus.OK) {
-                job.setStart_date(new Date());
-                job.setStatus(new Status(2L, "In Progress"));
-                job.setPrinter(printer);
-                jobRepository.save(job);
-                return true;
-            } else {
-                System.out.println("Failed to start job. Status code: " + statusCode);
-                return false;
-            }
-        } catch (Exception e) {
-            System.out.println("Error starting print job: " + e.getMessage());
-            return false;
-        }
+    public Mono<Boolean> startPrintJob(Printer printer, Job job) {
+        return octoPrintClient.startPrint(printer, GcodeStore.printerFileName(job.getItem().getFile_ref()))
+                .then(Mono.fromCallable(() -> {
+                    Date placed = job.getStart_date();
+                    Date started = new Date();
+                    job.setStart_date(started);
+                    job.setStatus(new Status(2L, "In Progress"));
+                    job.setPrinter(printer);
+                    transactionOperations.executeWithoutResult(status -> {
+                        jobRepository.save(job);
+                        eventPublisher.publishEvent(jobEvent(DomainEvent.JOB_STARTED, job));
+                    });
+                    busyPrinters.markBusy(printer);
+                    printMetrics.jobStarted(placed, started);
+                    log.info("Job started jobId={} printerId={}", job.getJobId(), printer.getPrinter_id());
+                    return true;
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .onErrorResume(e -> {
+                    printMetrics.dispatchFailed();
+                    log.warn("Job start failed jobId={} printerId={} error={}", job.getJobId(), printer.getPrinter_id(), e.toString());
+                    return Mono.just(false);
+                });
     }
 
     /**
@@ -227,47 +240,32 @@ public class PrinterService {
      *
      * @param printer The printer on which the job is running.
      * @param job     The job to check for completion.
-     * @return {@code true} if the job is complete, {@code false} otherwise.
+     * @return A {@link Mono} emitting {@code true} if the job is complete, {@code false} otherwise.
      */
-    public boolean isJobComplete(Printer printer, Job job) {
-        String jobStatusUrl = "http://" + printer.getIp_addr() + "/api/job";
-
-        try {
-            System.out.println("Checking job completion at: " + jobStatusUrl);
-            String response = webClient.get()
-                    .uri(jobStatusUrl)
-                    .header("X-Api-Key", printer.getApikey())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-            System.out.println("Response: " + response);
-
-            JsonNode jsonResponse = objectMapper.readTree(response);
-            String state = jsonResponse.path("state").asText();
-            boolean isCompletionNull = jsonResponse.path("progress").path("completion").isNull();
-            boolean isPrintTimeLeftNull = jsonResponse.path("progress").path("printTimeLeft").isNull();
-
-            System.out.println("Job state: " + state);
-            System.out.println("Completion is null: " + isCompletionNull);
-            System.out.println("Print time left is null: " + isPrintTimeLeftNull);
-
-            // If completion and printTimeLeft are null, we consider the job done and ready for pickup (temporary)
-            if (isCompletionNull && isPrintTimeLeftNull) {
-                completeJob(job);
-                return true;
-            }
+    public Mono<Boolean> isJobComplete(Printer printer, Job job) {
+        return octoPrintClient.getJob(printer)
+                .map(jsonResponse -> {
+                    String state = jsonResponse.path("state").asText();
+                    boolean isCompletionNull = jsonResponse.path("progress").path("completion").isNull();
+                    boolean isPrintTimeLeftNull = jsonResponse.path("progress").path("printTimeLeft").isNull();
+
+                    // If completion and printTimeLeft are null, we consider the job done and ready for pickup (temporary)
+                    if (isCompletionNull && isPrintTimeLeftNull) {
+                        return true;
+                    }
 
-            double completion = jsonResponse.path("progress").path("completion").asDouble();
-            int printTimeLeft = jsonResponse.path("progress").path("printTimeLeft").asInt();
+                    double completion = jsonResponse.path("progress").path("completion").asDouble();
+                    int printTimeLeft = jsonResponse.path("progress").path("printTimeLeft").asInt();
 
-            System.out.println("Completion: " + completion);
-            System.out.println("Print time left: " + printTimeLeft);
+                    log.debug("Job progress jobId={} state={} completion={} printTimeLeft={}",
+                            job.getJobId(), state, completion, printTimeLeft);
 
-            return "Operational".equalsIgnoreCase(state) && completion == 100.0 && printTimeLeft == 0;
-        } catch (Exception e) {
-            System.out.println("Error checking job completion: " + e.getMessage());
-            return false;
-        }
+                    return "Operational".equalsIgnoreCase(state) && completion == 100.0 && printTimeLeft == 0;
+                })
+                .onErrorResume(e -> {
+                    log.warn("Job completion check failed jobId={} printerId={} error={}", job.getJobId(), printer.getPrinter_id(), e.toString());
+                    return Mono.just(false);
+                });
     }
 
     /**
@@ -276,10 +274,31 @@ public class PrinterService {
      * @param job The job to be marked as complete.
      */
     public void completeJob(Job job) {
-        System.out.println("Completing job ID: " + job.getJobId());
         job.setStatus(new Status(3L, "Awaiting Pick Up"));
         job.setEnd_date(new Date());
-        jobRepository.save(job);
+        transactionOperations.executeWithoutResult(status -> {
+            jobRepository.save(job);
+            eventPublisher.publishEvent(jobEvent(DomainEvent.JOB_COMPLETED, job));
+        });
+        printMetrics.jobCompleted(job.getStart_date(), job.getEnd_date());
+        log.info("Job completed jobId={}", job.getJobId());
+    }
+
+    /**
+     * Creates the event of a changed job, carrying its status, printer, dates and the order item it prints.
+     *
+     * @param type The type of the event.
+     * @param job  The changed job.
+     * @return The event.
+     */
+    static DomainEvent jobEvent(String type, Job job) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("statusId", job.getStatus() != null ? job.getStatus().getStatus_id() : null);
+        payload.put("printerId", job.getPrinter() != null ? job.getPrinter().getPrinter_id() : null);
+        payload.put("startDate", job.getStart_date() != null ? job.getStart_date().getTime() : null);
+        payload.put("endDate", job.getEnd_date() != null ? job.getEnd_date().getTime() : null);
+        payload.put("orderItemId", job.getOrderItemId());
+        return DomainEvent.of(type, job.getJobId(), payload);
     }
 
     /**
@@ -288,7 +307,6 @@ public class PrinterService {
      * @return A list of all printers.
      */
     public List<Printer> getPrinters() {
-        System.out.println("Retrieving all printers.");
         return printerRepository.findAll();
     }
 
@@ -318,27 +336,27 @@ public class PrinterService {
                     String ipAddress = printer.getIp_addr();
                     String apiKey = printer.getApikey();
                     if (ipAddress != null && apiKey != null) {
-                        WebClient webClient = WebClient.builder().build();
                         try {
                             response.setStatus(HttpServletResponse.SC_OK);
                             response.setContentType("multipart/x-mixed-replace; boundary=boundarydonotcross");
-
-                            webClient.get()
-                                    .uri("http://{ipAddress}/webcam/?action=stream&apikey={apiKey}", ipAddress, apiKey)
-                                    .accept(MediaType.parseMediaType("multipart/x-mixed-replace; boundary=boundarydonotcross"))
-                                    .retrieve()
-                                    .bodyToFlux(DataBuffer.class)
-                                    // .timeout(Duration.ofSeconds(10))
-                                    .doOnNext(dataBuffer -> {
-                                        try (final var input = dataBuffer.asInputStream()) {
-                                            input.transferTo(response.getOutputStream());
-                                        } catch (IOException e) {
-                                            throw new RuntimeException(e);
-                                        } finally {
-                                            DataBufferUtils.release(dataBuffer);
-                                        }
-                                    })
-                                    .blockLast();
+                            OutputStream output = response.getOutputStream();
+
+                            // Frames are written on the request thread, which merely parks while waiting for the
+                            // next one when running on a virtual thread. Closing the stream cancels the upstream.
+                            try (Stream<DataBuffer> frames = octoPrintClient.streamWebcam(printer)
+                                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                                    .toStream(WEBCAM_PREFETCH)) {
+                                Iterator<DataBuffer> iterator = frames.iterator();
+                                while (iterator.hasNext()) {
+                                    DataBuffer dataBuffer = iterator.next();
+                                    try (final var input = dataBuffer.asInputStream()) {
+                                        input.transferTo(output);
+                                    } finally {
+                                        DataBufferUtils.release(dataBuffer);
+                                    }
+                                    output.flush();
+                                }
+                            }
                             return ResponseEntity.ok(new ApiResponse(true, "Webcam streaming initiated successfully.", null));
                         } catch (Exception e) {
                             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
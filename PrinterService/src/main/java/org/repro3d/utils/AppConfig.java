@@ -1,6 +1,7 @@
 package org.repro3d.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,6 +13,7 @@ import org.springframework.context.annotation.Configuration;
  * and managed by the Spring container.
  */
 @Configuration
+@EnableConfigurationProperties({OctoPrintClientProperties.class, GcodeProperties.class, EventProperties.class, SchedulerProperties.class})
 public class AppConfig {
 
     /**
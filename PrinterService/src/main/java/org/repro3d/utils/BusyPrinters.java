@@ -0,0 +1,148 @@
+package org.repro3d.utils;
+
+import org.repro3d.model.Printer;
+import org.repro3d.repository.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the IDs of the printers holding a job, so the {@link JobScheduler} finds the idle printers
+ * without asking the database about each of them on every dispatch.
+ * <p>
+ * A printer is busy while one of its jobs is in progress or awaiting pick up. Printers the scheduler
+ * starts a job on are added right away. Jobs picked up or changed through the API mark the set stale,
+ * and it is reloaded with one grouped query the next time it is read. It is also reloaded periodically
+ * ({@code repro3d.scheduler.busy-printers-rate}), which picks up changes that raise no event, such as
+ * deleted jobs. If reloading a stale set fails, the last loaded set is used and stays stale, so a database
+ * error does not fail the dispatch probing the printers. Reads then use the last set without retrying
+ * for {@link #RELOAD_BACKOFF}, so a dispatch probing many printers does not run the failing query for
+ * each of them.
+ */
+@Component
+public class BusyPrinters {
+
+    private static final Logger log = LoggerFactory.getLogger(BusyPrinters.class);
+
+    /**
+     * The states of a job that keep its printer busy: "In Progress" and "Awaiting Pick Up".
+     */
+    static final List<Long> BUSY_STATUS_IDS = List.of(2L, 3L);
+
+    /**
+     * How long reads use the last loaded set after a failed reload before trying again.
+     */
+    static final Duration RELOAD_BACKOFF = Duration.ofSeconds(30);
+
+    private final JobRepository jobRepository;
+    private final long backoffNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Set<Long> printerIds = Set.of();
+    private volatile boolean stale = true;
+    private volatile boolean hasLoaded;
+    private volatile boolean reloadFailed;
+    private volatile long reloadFailedAt;
+
+    /**
+     * Constructs a {@code BusyPrinters} set.
+     *
+     * @param jobRepository The repository used for data operations on jobs.
+     */
+    @Autowired
+    public BusyPrinters(JobRepository jobRepository) {
+        this(jobRepository, RELOAD_BACKOFF);
+    }
+
+    BusyPrinters(JobRepository jobRepository, Duration backoff) {
+        this.jobRepository = jobRepository;
+        this.backoffNanos = backoff.toNanos();
+    }
+
+    /**
+     * Returns whether a job is assigned to a printer, reloading the set first if it is stale. If the
+     * reload fails, or failed less than the backoff ago, the answer comes from the last loaded set.
+     *
+     * @param printer The printer to check.
+     * @return {@code true} if the printer holds a job in progress or awaiting pick up.
+     * @throws RuntimeException If the set was never loaded and loading it fails.
+     */
+    public boolean isBusy(Printer printer) {
+        if (stale && (!hasLoaded || !backingOff())) {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                if (!hasLoaded) {
+                    throw e;
+                }
+                log.warn("Busy printers reload failed, using the last loaded set error={}", e.toString());
+            }
+        }
+        return printerIds.contains(printer.getPrinter_id());
+    }
+
+    private boolean backingOff() {
+        return reloadFailed && System.nanoTime() - reloadFailedAt < backoffNanos;
+    }
+
+    /**
+     * Adds a printer a job was started on. Called once the job is committed.
+     *
+     * @param printer The printer now holding a job.
+     */
+    public void markBusy(Printer printer) {
+        lock.lock();
+        try {
+            Set<Long> ids = new HashSet<>(printerIds);
+            ids.add(printer.getPrinter_id());
+            printerIds = Set.copyOf(ids);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the set stale after a job was changed outside the scheduler. Called once the change is
+     * committed.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Reloads the busy printers from the database.
+     * <p>
+     * Scheduled every minute by default ({@code repro3d.scheduler.busy-printers-rate}). Changes
+     * committed while the query runs mark the set stale again, so they are not lost. The query reads the
+     * primary, as a lagging replica would drop printers just marked busy.
+     */
+    @Scheduled(fixedRateString = "${repro3d.scheduler.busy-printers-rate:PT1M}")
+    public void reload() {
+        lock.lock();
+        try {
+            boolean wasStale = stale;
+            stale = false;
+            Set<Long> loaded = Set.copyOf(PrimaryReads.call(() -> jobRepository.findPrinterIdsByStatusIds(BUSY_STATUS_IDS)));
+            if (!wasStale && !loaded.equals(printerIds)) {
+                log.info("Busy printers changed outside the scheduler cached={} loaded={}", printerIds, loaded);
+            }
+            printerIds = loaded;
+            hasLoaded = true;
+            reloadFailed = false;
+        } catch (RuntimeException e) {
+            stale = true;
+            reloadFailedAt = System.nanoTime();
+            reloadFailed = true;
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,634 @@
+package org.repro3d.utils;
+
+import org.repro3d.model.GcodeAnalysis;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Computes print-time and filament estimates from G-code files.
+ * <p>
+ * Files are read through memory-mapped windows of {@value #WINDOW_SIZE} bytes, copied in blocks of
+ * {@value #BLOCK_SIZE} bytes into a reused array and parsed byte by byte there, without creating a
+ * {@code String} per line, so files of any size are analyzed in constant heap. The bulk copies out of
+ * the mapping cost far less than a checked access to it per byte.
+ * <p>
+ * The print time follows the motion planning of the firmware closely enough for scheduling: every
+ * move accelerates and decelerates at the configured acceleration (or the one set with
+ * {@code M204}) between junction speeds derived from the angle between consecutive moves, as with
+ * Marlin's junction deviation. Homing, heating and other waits are not included.
+ * <p>
+ * Filament type, diameter and density are taken from the settings PrusaSlicer, SuperSlicer and
+ * OrcaSlicer record in the file, falling back to {@link GcodeProperties}.
+ */
+@Component
+public class GcodeAnalyzer {
+
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Densities in g/cm³ of common filament types, used when the file names the type but not the density.
+     */
+    private static final Map<String, Double> DENSITIES = Map.of(
+            "PLA", 1.24, "PETG", 1.27, "ABS", 1.04, "ASA", 1.07, "TPU", 1.21,
+            "PA", 1.14, "NYLON", 1.14, "PC", 1.20, "PVA", 1.23, "HIPS", 1.04);
+
+    private final GcodeProperties properties;
+    private final int windowSize;
+
+    /**
+     * Constructs a {@code GcodeAnalyzer}.
+     *
+     * @param properties The G-code settings holding the defaults for files that do not state them.
+     */
+    @Autowired
+    public GcodeAnalyzer(GcodeProperties properties) {
+        this(properties, WINDOW_SIZE);
+    }
+
+    GcodeAnalyzer(GcodeProperties properties, int windowSize) {
+        this.properties = properties;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Receives the extruding moves of a file while it is analyzed, for example to draw a preview.
+     */
+    @FunctionalInterface
+    public interface ExtrusionListener {
+
+        /**
+         * Called for every extruding move; arcs are reported as their chord.
+         *
+         * @param fromX The X coordinate the move starts at.
+         * @param fromY The Y coordinate the move starts at.
+         * @param toX   The X coordinate the move ends at.
+         * @param toY   The Y coordinate the move ends at.
+         * @param z     The height of the move.
+         */
+        void extrusion(double fromX, double fromY, double toX, double toY, double z);
+    }
+
+    /**
+     * Analyzes a G-code file.
+     *
+     * @param file The file to analyze.
+     * @return The estimates computed from the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public GcodeAnalysis analyze(Path file) throws IOException {
+        return analyze(file, null);
+    }
+
+    /**
+     * Analyzes a G-code file, reporting its extruding moves to a listener on the way.
+     *
+     * @param file     The file to analyze.
+     * @param listener The listener receiving the extruding moves, or {@code null}.
+     * @return The estimates computed from the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public GcodeAnalysis analyze(Path file, ExtrusionListener listener) throws IOException {
+        Parser parser = new Parser(properties.getAcceleration(), listener);
+        byte[] block = new byte[BLOCK_SIZE];
+        int filled = 0;
+        // Set while the rest of a line longer than a whole block is dropped, up to its newline.
+        boolean skipping = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += windowSize) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+                while (window.hasRemaining()) {
+                    int length = Math.min(window.remaining(), block.length - filled);
+                    window.get(block, filled, length);
+                    filled += length;
+                    if (skipping) {
+                        int newline = indexOf(block, filled, (byte) '\n');
+                        if (newline < 0) {
+                            filled = 0;
+                            continue;
+                        }
+                        skipping = false;
+                        System.arraycopy(block, newline + 1, block, 0, filled - newline - 1);
+                        filled -= newline + 1;
+                    }
+                    int parsed = parser.parse(block, filled);
+                    if (parsed == 0 && filled == block.length) {
+                        // A line longer than a whole block cannot be G-code the printer accepts; it is skipped.
+                        skipping = true;
+                        parsed = filled;
+                    }
+                    System.arraycopy(block, parsed, block, 0, filled - parsed);
+                    filled -= parsed;
+                }
+            }
+        }
+        if (!skipping) {
+            parser.line(block, 0, filled);
+        }
+        return parser.result(properties.getFilamentDiameter(), properties.getFilamentDensity());
+    }
+
+    private static int indexOf(byte[] buffer, int limit, byte value) {
+        for (int i = 0; i < limit; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The state of the printer while the file is replayed. Parameters of the current command are kept
+     * in {@link #values}, indexed by their letter, with {@link #words} flagging the ones present.
+     */
+    private static final class Parser {
+
+        private static final double JUNCTION_DEVIATION = 0.013;
+        private static final double MIN_LENGTH = 1e-6;
+        private static final double MIN_LAYER_HEIGHT = 0.01;
+        private static final double[] POWERS_OF_TEN = {1, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+                1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+        private static final int X = 0, Y = 1, Z = 2, E = 3, F = 4, I = 5, J = 6, P = 7, S = 8;
+        private static final byte[] FILAMENT_TYPE = "filament_type".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] FILAMENT_DIAMETER = "filament_diameter".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] FILAMENT_DENSITY = "filament_density".getBytes(StandardCharsets.US_ASCII);
+
+        private final ExtrusionListener listener;
+        private final double[] values = new double[9];
+        private int words;
+        private int index;
+
+        private double acceleration;
+        private boolean absolute = true;
+        private boolean absoluteExtrusion = true;
+        private double scale = 1;
+        private double x, y, z, e;
+        private double feedRate = 25;
+
+        // The last move, whose time is known once the speed at its junction with the next one is.
+        private boolean pending;
+        private double pendingLength, pendingSpeed, pendingEntry;
+        private double ux, uy, uz;
+
+        private double seconds;
+        private double filament;
+        private int layers;
+        private double layerZ = Double.NEGATIVE_INFINITY;
+        private double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        private double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ;
+
+        private String filamentType;
+        private double filamentDiameter = Double.NaN;
+        private double filamentDensity = Double.NaN;
+
+        Parser(double acceleration, ExtrusionListener listener) {
+            this.acceleration = acceleration;
+            this.listener = listener;
+        }
+
+        /**
+         * Parses the complete lines at the start of a block.
+         *
+         * @return The number of bytes parsed; the rest is the start of an incomplete line.
+         */
+        int parse(byte[] buffer, int limit) {
+            int lineStart = 0;
+            for (int i = 0; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    line(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            return lineStart;
+        }
+
+        GcodeAnalysis result(double defaultDiameter, double defaultDensity) {
+            finishMove(0);
+            double diameter = Double.isNaN(filamentDiameter) ? defaultDiameter : filamentDiameter;
+            double density = !Double.isNaN(filamentDensity) ? filamentDensity
+                    : filamentType != null ? DENSITIES.getOrDefault(filamentType.toUpperCase(Locale.ROOT), defaultDensity)
+                    : defaultDensity;
+            double weight = filament * Math.PI * diameter * diameter / 4 * density / 1000;
+            boolean printed = minX <= maxX;
+            return new GcodeAnalysis(Math.round(seconds), filament, weight, layers,
+                    printed ? maxX - minX : 0, printed ? maxY - minY : 0, printed ? maxZ : 0, filamentType);
+        }
+
+        void line(byte[] buffer, int from, int to) {
+            index = skipBlanks(buffer, from, to);
+            if (index >= to) {
+                return;
+            }
+            byte letter = upper(buffer[index]);
+            if (letter == ';') {
+                comment(buffer, index + 1, to);
+                return;
+            }
+            if (letter == 'N') {
+                index++;
+                number(buffer, to);
+                index = skipBlanks(buffer, index, to);
+                if (index >= to) {
+                    return;
+                }
+                letter = upper(buffer[index]);
+            }
+            if (letter != 'G' && letter != 'M') {
+                return;
+            }
+            index++;
+            int code = code(buffer, to);
+            if (code < 0) {
+                return;
+            }
+            words = 0;
+            while ((index = skipBlanks(buffer, index, to)) < to) {
+                byte word = upper(buffer[index++]);
+                if (word == ';' || word == '*') {
+                    break;
+                }
+                int slot = slot(word);
+                double value = number(buffer, to);
+                if (slot >= 0) {
+                    values[slot] = value;
+                    words |= 1 << slot;
+                }
+            }
+            if (letter == 'G') {
+                command(code);
+            } else {
+                mcode(code);
+            }
+        }
+
+        private void command(int code) {
+            switch (code) {
+                case 0, 1 -> linearMove();
+                case 2, 3 -> arcMove(code == 3);
+                case 4 -> {
+                    finishMove(0);
+                    seconds += has(P) ? values[P] / 1000 : has(S) ? values[S] : 0;
+                }
+                case 20 -> scale = 25.4;
+                case 21 -> scale = 1;
+                case 28 -> {
+                    finishMove(0);
+                    boolean all = !has(X) && !has(Y) && !has(Z);
+                    x = all || has(X) ? 0 : x;
+                    y = all || has(Y) ? 0 : y;
+                    z = all || has(Z) ? 0 : z;
+                }
+                case 90 -> {
+                    absolute = true;
+                    absoluteExtrusion = true;
+                }
+                case 91 -> {
+                    absolute = false;
+                    absoluteExtrusion = false;
+                }
+                case 92 -> {
+                    x = has(X) ? values[X] * scale : x;
+                    y = has(Y) ? values[Y] * scale : y;
+                    z = has(Z) ? values[Z] * scale : z;
+                    e = has(E) ? values[E] * scale : e;
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void mcode(int code) {
+            switch (code) {
+                case 82 -> absoluteExtrusion = true;
+                case 83 -> absoluteExtrusion = false;
+                case 204 -> {
+                    double value = has(P) ? values[P] : has(S) ? values[S] : 0;
+                    if (value > 0) {
+                        acceleration = value;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void linearMove() {
+            if (has(F) && values[F] > 0) {
+                feedRate = values[F] * scale / 60;
+            }
+            double tx = target(X, x), ty = target(Y, y), tz = target(Z, z);
+            double de = has(E) ? (absoluteExtrusion ? values[E] * scale - e : values[E] * scale) : 0;
+            double dx = tx - x, dy = ty - y, dz = tz - z;
+            double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (length > MIN_LENGTH) {
+                move(length, dx / length, dy / length, dz / length);
+                if (de > 0) {
+                    extrusion(tx, ty, tz);
+                }
+            } else if (Math.abs(de) > MIN_LENGTH) {
+                // Retractions and primes stop the head and take the feedrate of the extruder.
+                finishMove(0);
+                move(Math.abs(de), 0, 0, 0);
+                finishMove(0);
+            }
+            x = tx;
+            y = ty;
+            z = tz;
+            e += de;
+            filament += de;
+        }
+
+        private void arcMove(boolean counterClockwise) {
+            if (has(F) && values[F] > 0) {
+                feedRate = values[F] * scale / 60;
+            }
+            double tx = target(X, x), ty = target(Y, y), tz = target(Z, z);
+            double de = has(E) ? (absoluteExtrusion ? values[E] * scale - e : values[E] * scale) : 0;
+            double cx = x + (has(I) ? values[I] * scale : 0);
+            double cy = y + (has(J) ? values[J] * scale : 0);
+            double radius = Math.hypot(x - cx, y - cy);
+            double start = Math.atan2(y - cy, x - cx);
+            double sweep = Math.atan2(ty - cy, tx - cx) - start;
+            if (counterClockwise && sweep <= 0) {
+                sweep += 2 * Math.PI;
+            } else if (!counterClockwise && sweep >= 0) {
+                sweep -= 2 * Math.PI;
+            }
+            double length = Math.hypot(radius * Math.abs(sweep), tz - z);
+            double chord = Math.sqrt((tx - x) * (tx - x) + (ty - y) * (ty - y) + (tz - z) * (tz - z));
+            if (length > MIN_LENGTH) {
+                // The arc joins its neighbours along its chord, which is close enough for the short arcs slicers emit.
+                double nx = chord > MIN_LENGTH ? (tx - x) / chord : 0;
+                double ny = chord > MIN_LENGTH ? (ty - y) / chord : 0;
+                double nz = chord > MIN_LENGTH ? (tz - z) / chord : 0;
+                move(length, nx, ny, nz);
+                if (de > 0) {
+                    extrusion(tx, ty, tz);
+                    // The arc also reaches the extremes of its circle that lie within its sweep.
+                    for (int quadrant = 0; quadrant < 4; quadrant++) {
+                        double angle = quadrant * Math.PI / 2;
+                        double delta = sweep > 0 ? angle - start : start - angle;
+                        delta -= 2 * Math.PI * Math.floor(delta / (2 * Math.PI));
+                        if (delta <= Math.abs(sweep)) {
+                            include(cx + radius * Math.cos(angle), cy + radius * Math.sin(angle));
+                        }
+                    }
+                }
+            }
+            x = tx;
+            y = ty;
+            z = tz;
+            e += de;
+            filament += de;
+        }
+
+        /**
+         * Queues a move in direction {@code (nx, ny, nz)}, or a move of the extruder alone if the
+         * direction is zero, completing the previous move now that its exit speed is known.
+         */
+        private void move(double length, double nx, double ny, double nz) {
+            double speed = feedRate;
+            double junction = 0;
+            if (pending && (ux != 0 || uy != 0 || uz != 0) && (nx != 0 || ny != 0 || nz != 0)) {
+                junction = junctionSpeed(-(ux * nx + uy * ny + uz * nz), Math.min(pendingSpeed, speed));
+            }
+            finishMove(junction);
+            pending = true;
+            pendingLength = length;
+            pendingSpeed = speed;
+            pendingEntry = junction;
+            ux = nx;
+            uy = ny;
+            uz = nz;
+        }
+
+        /**
+         * Records an extruding move from the current position, which starts a new layer when it
+         * reaches above the previous one.
+         */
+        private void extrusion(double tx, double ty, double tz) {
+            include(x, y);
+            include(tx, ty);
+            if (listener != null) {
+                listener.extrusion(x, y, tx, ty, tz);
+            }
+            if (tz > layerZ + MIN_LAYER_HEIGHT) {
+                layers++;
+                layerZ = tz;
+            }
+            maxZ = Math.max(maxZ, tz);
+        }
+
+        private void include(double px, double py) {
+            minX = Math.min(minX, px);
+            maxX = Math.max(maxX, px);
+            minY = Math.min(minY, py);
+            maxY = Math.max(maxY, py);
+        }
+
+        private double junctionSpeed(double cosTheta, double limit) {
+            if (cosTheta > 0.999999) {
+                return 0;
+            }
+            if (cosTheta < -0.999999) {
+                return limit;
+            }
+            double sinHalfTheta = Math.sqrt(0.5 * (1 - cosTheta));
+            double speed = Math.sqrt(acceleration * JUNCTION_DEVIATION * sinHalfTheta / (1 - sinHalfTheta));
+            return Math.min(speed, limit);
+        }
+
+        private void finishMove(double exit) {
+            if (!pending) {
+                return;
+            }
+            pending = false;
+            seconds += moveTime(pendingLength, Math.min(pendingEntry, pendingSpeed), pendingSpeed, Math.min(exit, pendingSpeed));
+        }
+
+        private double moveTime(double length, double entry, double cruise, double exit) {
+            double a = acceleration;
+            double accelerating = (cruise * cruise - entry * entry) / (2 * a);
+            double decelerating = (cruise * cruise - exit * exit) / (2 * a);
+            if (accelerating + decelerating <= length) {
+                return (cruise - entry) / a + (cruise - exit) / a + (length - accelerating - decelerating) / cruise;
+            }
+            double peak = Math.sqrt((2 * a * length + entry * entry + exit * exit) / 2);
+            if (peak < Math.max(entry, exit)) {
+                // Too short to change speed as planned; the firmware would lower the junction speeds instead.
+                return 2 * length / (entry + exit);
+            }
+            return (peak - entry) / a + (peak - exit) / a;
+        }
+
+        private double target(int slot, double current) {
+            if (!has(slot)) {
+                return current;
+            }
+            return absolute ? values[slot] * scale : current + values[slot] * scale;
+        }
+
+        private boolean has(int slot) {
+            return (words & (1 << slot)) != 0;
+        }
+
+        private void comment(byte[] buffer, int from, int to) {
+            int i = skipBlanks(buffer, from, to);
+            if (i >= to || buffer[i] != 'f') {
+                return;
+            }
+            if (startsWith(buffer, i, to, FILAMENT_TYPE)) {
+                int start = valueStart(buffer, i + FILAMENT_TYPE.length, to);
+                if (start >= 0) {
+                    int end = start;
+                    while (end < to && buffer[end] != ';' && buffer[end] != '\r' && buffer[end] != ' ') {
+                        end++;
+                    }
+                    filamentType = end > start ? new String(buffer, start, end - start, StandardCharsets.US_ASCII) : null;
+                }
+            } else if (startsWith(buffer, i, to, FILAMENT_DIAMETER)) {
+                filamentDiameter = commentNumber(buffer, i + FILAMENT_DIAMETER.length, to, filamentDiameter);
+            } else if (startsWith(buffer, i, to, FILAMENT_DENSITY)) {
+                filamentDensity = commentNumber(buffer, i + FILAMENT_DENSITY.length, to, filamentDensity);
+            }
+        }
+
+        private double commentNumber(byte[] buffer, int from, int to, double current) {
+            int start = valueStart(buffer, from, to);
+            if (start < 0) {
+                return current;
+            }
+            index = start;
+            double value = number(buffer, to);
+            return value > 0 ? value : current;
+        }
+
+        private static int valueStart(byte[] buffer, int from, int to) {
+            int i = skipBlanks(buffer, from, to);
+            if (i >= to || buffer[i] != '=') {
+                return -1;
+            }
+            return skipBlanks(buffer, i + 1, to);
+        }
+
+        private int code(byte[] buffer, int to) {
+            int code = 0;
+            int digits = 0;
+            while (index < to) {
+                byte b = buffer[index];
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                code = code * 10 + (b - '0');
+                digits++;
+                index++;
+            }
+            if (digits == 0 || (index < to && isLetterOrUnderscore(buffer[index]))) {
+                return -1;
+            }
+            // Subcodes such as G29.1 are treated as their main code.
+            if (index < to && buffer[index] == '.') {
+                index++;
+                while (index < to && buffer[index] >= '0' && buffer[index] <= '9') {
+                    index++;
+                }
+            }
+            return code;
+        }
+
+        /**
+         * Parses the decimal number at {@link #index}, leaving {@link #index} after it. Exponents are
+         * not used in G-code and end the number.
+         */
+        private double number(byte[] buffer, int to) {
+            boolean negative = false;
+            if (index < to && (buffer[index] == '-' || buffer[index] == '+')) {
+                negative = buffer[index] == '-';
+                index++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fraction = -1;
+            while (index < to) {
+                byte b = buffer[index];
+                if (b >= '0' && b <= '9') {
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        digits++;
+                        if (fraction >= 0) {
+                            fraction++;
+                        }
+                    } else if (fraction < 0) {
+                        // Integer digits past the precision still scale the value.
+                        fraction--;
+                    }
+                } else if (b == '.' && fraction < 0) {
+                    fraction = 0;
+                } else {
+                    break;
+                }
+                index++;
+            }
+            double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction]
+                    : fraction < -1 ? mantissa * Math.pow(10, -fraction - 1) : mantissa;
+            return negative ? -value : value;
+        }
+
+        private static int slot(byte letter) {
+            return switch (letter) {
+                case 'X' -> X;
+                case 'Y' -> Y;
+                case 'Z' -> Z;
+                case 'E' -> E;
+                case 'F' -> F;
+                case 'I' -> I;
+                case 'J' -> J;
+                case 'P' -> P;
+                case 'S' -> S;
+                default -> -1;
+            };
+        }
+
+        private static boolean startsWith(byte[] buffer, int from, int to, byte[] prefix) {
+            if (to - from < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (buffer[from + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int skipBlanks(byte[] buffer, int from, int to) {
+            int i = from;
+            while (i < to) {
+                byte b = buffer[i];
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    break;
+                }
+                i++;
+            }
+            return i;
+        }
+
+        private static boolean isLetterOrUnderscore(byte b) {
+            return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || b == '_';
+        }
+
+        private static byte upper(byte b) {
+            return b >= 'a' && b <= 'z' ? (byte) (b - 32) : b;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of the G-code store, its analyzer, catalog imports and the staging of files to the printers, bound from
+ * {@code repro3d.gcode.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "repro3d.gcode")
+public class GcodeProperties {
+
+    /**
+     * Directory of the content-addressed G-code store.
+     */
+    private Path storeDir = Path.of("gcode-store");
+
+    /**
+     * Maximum size of a file uploaded to the store.
+     */
+    private DataSize maxFileSize = DataSize.ofGigabytes(1);
+
+    /**
+     * Time after its last chunk at which an unfinished upload is discarded.
+     */
+    private Duration uploadExpiry = Duration.ofDays(1);
+
+    /**
+     * Printing acceleration in mm/s² assumed by the analyzer until a file sets its own with {@code M204}.
+     */
+    private double acceleration = 1000;
+
+    /**
+     * Filament diameter in mm assumed by the analyzer unless the slicer recorded it in the file.
+     */
+    private double filamentDiameter = 1.75;
+
+    /**
+     * Filament density in g/cm³ assumed by the analyzer unless the slicer recorded it or its filament type in the file.
+     */
+    private double filamentDensity = 1.24;
+
+    /**
+     * Number of files of a catalog import analyzed in parallel.
+     */
+    private int importParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum size of a catalog import archive.
+     */
+    private DataSize importMaxSize = DataSize.ofGigabytes(4);
+
+    /**
+     * Edge length in pixels of the thumbnails rendered for files without an embedded one.
+     */
+    private int thumbnailSize = 256;
+
+    /**
+     * Edge length in mm of the square bed area, from the origin, covered by rendered thumbnails.
+     */
+    private double previewBedSize = 350;
+
+    /**
+     * Number of waiting jobs, in dispatch order, whose files are staged to the printers ahead of dispatch.
+     */
+    private int stagingLookahead = 20;
+
+    /**
+     * Maximum number of uploads to printers running at the same time.
+     */
+    private int uploadConcurrency = 4;
+}
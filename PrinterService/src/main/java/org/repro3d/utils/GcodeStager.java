@@ -0,0 +1,215 @@
+package org.repro3d.utils;
+
+import org.repro3d.model.Printer;
+import org.repro3d.model.PrinterFile;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.PrinterFileRepository;
+import org.repro3d.repository.PrinterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Uploads the G-code files of upcoming jobs to the printers ahead of their dispatch.
+ * <p>
+ * Each tick looks at the next waiting jobs and uploads each stored file to idle printers, the likely
+ * targets of the next dispatch, until as many idle printers hold it as jobs are waiting for it. Printers
+ * staging the fewest files in the tick are chosen first, so the files spread over the farm. Before that,
+ * the idle printers recorded as holding a file are asked whether they still do, and the records of files
+ * wiped from a printer are removed, so the file is staged again. Uploads run in parallel up to {@link GcodeProperties#getUploadConcurrency()} and are streamed from
+ * the {@link GcodeStore}. Completed uploads are recorded as {@link PrinterFile}s, and the
+ * {@link JobScheduler} only dispatches a job to printers holding its file. A tick that staged files
+ * raises {@link FilesStaged}, so the jobs waiting for them are dispatched right away rather than on
+ * the next dispatch tick.
+ */
+@Component
+public class GcodeStager {
+
+    private static final Logger log = LoggerFactory.getLogger(GcodeStager.class);
+
+    private final JobRepository jobRepository;
+    private final PrinterRepository printerRepository;
+    private final PrinterFileRepository printerFileRepository;
+    private final GcodeStore gcodeStore;
+    private final OctoPrintClient octoPrintClient;
+    private final GcodeProperties properties;
+    private final BusyPrinters busyPrinters;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReentrantLock tickLock = new ReentrantLock();
+
+    /**
+     * Constructs a {@code GcodeStager}.
+     *
+     * @param jobRepository         The repository used for data operations on jobs.
+     * @param printerRepository     The repository used for data operations on printers.
+     * @param printerFileRepository The repository tracking the files held by the printers.
+     * @param gcodeStore            The store holding the files.
+     * @param octoPrintClient       The client for the OctoPrint API of the printers.
+     * @param properties            The staging settings.
+     * @param busyPrinters          The printers holding a job, which are not staged to.
+     * @param eventPublisher        The publisher announcing staged files.
+     */
+    @Autowired
+    public GcodeStager(JobRepository jobRepository, PrinterRepository printerRepository, PrinterFileRepository printerFileRepository,
+                       GcodeStore gcodeStore, OctoPrintClient octoPrintClient, GcodeProperties properties, BusyPrinters busyPrinters,
+                       ApplicationEventPublisher eventPublisher) {
+        this.jobRepository = jobRepository;
+        this.printerRepository = printerRepository;
+        this.printerFileRepository = printerFileRepository;
+        this.gcodeStore = gcodeStore;
+        this.octoPrintClient = octoPrintClient;
+        this.properties = properties;
+        this.busyPrinters = busyPrinters;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Periodically uploads the files of the next waiting jobs to the printers lacking them.
+     * <p>
+     * Scheduled every 30 seconds by default ({@code repro3d.gcode.staging-rate}). A tick that finds
+     * the previous one still uploading is skipped.
+     */
+    @Scheduled(fixedRateString = "${repro3d.gcode.staging-rate:PT30S}")
+    public void stageUpcomingFiles() {
+        if (!tickLock.tryLock()) {
+            log.info("Previous staging tick still running, skipping tick");
+            return;
+        }
+        try {
+            stage();
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    private void stage() {
+        Map<String, Long> waitingByHash = jobRepository.findByStatusOrderByJobIdAsc(new Status(1L, "Waiting")).stream()
+                .limit(properties.getStagingLookahead())
+                .map(job -> job.getItem().getFile_ref())
+                .filter(GcodeStore::isHash)
+                .collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()));
+        if (waitingByHash.isEmpty()) {
+            return;
+        }
+        List<Printer> idle = printerRepository.findAll().stream()
+                .filter(printer -> !busyPrinters.isBusy(printer))
+                .toList();
+        if (idle.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> staging = new HashMap<>();
+        List<Upload> uploads = new ArrayList<>();
+        waitingByHash.forEach((hash, waiting) -> {
+            Optional<Path> file = gcodeStore.find(hash);
+            if (file.isEmpty()) {
+                log.warn("G-code file of waiting job missing in store hash={}", hash);
+                return;
+            }
+            Set<Long> holders = idleHolders(hash, idle);
+            idle.stream()
+                    .filter(printer -> !holders.contains(printer.getPrinter_id()))
+                    .sorted(Comparator.comparingInt((Printer printer) -> staging.getOrDefault(printer.getPrinter_id(), 0)))
+                    .limit(Math.max(0, waiting - holders.size()))
+                    .forEach(printer -> {
+                        uploads.add(new Upload(printer, hash, file.get()));
+                        staging.merge(printer.getPrinter_id(), 1, Integer::sum);
+                    });
+        });
+        if (uploads.isEmpty()) {
+            return;
+        }
+        long staged = Flux.fromIterable(uploads)
+                .flatMap(this::upload, properties.getUploadConcurrency())
+                .filter(Boolean::booleanValue)
+                .count()
+                .block();
+        log.info("Staged G-code files uploads={} failed={}", staged, uploads.size() - staged);
+        if (staged > 0) {
+            eventPublisher.publishEvent(new FilesStaged(staged));
+        }
+    }
+
+    /**
+     * Returns the idle printers holding a file, after asking those recorded as holding it whether they
+     * still do. The records of printers that lost the file are removed. A printer that cannot be asked
+     * is assumed to still hold it.
+     */
+    private Set<Long> idleHolders(String hash, List<Printer> idle) {
+        Set<Long> recorded = printerIdsHolding(hash);
+        String fileName = GcodeStore.printerFileName(hash);
+        List<Printer> holding = idle.stream()
+                .filter(printer -> recorded.contains(printer.getPrinter_id()))
+                .toList();
+        List<Printer> lost = Flux.fromIterable(holding)
+                .flatMap(printer -> octoPrintClient.hasFile(printer, fileName)
+                        .onErrorReturn(true)
+                        .filter(held -> !held)
+                        .map(held -> printer), properties.getUploadConcurrency())
+                .collectList()
+                .block();
+        for (Printer printer : lost) {
+            printerFileRepository.deleteByPrinterIdAndFileHash(printer.getPrinter_id(), hash);
+            log.info("Staged G-code file missing on printer printerId={} hash={}", printer.getPrinter_id(), hash);
+        }
+        return holding.stream()
+                .filter(printer -> !lost.contains(printer))
+                .map(Printer::getPrinter_id)
+                .collect(Collectors.toSet());
+    }
+
+    private Mono<Boolean> upload(Upload upload) {
+        Printer printer = upload.printer();
+        return octoPrintClient.uploadFile(printer, GcodeStore.printerFileName(upload.hash()), upload.file())
+                .then(Mono.fromCallable(() -> printerFileRepository.save(new PrinterFile(null, printer, upload.hash(), new Date())))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    log.warn("G-code upload failed printerId={} hash={} error={}", printer.getPrinter_id(), upload.hash(), e.toString());
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Returns the printers holding a stored file.
+     *
+     * @param hash The SHA-256 hash of the file.
+     * @return The IDs of the printers the file was uploaded to.
+     */
+    public Set<Long> printerIdsHolding(String hash) {
+        return new HashSet<>(printerFileRepository.findPrinterIdsByFileHash(hash));
+    }
+
+    private record Upload(Printer printer, String hash, Path file) {
+    }
+
+    /**
+     * Raised after a staging tick uploaded files to printers.
+     *
+     * @param uploads The number of files uploaded.
+     */
+    public record FilesStaged(long uploads) {
+    }
+}
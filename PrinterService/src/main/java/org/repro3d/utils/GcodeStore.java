@@ -0,0 +1,370 @@
+package org.repro3d.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local content-addressed store of G-code files.
+ * <p>
+ * Every file is stored once under its SHA-256 hash, which is also the {@code file_ref} of the items
+ * printing it. Such files are staged to the printers by the {@link GcodeStager} under the name
+ * {@code <hash>.gcode}. Any other {@code file_ref} names a file that is expected to be present on
+ * every printer already.
+ * <p>
+ * Files enter the store through resumable uploads: each upload is a partial file in the
+ * {@code incoming} directory that chunks are appended to straight from the request stream, and
+ * whose size is the offset to resume from after an interrupted chunk. Completing an upload hashes
+ * the file and moves it into the store, or discards it if the same content is stored already.
+ * Neither step holds more than a small buffer of the file in memory.
+ */
+@Component
+public class GcodeStore {
+
+    private static final Logger log = LoggerFactory.getLogger(GcodeStore.class);
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final String PART_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path incoming;
+    private final long maxFileSize;
+    private final Duration uploadExpiry;
+
+    /**
+     * Constructs a {@code GcodeStore} and creates its directory if needed.
+     *
+     * @param properties The G-code settings holding the store directory and upload limits.
+     */
+    @Autowired
+    public GcodeStore(GcodeProperties properties) {
+        this.root = properties.getStoreDir();
+        this.incoming = root.resolve("incoming");
+        this.maxFileSize = properties.getMaxFileSize().toBytes();
+        this.uploadExpiry = properties.getUploadExpiry();
+        try {
+            Files.createDirectories(incoming);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create G-code store " + root, e);
+        }
+    }
+
+    /**
+     * Returns whether a file reference is the hash of a file in a G-code store.
+     *
+     * @param fileRef The file reference of an item.
+     * @return {@code true} if the reference is a lowercase hex SHA-256 hash.
+     */
+    public static boolean isHash(String fileRef) {
+        return fileRef != null && HASH.matcher(fileRef).matches();
+    }
+
+    /**
+     * Returns the name under which a file is stored on the printers.
+     *
+     * @param fileRef The file reference of an item.
+     * @return {@code <hash>.gcode} for stored files, the reference itself otherwise.
+     */
+    public static String printerFileName(String fileRef) {
+        return isHash(fileRef) ? fileRef + ".gcode" : fileRef;
+    }
+
+    /**
+     * Looks up a stored file.
+     *
+     * @param hash The SHA-256 hash of the file.
+     * @return The path of the file, or an empty {@link Optional} if it is not stored.
+     */
+    public Optional<Path> find(String hash) {
+        if (!isHash(hash)) {
+            return Optional.empty();
+        }
+        Path path = path(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Looks up the thumbnail of a stored file.
+     *
+     * @param hash The SHA-256 hash of the file.
+     * @return The path of the PNG thumbnail, or an empty {@link Optional} if there is none.
+     */
+    public Optional<Path> findThumbnail(String hash) {
+        if (!isHash(hash)) {
+            return Optional.empty();
+        }
+        Path path = thumbnailPath(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Stores the thumbnail of a stored file, replacing any previous one.
+     *
+     * @param hash The SHA-256 hash of the file.
+     * @param png  The PNG image.
+     * @throws IOException If the thumbnail cannot be written.
+     */
+    public void storeThumbnail(String hash, byte[] png) throws IOException {
+        Path target = thumbnailPath(hash);
+        Path temp = Files.createTempFile(incoming, hash, ".png");
+        try {
+            Files.write(temp, png);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Streams a file into the store. A file that is already stored is kept and the copy discarded.
+     *
+     * @param content The content of the file, read to its end but not closed.
+     * @return The SHA-256 hash of the file.
+     * @throws IOException If the content cannot be read or written.
+     */
+    public String store(InputStream content) throws IOException {
+        String uploadId = createUpload();
+        try {
+            appendUpload(uploadId, 0, content);
+            return completeUpload(uploadId, null);
+        } finally {
+            deleteUpload(uploadId);
+        }
+    }
+
+    /**
+     * Starts a resumable upload.
+     *
+     * @return The ID of the upload.
+     * @throws IOException If the partial file cannot be created.
+     */
+    public String createUpload() throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        Files.createFile(part(uploadId));
+        return uploadId;
+    }
+
+    /**
+     * Returns the number of bytes received by an upload, which is the offset of its next chunk.
+     *
+     * @param uploadId The ID of the upload.
+     * @return The offset, or an empty {@link OptionalLong} if there is no such upload.
+     * @throws IOException If the partial file cannot be read.
+     */
+    public OptionalLong uploadOffset(String uploadId) throws IOException {
+        if (!isUploadId(uploadId)) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Files.size(part(uploadId)));
+        } catch (NoSuchFileException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Appends a chunk to an upload, writing it to disk as it is read.
+     * <p>
+     * A chunk interrupted by a read error is kept up to the last byte received, so the client can
+     * resume from the offset reported by {@link #uploadOffset(String)}.
+     *
+     * @param uploadId The ID of the upload.
+     * @param offset   The offset the chunk starts at, which must be the current size of the upload.
+     * @param chunk    The content of the chunk, read to its end but not closed.
+     * @return The offset after the chunk.
+     * @throws NoSuchFileException      If there is no such upload.
+     * @throws IllegalStateException    If the offset does not match or another chunk is being written.
+     * @throws IllegalArgumentException If the chunk makes the file exceed the maximum file size.
+     * @throws IOException              If the chunk cannot be read or written.
+     */
+    public long appendUpload(String uploadId, long offset, InputStream chunk) throws IOException {
+        try (FileChannel channel = FileChannel.open(existingPart(uploadId), StandardOpenOption.WRITE);
+             FileLock ignored = lock(channel, uploadId)) {
+            long size = channel.size();
+            if (size != offset) {
+                throw new IllegalStateException("Upload " + uploadId + " is at offset " + size + ", not " + offset);
+            }
+            // Unlike FileChannel.transferFrom, which reports a failed read as the end of the source,
+            // this loop lets a broken connection surface as an error after keeping what was received.
+            ReadableByteChannel source = Channels.newChannel(chunk);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = offset;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                if (position + buffer.remaining() > maxFileSize) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException("G-code file exceeds the maximum size of " + maxFileSize + " bytes");
+                }
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Completes an upload, moving its file into the store. A file that is already stored is kept and
+     * the upload discarded.
+     *
+     * @param uploadId     The ID of the upload.
+     * @param expectedHash The SHA-256 hash the client computed for the file, or {@code null} to skip the check.
+     * @return The SHA-256 hash of the file.
+     * @throws NoSuchFileException      If there is no such upload.
+     * @throws IllegalStateException    If a chunk is being written to the upload.
+     * @throws IllegalArgumentException If the file is empty or its hash does not match the expected one;
+     *                                  the upload is kept so that it can be deleted or resumed.
+     * @throws IOException              If the file cannot be read or moved.
+     */
+    public String completeUpload(String uploadId, String expectedHash) throws IOException {
+        Path part = existingPart(uploadId);
+        // The lock is held until the file is moved, so a completion of the same upload running in
+        // parallel either finds it busy or finds it gone.
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = lock(channel, uploadId)) {
+            if (!Files.exists(part)) {
+                throw new NoSuchFileException(part.toString());
+            }
+            if (channel.size() == 0) {
+                throw new IllegalArgumentException("Upload " + uploadId + " is empty");
+            }
+            channel.force(true);
+            String hash = hash(channel);
+            if (expectedHash != null && !expectedHash.equalsIgnoreCase(hash)) {
+                throw new IllegalArgumentException("Upload " + uploadId + " has SHA-256 " + hash + ", expected " + expectedHash);
+            }
+            Path target = path(hash);
+            if (Files.exists(target)) {
+                Files.delete(part);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * Discards an upload.
+     *
+     * @param uploadId The ID of the upload.
+     * @return {@code true} if the upload existed.
+     * @throws IOException If the partial file cannot be deleted.
+     */
+    public boolean deleteUpload(String uploadId) throws IOException {
+        return isUploadId(uploadId) && Files.deleteIfExists(part(uploadId));
+    }
+
+    /**
+     * Periodically discards the uploads that received no chunk within {@code repro3d.gcode.upload-expiry}.
+     * <p>
+     * Scheduled every hour by default ({@code repro3d.gcode.upload-cleanup-rate}).
+     */
+    @Scheduled(fixedRateString = "${repro3d.gcode.upload-cleanup-rate:PT1H}")
+    public void deleteStaleUploads() {
+        FileTime cutoff = FileTime.from(Instant.now().minus(uploadExpiry));
+        try (Stream<Path> parts = Files.list(incoming)) {
+            parts.filter(part -> part.getFileName().toString().endsWith(PART_SUFFIX))
+                    .forEach(part -> {
+                        try {
+                            if (Files.getLastModifiedTime(part).compareTo(cutoff) < 0 && Files.deleteIfExists(part)) {
+                                log.info("Discarded stale G-code upload {}", part.getFileName());
+                            }
+                        } catch (IOException e) {
+                            log.warn("Cannot discard stale G-code upload {} error={}", part.getFileName(), e.toString());
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Cannot list G-code uploads error={}", e.toString());
+        }
+    }
+
+    private Path path(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".gcode");
+    }
+
+    private Path thumbnailPath(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash + ".png");
+    }
+
+    private Path part(String uploadId) {
+        return incoming.resolve(uploadId + PART_SUFFIX);
+    }
+
+    private Path existingPart(String uploadId) throws NoSuchFileException {
+        if (!isUploadId(uploadId)) {
+            throw new NoSuchFileException(uploadId);
+        }
+        return part(uploadId);
+    }
+
+    private static boolean isUploadId(String uploadId) {
+        return uploadId != null && UPLOAD_ID.matcher(uploadId).matches();
+    }
+
+    private static FileLock lock(FileChannel channel, String uploadId) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IllegalStateException("Upload " + uploadId + " is busy");
+        }
+        return lock;
+    }
+
+    private static String hash(FileChannel channel) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long position = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) != -1) {
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
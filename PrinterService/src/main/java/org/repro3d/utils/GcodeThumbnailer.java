@@ -0,0 +1,194 @@
+package org.repro3d.utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Provides PNG thumbnails of G-code files.
+ * <p>
+ * PrusaSlicer, OrcaSlicer and Cura can embed base64 PNG thumbnails in the comments at the start of
+ * a file; the largest one is used. Files without one get a top-down {@link Preview} of their
+ * extruding moves, drawn while the {@link GcodeAnalyzer} reads the file so it is only read once.
+ */
+@Component
+public class GcodeThumbnailer {
+
+    /**
+     * Bytes at the start of a file searched for embedded thumbnails.
+     */
+    static final int HEADER_LIMIT = 4 * 1024 * 1024;
+
+    private static final int PREVIEW_RESOLUTION = 1024;
+    private static final Color BACKGROUND = new Color(0x20, 0x22, 0x26);
+
+    private final GcodeProperties properties;
+
+    /**
+     * Constructs a {@code GcodeThumbnailer}.
+     *
+     * @param properties The G-code settings holding the thumbnail size and the bed area of previews.
+     */
+    @Autowired
+    public GcodeThumbnailer(GcodeProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Extracts the largest PNG thumbnail embedded in the header of a file.
+     *
+     * @param file The G-code file.
+     * @return The PNG image, or an empty {@link Optional} if the file has none.
+     * @throws IOException If the file cannot be read.
+     */
+    public Optional<byte[]> embedded(Path file) throws IOException {
+        byte[] best = null;
+        long bestPixels = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            long read = 0;
+            String line;
+            StringBuilder base64 = null;
+            long pixels = 0;
+            while (read < HEADER_LIMIT && (line = reader.readLine()) != null) {
+                read += line.length() + 1;
+                String comment = line.startsWith(";") ? line.substring(1).trim() : null;
+                if (comment == null) {
+                    if (!line.isBlank()) {
+                        // Slicers write their thumbnails before the first command.
+                        break;
+                    }
+                } else if (comment.startsWith("thumbnail begin ") || comment.startsWith("thumbnail_PNG begin ")) {
+                    base64 = new StringBuilder();
+                    pixels = pixels(comment.substring(comment.indexOf("begin ") + 6));
+                } else if (base64 != null && (comment.startsWith("thumbnail end") || comment.startsWith("thumbnail_PNG end"))) {
+                    if (pixels > bestPixels) {
+                        try {
+                            best = Base64.getDecoder().decode(base64.toString());
+                            bestPixels = pixels;
+                        } catch (IllegalArgumentException e) {
+                            // A damaged thumbnail is ignored.
+                        }
+                    }
+                    base64 = null;
+                } else if (base64 != null) {
+                    base64.append(comment);
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Starts a preview to be drawn by {@link GcodeAnalyzer#analyze(Path, GcodeAnalyzer.ExtrusionListener)}.
+     *
+     * @return An empty preview.
+     */
+    public Preview preview() {
+        return new Preview(properties.getPreviewBedSize(), properties.getThumbnailSize());
+    }
+
+    private static long pixels(String size) {
+        // "<width>x<height> <length>"
+        try {
+            String[] dimensions = size.split(" ")[0].split("x");
+            return Long.parseLong(dimensions[0]) * Long.parseLong(dimensions[1]);
+        } catch (RuntimeException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * A top-down drawing of the extruding moves of a file. Higher layers are drawn over lower ones
+     * and brighter, so the outline and the top surface of the part stand out.
+     */
+    public static final class Preview implements GcodeAnalyzer.ExtrusionListener {
+
+        private final BufferedImage image = new BufferedImage(PREVIEW_RESOLUTION, PREVIEW_RESOLUTION, BufferedImage.TYPE_INT_RGB);
+        private final Graphics2D graphics = image.createGraphics();
+        private final double scale;
+        private final int size;
+        private double colorZ = Double.NaN;
+        private double minX = Double.MAX_VALUE;
+        private double minY = Double.MAX_VALUE;
+        private double maxX = -Double.MAX_VALUE;
+        private double maxY = -Double.MAX_VALUE;
+
+        private Preview(double bedSize, int size) {
+            this.scale = PREVIEW_RESOLUTION / bedSize;
+            this.size = size;
+            graphics.setColor(BACKGROUND);
+            graphics.fillRect(0, 0, PREVIEW_RESOLUTION, PREVIEW_RESOLUTION);
+            graphics.setStroke(new BasicStroke((float) Math.max(1, 0.45 * scale), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        }
+
+        @Override
+        public void extrusion(double fromX, double fromY, double toX, double toY, double z) {
+            if (z != colorZ) {
+                colorZ = z;
+                float brightness = (float) (0.45 + 0.55 * z / (z + 20));
+                graphics.setColor(Color.getHSBColor(0.08f, 0.85f, brightness));
+            }
+            graphics.drawLine(x(fromX), y(fromY), x(toX), y(toY));
+            minX = Math.min(minX, Math.min(fromX, toX));
+            minY = Math.min(minY, Math.min(fromY, toY));
+            maxX = Math.max(maxX, Math.max(fromX, toX));
+            maxY = Math.max(maxY, Math.max(fromY, toY));
+        }
+
+        /**
+         * Crops the drawing to the extruded area and scales it to the thumbnail size.
+         *
+         * @return The thumbnail as PNG image.
+         * @throws IOException If the image cannot be encoded.
+         */
+        public byte[] toPng() throws IOException {
+            graphics.dispose();
+            if (minX > maxX) {
+                // Nothing was extruded, the thumbnail shows the whole bed.
+                minX = minY = 0;
+                maxX = maxY = PREVIEW_RESOLUTION / scale;
+            }
+            double edge = Math.max(maxX - minX, maxY - minY) * 1.1 + 2;
+            double centerX = (minX + maxX) / 2;
+            double centerY = (minY + maxY) / 2;
+            int left = x(centerX - edge / 2);
+            int right = x(centerX + edge / 2);
+            int top = y(centerY + edge / 2);
+            int bottom = y(centerY - edge / 2);
+
+            BufferedImage thumbnail = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            Graphics2D scaled = thumbnail.createGraphics();
+            scaled.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            scaled.setColor(BACKGROUND);
+            scaled.fillRect(0, 0, size, size);
+            scaled.drawImage(image, 0, 0, size, size, left, top, right, bottom, null);
+            scaled.dispose();
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "png", png);
+            return png.toByteArray();
+        }
+
+        private int x(double x) {
+            return (int) Math.round(x * scale);
+        }
+
+        private int y(double y) {
+            // Image rows grow downwards, the Y axis of the bed away from the viewer.
+            return PREVIEW_RESOLUTION - (int) Math.round(y * scale);
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package org.repro3d.utils;
 
+import jakarta.annotation.PreDestroy;
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Job;
 import org.repro3d.model.Printer;
 import org.repro3d.model.Status;
 import org.repro3d.repository.JobRepository;
 import org.repro3d.service.PrinterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Component class for scheduling and managing job-related tasks.
@@ -17,86 +34,269 @@ import java.util.List;
  * This class handles the periodic checking of job statuses and
  * manages the starting of new print jobs as well as the completion
  * of in-progress jobs.
+ * <p>
+ * Ticks never overlap: with virtual threads enabled, fixed-rate tasks are started on a new thread
+ * each period, so a tick that is still waiting on a slow printer would otherwise race the next one
+ * for the same jobs. A dispatch tick that finds another dispatch running is skipped. A completion tick
+ * only moves jobs in progress, which no dispatch touches, so it runs alongside dispatches and is only
+ * skipped while the previous completion tick is still running. Once it completed jobs it requests a
+ * dispatch, which runs on the dispatch pool rather than on the completion tick's thread.
+ * <p>
+ * Waiting jobs are dispatched as soon as an order is placed or a printed job is picked up, on the
+ * events of the Order Service and the Job Service. Such a dispatch waits for a running tick instead of
+ * being skipped, and requests arriving meanwhile are served by one more dispatch. The scheduled
+ * dispatch tick only remains as a slow fallback for events that were not delivered.
+ * <p>
+ * Dispatches run on the scheduler's own pool of {@code repro3d.scheduler.dispatch-threads} threads, not on
+ * Spring's shared scheduler: a dispatch waiting on slow printers holds one of these threads and no thread of
+ * the other {@code @Scheduled} tasks, with or without virtual threads.
  */
 @Component
 public class JobScheduler {
 
+    private static final Logger log = LoggerFactory.getLogger(JobScheduler.class);
+
     private final JobRepository jobRepository;
     private final PrinterService printerService;
+    private final PrintMetrics printMetrics;
+    private final GcodeStager gcodeStager;
+    private final BusyPrinters busyPrinters;
+    private final SchedulerProperties properties;
+    private final ReentrantLock tickLock = new ReentrantLock();
+    private final ReentrantLock completionLock = new ReentrantLock();
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+    private final ExecutorService dispatchExecutor;
 
     /**
      * Constructs a {@code JobScheduler} with the necessary repositories and services.
      *
      * @param jobRepository  The repository used for data operations on jobs.
      * @param printerService The service used for managing printers.
+     * @param printMetrics   The meters of the print pipeline.
+     * @param gcodeStager    The stager tracking which printers hold the stored G-code files.
+     * @param busyPrinters   The printers holding a job.
+     * @param properties     The settings of the scheduler.
      */
     @Autowired
-    public JobScheduler(JobRepository jobRepository, PrinterService printerService) {
+    public JobScheduler(JobRepository jobRepository, PrinterService printerService, PrintMetrics printMetrics, GcodeStager gcodeStager,
+                        BusyPrinters busyPrinters, SchedulerProperties properties) {
         this.jobRepository = jobRepository;
         this.printerService = printerService;
+        this.printMetrics = printMetrics;
+        this.gcodeStager = gcodeStager;
+        this.busyPrinters = busyPrinters;
+        this.properties = properties;
+        this.dispatchExecutor = Executors.newFixedThreadPool(properties.getDispatchThreads(),
+                Thread.ofVirtual().name("job-dispatch-", 0).factory());
+    }
+
+    /**
+     * Stops the dispatch pool, interrupting a running dispatch.
+     */
+    @PreDestroy
+    public void close() {
+        dispatchExecutor.shutdownNow();
+    }
+
+    /**
+     * Hands the dispatch tick to the dispatch pool. Scheduled every five minutes by default
+     * ({@code repro3d.scheduler.dispatch-rate}).
+     */
+    @Scheduled(fixedRateString = "${repro3d.scheduler.dispatch-rate:PT5M}")
+    public void scheduleDispatchTick() {
+        dispatchExecutor.execute(this::checkWaitingJobs);
     }
 
     /**
      * Periodically checks for waiting jobs and starts them if a printer is available.
      *
-     * This method is scheduled to run every minute. It retrieves jobs with the status
+     * This method runs on the dispatch pool every five minutes by default ({@code repro3d.scheduler.dispatch-rate}). It retrieves jobs with the status
      * "Waiting", checks for available printers, and starts the jobs on the available
-     * printers.
+     * printers. Jobs printing a file of the {@link GcodeStore} only go to printers the
+     * {@link GcodeStager} already uploaded it to.
+     * <p>
+     * One dispatch fills every idle printer: each gets the oldest waiting job it can print, and the jobs
+     * are started in parallel, at most {@code repro3d.scheduler.dispatch-concurrency} at a time. Jobs a
+     * printer refused are offered to the printers left over.
      */
-    @Scheduled(fixedRate = 60000) // 60 seconds
     public void checkWaitingJobs() {
-        System.out.println("Checking for waiting jobs...");
-        List<Job> waitingJobs = jobRepository.findByStatusOrderByJobIdAsc(new Status(1L, "Waiting"));
-        System.out.println("Found " + waitingJobs.size() + " waiting jobs.");
-        for (Job job : waitingJobs) {
-            System.out.println("Processing job ID: " + job.getJobId());
-            List<Printer> printers = printerService.getPrinters();
-            for (Printer printer : printers) {
-                if (printerService.isPrinterAvailable(printer)) {
-                    System.out.println("Printer ID " + printer.getPrinter_id() + " is available.");
-                    boolean jobStarted = printerService.startPrintJob(printer, job);
-                    if (jobStarted) {
-                        System.out.println("Started job ID: " + job.getJobId() + " on printer ID: " + printer.getPrinter_id());
-                        job.setStatus(new Status(2L, "In Progress"));
-                        job.setPrinter(printer);
-                        jobRepository.save(job);
-                        return;
-                    } else {
-                        System.out.println("Failed to start job ID: " + job.getJobId() + " on printer ID: " + printer.getPrinter_id());
-                    }
-                } else {
-                    System.out.println("Printer ID " + printer.getPrinter_id() + " is not available.");
-                }
+        if (!tickLock.tryLock()) {
+            log.info("Previous scheduler tick still running, skipping tick task=dispatch");
+            printMetrics.tickSkipped("dispatch");
+            return;
+        }
+        try {
+            printMetrics.tick("dispatch", this::dispatchWaitingJobs);
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    /**
+     * Dispatches the waiting jobs after an order was placed or a printed job was picked up, once the
+     * transaction raising the event is committed. A job picked up or changed may free its printer, so
+     * the {@link BusyPrinters} are reloaded before that dispatch.
+     *
+     * @param event The event raised here or received from another service.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEvent(DomainEvent event) {
+        switch (event.getType()) {
+            case DomainEvent.ORDER_PLACED -> requestDispatch();
+            case DomainEvent.JOB_PICKED_UP, DomainEvent.JOB_UPDATED -> {
+                busyPrinters.invalidate();
+                requestDispatch();
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Dispatches the waiting jobs after the {@link GcodeStager} uploaded files: the jobs printing them are
+     * skipped until a printer holds their file, so the dispatch on the placed order left them waiting.
+     *
+     * @param staged The staged files.
+     */
+    @EventListener
+    public void onFilesStaged(GcodeStager.FilesStaged staged) {
+        requestDispatch();
+    }
+
+    /**
+     * Dispatches the waiting jobs on the dispatch pool, after the running tick if there is one. Requests
+     * made before the dispatch started are served by it.
+     */
+    public void requestDispatch() {
+        if (dispatchRequested.compareAndSet(false, true)) {
+            dispatchExecutor.execute(this::runRequestedDispatch);
+        }
+    }
+
+    private void runRequestedDispatch() {
+        tickLock.lock();
+        try {
+            dispatchRequested.set(false);
+            printMetrics.tick("dispatch", this::dispatchWaitingJobs);
+        } catch (RuntimeException e) {
+            log.warn("Requested dispatch failed error={}", e.toString());
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    private void dispatchWaitingJobs() {
+        // From the primary: a lagging replica still lists a job started moments ago as waiting.
+        List<Job> waitingJobs = PrimaryReads.call(() -> jobRepository.findByStatusOrderByJobIdAsc(new Status(1L, "Waiting")));
+        if (waitingJobs.isEmpty()) {
+            return;
+        }
+        // Printers holding a job are skipped without a query; the others are probed concurrently, so a hung
+        // printer delays the tick by at most the client timeouts.
+        List<Printer> availablePrinters = Flux.fromIterable(printerService.getPrinters())
+                .flatMapSequential(printer -> printerService.isPrinterAvailable(printer)
+                        .filter(Boolean::booleanValue)
+                        .map(available -> printer))
+                .collectList()
+                .block();
+        log.debug("Dispatching waitingJobs={} availablePrinters={}", waitingJobs.size(), availablePrinters.size());
+
+        // Every round gives each idle printer the oldest waiting job it can print and starts them together.
+        // A printer leaves the pass once it was given a job: it either prints now or refused to start one.
+        // Jobs that did not start are offered to the remaining printers in the next round.
+        List<Job> unstarted = new ArrayList<>(waitingJobs);
+        List<Printer> idle = new ArrayList<>(availablePrinters);
+        Map<String, Set<Long>> holders = new HashMap<>();
+        int started = 0;
+        while (!idle.isEmpty() && !unstarted.isEmpty()) {
+            Map<Printer, Job> assignments = assign(unstarted, idle, holders);
+            if (assignments.isEmpty()) {
+                break;
+            }
+            List<Job> startedJobs = Flux.fromIterable(assignments.entrySet())
+                    .flatMap(assignment -> printerService.startPrintJob(assignment.getKey(), assignment.getValue())
+                            .filter(Boolean::booleanValue)
+                            .map(ok -> assignment.getValue()), properties.getDispatchConcurrency())
+                    .collectList()
+                    .block();
+            idle.removeAll(assignments.keySet());
+            unstarted.removeAll(startedJobs);
+            started += startedJobs.size();
+        }
+        if (started == 0) {
+            log.info("No waiting job could be started waitingJobs={} availablePrinters={}", waitingJobs.size(), availablePrinters.size());
+        } else {
+            log.info("Dispatched jobs started={} waitingJobs={} availablePrinters={}", started, waitingJobs.size(), availablePrinters.size());
+        }
+    }
+
+    private Map<Printer, Job> assign(List<Job> jobs, List<Printer> printers, Map<String, Set<Long>> holders) {
+        Map<Printer, Job> assignments = new LinkedHashMap<>();
+        for (Job job : jobs) {
+            if (assignments.size() == printers.size()) {
+                break;
             }
+            printersHoldingFile(job, printers, holders).stream()
+                    .filter(printer -> !assignments.containsKey(printer))
+                    .findFirst()
+                    .ifPresent(printer -> assignments.put(printer, job));
         }
+        return assignments;
+    }
+
+    private List<Printer> printersHoldingFile(Job job, List<Printer> printers, Map<String, Set<Long>> holders) {
+        String fileRef = job.getItem().getFile_ref();
+        if (!GcodeStore.isHash(fileRef)) {
+            return printers;
+        }
+        Set<Long> holding = holders.computeIfAbsent(fileRef, gcodeStager::printerIdsHolding);
+        return printers.stream()
+                .filter(printer -> holding.contains(printer.getPrinter_id()))
+                .toList();
     }
 
     /**
      * Periodically checks for in-progress jobs and marks them as complete if they are finished.
      *
-     * This method is scheduled to run every 120 seconds. It retrieves jobs with the status
+     * This method is scheduled to run every 120 seconds by default ({@code repro3d.scheduler.completion-rate}). It retrieves jobs with the status
      * "In Progress", checks their completion status, and marks them as "Awaiting Pick Up"
-     * if they are complete.
+     * if they are complete, then requests a dispatch.
      */
-    @Scheduled(fixedRate = 120000) // 120 seconds
+    @Scheduled(fixedRateString = "${repro3d.scheduler.completion-rate:PT120S}")
     public void checkInProgressJobs() {
-        System.out.println("Checking for in-progress jobs...");
-        List<Job> inProgressJobs = jobRepository.findByStatusOrderByJobIdAsc(new Status(2L, "In Progress"));
-        System.out.println("Found " + inProgressJobs.size() + " in-progress jobs.");
-        for (Job job : inProgressJobs) {
-            Printer printer = job.getPrinter();
-            if (printer != null) {
-                System.out.println("Checking job completion for job ID: " + job.getJobId() + " on printer ID: " + printer.getPrinter_id());
-                if (printerService.isJobComplete(printer, job)) {
-                    System.out.println("Job ID: " + job.getJobId() + " is complete.");
-                    printerService.completeJob(job);
-                    checkWaitingJobs();
-                } else {
-                    System.out.println("Job ID: " + job.getJobId() + " is still in progress.");
-                }
-            } else {
-                System.out.println("No printer assigned to job ID: " + job.getJobId());
-            }
+        if (!completionLock.tryLock()) {
+            log.info("Previous scheduler tick still running, skipping tick task=complete");
+            printMetrics.tickSkipped("complete");
+            return;
+        }
+        try {
+            printMetrics.tick("complete", this::completeFinishedJobs);
+        } finally {
+            completionLock.unlock();
+        }
+    }
+
+    private void completeFinishedJobs() {
+        List<Job> inProgressJobs = PrimaryReads.call(() -> jobRepository.findByStatusOrderByJobIdAsc(new Status(2L, "In Progress")));
+        log.debug("Checking inProgressJobs={}", inProgressJobs.size());
+        List<Job> completedJobs = Flux.fromIterable(inProgressJobs)
+                .filter(job -> {
+                    if (job.getPrinter() == null) {
+                        log.warn("In-progress job without printer jobId={}", job.getJobId());
+                        return false;
+                    }
+                    return true;
+                })
+                .flatMap(job -> printerService.isJobComplete(job.getPrinter(), job)
+                        .filter(Boolean::booleanValue)
+                        .map(complete -> job))
+                .collectList()
+                .block();
+        for (Job job : completedJobs) {
+            printerService.completeJob(job);
+        }
+        if (!completedJobs.isEmpty()) {
+            requestDispatch();
         }
     }
 }
\ No newline at end of file
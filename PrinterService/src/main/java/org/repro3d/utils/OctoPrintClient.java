@@ -0,0 +1,258 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.TimeoutException;
+import jakarta.annotation.PreDestroy;
+import org.repro3d.model.Printer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Non-blocking client for the REST API of the OctoPrint instances that drive the printers.
+ * <p>
+ * Requests share one Reactor Netty connection pool that keeps up to
+ * {@link OctoPrintClientProperties#getMaxConnectionsPerHost()} keep-alive connections per printer
+ * host. Every call is bounded by connect and response timeouts, so a hung printer fails its call
+ * instead of stalling the caller. Failed calls that are safe to repeat are retried with exponential
+ * backoff and jitter; the start of a print is only retried if the connection could not be established.
+ * <p>
+ * Webcam streams keep their connection for as long as someone watches, so they use unpooled connections.
+ * File uploads are streamed from disk in small buffers, so large G-code files are never held in memory.
+ * <p>
+ * The latency of every attempt of an API call is recorded in the {@code octoprint.client.requests}
+ * timer, tagged with the printer, the endpoint and the outcome.
+ */
+@Component
+public class OctoPrintClient {
+
+    private static final String API_KEY_HEADER = "X-Api-Key";
+    private static final MediaType MJPEG = MediaType.parseMediaType("multipart/x-mixed-replace; boundary=boundarydonotcross");
+
+    private final OctoPrintClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final WebClient webcamClient;
+
+    /**
+     * Constructs an {@code OctoPrintClient}.
+     *
+     * @param webClientBuilder The WebClient builder carrying the application's codecs.
+     * @param properties       The connection, timeout and retry settings.
+     * @param meterRegistry    The registry the call latencies are recorded in.
+     */
+    @Autowired
+    public OctoPrintClient(WebClient.Builder webClientBuilder, OctoPrintClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.connectionProvider = ConnectionProvider.builder("octoprint")
+                .maxConnections(properties.getMaxConnectionsPerHost())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .evictInBackground(properties.getMaxIdleTime())
+                .build();
+        this.webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient(connectionProvider, properties.getResponseTimeout())))
+                .build();
+        this.webcamClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient(ConnectionProvider.newConnection(), properties.getWebcamIdleTimeout())))
+                .build();
+    }
+
+    private HttpClient httpClient(ConnectionProvider provider, Duration readTimeout) {
+        return HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(readTimeout);
+    }
+
+    /**
+     * Closes the pooled connections.
+     */
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Retrieves the current state of a printer ({@code GET /api/printer}).
+     *
+     * @param printer The printer to query.
+     * @return A {@link Mono} emitting the state document.
+     */
+    public Mono<JsonNode> getPrinterState(Printer printer) {
+        return get(printer, "/api/printer");
+    }
+
+    /**
+     * Retrieves the job currently running on a printer ({@code GET /api/job}).
+     *
+     * @param printer The printer to query.
+     * @return A {@link Mono} emitting the job document.
+     */
+    public Mono<JsonNode> getJob(Printer printer) {
+        return get(printer, "/api/job");
+    }
+
+    /**
+     * Selects a file stored on a printer and starts printing it.
+     *
+     * @param printer The printer to start.
+     * @param fileRef The name of the G-code file in the printer's local storage.
+     * @return A {@link Mono} completing once OctoPrint accepted the command, or failing otherwise.
+     */
+    public Mono<Void> startPrint(Printer printer, String fileRef) {
+        return timed(webClient.post()
+                .uri(baseUrl(printer) + "/api/files/local/" + fileRef)
+                .header(API_KEY_HEADER, printer.getApikey())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("command", "select", "print", true))
+                .retrieve()
+                .toBodilessEntity(), printer, "/api/files/local")
+                .then()
+                .retryWhen(retry(OctoPrintClient::isConnectFailure));
+    }
+
+    /**
+     * Uploads a G-code file to the local storage of a printer, replacing a file of the same name
+     * ({@code POST /api/files/local}).
+     *
+     * @param printer  The printer to upload to.
+     * @param fileName The name of the file on the printer.
+     * @param file     The file to upload, streamed from disk.
+     * @return A {@link Mono} completing once OctoPrint stored the file, or failing otherwise.
+     */
+    public Mono<Void> uploadFile(Printer printer, String fileName, Path file) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("file", new FileSystemResource(file), MediaType.APPLICATION_OCTET_STREAM).filename(fileName);
+        return timed(webClient.post()
+                .uri(baseUrl(printer) + "/api/files/local")
+                .header(API_KEY_HEADER, printer.getApikey())
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .toBodilessEntity(), printer, "/api/files/local (upload)")
+                .then()
+                .retryWhen(retry(OctoPrintClient::isTransient));
+    }
+
+    /**
+     * Checks whether a file is still in the local storage of a printer ({@code GET /api/files/local/<file>}).
+     *
+     * @param printer  The printer to query.
+     * @param fileName The name of the file on the printer.
+     * @return A {@link Mono} emitting {@code false} if OctoPrint answers 404, {@code true} if it describes
+     * the file, or failing otherwise.
+     */
+    public Mono<Boolean> hasFile(Printer printer, String fileName) {
+        return timed(webClient.get()
+                .uri(baseUrl(printer) + "/api/files/local/" + fileName)
+                .header(API_KEY_HEADER, printer.getApikey())
+                .retrieve()
+                .toBodilessEntity(), printer, "/api/files/local (info)")
+                .thenReturn(true)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(false))
+                .retryWhen(retry(OctoPrintClient::isTransient));
+    }
+
+    /**
+     * Streams the MJPEG webcam feed of a printer. The stream ends when the printer closes it or
+     * sends no data for {@link OctoPrintClientProperties#getWebcamIdleTimeout()}.
+     *
+     * @param printer The printer whose webcam is streamed.
+     * @return A {@link Flux} of raw stream buffers, which the subscriber must release.
+     */
+    public Flux<DataBuffer> streamWebcam(Printer printer) {
+        return webcamClient.get()
+                .uri(baseUrl(printer) + "/webcam/?action=stream&apikey={apiKey}", printer.getApikey())
+                .accept(MJPEG)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+    }
+
+    private Mono<JsonNode> get(Printer printer, String path) {
+        return timed(webClient.get()
+                .uri(baseUrl(printer) + path)
+                .header(API_KEY_HEADER, printer.getApikey())
+                .retrieve()
+                .bodyToMono(JsonNode.class), printer, path)
+                .retryWhen(retry(OctoPrintClient::isTransient));
+    }
+
+    private <T> Mono<T> timed(Mono<T> call, Printer printer, String endpoint) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(result -> record(sample, printer, endpoint, "SUCCESS"))
+                    .doOnError(error -> record(sample, printer, endpoint, outcome(error)))
+                    .doOnCancel(() -> record(sample, printer, endpoint, "CANCELLED"));
+        });
+    }
+
+    private void record(Timer.Sample sample, Printer printer, String endpoint, String outcome) {
+        sample.stop(Timer.builder("octoprint.client.requests")
+                .description("Latency of the calls to the OctoPrint API of the printers")
+                .tag("printer", String.valueOf(printer.getPrinter_id()))
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() ? "SERVER_ERROR" : "CLIENT_ERROR";
+        }
+        return error.getCause() instanceof TimeoutException ? "TIMEOUT" : "IO_ERROR";
+    }
+
+    private Retry retry(Predicate<Throwable> retryable) {
+        return Retry.backoff(properties.getMaxRetries(), properties.getRetryBackoff())
+                .jitter(0.5)
+                .filter(retryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private static String baseUrl(Printer printer) {
+        return "http://" + printer.getIp_addr();
+    }
+
+    /**
+     * Returns whether a failed call may be repeated without side effects: I/O errors and timeouts
+     * before a response arrived, and server errors.
+     */
+    static boolean isTransient(Throwable error) {
+        return error instanceof WebClientRequestException
+                || error instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+
+    /**
+     * Returns whether a call failed before its request could have reached the printer.
+     */
+    static boolean isConnectFailure(Throwable error) {
+        return error instanceof WebClientRequestException && error.getCause() instanceof ConnectException;
+    }
+}
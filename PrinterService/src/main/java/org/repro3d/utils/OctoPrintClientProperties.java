@@ -0,0 +1,56 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection, timeout and retry settings of the {@link OctoPrintClient}, bound from
+ * {@code octoprint.client.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "octoprint.client")
+public class OctoPrintClientProperties {
+
+    /**
+     * Maximum time to establish a TCP connection to a printer.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum time to wait for a response, and between two reads of a response body.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum number of pooled connections per printer host. OctoPrint runs on small single-board
+     * computers, so only a few parallel requests are sent to the same printer.
+     */
+    private int maxConnectionsPerHost = 4;
+
+    /**
+     * Maximum time a request waits for a free pooled connection.
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Idle time after which a pooled connection is closed, kept below OctoPrint's own idle timeout.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Number of retries of a failed call that is safe to repeat.
+     */
+    private int maxRetries = 2;
+
+    /**
+     * Backoff before the first retry; it doubles on every further retry and is randomized by half.
+     */
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    /**
+     * Maximum time without a new frame after which a webcam stream is closed.
+     */
+    private Duration webcamIdleTimeout = Duration.ofSeconds(15);
+}
@@ -0,0 +1,133 @@
+package org.repro3d.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Micrometer meters describing the throughput of the print pipeline.
+ * <p>
+ * The meters cover the number of jobs per pipeline status, the time a job waits between being placed
+ * and being started, the print duration, the outcome of every dispatch attempt and the duration of
+ * the scheduler ticks. Latencies of the individual OctoPrint calls are recorded by the
+ * {@link OctoPrintClient} itself.
+ */
+@Component
+public class PrintMetrics {
+
+    private static final Map<String, Status> PIPELINE_STATUSES = Map.of(
+            "waiting", new Status(1L, "Waiting"),
+            "in_progress", new Status(2L, "In Progress"),
+            "awaiting_pickup", new Status(3L, "Awaiting Pick Up"));
+
+    private final MeterRegistry registry;
+    private final Timer waitTimer;
+    private final Timer printTimer;
+    private final Counter dispatchStarted;
+    private final Counter dispatchFailed;
+
+    /**
+     * Constructs {@code PrintMetrics} and registers the pipeline meters.
+     *
+     * @param registry      The registry the meters are published to.
+     * @param jobRepository The repository queried for the number of jobs per status when the gauges are read.
+     */
+    @Autowired
+    public PrintMetrics(MeterRegistry registry, JobRepository jobRepository) {
+        this.registry = registry;
+        PIPELINE_STATUSES.forEach((name, status) -> Gauge.builder("repro3d.jobs.queued", jobRepository, repository -> repository.countByStatus(status))
+                .description("Number of jobs per pipeline status")
+                .tag("status", name)
+                .register(registry));
+        this.waitTimer = Timer.builder("repro3d.jobs.wait")
+                .description("Time between placing a job and starting it on a printer")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofSeconds(1))
+                .maximumExpectedValue(Duration.ofDays(7))
+                .register(registry);
+        this.printTimer = Timer.builder("repro3d.jobs.print")
+                .description("Time between starting a job and its completion")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMinutes(1))
+                .maximumExpectedValue(Duration.ofDays(2))
+                .register(registry);
+        this.dispatchStarted = dispatchCounter("started");
+        this.dispatchFailed = dispatchCounter("failed");
+    }
+
+    private Counter dispatchCounter(String outcome) {
+        return Counter.builder("repro3d.jobs.dispatch")
+                .description("Attempts to start a waiting job on a printer")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Records a job that was started on a printer.
+     *
+     * @param placed  The date the job was placed, or {@code null} if unknown.
+     * @param started The date the job was started.
+     */
+    public void jobStarted(Date placed, Date started) {
+        dispatchStarted.increment();
+        if (placed != null) {
+            waitTimer.record(Duration.ofMillis(Math.max(0, started.getTime() - placed.getTime())));
+        }
+    }
+
+    /**
+     * Records an attempt to start a job that was rejected by the printer or failed.
+     */
+    public void dispatchFailed() {
+        dispatchFailed.increment();
+    }
+
+    /**
+     * Records a completed job.
+     *
+     * @param started The date the job was started, or {@code null} if unknown.
+     * @param ended   The date the job was completed.
+     */
+    public void jobCompleted(Date started, Date ended) {
+        if (started != null) {
+            printTimer.record(Duration.ofMillis(Math.max(0, ended.getTime() - started.getTime())));
+        }
+    }
+
+    /**
+     * Runs one scheduler tick and records its duration.
+     *
+     * @param task The name of the scheduled task.
+     * @param tick The work of the tick.
+     */
+    public void tick(String task, Runnable tick) {
+        Timer.builder("repro3d.scheduler.tick")
+                .description("Duration of the job scheduler ticks")
+                .tag("task", task)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(tick);
+    }
+
+    /**
+     * Records a scheduler tick that was skipped because the previous one was still running.
+     *
+     * @param task The name of the scheduled task.
+     */
+    public void tickSkipped(String task) {
+        Counter.builder("repro3d.scheduler.ticks.skipped")
+                .description("Scheduler ticks skipped because the previous tick was still running")
+                .tag("task", task)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,25 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the {@link JobScheduler}, bound from {@code repro3d.scheduler.*}. The rates of its ticks
+ * are read by the {@code @Scheduled} methods themselves.
+ */
+@Data
+@ConfigurationProperties(prefix = "repro3d.scheduler")
+public class SchedulerProperties {
+
+    /**
+     * Maximum number of printers a dispatch starts jobs on at the same time. Every idle printer gets
+     * a job in the same dispatch; this only limits the parallel OctoPrint requests and job updates.
+     */
+    private int dispatchConcurrency = 8;
+
+    /**
+     * Threads of the pool running the dispatch ticks and the dispatches requested by events. Dispatches
+     * never overlap, so a second thread only lets a requested dispatch queue behind a running tick.
+     */
+    private int dispatchThreads = 2;
+}
@@ -0,0 +1,74 @@
+-- Tables owned by the Printer Service. Existing tables of GeneralDb are kept as they are.
+-- Items are owned by the Order Service, so jobs reference them without a foreign key.
+
+CREATE TABLE IF NOT EXISTS status (
+    status_id BIGINT NOT NULL AUTO_INCREMENT,
+    status    VARCHAR(45),
+    PRIMARY KEY (status_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS printer (
+    printer_id BIGINT NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255),
+    location   VARCHAR(255),
+    ip_addr    VARCHAR(255),
+    apikey     VARCHAR(255),
+    PRIMARY KEY (printer_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS job (
+    job_id     BIGINT NOT NULL AUTO_INCREMENT,
+    item_id    BIGINT,
+    printer_id BIGINT,
+    status_id  BIGINT,
+    start_date DATETIME(6),
+    end_date   DATETIME(6),
+    PRIMARY KEY (job_id),
+    CONSTRAINT job_printer_fk FOREIGN KEY (printer_id) REFERENCES printer (printer_id),
+    CONSTRAINT job_status_fk FOREIGN KEY (status_id) REFERENCES status (status_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS printer_file (
+    pf_id       BIGINT NOT NULL AUTO_INCREMENT,
+    printer_id  BIGINT NOT NULL,
+    file_hash   VARCHAR(64) NOT NULL,
+    uploaded_at DATETIME(6),
+    PRIMARY KEY (pf_id),
+    CONSTRAINT printer_file_printer_hash UNIQUE (printer_id, file_hash),
+    CONSTRAINT printer_file_printer_fk FOREIGN KEY (printer_id) REFERENCES printer (printer_id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS catalog_import (
+    import_id       BIGINT NOT NULL AUTO_INCREMENT,
+    status          VARCHAR(16) NOT NULL,
+    total_files     INTEGER,
+    processed_files INTEGER,
+    failed_files    INTEGER,
+    created_items   INTEGER,
+    message         VARCHAR(2000),
+    created_at      DATETIME(6),
+    finished_at     DATETIME(6),
+    PRIMARY KEY (import_id)
+) ENGINE = InnoDB;
+
+-- Domain events, shared with the Order and Billing Services.
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    event_id     BIGINT NOT NULL AUTO_INCREMENT,
+    source       VARCHAR(50) NOT NULL,
+    destination  VARCHAR(50) NOT NULL,
+    type         VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT,
+    payload      LONGTEXT,
+    created_at   DATETIME(6) NOT NULL,
+    published_at DATETIME(6),
+    PRIMARY KEY (event_id),
+    INDEX outbox_event_pending (source, destination, published_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS inbox_event (
+    event_id    BIGINT NOT NULL,
+    source      VARCHAR(50) NOT NULL,
+    received_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id, source)
+) ENGINE = InnoDB;
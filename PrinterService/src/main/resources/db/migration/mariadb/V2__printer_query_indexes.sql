@@ -0,0 +1,11 @@
+-- Indexes matching the queries of the job scheduler and the file cache of the Printer Service.
+
+-- JobRepository.findByStatusOrderByJobIdAsc, countByStatus and findPrinterIdsByStatusIds: the jobs of a status in
+-- dispatch order. InnoDB appends the primary key to the index of job_status_fk already, but other engines do not.
+CREATE INDEX IF NOT EXISTS job_status_job ON job (status_id, job_id);
+
+-- JobRepository.existsByPrinterAndStatus and existsByPrinterAndStatusNot: whether a printer is busy.
+CREATE INDEX IF NOT EXISTS job_printer_status ON job (printer_id, status_id);
+
+-- PrinterFileRepository.findPrinterIdsByFileHash: the printers already holding a file.
+CREATE INDEX IF NOT EXISTS printer_file_hash ON printer_file (file_hash);
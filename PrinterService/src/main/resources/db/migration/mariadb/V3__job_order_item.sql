@@ -0,0 +1,5 @@
+-- Jobs are created by the Printer Service from the OrderPlaced events of the Order Service, one per order item.
+-- The order item is referenced without a foreign key, as the Order Service owns it; the unique index keeps a
+-- redelivered event from creating a second job for the same order item.
+ALTER TABLE job ADD COLUMN IF NOT EXISTS order_item_id BIGINT;
+CREATE UNIQUE INDEX IF NOT EXISTS job_order_item ON job (order_item_id);
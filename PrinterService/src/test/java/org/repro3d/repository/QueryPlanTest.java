@@ -0,0 +1,75 @@
+package org.repro3d.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Printer;
+import org.repro3d.model.Status;
+import org.repro3d.utils.QueryPlanJpaTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.repro3d.utils.QueryPlans.assertUsesIndex;
+
+/**
+ * Runs the hot queries of the Printer Service on the schema of its migrations, in H2 emulating MariaDB,
+ * and checks the index each of them is planned with.
+ */
+@QueryPlanJpaTest
+class QueryPlanTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PrinterFileRepository printerFileRepository;
+
+    private Status waiting;
+    private Printer printer;
+
+    @BeforeEach
+    void setUp() {
+        waiting = entityManager.merge(new Status(1L, "Waiting"));
+        printer = entityManager.merge(new Printer(null, "Printer1", "Room 101", "192.168.1.1", "key"));
+        entityManager.flush();
+    }
+
+    @Test
+    void jobQueues_UseStatusIndex() {
+        // H2 appends the row key, which is the job_id, to every index, so it plans these with the index of the
+        // status foreign key as well as with job_status_job and takes the older one.
+        assertUsesIndex(jdbcTemplate, "job_status_fk", () -> jobRepository.findByStatusOrderByJobIdAsc(waiting));
+        assertUsesIndex(jdbcTemplate, "job_status_fk", () -> jobRepository.countByStatus(waiting));
+    }
+
+    @Test
+    void jobQueues_HaveStatusJobIndex() {
+        assertEquals(List.of("status_id", "job_id"), jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.index_columns WHERE index_name = 'job_status_job' ORDER BY ordinal_position",
+                String.class));
+    }
+
+    @Test
+    void busyPrinters_UseStatusIndex() {
+        assertUsesIndex(jdbcTemplate, "job_status_fk", () -> jobRepository.findPrinterIdsByStatusIds(List.of(2L, 3L)));
+    }
+
+    @Test
+    void printerIdleCheck_UsesPrinterStatusIndex() {
+        assertUsesIndex(jdbcTemplate, "job_printer_status", () -> jobRepository.existsByPrinterAndStatusNot(printer, waiting));
+    }
+
+    @Test
+    void fileLookup_UsesHashIndex() {
+        assertUsesIndex(jdbcTemplate, "printer_file_hash", () -> printerFileRepository.findPrinterIdsByFileHash("hash"));
+    }
+}
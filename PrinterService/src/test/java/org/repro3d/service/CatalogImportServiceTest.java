@@ -0,0 +1,173 @@
+package org.repro3d.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.repro3d.model.CatalogImport;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.Item;
+import org.repro3d.repository.CatalogImportRepository;
+import org.repro3d.utils.GcodeAnalyzer;
+import org.repro3d.utils.GcodeProperties;
+import org.repro3d.utils.GcodeStore;
+import org.repro3d.utils.GcodeThumbnailer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CatalogImportServiceTest {
+
+    private static final String CUBE = "M83\nG1 Z0.2 F600\nG1 X10 Y10 F6000\nG1 X30 Y10 E1\nG1 X30 Y30 E1\n; filament_type = PETG\n";
+    private static final String BRACKET = "M83\nG1 Z0.3 F600\nG1 X0 Y0 E1\nG1 X40 Y0 E2\n";
+
+    @TempDir
+    Path dir;
+
+    private GcodeStore gcodeStore;
+    private CatalogImportRepository catalogImportRepository;
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private ApplicationEventPublisher eventPublisher;
+    private CatalogImportService catalogImportService;
+
+    @BeforeEach
+    void setUp() {
+        GcodeProperties properties = new GcodeProperties();
+        properties.setStoreDir(dir.resolve("store"));
+        properties.setImportParallelism(2);
+        properties.setImportMaxSize(DataSize.ofKilobytes(1));
+        gcodeStore = new GcodeStore(properties);
+        catalogImportRepository = mock(CatalogImportRepository.class);
+        when(catalogImportRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        catalogImportService = new CatalogImportService(gcodeStore, new GcodeAnalyzer(properties), new GcodeThumbnailer(properties),
+                properties, catalogImportRepository, jdbcTemplate, new TransactionTemplate(transactionManager), eventPublisher,
+                new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalogImportService.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runImport_AnalyzesFilesAndInsertsItemsInOneTransaction() throws IOException {
+        Path archive = zip(Map.of(
+                CatalogImportService.CATALOG, """
+                        [{"file": "parts/cube.gcode", "name": "Cube", "cost": "12"},
+                         {"file": "parts/bracket.gcode", "description": "Shelf bracket", "material": "PLA"},
+                         {"file": "parts/missing.gcode"}]
+                        """,
+                "parts/cube.gcode", CUBE,
+                "parts/bracket.gcode", BRACKET));
+        CatalogImport job = new CatalogImport();
+        job.setImportId(7L);
+
+        catalogImportService.runImport(job, archive);
+
+        ArgumentCaptor<List<Item>> items = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("insert into item"), items.capture(), anyInt(), any());
+        verify(transactionManager).commit(any());
+        ArgumentCaptor<DomainEvent> event = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(DomainEvent.ITEMS_IMPORTED, event.getValue().getType());
+        assertEquals(7L, event.getValue().getAggregateId());
+        assertEquals(2L, event.getValue().payloadLong("items"));
+        Item cube = items.getValue().get(0);
+        assertEquals("Cube", cube.getName());
+        assertEquals(12L, cube.getCost());
+        assertEquals("PETG", cube.getMaterial());
+        assertEquals("20x20x1", cube.getDimensions());
+        assertEquals("/api/gcode/" + cube.getFile_ref() + "/thumbnail", cube.getImage_url());
+        assertTrue(gcodeStore.find(cube.getFile_ref()).isPresent());
+        assertTrue(gcodeStore.findThumbnail(cube.getFile_ref()).isPresent());
+        Item bracket = items.getValue().get(1);
+        assertEquals("bracket", bracket.getName());
+        assertEquals("PLA", bracket.getMaterial());
+
+        assertEquals(CatalogImport.COMPLETED, job.getStatus());
+        assertEquals(3, job.getTotalFiles());
+        assertEquals(3, job.getProcessedFiles());
+        assertEquals(1, job.getFailedFiles());
+        assertEquals(2, job.getCreatedItems());
+        assertTrue(job.getMessage().contains("parts/missing.gcode"));
+        assertNotNull(job.getFinishedAt());
+        assertFalse(Files.exists(archive));
+    }
+
+    @Test
+    void runImport_CreatesNoItemsWhenInsertFails() throws IOException {
+        Path archive = zip(Map.of("cube.gcode", CUBE, "readme.txt", "not G-code"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'name'"));
+        CatalogImport job = new CatalogImport();
+
+        catalogImportService.runImport(job, archive);
+
+        verify(transactionManager).rollback(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        assertEquals(CatalogImport.FAILED, job.getStatus());
+        assertEquals(1, job.getTotalFiles());
+        assertEquals(0, job.getCreatedItems());
+        assertTrue(job.getMessage().contains("Data too long"));
+    }
+
+    @Test
+    void startImport_RejectsBodyThatIsNotZipArchive() throws IOException {
+        assertEquals(HttpStatus.BAD_REQUEST, catalogImportService.startImport(
+                new ByteArrayInputStream(CUBE.getBytes(StandardCharsets.UTF_8))).getStatusCode());
+        verify(catalogImportRepository, never()).save(any());
+        try (var files = Files.list(dir.resolve("store").resolve("imports"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void startImport_RejectsArchiveOverMaximumSize() throws IOException {
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, catalogImportService.startImport(
+                new ByteArrayInputStream(new byte[2048])).getStatusCode());
+        verify(catalogImportRepository, never()).save(any());
+        try (var files = Files.list(dir.resolve("store").resolve("imports"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private Path zip(Map<String, String> entries) throws IOException {
+        Path archive = dir.resolve("catalog.zip");
+        try (OutputStream out = Files.newOutputStream(archive); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+}
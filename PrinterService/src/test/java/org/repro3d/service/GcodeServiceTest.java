@@ -0,0 +1,161 @@
+package org.repro3d.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.GcodeFile;
+import org.repro3d.model.GcodeUpload;
+import org.repro3d.repository.ItemRepository;
+import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.GcodeAnalyzer;
+import org.repro3d.utils.GcodeProperties;
+import org.repro3d.utils.GcodeStore;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class GcodeServiceTest {
+
+    private static final String BENCHY = "G28\nG1 X10 Y10 Z0.2\n";
+    private static final String BENCHY_HASH = "4425bdb4d9cacd31fa31cff548df8071d5b55769c348e40b00687c9760e5730a";
+
+    @TempDir
+    Path storeDir;
+
+    private ItemRepository itemRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private GcodeService gcodeService;
+
+    @BeforeEach
+    void setUp() {
+        GcodeProperties properties = new GcodeProperties();
+        properties.setStoreDir(storeDir);
+        itemRepository = mock(ItemRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        gcodeService = new GcodeService(new GcodeStore(properties), new GcodeAnalyzer(properties), itemRepository,
+                eventPublisher, TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    void appendChunk_ResumesAfterInterruptedChunk() throws IOException {
+        String uploadId = ((GcodeUpload) gcodeService.createUpload().getBody().getData()).getUploadId();
+        byte[] content = BENCHY.getBytes(StandardCharsets.UTF_8);
+
+        ResponseEntity<ApiResponse> interrupted = gcodeService.appendChunk(uploadId, 0, failingAfter(content, 6));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, interrupted.getStatusCode());
+        ResponseEntity<ApiResponse> status = gcodeService.getUpload(uploadId);
+        assertEquals("6", status.getHeaders().getFirst(GcodeService.UPLOAD_OFFSET));
+
+        ResponseEntity<ApiResponse> stale = gcodeService.appendChunk(uploadId, 0, new ByteArrayInputStream(content));
+        assertEquals(HttpStatus.CONFLICT, stale.getStatusCode());
+        assertEquals(6, ((GcodeUpload) stale.getBody().getData()).getOffset());
+
+        ResponseEntity<ApiResponse> resumed = gcodeService.appendChunk(uploadId, 6, new ByteArrayInputStream(content, 6, content.length - 6));
+        assertEquals(HttpStatus.OK, resumed.getStatusCode());
+        ResponseEntity<ApiResponse> completed = gcodeService.completeUpload(uploadId, BENCHY_HASH);
+        GcodeFile file = (GcodeFile) completed.getBody().getData();
+        assertEquals(BENCHY_HASH, file.getHash());
+        assertEquals(content.length, file.getSize());
+        assertEquals(HttpStatus.NOT_FOUND, gcodeService.getUpload(uploadId).getStatusCode());
+    }
+
+    @Test
+    void completeUpload_RecordsEstimatesOnItemsPrintingFile() throws IOException {
+        when(itemRepository.updateEstimatesByFileRef(any(), any(), any())).thenReturn(2);
+        when(itemRepository.findIdsByFileRef(BENCHY_HASH)).thenReturn(List.of(3L, 5L));
+        upload(BENCHY);
+
+        verify(itemRepository).updateEstimatesByFileRef(BENCHY_HASH, 1, "0x0x0");
+        ArgumentCaptor<DomainEvent> events = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(3L, 5L), events.getAllValues().stream().map(DomainEvent::getAggregateId).toList());
+        assertTrue(events.getAllValues().stream().allMatch(event -> DomainEvent.ITEM_CHANGED.equals(event.getType())));
+        ResponseEntity<ApiResponse> response = gcodeService.analyzeFile(BENCHY_HASH);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(itemRepository, times(2)).updateEstimatesByFileRef(eq(BENCHY_HASH), any(), any());
+        verify(itemRepository, never()).updateEstimatesAndMaterialByFileRef(any(), any(), any(), any());
+        assertEquals(HttpStatus.NOT_FOUND, gcodeService.analyzeFile("00".repeat(32)).getStatusCode());
+    }
+
+    @Test
+    void downloadFile_ServesRequestedRange() throws IOException {
+        upload(BENCHY);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/gcode/" + BENCHY_HASH);
+        request.addHeader("Range", "bytes=4-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(gcodeService.downloadFile(BENCHY_HASH, request, response));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 4-" + (BENCHY.length() - 1) + "/" + BENCHY.length(), response.getHeader("Content-Range"));
+        assertEquals(BENCHY.substring(4), response.getContentAsString());
+        assertEquals("\"" + BENCHY_HASH + "\"", response.getHeader("ETag"));
+    }
+
+    @Test
+    void downloadFile_HandsFileToSendfileWhenSupported() throws IOException {
+        upload(BENCHY);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/gcode/" + BENCHY_HASH);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        gcodeService.downloadFile(BENCHY_HASH, request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(BENCHY.length(), response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals((long) BENCHY.length(), request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void downloadFile_RejectsUnsatisfiableRangeAndUnknownFile() throws IOException {
+        upload(BENCHY);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/gcode/" + BENCHY_HASH);
+        request.addHeader("Range", "bytes=100-");
+
+        ResponseEntity<ApiResponse> response = gcodeService.downloadFile(BENCHY_HASH, request, new MockHttpServletResponse());
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */" + BENCHY.length(), response.getHeaders().getFirst("Content-Range"));
+        assertEquals(HttpStatus.NOT_FOUND, gcodeService.downloadFile("00".repeat(32),
+                new MockHttpServletRequest(), new MockHttpServletResponse()).getStatusCode());
+    }
+
+    private void upload(String content) throws IOException {
+        String uploadId = ((GcodeUpload) gcodeService.createUpload().getBody().getData()).getUploadId();
+        gcodeService.appendChunk(uploadId, 0, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        gcodeService.completeUpload(uploadId, null);
+    }
+
+    private static InputStream failingAfter(byte[] content, int length) {
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == length) {
+                    throw new IOException("Connection reset");
+                }
+                return content[position++];
+            }
+        };
+    }
+}
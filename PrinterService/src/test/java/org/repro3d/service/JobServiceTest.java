@@ -2,17 +2,23 @@ package org.repro3d.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.repro3d.model.DomainEvent;
 import org.repro3d.model.Job;
 import org.repro3d.model.Item;
 import org.repro3d.repository.ItemRepository;
 import org.repro3d.repository.JobRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.repro3d.utils.ApiResponse;
 
 import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -26,6 +32,9 @@ class JobServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private JobService jobService;
 
@@ -37,7 +46,7 @@ class JobServiceTest {
     @Test
     void createJob_ItemNotFound() {
         Job job = new Job();
-        job.setItem(new Item(1L, "Item1", "Description1", 30, "10x10x10", "file.gcode", "Plastic", "100", "test.com/image.jpg"));
+        job.setItem(new Item(1L, "Item1", "Description1", 30, "10x10x10", "file.gcode", "Plastic", 100L, "test.com/image.jpg"));
 
         when(itemRepository.existsById(anyLong())).thenReturn(false);
 
@@ -50,7 +59,7 @@ class JobServiceTest {
     @Test
     void createJob_Successful() {
         Job job = new Job();
-        job.setItem(new Item(1L, "Item1", "Description1", 30, "10x10x10", "file.gcode", "Plastic", "100", "test.com/image.jpg"));
+        job.setItem(new Item(1L, "Item1", "Description1", 30, "10x10x10", "file.gcode", "Plastic", 100L, "test.com/image.jpg"));
 
         when(itemRepository.existsById(anyLong())).thenReturn(true);
         when(jobRepository.save(any(Job.class))).thenReturn(job);
@@ -61,6 +70,39 @@ class JobServiceTest {
         assertEquals("Job created successfully.", response.getBody().getMessage());
     }
 
+    @Test
+    void onOrderPlaced_CreatesWaitingJobPerOrderItem() {
+        Item item = new Item(1L, "Item1", "Description1", 30, "10x10x10", "file.gcode", "Plastic", 100L, "test.com/image.jpg");
+        when(itemRepository.getReferenceById(1L)).thenReturn(item);
+        when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> {
+            Job job = invocation.getArgument(0);
+            job.setJobId(job.getOrderItemId() + 100);
+            return job;
+        });
+
+        jobService.onOrderPlaced(new DomainEvent(3L, "order-service", DomainEvent.ORDER_PLACED, 5L,
+                Map.of("orderDate", 0L, "items", List.of(Map.of("orderItemId", 7, "itemId", 1), Map.of("orderItemId", 8, "itemId", 1))),
+                new Date()));
+
+        ArgumentCaptor<Job> jobs = ArgumentCaptor.forClass(Job.class);
+        verify(jobRepository, times(2)).save(jobs.capture());
+        assertEquals(List.of(7L, 8L), jobs.getAllValues().stream().map(Job::getOrderItemId).toList());
+        assertEquals(1L, jobs.getValue().getStatus().getStatus_id());
+        assertEquals(new Date(0L), jobs.getValue().getStart_date());
+        ArgumentCaptor<DomainEvent> events = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(DomainEvent.JOB_CREATED, events.getValue().getType());
+        assertEquals(108L, events.getValue().getAggregateId());
+        assertEquals(8L, events.getValue().payloadLong("orderItemId"));
+    }
+
+    @Test
+    void onOrderPlaced_IgnoresOtherEvents() {
+        jobService.onOrderPlaced(new DomainEvent(3L, "order-service", DomainEvent.REDEEM_CODE_CONSUMED, 5L, Map.of(), new Date()));
+
+        verifyNoInteractions(jobRepository, eventPublisher);
+    }
+
     @Test
     void getJobById_NotFound() {
         when(jobRepository.findById(anyLong())).thenReturn(Optional.empty());
@@ -108,7 +150,7 @@ class JobServiceTest {
     void updateJob_FoundAndUpdated() {
         Job existingJob = new Job();
         Job newDetails = new Job();
-        newDetails.setItem(new Item(1L, "Item1", "Description1", 30, "10x10x10", "file.gcode", "Plastic", "100", "test.com/image.jpg"));
+        newDetails.setItem(new Item(1L, "Item1", "Description1", 30, "10x10x10", "file.gcode", "Plastic", 100L, "test.com/image.jpg"));
 
         when(jobRepository.findById(anyLong())).thenReturn(Optional.of(existingJob));
         when(itemRepository.existsById(anyLong())).thenReturn(true);
@@ -2,18 +2,31 @@ package org.repro3d.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.Item;
+import org.repro3d.model.Job;
 import org.repro3d.model.Printer;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
 import org.repro3d.repository.PrinterRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionOperations;
 import org.repro3d.utils.ApiResponse;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.repro3d.utils.BusyPrinters;
+import org.repro3d.utils.OctoPrintClient;
+import org.repro3d.utils.PrintMetrics;
+import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,26 +37,24 @@ class PrinterServiceTest {
     private PrinterRepository printerRepository;
 
     @Mock
-    private WebClient webClient;
+    private JobRepository jobRepository;
 
     @Mock
-    private WebClient.Builder webClientBuilder;
+    private OctoPrintClient octoPrintClient;
 
     @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    private PrintMetrics printMetrics;
 
     @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
+    private ApplicationEventPublisher eventPublisher;
 
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
-
-    @InjectMocks
     private PrinterService printerService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        printerService = new PrinterService(printerRepository, jobRepository, octoPrintClient, printMetrics, eventPublisher,
+                TransactionOperations.withoutTransaction(), new BusyPrinters(jobRepository));
     }
 
     @Test
@@ -170,4 +181,96 @@ class PrinterServiceTest {
         assertFalse(response.getBody().isSuccess());
         assertEquals("API Key not available for the requested printer.", response.getBody().getMessage());
     }
+
+    @Test
+    void isPrinterAvailable_FalseWhenJobAssigned() {
+        Printer printer = new Printer(1L, "Printer1", "Room 101", "192.168.1.1", "12345apikey");
+        when(jobRepository.findPrinterIdsByStatusIds(List.of(2L, 3L))).thenReturn(Set.of(1L));
+
+        assertFalse(printerService.isPrinterAvailable(printer).block());
+        verifyNoInteractions(octoPrintClient);
+    }
+
+    @Test
+    void isPrinterAvailable_QueriesAssignedJobsOnceForAllPrinters() throws Exception {
+        when(jobRepository.findPrinterIdsByStatusIds(List.of(2L, 3L))).thenReturn(Set.of(1L));
+        when(octoPrintClient.getPrinterState(any(Printer.class)))
+                .thenReturn(Mono.just(new ObjectMapper().readTree("{\"state\":{\"text\":\"Operational\"}}")));
+
+        for (long id = 1; id <= 5; id++) {
+            Printer printer = new Printer(id, "Printer" + id, "Room 101", "192.168.1." + id, "12345apikey");
+            assertEquals(id != 1, printerService.isPrinterAvailable(printer).block());
+        }
+        verify(jobRepository, times(1)).findPrinterIdsByStatusIds(any());
+    }
+
+    @Test
+    void isPrinterAvailable_TrueWhenOperational() throws Exception {
+        Printer printer = new Printer(1L, "Printer1", "Room 101", "192.168.1.1", "12345apikey");
+        when(octoPrintClient.getPrinterState(printer))
+                .thenReturn(Mono.just(new ObjectMapper().readTree("{\"state\":{\"text\":\"Operational\"}}")));
+
+        assertTrue(printerService.isPrinterAvailable(printer).block());
+    }
+
+    @Test
+    void isPrinterAvailable_FalseWhenPrinterUnreachable() {
+        Printer printer = new Printer(1L, "Printer1", "Room 101", "192.168.1.1", "12345apikey");
+        when(octoPrintClient.getPrinterState(printer)).thenReturn(Mono.error(new IllegalStateException("timeout")));
+
+        assertFalse(printerService.isPrinterAvailable(printer).block());
+    }
+
+    @Test
+    void startPrintJob_SavesJobWhenStarted() {
+        Printer printer = new Printer(1L, "Printer1", "Room 101", "192.168.1.1", "12345apikey");
+        Job job = job();
+        when(octoPrintClient.startPrint(printer, "benchy.gcode")).thenReturn(Mono.empty());
+
+        assertTrue(printerService.startPrintJob(printer, job).block());
+        assertEquals(new Status(2L, "In Progress"), job.getStatus());
+        assertEquals(printer, job.getPrinter());
+        verify(jobRepository).save(job);
+        assertEquals(DomainEvent.JOB_STARTED, publishedEvent().getType());
+        verify(printMetrics).jobStarted(isNull(), any(Date.class));
+    }
+
+    @Test
+    void startPrintJob_FalseWhenPrinterRejects() {
+        Printer printer = new Printer(1L, "Printer1", "Room 101", "192.168.1.1", "12345apikey");
+        Job job = job();
+        when(octoPrintClient.startPrint(printer, "benchy.gcode")).thenReturn(Mono.error(new IllegalStateException("409")));
+
+        assertFalse(printerService.startPrintJob(printer, job).block());
+        verify(jobRepository, never()).save(any(Job.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(printMetrics).dispatchFailed();
+    }
+
+    @Test
+    void completeJob_RecordsAwaitingPickUpAndRaisesEvent() {
+        Job job = job();
+
+        printerService.completeJob(job);
+
+        assertEquals(new Status(3L, "Awaiting Pick Up"), job.getStatus());
+        assertNotNull(job.getEnd_date());
+        verify(jobRepository).save(job);
+        DomainEvent event = publishedEvent();
+        assertEquals(DomainEvent.JOB_COMPLETED, event.getType());
+        assertEquals(7L, event.getAggregateId());
+        assertEquals(3L, event.payloadLong("statusId"));
+        assertEquals(job.getEnd_date().getTime(), event.payloadLong("endDate"));
+    }
+
+    private DomainEvent publishedEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        return (DomainEvent) event.getValue();
+    }
+
+    private static Job job() {
+        Item item = new Item(1L, "Benchy", "Test boat", 30, "60x31x48", "benchy.gcode", "PLA", 5L, "");
+        return new Job(7L, item, null, new Status(1L, "Waiting"), null, null, null);
+    }
 }
@@ -0,0 +1,156 @@
+package org.repro3d.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Printer;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.PrinterRepository;
+import org.repro3d.utils.BusyPrinters;
+import org.repro3d.utils.EmbeddedServletServer;
+import org.repro3d.utils.OctoPrintClient;
+import org.repro3d.utils.OctoPrintClientProperties;
+import org.repro3d.utils.PrintMetrics;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compares how many webcam streams PrinterService serves at the same time on Tomcat's bounded
+ * platform-thread pool and on virtual threads. Every stream blocks its request thread for as long
+ * as the stub OctoPrint webcam keeps sending frames.
+ */
+class WebcamStreamLoadTest {
+
+    private static final int STREAMS = EmbeddedServletServer.PLATFORM_MAX_THREADS + 100;
+    private static final long STREAM_MILLIS = 1000;
+    private static final long FRAME_MILLIS = 50;
+
+    private HttpServer webcam;
+    private OctoPrintClient octoPrintClient;
+    private PrinterService printerService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        webcam = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), STREAMS * 2);
+        webcam.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        webcam.createContext("/webcam/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "multipart/x-mixed-replace; boundary=boundarydonotcross");
+            exchange.sendResponseHeaders(200, 0);
+            byte[] frame = "--boundarydonotcross\r\nContent-Type: image/jpeg\r\n\r\nframe\r\n".getBytes(StandardCharsets.US_ASCII);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (long sent = 0; sent < STREAM_MILLIS; sent += FRAME_MILLIS) {
+                    body.write(frame);
+                    body.flush();
+                    Thread.sleep(FRAME_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        webcam.start();
+
+        PrinterRepository printerRepository = mock(PrinterRepository.class, withSettings().stubOnly());
+        Printer printer = new Printer(1L, "Printer1", "Lab", "127.0.0.1:" + webcam.getAddress().getPort(), "apikey");
+        when(printerRepository.findById(1L)).thenReturn(Optional.of(printer));
+        octoPrintClient = new OctoPrintClient(WebClient.builder(), new OctoPrintClientProperties(), new SimpleMeterRegistry());
+        printerService = new PrinterService(printerRepository, mock(JobRepository.class), octoPrintClient, mock(PrintMetrics.class),
+                mock(ApplicationEventPublisher.class), TransactionOperations.withoutTransaction(), mock(BusyPrinters.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        octoPrintClient.close();
+        webcam.stop(0);
+    }
+
+    @Test
+    void virtualThreadsServeMoreConcurrentStreamsThanPlatformPool() throws Exception {
+        int platform = concurrentStreams(EmbeddedServletServer.Mode.PLATFORM);
+        int virtual = concurrentStreams(EmbeddedServletServer.Mode.VIRTUAL);
+        System.out.printf("Concurrent webcam streams of %d requested: platform=%d, virtual=%d%n", STREAMS, platform, virtual);
+
+        assertTrue(platform <= EmbeddedServletServer.PLATFORM_MAX_THREADS);
+        assertEquals(STREAMS, virtual);
+    }
+
+    /**
+     * Opens all streams at once and returns the largest number of streams that were delivering
+     * frames at the same time. Streams beyond the thread limit queue until a running one ends.
+     */
+    private int concurrentStreams(EmbeddedServletServer.Mode mode) throws Exception {
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                printerService.streamWebcam(1L, resp);
+            }
+        };
+        AtomicLongArray firstFrame = new AtomicLongArray(STREAMS);
+        AtomicLongArray end = new AtomicLongArray(STREAMS);
+        try (EmbeddedServletServer server = EmbeddedServletServer.start(mode, servlet);
+             var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < STREAMS; i++) {
+                int stream = i;
+                clients.submit(() -> {
+                    watch(server.getPort(), () -> firstFrame.set(stream, System.nanoTime()));
+                    end.set(stream, System.nanoTime());
+                    return null;
+                });
+            }
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        int maxConcurrent = 0;
+        for (int i = 0; i < STREAMS; i++) {
+            long at = firstFrame.get(i);
+            if (at == 0) {
+                continue;
+            }
+            int concurrent = 0;
+            for (int j = 0; j < STREAMS; j++) {
+                if (firstFrame.get(j) != 0 && firstFrame.get(j) <= at && end.get(j) > at) {
+                    concurrent++;
+                }
+            }
+            maxConcurrent = Math.max(maxConcurrent, concurrent);
+        }
+        return maxConcurrent;
+    }
+
+    private static void watch(int port, Runnable onFirstFrame) throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(20000);
+            socket.getOutputStream().write(("GET /api/printer/webcam/1 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[4096];
+            boolean first = true;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (first && new String(buffer, 0, read, StandardCharsets.US_ASCII).contains("frame")) {
+                    onFirstFrame.run();
+                    first = false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.repro3d.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Printer;
+import org.repro3d.repository.JobRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BusyPrintersTest {
+
+    private static final Printer FIRST = new Printer(1L, "Printer1", "Lab", "192.168.1.1", "key");
+    private static final Printer SECOND = new Printer(2L, "Printer2", "Lab", "192.168.1.2", "key");
+
+    private JobRepository jobRepository;
+    private BusyPrinters busyPrinters;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(JobRepository.class);
+        busyPrinters = new BusyPrinters(jobRepository);
+    }
+
+    @Test
+    void isBusy_LoadsOnceUntilInvalidated() {
+        when(jobRepository.findPrinterIdsByStatusIds(List.of(2L, 3L))).thenReturn(Set.of(1L), Set.of());
+
+        assertTrue(busyPrinters.isBusy(FIRST));
+        assertFalse(busyPrinters.isBusy(SECOND));
+        verify(jobRepository, times(1)).findPrinterIdsByStatusIds(any());
+
+        busyPrinters.invalidate();
+
+        assertFalse(busyPrinters.isBusy(FIRST));
+        verify(jobRepository, times(2)).findPrinterIdsByStatusIds(any());
+    }
+
+    @Test
+    void reload_ReadsFromPrimary() {
+        when(jobRepository.findPrinterIdsByStatusIds(any())).thenAnswer(invocation -> PrimaryReads.isActive() ? Set.of(1L) : Set.of());
+
+        busyPrinters.reload();
+
+        assertTrue(busyPrinters.isBusy(FIRST));
+        assertFalse(PrimaryReads.isActive());
+    }
+
+    @Test
+    void markBusy_AddsPrinterWithoutQuery() {
+        when(jobRepository.findPrinterIdsByStatusIds(any())).thenReturn(Set.of());
+        busyPrinters.reload();
+
+        busyPrinters.markBusy(SECOND);
+
+        assertTrue(busyPrinters.isBusy(SECOND));
+        verify(jobRepository, times(1)).findPrinterIdsByStatusIds(any());
+    }
+
+    @Test
+    void isBusy_FailsWhenFirstLoadFails() {
+        when(jobRepository.findPrinterIdsByStatusIds(any()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(Set.of(1L));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> busyPrinters.isBusy(FIRST));
+
+        assertTrue(busyPrinters.isBusy(FIRST));
+    }
+
+    @Test
+    void isBusy_KeepsLastSetAndStaysStaleWhenReloadFails() {
+        when(jobRepository.findPrinterIdsByStatusIds(any()))
+                .thenReturn(Set.of(1L))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(Set.of(2L));
+        busyPrinters = new BusyPrinters(jobRepository, Duration.ZERO);
+        busyPrinters.reload();
+        busyPrinters.invalidate();
+
+        assertTrue(busyPrinters.isBusy(FIRST));
+        assertFalse(busyPrinters.isBusy(FIRST));
+        assertTrue(busyPrinters.isBusy(SECOND));
+        verify(jobRepository, times(3)).findPrinterIdsByStatusIds(any());
+    }
+
+    @Test
+    void isBusy_BacksOffAfterFailedReload() {
+        when(jobRepository.findPrinterIdsByStatusIds(any()))
+                .thenReturn(Set.of(1L))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        busyPrinters.reload();
+        busyPrinters.invalidate();
+
+        assertTrue(busyPrinters.isBusy(FIRST));
+        assertFalse(busyPrinters.isBusy(SECOND));
+        assertTrue(busyPrinters.isBusy(FIRST));
+        verify(jobRepository, times(2)).findPrinterIdsByStatusIds(any());
+    }
+}
@@ -0,0 +1,118 @@
+package org.repro3d.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.repro3d.model.GcodeAnalysis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcodeAnalyzerTest {
+
+    // Two layers of a 10 mm square, extruding 1 mm of filament per side at 20 mm/s.
+    private static final String SQUARE = """
+            ; generated by PrusaSlicer
+            M83 ; relative extrusion
+            G92 E0
+            G1 Z0.2 F600
+            G1 X0 Y0 F6000
+            G1 X10 Y0 E1 F1200
+            G1 X10 Y10 E1
+            G1 Z0.4
+            N12 G1 X0 Y10 E1 *57
+            g1 x0 y0 e1
+            G1 E-0.8 F2400
+            G4 P500
+            ; filament_type = PETG
+            ; filament_diameter = 1.75
+            """;
+
+    @TempDir
+    Path dir;
+
+    private GcodeProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GcodeProperties();
+        // Moves take their nominal time, length over feedrate.
+        properties.setAcceleration(1e12);
+    }
+
+    @Test
+    void analyze_ComputesTimeFilamentLayersAndBoundingBox() throws IOException {
+        GcodeAnalysis analysis = analyze(SQUARE, GcodeAnalyzer.WINDOW_SIZE);
+
+        // 4 sides of 0.5 s, 0.02 s and 0.01 s of Z moves, a 0.02 s retraction and a 0.5 s dwell
+        assertEquals(3, analysis.getPrintTime());
+        assertEquals(3.2, analysis.getFilamentLength(), 1e-9);
+        assertEquals(3.2 * Math.PI * 0.875 * 0.875 * 1.27 / 1000, analysis.getFilamentWeight(), 1e-9);
+        assertEquals(2, analysis.getLayers());
+        assertEquals("10x10x1", analysis.getDimensions());
+        assertEquals(0.4, analysis.getHeight(), 1e-9);
+        assertEquals("PETG", analysis.getMaterial());
+        assertEquals(1, analysis.getEstTime());
+    }
+
+    @Test
+    void analyze_ParsesLinesSpanningMappedWindows() throws IOException {
+        GcodeAnalysis whole = analyze(SQUARE, GcodeAnalyzer.WINDOW_SIZE);
+
+        assertEquals(whole, analyze(SQUARE, 40));
+    }
+
+    @Test
+    void analyze_SkipsWholeLineLongerThanBlock() throws IOException {
+        // The comment fills the first block exactly, so its tail would start the next block as a move.
+        String longLine = ";" + "x".repeat(64 * 1024 - 1) + "G1 X500 Y500 E5\n";
+
+        assertEquals(analyze(SQUARE, GcodeAnalyzer.WINDOW_SIZE), analyze(longLine + SQUARE, GcodeAnalyzer.WINDOW_SIZE));
+        assertEquals(analyze(SQUARE, GcodeAnalyzer.WINDOW_SIZE), analyze(SQUARE + longLine, 40));
+    }
+
+    @Test
+    void analyze_AcceleratesBetweenJunctionSpeeds() throws IOException {
+        properties.setAcceleration(1000);
+
+        // 10 mm at 100 mm/s from and to a standstill: 5 mm accelerating, 5 mm decelerating.
+        assertEquals(0.2, seconds("G1 X10 F6000\n"), 1e-3);
+        // Collinear moves keep their speed through the junction.
+        assertEquals(0.3, seconds("G1 X10 F6000\nG1 X20\n"), 1e-3);
+        // Reversing stops the head.
+        assertEquals(0.4, seconds("G1 X10 F6000\nG1 X0\n"), 1e-3);
+        // M204 changes the acceleration: 10 mm at 100 mm/s with 500 mm/s² never reaches full speed.
+        assertEquals(2 * Math.sqrt(0.01 * 2), seconds("M204 S500\nG1 X10 F6000\n"), 1e-3);
+    }
+
+    @Test
+    void analyze_HandlesArcsRelativeMovesAndInches() throws IOException {
+        GcodeAnalysis arc = analyze("G1 X10 Y0 F600\nG3 X0 Y10 I-10 J0 E1\n", GcodeAnalyzer.WINDOW_SIZE);
+        // Quarter circle of radius 10 at 10 mm/s after a 1 s move.
+        assertEquals(3, arc.getPrintTime());
+        assertEquals(10, arc.getWidth(), 1e-9);
+        assertEquals(10, arc.getDepth(), 1e-9);
+
+        GcodeAnalysis relative = analyze("G20\nG91\nG1 X1 E0.1 F60\nG1 X1 E0.1\n", GcodeAnalyzer.WINDOW_SIZE);
+        assertEquals(50.8, relative.getWidth(), 1e-9);
+        assertEquals(5.08, relative.getFilamentLength(), 1e-9);
+        assertEquals(1.24, relative.getFilamentWeight() / (5.08 * Math.PI * 0.875 * 0.875 / 1000), 1e-9);
+    }
+
+    private double seconds(String gcode) throws IOException {
+        // Repeated a thousand times so the rounding to whole seconds keeps millisecond precision.
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            repeated.append("G92 X0\n").append(gcode).append("G4 P0\n");
+        }
+        return analyze(repeated.toString(), GcodeAnalyzer.WINDOW_SIZE).getPrintTime() / 1000.0;
+    }
+
+    private GcodeAnalysis analyze(String gcode, int windowSize) throws IOException {
+        Path file = Files.writeString(dir.resolve("part.gcode"), gcode);
+        return new GcodeAnalyzer(properties, windowSize).analyze(file);
+    }
+}
@@ -0,0 +1,148 @@
+package org.repro3d.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.repro3d.model.Item;
+import org.repro3d.model.Job;
+import org.repro3d.model.PrinterFile;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.PrinterFileRepository;
+import org.repro3d.repository.PrinterRepository;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Stages stored G-code files to a farm of simulated OctoPrint printers.
+ */
+class GcodeStagerTest {
+
+    private static final Status WAITING = new Status(1L, "Waiting");
+
+    @TempDir
+    Path storeDir;
+
+    private OctoPrintSimulator octoPrint;
+    private OctoPrintClient client;
+    private JobRepository jobRepository;
+    private PrinterFileRepository printerFileRepository;
+    private GcodeStore store;
+    private GcodeStager stager;
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        octoPrint = new OctoPrintSimulator();
+        OctoPrintClientProperties clientProperties = new OctoPrintClientProperties();
+        clientProperties.setRetryBackoff(Duration.ofMillis(20));
+        client = new OctoPrintClient(WebClient.builder(), clientProperties, new SimpleMeterRegistry());
+
+        GcodeProperties properties = new GcodeProperties();
+        properties.setStoreDir(storeDir);
+        properties.setUploadConcurrency(1);
+        store = new GcodeStore(properties);
+        PrinterRepository printerRepository = mock(PrinterRepository.class);
+        when(printerRepository.findAll()).thenReturn(List.of(octoPrint.entity(1), octoPrint.entity(2), octoPrint.entity(3)));
+        jobRepository = mock(JobRepository.class);
+        printerFileRepository = mock(PrinterFileRepository.class);
+        when(printerFileRepository.save(any(PrinterFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        stager = new GcodeStager(jobRepository, printerRepository, printerFileRepository, store, client, properties,
+                new BusyPrinters(jobRepository), events::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        octoPrint.close();
+    }
+
+    @Test
+    void stageUpcomingFiles_UploadsToIdlePrintersUntilEachWaitingJobHasOne() throws IOException {
+        String hash = store.store(new ByteArrayInputStream("G28\nG1 X10 Y10\n".getBytes()));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job(7L, hash), job(8L, hash), job(9L, "benchy.gcode")));
+        when(jobRepository.findPrinterIdsByStatusIds(any())).thenReturn(Set.of(1L));
+        when(printerFileRepository.findPrinterIdsByFileHash(hash)).thenReturn(List.of(3L));
+        octoPrint.printer(3).files.put(hash + ".gcode", 16);
+
+        stager.stageUpcomingFiles();
+
+        assertTrue(octoPrint.printer(1).files.isEmpty());
+        assertTrue(octoPrint.printer(2).files.containsKey(hash + ".gcode"));
+        ArgumentCaptor<PrinterFile> saved = ArgumentCaptor.forClass(PrinterFile.class);
+        verify(printerFileRepository).save(saved.capture());
+        assertEquals(2L, saved.getValue().getPrinter().getPrinter_id());
+        assertEquals(hash, saved.getValue().getFileHash());
+        verify(printerFileRepository, never()).deleteByPrinterIdAndFileHash(any(), any());
+        assertEquals(List.of(new GcodeStager.FilesStaged(1)), events);
+    }
+
+    @Test
+    void stageUpcomingFiles_SpreadsFilesOverIdlePrinters() throws IOException {
+        String first = store.store(new ByteArrayInputStream("G28\n".getBytes()));
+        String second = store.store(new ByteArrayInputStream("G28\nG1 X5\n".getBytes()));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job(7L, first), job(8L, second)));
+
+        stager.stageUpcomingFiles();
+
+        assertEquals(Set.of(first + ".gcode"), octoPrint.printer(1).files.keySet());
+        assertEquals(Set.of(second + ".gcode"), octoPrint.printer(2).files.keySet());
+        assertTrue(octoPrint.printer(3).files.isEmpty());
+    }
+
+    @Test
+    void stageUpcomingFiles_StagesAgainFilesWipedFromPrinter() throws IOException {
+        String hash = store.store(new ByteArrayInputStream("G28\n".getBytes()));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job(7L, hash)));
+        when(printerFileRepository.findPrinterIdsByFileHash(hash)).thenReturn(List.of(2L));
+
+        stager.stageUpcomingFiles();
+
+        verify(printerFileRepository).deleteByPrinterIdAndFileHash(2L, hash);
+        assertTrue(octoPrint.printer(1).files.containsKey(hash + ".gcode"));
+        verify(printerFileRepository).save(any(PrinterFile.class));
+    }
+
+    @Test
+    void stageUpcomingFiles_DoesNotRecordFailedUploads() throws IOException {
+        String hash = store.store(new ByteArrayInputStream("G28\n".getBytes()));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job(7L, hash)));
+        when(jobRepository.findPrinterIdsByStatusIds(any())).thenReturn(Set.of(1L, 2L));
+        octoPrint.printer(3).failuresLeft.set(10);
+
+        stager.stageUpcomingFiles();
+
+        assertTrue(octoPrint.printer(3).files.isEmpty());
+        verify(printerFileRepository, never()).save(any());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void stageUpcomingFiles_SkipsFilesMissingFromStore() {
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job(7L, "cd".repeat(32))));
+
+        stager.stageUpcomingFiles();
+
+        assertEquals(0, octoPrint.printer(1).requests.get());
+        verify(printerFileRepository, never()).save(any());
+    }
+
+    private static Job job(Long id, String fileRef) {
+        Item item = new Item(1L, "Benchy", "Test boat", 30, "60x31x48", fileRef, "PLA", 5L, "");
+        return new Job(id, item, null, WAITING, null, null, null);
+    }
+}
@@ -0,0 +1,156 @@
+package org.repro3d.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcodeStoreTest {
+
+    private static final String BENCHY = "G28\nG1 X10 Y10 Z0.2\n";
+    // sha256sum of BENCHY
+    private static final String BENCHY_HASH = "4425bdb4d9cacd31fa31cff548df8071d5b55769c348e40b00687c9760e5730a";
+
+    @TempDir
+    Path storeDir;
+
+    private GcodeStore store;
+
+    @BeforeEach
+    void setUp() {
+        GcodeProperties properties = new GcodeProperties();
+        properties.setStoreDir(storeDir);
+        properties.setMaxFileSize(DataSize.ofBytes(64));
+        properties.setUploadExpiry(Duration.ofHours(1));
+        store = new GcodeStore(properties);
+    }
+
+    @Test
+    void store_StoresFileUnderItsHash() throws IOException {
+        String hash = store.store(new ByteArrayInputStream(BENCHY.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(BENCHY_HASH, hash);
+        Path file = store.find(hash).orElseThrow();
+        assertEquals(storeDir.resolve(hash.substring(0, 2)).resolve(hash + ".gcode"), file);
+        assertEquals(BENCHY, Files.readString(file));
+    }
+
+    @Test
+    void store_DeduplicatesIdenticalContent() throws IOException {
+        String first = store.store(new ByteArrayInputStream(BENCHY.getBytes(StandardCharsets.UTF_8)));
+        String second = store.store(new ByteArrayInputStream(BENCHY.getBytes(StandardCharsets.UTF_8)));
+        String other = store.store(new ByteArrayInputStream("G28\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        try (var incoming = Files.list(storeDir.resolve("incoming"))) {
+            assertEquals(0, incoming.count());
+        }
+    }
+
+    @Test
+    void find_ReturnsEmptyForUnknownOrInvalidHash() {
+        assertTrue(store.find(BENCHY_HASH).isEmpty());
+        assertTrue(store.find("../benchy.gcode").isEmpty());
+    }
+
+    @Test
+    void printerFileName_AppendsExtensionToHashesOnly() {
+        assertEquals(BENCHY_HASH + ".gcode", GcodeStore.printerFileName(BENCHY_HASH));
+        assertEquals("benchy.gcode", GcodeStore.printerFileName("benchy.gcode"));
+        assertFalse(GcodeStore.isHash(BENCHY_HASH.toUpperCase()));
+    }
+
+    @Test
+    void appendUpload_ResumesFromOffsetReached() throws IOException {
+        String uploadId = store.createUpload();
+        byte[] content = BENCHY.getBytes(StandardCharsets.UTF_8);
+
+        long offset = store.appendUpload(uploadId, 0, new ByteArrayInputStream(content, 0, 4));
+        assertEquals(4, offset);
+        assertThrows(IllegalStateException.class, () -> store.appendUpload(uploadId, 0, new ByteArrayInputStream(content)));
+        assertEquals(OptionalLong.of(4), store.uploadOffset(uploadId));
+        store.appendUpload(uploadId, offset, new ByteArrayInputStream(content, 4, content.length - 4));
+
+        assertEquals(BENCHY_HASH, store.completeUpload(uploadId, BENCHY_HASH.toUpperCase()));
+        assertEquals(BENCHY, Files.readString(store.find(BENCHY_HASH).orElseThrow()));
+        assertTrue(store.uploadOffset(uploadId).isEmpty());
+    }
+
+    @Test
+    void appendUpload_RejectsChunkExceedingMaxFileSize() throws IOException {
+        String uploadId = store.createUpload();
+        store.appendUpload(uploadId, 0, new ByteArrayInputStream(new byte[60]));
+
+        assertThrows(IllegalArgumentException.class, () -> store.appendUpload(uploadId, 60, new ByteArrayInputStream(new byte[5])));
+        assertEquals(OptionalLong.of(60), store.uploadOffset(uploadId));
+        assertEquals(64, store.appendUpload(uploadId, 60, new ByteArrayInputStream(new byte[4])));
+    }
+
+    @Test
+    void completeUpload_KeepsUploadWhenHashDoesNotMatch() throws IOException {
+        String uploadId = store.createUpload();
+        store.appendUpload(uploadId, 0, new ByteArrayInputStream(BENCHY.getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(IllegalArgumentException.class, () -> store.completeUpload(uploadId, "00".repeat(32)));
+        assertTrue(store.find(BENCHY_HASH).isEmpty());
+        assertTrue(store.uploadOffset(uploadId).isPresent());
+        assertThrows(NoSuchFileException.class, () -> store.completeUpload("../" + uploadId, null));
+    }
+
+    @Test
+    void completeUpload_CompletesParallelCompletionsOfOneUploadOnce() throws Exception {
+        String uploadId = store.createUpload();
+        store.appendUpload(uploadId, 0, new ByteArrayInputStream(BENCHY.getBytes(StandardCharsets.UTF_8)));
+
+        List<Future<String>> completions;
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            completions = executor.invokeAll(Collections.nCopies(4, () -> store.completeUpload(uploadId, null)));
+        }
+
+        int completed = 0;
+        for (Future<String> completion : completions) {
+            try {
+                assertEquals(BENCHY_HASH, completion.get());
+                completed++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException || e.getCause() instanceof NoSuchFileException, e.getCause()::toString);
+            }
+        }
+        assertEquals(1, completed);
+        assertEquals(BENCHY, Files.readString(store.find(BENCHY_HASH).orElseThrow()));
+        assertTrue(store.uploadOffset(uploadId).isEmpty());
+    }
+
+    @Test
+    void deleteStaleUploads_DiscardsExpiredUploadsOnly() throws IOException {
+        String stale = store.createUpload();
+        String fresh = store.createUpload();
+        Files.setLastModifiedTime(storeDir.resolve("incoming").resolve(stale + ".part"),
+                FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        store.deleteStaleUploads();
+
+        assertTrue(store.uploadOffset(stale).isEmpty());
+        assertTrue(store.uploadOffset(fresh).isPresent());
+    }
+}
@@ -0,0 +1,77 @@
+package org.repro3d.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcodeThumbnailerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void embedded_ExtractsLargestThumbnail() throws IOException {
+        String small = Base64.getEncoder().encodeToString(png(16));
+        String large = Base64.getEncoder().encodeToString(png(64));
+        Path file = dir.resolve("part.gcode");
+        Files.writeString(file, "; generated by PrusaSlicer\n;\n"
+                + "; thumbnail begin 16x16 " + small.length() + "\n; " + small + "\n; thumbnail end\n;\n"
+                + "; thumbnail begin 64x64 " + large.length() + "\n; " + large.substring(0, 40) + "\n; " + large.substring(40)
+                + "\n; thumbnail end\n\nG28\n; thumbnail begin 128x128 4\n; AAAA\n; thumbnail end\n");
+        GcodeThumbnailer thumbnailer = new GcodeThumbnailer(new GcodeProperties());
+
+        Optional<byte[]> thumbnail = thumbnailer.embedded(file);
+
+        assertTrue(thumbnail.isPresent());
+        assertEquals(64, ImageIO.read(new ByteArrayInputStream(thumbnail.get())).getWidth());
+        Files.writeString(file, "G28\nG1 X10 Y10 E1\n");
+        assertTrue(thumbnailer.embedded(file).isEmpty());
+    }
+
+    @Test
+    void preview_DrawsExtrusionsCroppedToPart() throws IOException {
+        GcodeProperties properties = new GcodeProperties();
+        properties.setThumbnailSize(100);
+        GcodeAnalyzer analyzer = new GcodeAnalyzer(properties);
+        Path file = dir.resolve("square.gcode");
+        Files.writeString(file, "M83\nG1 Z0.2\nG1 X100 Y100\nG1 X150 Y100 E1\nG1 X150 Y150 E1\nG1 X100 Y150 E1\nG1 X100 Y100 E1\n");
+        GcodeThumbnailer.Preview preview = new GcodeThumbnailer(properties).preview();
+
+        analyzer.analyze(file, preview);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(preview.toPng()));
+
+        assertEquals(100, image.getWidth());
+        assertEquals(100, image.getHeight());
+        // The outline of the square is drawn near the edges, the inside is left empty.
+        int background = image.getRGB(50, 50);
+        assertTrue(drawn(image, background, 50, 0, 0, 1));
+        assertTrue(drawn(image, background, 0, 50, 1, 0));
+        assertFalse(drawn(image, background, 20, 20, 1, 1));
+    }
+
+    private static boolean drawn(BufferedImage image, int background, int x, int y, int dx, int dy) {
+        for (int i = 0; i < 20; i++) {
+            if (image.getRGB(x + i * dx, y + i * dy) != background) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] png(int size) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB), "png", png);
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,264 @@
+package org.repro3d.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.Item;
+import org.repro3d.model.Job;
+import org.repro3d.model.Printer;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.PrinterFileRepository;
+import org.repro3d.repository.PrinterRepository;
+import org.repro3d.service.PrinterService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the scheduler against a farm of simulated OctoPrint printers.
+ */
+class JobSchedulerTest {
+
+    private static final Status WAITING = new Status(1L, "Waiting");
+    private static final Status IN_PROGRESS = new Status(2L, "In Progress");
+
+    private OctoPrintSimulator octoPrint;
+    private SimpleMeterRegistry registry;
+    private OctoPrintClient client;
+    private JobRepository jobRepository;
+    private PrinterFileRepository printerFileRepository;
+    private JobScheduler scheduler;
+
+    @TempDir
+    Path storeDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        octoPrint = new OctoPrintSimulator();
+        OctoPrintClientProperties properties = new OctoPrintClientProperties();
+        properties.setResponseTimeout(Duration.ofMillis(300));
+        properties.setRetryBackoff(Duration.ofMillis(20));
+        registry = new SimpleMeterRegistry();
+        client = new OctoPrintClient(WebClient.builder(), properties, registry);
+
+        PrinterRepository printerRepository = mock(PrinterRepository.class);
+        when(printerRepository.findAll()).thenReturn(List.of(octoPrint.entity(1), octoPrint.entity(2), octoPrint.entity(3)));
+        jobRepository = mock(JobRepository.class);
+        when(jobRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        printerFileRepository = mock(PrinterFileRepository.class);
+        GcodeProperties gcodeProperties = new GcodeProperties();
+        gcodeProperties.setStoreDir(storeDir);
+        BusyPrinters busyPrinters = new BusyPrinters(jobRepository);
+        GcodeStager stager = new GcodeStager(jobRepository, printerRepository, printerFileRepository, new GcodeStore(gcodeProperties), client,
+                gcodeProperties, busyPrinters, event -> { });
+        PrintMetrics metrics = new PrintMetrics(registry, jobRepository);
+        PrinterService printerService = new PrinterService(printerRepository, jobRepository, client, metrics,
+                mock(ApplicationEventPublisher.class), TransactionOperations.withoutTransaction(), busyPrinters);
+        scheduler = new JobScheduler(jobRepository, printerService, metrics, stager, busyPrinters, new SchedulerProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+        client.close();
+        octoPrint.close();
+    }
+
+    @Test
+    void checkWaitingJobs_StartsJobOnOperationalPrinterDespiteHungOne() {
+        octoPrint.printer(1).delayMillis = 10000;
+        octoPrint.printer(2).state = "Printing";
+        Job job = job(7L, WAITING, null);
+        job.setStart_date(new Date(System.currentTimeMillis() - 60000));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job));
+
+        long start = System.nanoTime();
+        scheduler.checkWaitingJobs();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertEquals(1, octoPrint.printer(3).started.size());
+        assertTrue(octoPrint.printer(2).started.isEmpty());
+        assertEquals(IN_PROGRESS, job.getStatus());
+        assertEquals(3L, job.getPrinter().getPrinter_id());
+        assertNotNull(job.getStart_date());
+        verify(jobRepository).save(job);
+        assertEquals(1, registry.get("repro3d.jobs.dispatch").tag("outcome", "started").counter().count());
+        assertTrue(registry.get("repro3d.jobs.wait").timer().totalTime(TimeUnit.SECONDS) >= 60);
+        assertEquals(1, registry.get("repro3d.scheduler.tick").tag("task", "dispatch").timer().count());
+    }
+
+    @Test
+    void checkWaitingJobs_TriesNextPrinterWhenStartFails() {
+        octoPrint.printer(1).startStatus = 409;
+        Job job = job(7L, WAITING, null);
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job));
+
+        scheduler.checkWaitingJobs();
+
+        assertEquals(1, octoPrint.printer(1).started.size());
+        assertEquals(1, octoPrint.printer(2).started.size());
+        assertTrue(octoPrint.printer(3).started.isEmpty());
+        assertEquals(2L, job.getPrinter().getPrinter_id());
+        assertEquals(1, registry.get("repro3d.jobs.dispatch").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void checkWaitingJobs_FillsEveryIdlePrinterInOneTick() {
+        octoPrint.printer(2).startStatus = 409;
+        Job first = job(7L, WAITING, null);
+        Job refused = job(8L, WAITING, null);
+        Job third = job(9L, WAITING, null);
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(first, refused, third, job(10L, WAITING, null)));
+
+        scheduler.checkWaitingJobs();
+
+        assertEquals(1L, first.getPrinter().getPrinter_id());
+        assertEquals(3L, third.getPrinter().getPrinter_id());
+        assertEquals(WAITING, refused.getStatus());
+        assertEquals(2, registry.get("repro3d.jobs.dispatch").tag("outcome", "started").counter().count());
+        assertEquals(1, registry.get("repro3d.jobs.dispatch").tag("outcome", "failed").counter().count());
+        verify(jobRepository, times(1)).findByStatusOrderByJobIdAsc(WAITING);
+    }
+
+    @Test
+    void checkWaitingJobs_StartsStoredFileOnlyOnPrinterHoldingIt() {
+        String hash = "ab".repeat(32);
+        when(printerFileRepository.findPrinterIdsByFileHash(hash)).thenReturn(List.of(3L));
+        Job job = job(7L, WAITING, null);
+        job.getItem().setFile_ref(hash);
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job));
+
+        scheduler.checkWaitingJobs();
+
+        assertTrue(octoPrint.printer(1).started.isEmpty());
+        assertTrue(octoPrint.printer(2).started.isEmpty());
+        assertEquals(1, octoPrint.printer(3).started.size());
+        assertTrue(octoPrint.printer(3).started.peek().startsWith(hash + ".gcode "));
+        assertEquals(3L, job.getPrinter().getPrinter_id());
+    }
+
+    @Test
+    void onEvent_OrderPlacedDispatchesWaitingJobAfterRunningTick() throws InterruptedException {
+        octoPrint.farm(3, printer -> printer.delayMillis = 200);
+        Job unplaceable = job(6L, WAITING, null);
+        unplaceable.getItem().setFile_ref("cd".repeat(32));
+        Job job = job(7L, WAITING, null);
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(unplaceable), List.of(job));
+
+        Thread tick = Thread.ofVirtual().start(scheduler::checkWaitingJobs);
+        Thread.sleep(50);
+        scheduler.onEvent(DomainEvent.of(DomainEvent.ORDER_PLACED, 1L, Map.of()));
+        scheduler.onEvent(DomainEvent.of(DomainEvent.JOB_STARTED, 7L, Map.of()));
+        tick.join();
+
+        verify(jobRepository, timeout(5000)).save(job);
+        assertEquals(IN_PROGRESS, job.getStatus());
+        verify(jobRepository, times(2)).findByStatusOrderByJobIdAsc(WAITING);
+        assertNull(registry.find("repro3d.scheduler.ticks.skipped").tag("task", "dispatch").counter());
+    }
+
+    @Test
+    void onEvent_JobPickedUpFreesItsPrinterForTheNextDispatch() {
+        when(jobRepository.findPrinterIdsByStatusIds(any())).thenReturn(Set.of(1L, 2L), Set.of(2L));
+        octoPrint.printer(3).state = "Printing";
+        Job job = job(7L, WAITING, null);
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job));
+
+        scheduler.checkWaitingJobs();
+        assertNull(job.getPrinter());
+
+        scheduler.onEvent(DomainEvent.of(DomainEvent.JOB_PICKED_UP, 5L, Map.of("printerId", 1L)));
+
+        verify(jobRepository, timeout(5000)).save(job);
+        assertEquals(1L, job.getPrinter().getPrinter_id());
+        assertTrue(octoPrint.printer(2).started.isEmpty());
+        verify(jobRepository, times(2)).findPrinterIdsByStatusIds(any());
+    }
+
+    @Test
+    void checkInProgressJobs_CompletesFinishedJobs() {
+        octoPrint.printer(1).job = "{\"state\":\"Operational\",\"progress\":{\"completion\":null,\"printTimeLeft\":null}}";
+        Job finished = job(7L, IN_PROGRESS, octoPrint.entity(1));
+        finished.setStart_date(new Date());
+        Job running = job(8L, IN_PROGRESS, octoPrint.entity(2));
+        when(jobRepository.findByStatusOrderByJobIdAsc(IN_PROGRESS)).thenReturn(List.of(finished, running));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of());
+
+        scheduler.checkInProgressJobs();
+
+        assertEquals(new Status(3L, "Awaiting Pick Up"), finished.getStatus());
+        assertNotNull(finished.getEnd_date());
+        assertEquals(IN_PROGRESS, running.getStatus());
+        verify(jobRepository).save(finished);
+        assertEquals(1, registry.get("repro3d.jobs.print").timer().count());
+        verify(jobRepository, timeout(1000)).findByStatusOrderByJobIdAsc(WAITING);
+    }
+
+    @Test
+    void checkInProgressJobs_RunsAlongsideDispatchTick() throws InterruptedException {
+        octoPrint.printer(1).delayMillis = 200;
+        octoPrint.printer(2).delayMillis = 200;
+        octoPrint.printer(3).delayMillis = 200;
+        octoPrint.printer(1).job = "{\"state\":\"Operational\",\"progress\":{\"completion\":null,\"printTimeLeft\":null}}";
+        Job finished = job(7L, IN_PROGRESS, octoPrint.entity(1));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(job(8L, WAITING, null)));
+        when(jobRepository.findByStatusOrderByJobIdAsc(IN_PROGRESS)).thenReturn(List.of(finished));
+
+        Thread dispatch = Thread.ofVirtual().start(scheduler::checkWaitingJobs);
+        Thread.sleep(100);
+        scheduler.checkInProgressJobs();
+        dispatch.join();
+
+        assertEquals(new Status(3L, "Awaiting Pick Up"), finished.getStatus());
+        assertNull(registry.find("repro3d.scheduler.ticks.skipped").tag("task", "complete").counter());
+    }
+
+    @Test
+    void simulatedPrints_AreDispatchedToIdlePrintersAndCompleted() throws InterruptedException {
+        octoPrint.farm(3, printer -> printer.printDuration = Duration.ofMillis(300));
+        Job first = job(7L, WAITING, null);
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(first));
+        scheduler.checkWaitingJobs();
+        Job second = job(8L, WAITING, null);
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of(second));
+        scheduler.checkWaitingJobs();
+
+        assertEquals(1L, first.getPrinter().getPrinter_id());
+        assertEquals(2L, second.getPrinter().getPrinter_id());
+        assertEquals(2, octoPrint.getPrintsStarted());
+
+        when(jobRepository.findByStatusOrderByJobIdAsc(IN_PROGRESS)).thenReturn(List.of(first, second));
+        when(jobRepository.findByStatusOrderByJobIdAsc(WAITING)).thenReturn(List.of());
+        scheduler.checkInProgressJobs();
+        assertEquals(IN_PROGRESS, first.getStatus());
+
+        Thread.sleep(400);
+        scheduler.checkInProgressJobs();
+
+        assertEquals(new Status(3L, "Awaiting Pick Up"), first.getStatus());
+        assertEquals(new Status(3L, "Awaiting Pick Up"), second.getStatus());
+        assertTrue(octoPrint.getBusyTime().compareTo(Duration.ofMillis(600)) >= 0);
+    }
+
+    private static Job job(Long id, Status status, Printer printer) {
+        Item item = new Item(1L, "Benchy", "Test boat", 30, "60x31x48", "benchy.gcode", "PLA", 5L, "");
+        return new Job(id, item, printer, status, null, null, null);
+    }
+}
@@ -0,0 +1,155 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Printer;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OctoPrintClientTest {
+
+    private OctoPrintSimulator octoPrint;
+    private OctoPrintClientProperties properties;
+    private SimpleMeterRegistry registry;
+    private OctoPrintClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        octoPrint = new OctoPrintSimulator();
+        properties = new OctoPrintClientProperties();
+        properties.setResponseTimeout(Duration.ofMillis(300));
+        properties.setRetryBackoff(Duration.ofMillis(20));
+        registry = new SimpleMeterRegistry();
+        client = new OctoPrintClient(WebClient.builder(), properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        octoPrint.close();
+    }
+
+    @Test
+    void getPrinterState_ReturnsStateDocument() {
+        octoPrint.printer(1).state = "Printing";
+
+        JsonNode state = client.getPrinterState(octoPrint.entity(1)).block();
+
+        assertEquals("Printing", state.path("state").path("text").asText());
+    }
+
+    @Test
+    void getJob_RetriesServerErrors() {
+        octoPrint.printer(1).failuresLeft.set(2);
+
+        JsonNode job = client.getJob(octoPrint.entity(1)).block();
+
+        assertEquals(42.0, job.path("progress").path("completion").asDouble());
+        assertEquals(3, octoPrint.printer(1).requests.get());
+        assertEquals(2, requests("/api/job", "SERVER_ERROR"));
+        assertEquals(1, requests("/api/job", "SUCCESS"));
+    }
+
+    @Test
+    void getPrinterState_GivesUpAfterMaxRetries() {
+        octoPrint.printer(1).failuresLeft.set(10);
+
+        WebClientResponseException error = assertThrows(WebClientResponseException.class,
+                () -> client.getPrinterState(octoPrint.entity(1)).block());
+
+        assertEquals(503, error.getStatusCode().value());
+        assertEquals(3, octoPrint.printer(1).requests.get());
+    }
+
+    @Test
+    void getPrinterState_TimesOutOnHungPrinter() {
+        octoPrint.printer(1).delayMillis = 5000;
+
+        long start = System.nanoTime();
+        assertThrows(WebClientRequestException.class, () -> client.getPrinterState(octoPrint.entity(1)).block());
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(3)) < 0);
+        assertEquals(3, requests("/api/printer", "TIMEOUT"));
+    }
+
+    @Test
+    void getPrinterState_RejectsWrongApiKey() {
+        Printer printer = octoPrint.entity(1);
+        printer.setApikey("wrong");
+
+        assertThrows(WebClientResponseException.Unauthorized.class, () -> client.getPrinterState(printer).block());
+    }
+
+    @Test
+    void startPrint_SelectsAndPrintsFile() {
+        client.startPrint(octoPrint.entity(1), "benchy.gcode").block();
+
+        String started = octoPrint.printer(1).started.poll();
+        assertTrue(started.startsWith("benchy.gcode "));
+        assertTrue(started.contains("\"command\":\"select\""));
+        assertTrue(started.contains("\"print\":true"));
+    }
+
+    @Test
+    void startPrint_DoesNotRetryOnceRequestWasSent() {
+        octoPrint.printer(1).failuresLeft.set(1);
+
+        assertThrows(WebClientResponseException.class, () -> client.startPrint(octoPrint.entity(1), "benchy.gcode").block());
+
+        assertEquals(1, octoPrint.printer(1).requests.get());
+    }
+
+    @Test
+    void startPrint_RetriesRefusedConnections() throws IOException {
+        Printer printer = octoPrint.entity(1);
+        try (ServerSocket socket = new ServerSocket(0)) {
+            printer.setIp_addr("127.0.0.1:" + socket.getLocalPort());
+        }
+
+        WebClientRequestException error = assertThrows(WebClientRequestException.class,
+                () -> client.startPrint(printer, "benchy.gcode").block());
+
+        assertTrue(OctoPrintClient.isConnectFailure(error));
+    }
+
+    @Test
+    void getPrinterState_PropagatesTraceContext() {
+        try (InMemoryTracing tracing = new InMemoryTracing()) {
+            OctoPrintClient tracedClient = new OctoPrintClient(
+                    WebClient.builder().observationRegistry(tracing.getObservationRegistry()), properties, registry);
+            Observation tick = Observation.start("tick", tracing.getObservationRegistry());
+
+            tracedClient.getPrinterState(octoPrint.entity(1))
+                    .contextWrite(Context.of(ObservationThreadLocalAccessor.KEY, tick))
+                    .block();
+            tick.stop();
+            tracedClient.close();
+
+            SpanData parent = tracing.getSpan("tick");
+            SpanData call = tracing.getSpan("http get");
+            assertEquals(parent.getSpanId(), call.getParentSpanId());
+            assertEquals("00-" + call.getTraceId() + "-" + call.getSpanId() + "-01", octoPrint.printer(1).traceparent);
+        }
+    }
+
+    private long requests(String endpoint, String outcome) {
+        return registry.get("octoprint.client.requests")
+                .tags("printer", "1", "endpoint", endpoint, "outcome", outcome)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,397 @@
+package org.repro3d.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.repro3d.model.Printer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+/**
+ * Local stand-in for the OctoPrint REST API of any number of printers.
+ * <p>
+ * Every virtual printer is served below its own path prefix {@code /p/<n>}, which becomes part of the
+ * printer's {@code ip_addr}, so a single server hosts the whole farm. Requests are handled on virtual
+ * threads, so hundreds of printers can be simulated in one JVM. Each virtual printer can be made
+ * slow, hung or failing to exercise the client's timeouts and retries.
+ * <p>
+ * By default a printer answers with a fixed {@link VirtualPrinter#state} and {@link VirtualPrinter#job}.
+ * Once a {@link VirtualPrinter#printDuration} is set, it simulates prints instead: a started file is
+ * printed for that long, during which the printer reports {@code Printing} with advancing progress
+ * and rejects further prints, and afterwards it reports the finished job until the next start.
+ * <p>
+ * Supported endpoints: {@code GET /api/printer}, {@code GET /api/job}, {@code POST /api/files/local}
+ * (upload), {@code GET /api/files/local/<file>} (file info), {@code POST /api/files/local/<file>} (start)
+ * and {@code GET /webcam/?action=stream}.
+ */
+public class OctoPrintSimulator implements AutoCloseable {
+
+    private static final String BOUNDARY = "boundarydonotcross";
+    private static final Pattern UPLOAD_FILE_NAME = Pattern.compile("name=\"file\"; filename=\"([^\"]+)\"");
+
+    /**
+     * A minimal JPEG image (start of image, a comment segment, end of image) used as webcam frame.
+     */
+    private static final byte[] FRAME = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xFE, 0x00, 0x06,
+            'r', 'e', 'p', 'r', (byte) 0xFF, (byte) 0xD9};
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, VirtualPrinter> printers = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the simulator on a random local port.
+     *
+     * @throws IOException If the server cannot be started.
+     */
+    public OctoPrintSimulator() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/p/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the virtual printer with the given ID, creating an operational, idle one on first use.
+     *
+     * @param id The printer ID.
+     * @return The virtual printer.
+     */
+    public VirtualPrinter printer(long id) {
+        return printers.computeIfAbsent(id, VirtualPrinter::new);
+    }
+
+    /**
+     * Returns a {@link Printer} entity pointing to the virtual printer with the given ID.
+     *
+     * @param id The printer ID.
+     * @return The printer entity.
+     */
+    public Printer entity(long id) {
+        printer(id);
+        return new Printer(id, "Printer" + id, "Farm", "127.0.0.1:" + server.getAddress().getPort() + "/p/" + id, "key-" + id);
+    }
+
+    /**
+     * Creates the virtual printers {@code 1..count} and returns their entities.
+     *
+     * @param count     The number of printers.
+     * @param configure Applied to every virtual printer, e.g. to set its print duration.
+     * @return The printer entities.
+     */
+    public List<Printer> farm(int count, Consumer<VirtualPrinter> configure) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> {
+                    configure.accept(printer(id));
+                    return entity(id);
+                })
+                .toList();
+    }
+
+    /**
+     * Returns the time all virtual printers spent printing so far, including prints still running.
+     *
+     * @return The summed print time.
+     */
+    public Duration getBusyTime() {
+        long now = System.nanoTime();
+        return Duration.ofNanos(printers.values().stream().mapToLong(printer -> printer.busyNanos(now)).sum());
+    }
+
+    /**
+     * Returns the number of prints started on all virtual printers.
+     *
+     * @return The number of started prints.
+     */
+    public int getPrintsStarted() {
+        return printers.values().stream().mapToInt(printer -> printer.printsStarted.get()).sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().split("/", 4);
+            VirtualPrinter printer = printers.get(Long.parseLong(path[2]));
+            String endpoint = "/" + path[3];
+            String apiKey = endpoint.startsWith("/webcam/")
+                    ? queryParameter(exchange, "apikey")
+                    : exchange.getRequestHeaders().getFirst("X-Api-Key");
+            if (printer == null || !("key-" + printer.id).equals(apiKey)) {
+                respond(exchange, 401, "{\"error\":\"Invalid API key\"}");
+                return;
+            }
+            printer.requests.incrementAndGet();
+            printer.traceparent = exchange.getRequestHeaders().getFirst("traceparent");
+            if (printer.delayMillis > 0) {
+                Thread.sleep(printer.delayMillis);
+            }
+            if (printer.failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0
+                    || ThreadLocalRandom.current().nextDouble() < printer.failureRate) {
+                respond(exchange, 503, "");
+                return;
+            }
+            if (endpoint.equals("/api/printer")) {
+                respond(exchange, 200, "{\"state\":{\"text\":\"" + printer.printerState() + "\"}}");
+            } else if (endpoint.equals("/api/job")) {
+                respond(exchange, 200, printer.jobDocument());
+            } else if (endpoint.equals("/api/files/local") && "POST".equals(exchange.getRequestMethod())) {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+                Matcher fileName = UPLOAD_FILE_NAME.matcher(body);
+                if (!fileName.find()) {
+                    respond(exchange, 400, "");
+                    return;
+                }
+                printer.files.put(fileName.group(1), body.length());
+                respond(exchange, 201, "{\"done\":true}");
+            } else if (endpoint.startsWith("/api/files/local/") && "GET".equals(exchange.getRequestMethod())) {
+                String file = endpoint.substring("/api/files/local/".length());
+                if (printer.files.containsKey(file)) {
+                    respond(exchange, 200, "{\"name\":\"" + file + "\",\"origin\":\"local\"}");
+                } else {
+                    respond(exchange, 404, "");
+                }
+            } else if (endpoint.startsWith("/api/files/local/") && "POST".equals(exchange.getRequestMethod())) {
+                String file = endpoint.substring("/api/files/local/".length());
+                printer.started.add(file + " " + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                if (printer.requireUploads && !printer.files.containsKey(file)) {
+                    respond(exchange, 404, "");
+                    return;
+                }
+                respond(exchange, printer.startPrint(file), "");
+            } else if (endpoint.startsWith("/webcam/") && "stream".equals(queryParameter(exchange, "action"))) {
+                streamWebcam(exchange, printer);
+            } else {
+                respond(exchange, 404, "");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void streamWebcam(HttpExchange exchange, VirtualPrinter printer) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "multipart/x-mixed-replace; boundary=" + BOUNDARY);
+        exchange.sendResponseHeaders(200, 0);
+        byte[] header = ("--" + BOUNDARY + "\r\nContent-Type: image/jpeg\r\nContent-Length: " + FRAME.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            for (int frame = 0; frame < printer.webcamFrames; frame++) {
+                out.write(header);
+                out.write(FRAME);
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                Thread.sleep(printer.webcamFrameInterval.toMillis());
+            }
+        } catch (IOException e) {
+            // The viewer went away.
+        }
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith(name + "=")) {
+                return parameter.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Behaviour and recorded traffic of one virtual printer.
+     */
+    public static class VirtualPrinter {
+
+        private final long id;
+        private final ReentrantLock lock = new ReentrantLock();
+        private String file;
+        private long printStart;
+        private long printEnd;
+        private long finishedBusyNanos;
+
+        /**
+         * State text reported by {@code GET /api/printer} while no print is simulated.
+         */
+        public volatile String state = "Operational";
+
+        /**
+         * Document returned by {@code GET /api/job} while no print is simulated.
+         */
+        public volatile String job = "{\"state\":\"Printing\",\"progress\":{\"completion\":42.0,\"printTimeLeft\":600}}";
+
+        /**
+         * Status returned when a print is started while no print is simulated.
+         */
+        public volatile int startStatus = 204;
+
+        /**
+         * Duration of a simulated print; {@code null} answers with the fixed {@link #state} and {@link #job} instead.
+         */
+        public volatile Duration printDuration;
+
+        /**
+         * Delay before every response; a value above the client's response timeout simulates a hung printer.
+         */
+        public volatile long delayMillis;
+
+        /**
+         * Probability of answering a request with {@code 503 Service Unavailable}.
+         */
+        public volatile double failureRate;
+
+        /**
+         * Number of upcoming requests answered with {@code 503 Service Unavailable}.
+         */
+        public final AtomicInteger failuresLeft = new AtomicInteger();
+
+        /**
+         * Whether only uploaded files can be printed; otherwise every file is assumed to be present.
+         */
+        public volatile boolean requireUploads;
+
+        /**
+         * Size of the multipart request of every uploaded file, by file name.
+         */
+        public final Map<String, Integer> files = new ConcurrentHashMap<>();
+
+        /**
+         * Number of frames sent per webcam stream before the printer ends it.
+         */
+        public volatile int webcamFrames = Integer.MAX_VALUE;
+
+        /**
+         * Time between two webcam frames.
+         */
+        public volatile Duration webcamFrameInterval = Duration.ofMillis(100);
+
+        /**
+         * Number of authenticated requests received.
+         */
+        public final AtomicInteger requests = new AtomicInteger();
+
+        /**
+         * Number of simulated prints started.
+         */
+        public final AtomicInteger printsStarted = new AtomicInteger();
+
+        /**
+         * W3C trace context header of the last authenticated request, or {@code null} if it had none.
+         */
+        public volatile String traceparent;
+
+        /**
+         * File name and request body of every received start command.
+         */
+        public final Queue<String> started = new ConcurrentLinkedQueue<>();
+
+        private VirtualPrinter(long id) {
+            this.id = id;
+        }
+
+        private int startPrint(String file) {
+            Duration duration = printDuration;
+            if (duration == null) {
+                return startStatus;
+            }
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                if (this.file != null && now < printEnd) {
+                    return 409;
+                }
+                if (this.file != null) {
+                    finishedBusyNanos += printEnd - printStart;
+                }
+                this.file = file;
+                printStart = now;
+                printEnd = now + duration.toNanos();
+                printsStarted.incrementAndGet();
+                return 204;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private String printerState() {
+            if (printDuration == null) {
+                return state;
+            }
+            lock.lock();
+            try {
+                return file != null && System.nanoTime() < printEnd ? "Printing" : "Operational";
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private String jobDocument() {
+            if (printDuration == null) {
+                return job;
+            }
+            lock.lock();
+            try {
+                if (file == null) {
+                    return "{\"job\":{\"file\":{\"name\":null}},\"state\":\"Operational\","
+                            + "\"progress\":{\"completion\":null,\"printTimeLeft\":null}}";
+                }
+                long now = System.nanoTime();
+                long total = printEnd - printStart;
+                long elapsed = Math.min(now - printStart, total);
+                boolean printing = now < printEnd;
+                return String.format(Locale.ROOT,
+                        "{\"job\":{\"file\":{\"name\":\"%s\"}},\"state\":\"%s\",\"progress\":{\"completion\":%.1f,\"printTimeLeft\":%d}}",
+                        file, printing ? "Printing" : "Operational",
+                        printing ? 100.0 * elapsed / total : 100.0,
+                        printing ? Math.max(1, Duration.ofNanos(total - elapsed).toSeconds()) : 0);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long busyNanos(long now) {
+            lock.lock();
+            try {
+                return file == null ? finishedBusyNanos : finishedBusyNanos + Math.min(now, printEnd) - printStart;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.repro3d.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PrintMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private JobRepository jobRepository;
+    private PrintMetrics printMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        jobRepository = mock(JobRepository.class);
+        printMetrics = new PrintMetrics(registry, jobRepository);
+    }
+
+    @Test
+    void queuedGauge_CountsJobsPerStatus() {
+        when(jobRepository.countByStatus(new Status(1L, "Waiting"))).thenReturn(5L);
+        when(jobRepository.countByStatus(new Status(2L, "In Progress"))).thenReturn(2L);
+
+        assertEquals(5, registry.get("repro3d.jobs.queued").tag("status", "waiting").gauge().value());
+        assertEquals(2, registry.get("repro3d.jobs.queued").tag("status", "in_progress").gauge().value());
+        assertEquals(0, registry.get("repro3d.jobs.queued").tag("status", "awaiting_pickup").gauge().value());
+    }
+
+    @Test
+    void jobStarted_RecordsWaitTime() {
+        Date started = new Date();
+
+        printMetrics.jobStarted(new Date(started.getTime() - 90000), started);
+        printMetrics.jobStarted(null, started);
+
+        assertEquals(2, registry.get("repro3d.jobs.dispatch").tag("outcome", "started").counter().count());
+        assertEquals(1, registry.get("repro3d.jobs.wait").timer().count());
+        assertEquals(90, registry.get("repro3d.jobs.wait").timer().totalTime(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void jobCompleted_RecordsPrintDuration() {
+        Date ended = new Date();
+
+        printMetrics.jobCompleted(new Date(ended.getTime() - 3600000), ended);
+
+        assertEquals(60, registry.get("repro3d.jobs.print").timer().totalTime(TimeUnit.MINUTES));
+    }
+
+    @Test
+    void tick_RecordsDurationAndSkips() {
+        printMetrics.tick("dispatch", () -> { });
+        printMetrics.tickSkipped("dispatch");
+
+        assertEquals(1, registry.get("repro3d.scheduler.tick").tag("task", "dispatch").timer().count());
+        assertEquals(1, registry.get("repro3d.scheduler.ticks.skipped").tag("task", "dispatch").counter().count());
+    }
+}
@@ -0,0 +1,34 @@
+-- Tables of other services that the entities of the Printer Service map, created for the query plan tests as the
+-- migrations of their owners create them. Foreign keys between services are left out, as in production.
+
+CREATE TABLE IF NOT EXISTS role (
+    role_id   BIGINT NOT NULL AUTO_INCREMENT,
+    role_name VARCHAR(45),
+    PRIMARY KEY (role_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS item (
+    item_id     BIGINT NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    description VARCHAR(255),
+    est_time    INTEGER,
+    dimensions  VARCHAR(255),
+    file_ref    VARCHAR(255),
+    material    VARCHAR(255),
+    cost        BIGINT,
+    image_url   VARCHAR(255),
+    PRIMARY KEY (item_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_progress (
+    order_id           BIGINT NOT NULL,
+    total_items        INTEGER,
+    waiting            INTEGER,
+    in_progress        INTEGER,
+    awaiting_pickup    INTEGER,
+    done               INTEGER,
+    remaining_est_time INTEGER,
+    eta                DATETIME(6),
+    updated_at         DATETIME(6),
+    PRIMARY KEY (order_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,84 @@
+package org.repro3d.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.repro3d.model.Printer;
+import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.ApiResponseHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of an {@link ApiResponse} carrying a large list, as returned by the list endpoints.
+ * <p>
+ * Compares plain Jackson data binding with the streaming {@link ApiResponseHttpMessageConverter} and
+ * with the Smile binary format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    /**
+     * Number of elements in the response.
+     */
+    @Param({"100", "10000"})
+    public int elements;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final ApiResponseHttpMessageConverter converter = new ApiResponseHttpMessageConverter(objectMapper);
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(1 << 20);
+    private ApiResponse response;
+
+    @Setup
+    public void setUp() {
+        List<Printer> printers = new ArrayList<>(elements);
+        for (long i = 0; i < elements; i++) {
+            printers.add(new Printer(i, "Printer " + i, "Lab " + (i % 10), "10.0." + (i / 256) + "." + (i % 256), "apikey-" + i));
+        }
+        response = new ApiResponse(true, "Printers retrieved successfully", printers);
+    }
+
+    @Benchmark
+    public int dataBinding() throws IOException {
+        output.reset();
+        objectMapper.writeValue(output, response);
+        return output.size();
+    }
+
+    @Benchmark
+    public int streamingConverter() throws IOException {
+        output.reset();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            converter.write(response, generator);
+        }
+        return output.size();
+    }
+
+    @Benchmark
+    public int smile() throws IOException {
+        output.reset();
+        smileMapper.writeValue(output, response);
+        return output.size();
+    }
+}
@@ -0,0 +1,120 @@
+package org.repro3d.benchmarks;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of a short job transaction (read a job, update its status) on a HikariCP pool of
+ * growing size, with more concurrent callers than connections, as in a burst of requests.
+ * <p>
+ * The database is an in-memory H2 in this JVM, so its work competes for the same cores as a
+ * database server whose working set is cached. Without round trip, throughput levels off once the
+ * pool has about as many connections as there are cores and larger pools only add contention; a
+ * round trip keeps each connection busy without using a core, which moves the optimum up by the
+ * share of time spent waiting. The pool sizes of the services (see their {@code application.properties})
+ * follow that rule for a database host of four to eight cores; run the benchmark on the size of
+ * the target host with {@code -Dbenchmarks.include=ConnectionPool}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    private static final int JOBS = 10_000;
+
+    /**
+     * Maximum number of connections of the pool.
+     */
+    @Param({"2", "5", "10", "20", "50"})
+    public int poolSize;
+
+    /**
+     * Simulated network round trip of every statement, in microseconds, during which the connection
+     * is held without using a core.
+     */
+    @Param({"0", "500"})
+    public int roundTripMicros;
+
+    private HikariDataSource dataSource;
+
+    @Setup
+    public void setUp() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setPoolName("benchmark");
+        config.setMaximumPoolSize(poolSize);
+        config.setConnectionTimeout(30_000);
+        dataSource = new HikariDataSource(config);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table job (job_id bigint primary key, status_id bigint not null, start_date timestamp)");
+            statement.execute("insert into job select x, 1, null from system_range(1, " + JOBS + ")");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int startJob() throws SQLException {
+        long jobId = ThreadLocalRandom.current().nextLong(1, JOBS + 1);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            long status;
+            try (PreparedStatement select = connection.prepareStatement("select status_id from job where job_id = ?")) {
+                select.setLong(1, jobId);
+                try (ResultSet job = select.executeQuery()) {
+                    job.next();
+                    status = job.getLong(1);
+                }
+            }
+            roundTrip();
+            int updated;
+            try (PreparedStatement update = connection.prepareStatement(
+                    "update job set status_id = ?, start_date = current_timestamp where job_id = ?")) {
+                update.setLong(1, status % 4 + 1);
+                update.setLong(2, jobId);
+                updated = update.executeUpdate();
+            }
+            roundTrip();
+            connection.commit();
+            return updated;
+        }
+    }
+
+    private void roundTrip() {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+    }
+}
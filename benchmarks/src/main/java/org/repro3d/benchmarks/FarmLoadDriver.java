@@ -0,0 +1,500 @@
+package org.repro3d.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.tools.Server;
+import org.repro3d.model.Printer;
+import org.repro3d.utils.OctoPrintSimulator;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test of the print pipeline: a synthetic order stream is placed through the gateway,
+ * dispatched by the PrinterService to a farm of simulated OctoPrint printers and picked up when done.
+ * <p>
+ * The OrderService, PrinterService and API gateway run as separate processes from their executable
+ * jars, sharing an in-memory H2 database that this driver serves over TCP; discovery is replaced by
+ * static instances. The printers are {@link OctoPrintSimulator} instances in this JVM.
+ * <p>
+ * The driver reports the dispatch latency (order placed until started on a printer), the farm
+ * utilization (share of printer time spent printing while orders arrive), the latencies of the
+ * gateway API calls and the use of the connection pools of the services, sampled every second from
+ * their Prometheus endpoints. It is configured with system properties:
+ * <ul>
+ *     <li>{@code farm.services}: directory of the service jars ({@code target/farm})</li>
+ *     <li>{@code farm.printers}: number of simulated printers (200)</li>
+ *     <li>{@code farm.print-duration}: duration of one print ({@code PT30S})</li>
+ *     <li>{@code farm.printer-latency}: response delay of the printers ({@code PT0.02S})</li>
+ *     <li>{@code farm.printer-failure-rate}: share of printer requests answered with 503 (0.01)</li>
+ *     <li>{@code farm.order-rate}: orders placed per second (5)</li>
+ *     <li>{@code farm.duration}: duration of the order stream ({@code PT2M})</li>
+ *     <li>{@code farm.drain-timeout}: time to wait for the remaining orders to be dispatched ({@code PT1M})</li>
+ *     <li>{@code farm.scheduler-rate}: tick rate of the PrinterService scheduler ({@code PT1S})</li>
+ *     <li>{@code farm.report}: JSON report file ({@code target/farm-load.json})</li>
+ * </ul>
+ */
+public final class FarmLoadDriver implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Path JAVA = Path.of(System.getProperty("java.home"), "bin", "java");
+    private static final String INTERNAL_SECRET = UUID.randomUUID().toString();
+
+    private final Path services = Path.of(System.getProperty("farm.services", "target/farm"));
+    private final int printerCount = Integer.getInteger("farm.printers", 200);
+    private final Duration printDuration = Duration.parse(System.getProperty("farm.print-duration", "PT30S"));
+    private final Duration printerLatency = Duration.parse(System.getProperty("farm.printer-latency", "PT0.02S"));
+    private final double printerFailureRate = Double.parseDouble(System.getProperty("farm.printer-failure-rate", "0.01"));
+    private final double orderRate = Double.parseDouble(System.getProperty("farm.order-rate", "5"));
+    private final Duration duration = Duration.parse(System.getProperty("farm.duration", "PT2M"));
+    private final Duration drainTimeout = Duration.parse(System.getProperty("farm.drain-timeout", "PT1M"));
+    private final Duration schedulerRate = Duration.parse(System.getProperty("farm.scheduler-rate", "PT1S"));
+    private final Path report = Path.of(System.getProperty("farm.report", "target/farm-load.json"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService ticker = Executors.newScheduledThreadPool(2);
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(requests)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final List<Process> processes = new ArrayList<>();
+    private final Queue<Long> placeLatencies = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> pickupLatencies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger placed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final Map<String, PoolUsage> pools = new ConcurrentHashMap<>();
+
+    private Server database;
+    private String jdbcUrl;
+    private OctoPrintSimulator octoPrint;
+    private int gatewayPort;
+    private int orderPort;
+    private int printerPort;
+
+    /**
+     * Runs the load test and writes the report.
+     *
+     * @param args Not used, the driver is configured with system properties.
+     * @throws Exception If the services cannot be started or the report cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> ProcessHandle.current().descendants().forEach(ProcessHandle::destroy)));
+        try (FarmLoadDriver driver = new FarmLoadDriver()) {
+            driver.start();
+            Map<String, Object> result = driver.run();
+            driver.writeReport(result);
+        }
+    }
+
+    /**
+     * Starts the database, the printer farm and the services, and seeds the reference data.
+     *
+     * @throws Exception If a component fails to start.
+     */
+    private void start() throws Exception {
+        int databasePort = freePort();
+        database = Server.createTcpServer("-tcpPort", String.valueOf(databasePort), "-ifNotExists").start();
+        jdbcUrl = "jdbc:h2:tcp://localhost:" + databasePort + "/mem:farm;DB_CLOSE_DELAY=-1";
+
+        octoPrint = new OctoPrintSimulator();
+        List<Printer> printers = octoPrint.farm(printerCount, printer -> {
+            printer.printDuration = printDuration;
+            printer.delayMillis = printerLatency.toMillis();
+            printer.failureRate = printerFailureRate;
+        });
+
+        // One after the other, both services update the shared schema on startup. Their outbox relays find
+        // each other through simple discovery; the events for the Billing Service, which is not started, stay pending.
+        orderPort = freePort();
+        printerPort = freePort();
+        launch("order-service", orderPort, List.of(
+                "--spring.cloud.discovery.client.simple.instances.printer-service[0].uri=http://localhost:" + printerPort));
+        launch("printer-service", printerPort, List.of(
+                "--spring.cloud.discovery.client.simple.instances.order-service[0].uri=http://localhost:" + orderPort,
+                "--repro3d.gcode.store-dir=" + services.resolve("gcode-store"),
+                "--repro3d.scheduler.dispatch-rate=" + schedulerRate,
+                "--repro3d.scheduler.completion-rate=" + schedulerRate));
+        seed(printers);
+        gatewayPort = freePort();
+        launch("api-gateway", gatewayPort, List.of(
+                "--spring.cloud.discovery.client.simple.instances.order-service[0].uri=http://localhost:" + orderPort,
+                "--spring.cloud.discovery.client.simple.instances.printer-service[0].uri=http://localhost:" + printerPort));
+    }
+
+    /**
+     * Starts a service from its executable jar and waits until it reports to be healthy.
+     */
+    private void launch(String name, int port, List<String> arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(JAVA.toString(), "-Xmx384m", "-jar", services.resolve(name + ".jar").toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--eureka.client.enabled=false",
+                "--repro3d.internal.secret=" + INTERNAL_SECRET,
+                "--management.tracing.enabled=false",
+                "--logging.level.root=INFO"));
+        command.addAll(arguments);
+        Path log = services.resolve(name + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        processes.add(process);
+        System.out.printf("Starting %s on port %d (log: %s)%n", name, port, log);
+
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(name + " did not become healthy within " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    /**
+     * Inserts the job statuses, a customer, an item, the printers of the farm and one redeem code per order.
+     */
+    private void seed(List<Printer> printers) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into status (status_id, status) values "
+                    + "(1, 'Waiting'), (2, 'In Progress'), (3, 'Awaiting Pick Up'), (4, 'Done')");
+            statement.executeUpdate("insert into role (role_id, role_name) values (1, 'User')");
+            statement.executeUpdate("insert into user_entity (user_id, email, billing_addr, role) "
+                    + "values (1, 'load@repro3d.org', 'Farm Street 1', 1)");
+            statement.executeUpdate("insert into item (item_id, name, description, est_time, dimensions, file_ref, material, cost, image_url) "
+                    + "values (1, 'Benchy', 'Test boat', 30, '60x31x48', 'benchy.gcode', 'PLA', 5, '')");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into printer (printer_id, name, location, ip_addr, apikey) values (?, ?, ?, ?, ?)")) {
+                for (Printer printer : printers) {
+                    insert.setLong(1, printer.getPrinter_id());
+                    insert.setString(2, printer.getName());
+                    insert.setString(3, printer.getLocation());
+                    insert.setString(4, printer.getIp_addr());
+                    insert.setString(5, printer.getApikey());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into redeem_codes (rc_code, used) values (?, false)")) {
+                for (int order = 0; order < orderCount(); order++) {
+                    insert.setString(1, redeemCode(order));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Places the order stream, picks up finished jobs and collects the results.
+     *
+     * @return The report.
+     */
+    private Map<String, Object> run() throws Exception {
+        System.out.printf("Placing %d orders at %.1f/s on %d printers (print duration %s)%n", orderCount(), orderRate, printerCount, printDuration);
+        long start = System.nanoTime();
+        ScheduledFuture<?> orders = ticker.scheduleAtFixedRate(() -> {
+            int order = placed.getAndIncrement();
+            if (order < orderCount()) {
+                requests.submit(() -> placeOrder(order));
+            }
+        }, 0, Math.round(1_000_000_000 / orderRate), TimeUnit.NANOSECONDS);
+        ScheduledFuture<?> pickups = ticker.scheduleWithFixedDelay(this::pickUpFinishedJobs, 1, 1, TimeUnit.SECONDS);
+        ScheduledFuture<?> poolSamples = ticker.scheduleAtFixedRate(() -> {
+            samplePool("order-service", orderPort);
+            samplePool("printer-service", printerPort);
+        }, 0, 1, TimeUnit.SECONDS);
+        ScheduledFuture<?> progress = ticker.scheduleAtFixedRate(
+                () -> System.out.printf("%4ds %s%n", Duration.ofNanos(System.nanoTime() - start).toSeconds(), jobsByStatus()),
+                10, 10, TimeUnit.SECONDS);
+
+        Thread.sleep(duration.toMillis());
+        orders.cancel(false);
+        Duration busy = octoPrint.getBusyTime();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (jobsByStatus().getOrDefault("waiting", 0L) > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(1000);
+        }
+        progress.cancel(false);
+        pickups.cancel(false);
+        poolSamples.cancel(false);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("printers", printerCount);
+        result.put("printDurationSeconds", printDuration.toMillis() / 1000.0);
+        result.put("orderRate", orderRate);
+        result.put("durationSeconds", duration.toSeconds());
+        result.put("ordersPlaced", placeLatencies.size());
+        result.put("ordersFailed", failed.get());
+        result.put("jobs", jobsByStatus());
+        result.put("dispatchLatencyMillis", percentiles(dispatchLatencies()));
+        result.put("farmUtilization", busy.toNanos() / (double) (elapsed.toNanos() * printerCount));
+        result.put("printsStarted", octoPrint.getPrintsStarted());
+        result.put("placeOrderLatencyMillis", percentiles(toMillis(placeLatencies)));
+        result.put("pickUpLatencyMillis", percentiles(toMillis(pickupLatencies)));
+        Map<String, Object> connectionPools = new LinkedHashMap<>();
+        connectionPools.put("order-service", poolReport("order-service", orderPort));
+        connectionPools.put("printer-service", poolReport("printer-service", printerPort));
+        result.put("connectionPools", connectionPools);
+        return result;
+    }
+
+    private void placeOrder(int order) {
+        String body = """
+                {"order":{"orderDate":%d,"user_id":1,"redeemCode":"%s"},"items":[{"item_id":1}]}"""
+                .formatted(System.currentTimeMillis(), redeemCode(order));
+        HttpRequest request = HttpRequest.newBuilder(gateway("/api/order/place"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        send(request, placeLatencies);
+    }
+
+    private void pickUpFinishedJobs() {
+        try (Connection connection = connect();
+             ResultSet jobs = connection.createStatement().executeQuery("select job_id from job where status_id = 3")) {
+            while (jobs.next()) {
+                long job = jobs.getLong(1);
+                requests.submit(() -> send(HttpRequest.newBuilder(gateway("/api/job/mark-as-done/" + job))
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build(), pickupLatencies));
+            }
+        } catch (SQLException e) {
+            System.out.println("Pick up failed: " + e);
+        }
+    }
+
+    /**
+     * Records the active and pending connections and the longest recent wait for a connection of a
+     * service, read from its Prometheus endpoint.
+     */
+    private void samplePool(String service, int port) {
+        try {
+            String metrics = prometheus(port);
+            pools.computeIfAbsent(service, name -> new PoolUsage()).sample(
+                    metric(metrics, "hikaricp_connections_active"),
+                    metric(metrics, "hikaricp_connections_pending"),
+                    metric(metrics, "hikaricp_connections_acquire_seconds_max"));
+        } catch (IOException e) {
+            System.out.println("Pool sample of " + service + " failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the size of the connection pool of a service, the peaks of its sampled use and the
+     * connection waits over the whole test. Pending connections or timeouts mean the pool was too
+     * small for the load; a peak of active connections well below the size means it can shrink.
+     */
+    private Map<String, Object> poolReport(String service, int port) throws IOException, InterruptedException {
+        String metrics = prometheus(port);
+        PoolUsage usage = pools.getOrDefault(service, new PoolUsage());
+        double acquisitions = metric(metrics, "hikaricp_connections_acquire_seconds_count");
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("size", (long) metric(metrics, "hikaricp_connections_max"));
+        pool.put("maxActive", (long) usage.maxActive);
+        pool.put("maxPending", (long) usage.maxPending);
+        pool.put("acquisitions", (long) acquisitions);
+        pool.put("meanAcquireMillis", acquisitions == 0 ? 0 : metric(metrics, "hikaricp_connections_acquire_seconds_sum") * 1000 / acquisitions);
+        pool.put("maxAcquireMillis", usage.maxAcquireSeconds * 1000);
+        pool.put("timeouts", (long) metric(metrics, "hikaricp_connections_timeout_total"));
+        return pool;
+    }
+
+    private String prometheus(int port) throws IOException, InterruptedException {
+        return http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    /**
+     * Returns the sum of the samples of a metric over all its label sets.
+     */
+    private static double metric(String metrics, String name) {
+        return metrics.lines()
+                .filter(line -> line.startsWith(name + "{") || line.startsWith(name + " "))
+                .mapToDouble(line -> Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1)))
+                .sum();
+    }
+
+    private void send(HttpRequest request, Queue<Long> latencies) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies.add(System.nanoTime() - start);
+            if (response.statusCode() != 200 || !objectMapper.readTree(response.body()).path("success").asBoolean()) {
+                failed.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failed.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the time from placing the order to starting the print of every dispatched job. The
+     * order date is sent by the driver, the start date is set by the PrinterService on dispatch.
+     */
+    private long[] dispatchLatencies() throws SQLException {
+        List<Long> latencies = new ArrayList<>();
+        try (Connection connection = connect();
+             ResultSet jobs = connection.createStatement().executeQuery("select j.start_date, o.order_date from job j "
+                     + "join order_items oi on oi.job_id = j.job_id "
+                     + "join order_entity o on o.order_id = oi.order_id "
+                     + "where j.status_id > 1")) {
+            while (jobs.next()) {
+                latencies.add(jobs.getTimestamp(1).getTime() - jobs.getTimestamp(2).getTime());
+            }
+        }
+        return latencies.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private Map<String, Long> jobsByStatus() {
+        Map<String, Long> jobs = new LinkedHashMap<>();
+        try (Connection connection = connect();
+             ResultSet counts = connection.createStatement().executeQuery("select status_id, count(*) from job group by status_id order by status_id")) {
+            while (counts.next()) {
+                String status = switch (counts.getInt(1)) {
+                    case 1 -> "waiting";
+                    case 2 -> "in_progress";
+                    case 3 -> "awaiting_pickup";
+                    default -> "done";
+                };
+                jobs.put(status, counts.getLong(2));
+            }
+        } catch (SQLException e) {
+            System.out.println("Job count failed: " + e);
+        }
+        return jobs;
+    }
+
+    /**
+     * Peaks of the sampled use of a connection pool.
+     */
+    private static final class PoolUsage {
+
+        private double maxActive;
+        private double maxPending;
+        private double maxAcquireSeconds;
+
+        synchronized void sample(double active, double pending, double acquireSeconds) {
+            maxActive = Math.max(maxActive, active);
+            maxPending = Math.max(maxPending, pending);
+            maxAcquireSeconds = Math.max(maxAcquireSeconds, acquireSeconds);
+        }
+    }
+
+    private static Map<String, Object> percentiles(long[] values) {
+        Arrays.sort(values);
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("count", values.length);
+        if (values.length > 0) {
+            percentiles.put("p50", values[(int) Math.ceil(0.50 * values.length) - 1]);
+            percentiles.put("p99", values[(int) Math.ceil(0.99 * values.length) - 1]);
+            percentiles.put("max", values[values.length - 1]);
+        }
+        return percentiles;
+    }
+
+    private static long[] toMillis(Queue<Long> nanos) {
+        return nanos.stream().mapToLong(TimeUnit.NANOSECONDS::toMillis).toArray();
+    }
+
+    private void writeReport(Map<String, Object> result) throws IOException {
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.writeString(report, json);
+        System.out.println(json);
+        System.out.println("Report written to " + report);
+    }
+
+    private int orderCount() {
+        return (int) Math.ceil(orderRate * duration.toMillis() / 1000.0);
+    }
+
+    private static String redeemCode(int order) {
+        return "LOAD-%06d".formatted(order);
+    }
+
+    private URI gateway(String path) {
+        return URI.create("http://localhost:" + gatewayPort + path);
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl, "sa", "");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        requests.shutdownNow();
+        for (Process process : processes.reversed()) {
+            process.destroy();
+            try {
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (octoPrint != null) {
+            octoPrint.close();
+        }
+        if (database != null) {
+            database.stop();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.repro3d.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.repro3d.model.GcodeAnalysis;
+import org.repro3d.utils.GcodeAnalyzer;
+import org.repro3d.utils.GcodeProperties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis of a sliced G-code file by the {@link GcodeAnalyzer}.
+ * <p>
+ * The file is generated once per trial with the layout of slicer output: comments, travel moves,
+ * retractions and short extruding moves with three decimals, around 30 bytes per line. Besides the
+ * time per file, the {@code megabytes} counter reports the parsing throughput in MB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx64m")
+public class GcodeAnalyzerBenchmark {
+
+    /**
+     * Size of the analyzed file in MB.
+     */
+    @Param({"100"})
+    public int sizeMb;
+
+    private Path file;
+    private GcodeAnalyzer analyzer;
+    private double fileMb;
+
+    /**
+     * Megabytes analyzed, reported by JMH as MB/s.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Throughput {
+
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            megabytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("benchmark-", ".gcode");
+        long target = (long) sizeMb * 1024 * 1024;
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("; generated by PrusaSlicer\nM83\nG90\n");
+            double z = 0;
+            long written = 0;
+            for (int layer = 0; written < target; layer++) {
+                z += 0.2;
+                String header = String.format(Locale.ROOT, ";LAYER_CHANGE\n;Z:%.1f\nG1 Z%.1f F720\nG1 E0.8 F2100\n", z, z);
+                writer.write(header);
+                written += header.length();
+                for (int segment = 0; segment < 2000 && written < target; segment++) {
+                    double angle = segment * 2 * Math.PI / 2000;
+                    String move = String.format(Locale.ROOT, "G1 X%.3f Y%.3f E%.5f\n",
+                            100 + 50 * Math.cos(angle), 100 + 50 * Math.sin(angle), 0.00523);
+                    writer.write(move);
+                    written += move.length();
+                }
+                String retract = String.format(Locale.ROOT, "G1 E-0.8 F2100\nG0 X150 Y100 F9000\n");
+                writer.write(retract);
+                written += retract.length();
+            }
+            writer.write("; filament_type = PLA\n; filament_diameter = 1.75\n");
+        }
+        fileMb = Files.size(file) / (1024.0 * 1024.0);
+        analyzer = new GcodeAnalyzer(new GcodeProperties());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public GcodeAnalysis analyze(Throughput throughput) throws IOException {
+        GcodeAnalysis analysis = analyzer.analyze(file);
+        throughput.megabytes += fileMb;
+        return analysis;
+    }
+}
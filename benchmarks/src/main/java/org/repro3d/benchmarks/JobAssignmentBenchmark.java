@@ -0,0 +1,134 @@
+package org.repro3d.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.repro3d.model.Item;
+import org.repro3d.model.Job;
+import org.repro3d.model.Printer;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.PrinterFileRepository;
+import org.repro3d.repository.PrinterRepository;
+import org.repro3d.service.PrinterService;
+import org.repro3d.utils.BusyPrinters;
+import org.repro3d.utils.GcodeProperties;
+import org.repro3d.utils.GcodeStager;
+import org.repro3d.utils.GcodeStore;
+import org.repro3d.utils.JobScheduler;
+import org.repro3d.utils.OctoPrintClient;
+import org.repro3d.utils.OctoPrintClientProperties;
+import org.repro3d.utils.PrintMetrics;
+import org.repro3d.utils.SchedulerProperties;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * One dispatch tick of the {@link JobScheduler}: finding the available printers of a farm and
+ * starting a waiting job on one of them.
+ * <p>
+ * Repositories and OctoPrint answer from memory, so the benchmark measures the scheduler's own
+ * overhead per tick. Nine out of ten printers are busy with an assigned job, as in a loaded farm. The
+ * busy printers are reloaded once per tick, as on the dispatch following a picked up job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobAssignmentBenchmark {
+
+    /**
+     * Number of printers in the farm.
+     */
+    @Param({"10", "100"})
+    public int printers;
+
+    /**
+     * Number of jobs waiting for a printer.
+     */
+    @Param({"10", "1000"})
+    public int waitingJobs;
+
+    private OctoPrintClient octoPrintClient;
+    private JobScheduler jobScheduler;
+    private BusyPrinters busyPrinters;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Printer> farm = LongStream.rangeClosed(1, printers)
+                .mapToObj(id -> new Printer(id, "Printer" + id, "Lab", "10.0.0." + id, "apikey-" + id))
+                .toList();
+        Set<Long> busy = farm.stream()
+                .map(Printer::getPrinter_id)
+                .filter(id -> id % 10 != 0)
+                .collect(Collectors.toSet());
+        Item item = new Item(1L, "Benchy", "Test boat", 30, "60x31x48", "benchy.gcode", "PLA", 5L, "");
+        List<Job> waiting = new ArrayList<>(waitingJobs);
+        for (long id = 1; id <= waitingJobs; id++) {
+            waiting.add(new Job(id, item, null, new Status(1L, "Waiting"), null, null, null));
+        }
+
+        JsonNode operational = new ObjectMapper().readTree("{\"state\":{\"text\":\"Operational\"}}");
+        octoPrintClient = new OctoPrintClient(WebClient.builder(), new OctoPrintClientProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public Mono<JsonNode> getPrinterState(Printer printer) {
+                return Mono.just(operational);
+            }
+
+            @Override
+            public Mono<Void> startPrint(Printer printer, String fileRef) {
+                return Mono.empty();
+            }
+        };
+        JobRepository jobRepository = Repositories.stub(JobRepository.class, Map.of(
+                "findByStatusOrderByJobIdAsc", args -> waiting,
+                "findPrinterIdsByStatusIds", args -> busy,
+                "save", args -> args[0]));
+        PrinterRepository printerRepository = Repositories.stub(PrinterRepository.class, Map.of("findAll", args -> farm));
+        PrintMetrics printMetrics = new PrintMetrics(new SimpleMeterRegistry(), jobRepository);
+        GcodeProperties gcodeProperties = new GcodeProperties();
+        gcodeProperties.setStoreDir(Files.createTempDirectory("gcode-store"));
+        busyPrinters = new BusyPrinters(jobRepository);
+        GcodeStager gcodeStager = new GcodeStager(jobRepository, printerRepository, Repositories.stub(PrinterFileRepository.class, Map.of()),
+                new GcodeStore(gcodeProperties), octoPrintClient, gcodeProperties, busyPrinters, event -> { });
+        PrinterService printerService = new PrinterService(printerRepository, jobRepository, octoPrintClient, printMetrics,
+                event -> { }, TransactionOperations.withoutTransaction(), busyPrinters);
+        jobScheduler = new JobScheduler(jobRepository, printerService, printMetrics, gcodeStager, busyPrinters, new SchedulerProperties());
+    }
+
+    @TearDown
+    public void tearDown() {
+        jobScheduler.close();
+        octoPrintClient.close();
+    }
+
+    @Benchmark
+    public void checkWaitingJobs() {
+        busyPrinters.invalidate();
+        jobScheduler.checkWaitingJobs();
+    }
+}
@@ -0,0 +1,106 @@
+package org.repro3d.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.repro3d.model.Item;
+import org.repro3d.model.Job;
+import org.repro3d.model.Printer;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.PrinterRepository;
+import org.repro3d.service.PrinterService;
+import org.repro3d.utils.BusyPrinters;
+import org.repro3d.utils.OctoPrintClient;
+import org.repro3d.utils.OctoPrintClientProperties;
+import org.repro3d.utils.PrintMetrics;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the OctoPrint {@code GET /api/job} response and its evaluation in
+ * {@link PrinterService#isJobComplete(Printer, Job)}.
+ * <p>
+ * The OctoPrint client answers from memory with the raw response body, so the benchmark covers the
+ * JSON parsing and the completion check without any network I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobCompletionBenchmark {
+
+    private static final Map<String, String> RESPONSES = Map.of(
+            "printing", """
+                    {"job":{"file":{"name":"benchy.gcode","origin":"local","size":1468987,"date":1378847754},
+                    "estimatedPrintTime":8811,"filament":{"tool0":{"length":810,"volume":5.36}}},
+                    "progress":{"completion":22.85,"filepos":337942,"printTime":276,"printTimeLeft":912},
+                    "state":"Printing"}""",
+            "finished", """
+                    {"job":{"file":{"name":"benchy.gcode","origin":"local","size":1468987,"date":1378847754},
+                    "estimatedPrintTime":8811,"filament":{"tool0":{"length":810,"volume":5.36}}},
+                    "progress":{"completion":100.0,"filepos":1468987,"printTime":8790,"printTimeLeft":0},
+                    "state":"Operational"}""",
+            "idle", """
+                    {"job":{"file":{"name":null,"origin":null,"size":null,"date":null},"estimatedPrintTime":null,
+                    "filament":null},"progress":{"completion":null,"filepos":null,"printTime":null,
+                    "printTimeLeft":null},"state":"Operational"}""");
+
+    /**
+     * Job state reported by OctoPrint.
+     */
+    @Param({"printing", "finished", "idle"})
+    public String state;
+
+    private OctoPrintClient octoPrintClient;
+    private PrinterService printerService;
+    private Printer printer;
+    private Job job;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] body = RESPONSES.get(state).getBytes(StandardCharsets.UTF_8);
+        octoPrintClient = new OctoPrintClient(WebClient.builder(), new OctoPrintClientProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public Mono<JsonNode> getJob(Printer printer) {
+                return Mono.fromCallable(() -> objectMapper.readTree(body));
+            }
+        };
+        JobRepository jobRepository = Repositories.stub(JobRepository.class, Map.of("save", args -> args[0]));
+        printerService = new PrinterService(Repositories.stub(PrinterRepository.class, Map.of()), jobRepository, octoPrintClient,
+                new PrintMetrics(new SimpleMeterRegistry(), jobRepository), event -> { },
+                TransactionOperations.withoutTransaction(), new BusyPrinters(jobRepository));
+        printer = new Printer(1L, "Printer1", "Lab", "127.0.0.1", "apikey");
+        job = new Job(1L, new Item(), printer, new Status(2L, "In Progress"), null, null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        octoPrintClient.close();
+    }
+
+    @Benchmark
+    public Boolean isJobComplete() {
+        return printerService.isJobComplete(printer, job).block();
+    }
+}
@@ -0,0 +1,159 @@
+package org.repro3d.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.repro3d.model.Item;
+import org.repro3d.model.Job;
+import org.repro3d.model.Printer;
+import org.repro3d.model.Status;
+import org.repro3d.repository.JobRepository;
+import org.repro3d.repository.PrinterFileRepository;
+import org.repro3d.repository.PrinterRepository;
+import org.repro3d.service.PrinterService;
+import org.repro3d.utils.BusyPrinters;
+import org.repro3d.utils.GcodeProperties;
+import org.repro3d.utils.GcodeStager;
+import org.repro3d.utils.GcodeStore;
+import org.repro3d.utils.JobScheduler;
+import org.repro3d.utils.OctoPrintClient;
+import org.repro3d.utils.OctoPrintClientProperties;
+import org.repro3d.utils.PrintMetrics;
+import org.repro3d.utils.SchedulerProperties;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Draining a backlog of waiting jobs onto an idle farm with one dispatch tick of the {@link JobScheduler}.
+ * <p>
+ * There are as many waiting jobs as printers, and all printers are idle, as after a farm restart or a
+ * burst of picked up prints. The OctoPrint stub answers from memory after a fixed latency, so the time
+ * per tick is dominated by how many printers are started at the same time. Besides the ticks per second,
+ * the {@code jobs} counter reports the drain rate in jobs started per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class JobDrainBenchmark {
+
+    /**
+     * Number of idle printers in the farm, and of jobs waiting for them.
+     */
+    @Param({"10", "100"})
+    public int printers;
+
+    /**
+     * Maximum number of printers started at the same time ({@code repro3d.scheduler.dispatch-concurrency}).
+     */
+    @Param({"1", "8"})
+    public int dispatchConcurrency;
+
+    /**
+     * Response time of the OctoPrint stub in milliseconds.
+     */
+    @Param({"20"})
+    public long latencyMillis;
+
+    private final List<Job> waiting = new ArrayList<>();
+    private OctoPrintClient octoPrintClient;
+    private JobScheduler jobScheduler;
+    private BusyPrinters busyPrinters;
+    private Item item;
+
+    /**
+     * Jobs started, reported by JMH as jobs/s.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class DrainRate {
+
+        public double jobs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            jobs = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Printer> farm = LongStream.rangeClosed(1, printers)
+                .mapToObj(id -> new Printer(id, "Printer" + id, "Lab", "10.0.0." + id, "apikey-" + id))
+                .toList();
+        item = new Item(1L, "Benchy", "Test boat", 30, "60x31x48", "benchy.gcode", "PLA", 5L, "");
+
+        JsonNode operational = new ObjectMapper().readTree("{\"state\":{\"text\":\"Operational\"}}");
+        Duration latency = Duration.ofMillis(latencyMillis);
+        octoPrintClient = new OctoPrintClient(WebClient.builder(), new OctoPrintClientProperties(), new SimpleMeterRegistry()) {
+            @Override
+            public Mono<JsonNode> getPrinterState(Printer printer) {
+                return Mono.delay(latency).thenReturn(operational);
+            }
+
+            @Override
+            public Mono<Void> startPrint(Printer printer, String fileRef) {
+                return Mono.delay(latency).then();
+            }
+        };
+        JobRepository jobRepository = Repositories.stub(JobRepository.class, Map.of(
+                "findByStatusOrderByJobIdAsc", args -> waiting,
+                "findPrinterIdsByStatusIds", args -> Set.of(),
+                "save", args -> args[0]));
+        PrinterRepository printerRepository = Repositories.stub(PrinterRepository.class, Map.of("findAll", args -> farm));
+        PrintMetrics printMetrics = new PrintMetrics(new SimpleMeterRegistry(), jobRepository);
+        GcodeProperties gcodeProperties = new GcodeProperties();
+        gcodeProperties.setStoreDir(Files.createTempDirectory("gcode-store"));
+        busyPrinters = new BusyPrinters(jobRepository);
+        GcodeStager gcodeStager = new GcodeStager(jobRepository, printerRepository, Repositories.stub(PrinterFileRepository.class, Map.of()),
+                new GcodeStore(gcodeProperties), octoPrintClient, gcodeProperties, busyPrinters, event -> { });
+        PrinterService printerService = new PrinterService(printerRepository, jobRepository, octoPrintClient, printMetrics,
+                event -> { }, TransactionOperations.withoutTransaction(), busyPrinters);
+        SchedulerProperties schedulerProperties = new SchedulerProperties();
+        schedulerProperties.setDispatchConcurrency(dispatchConcurrency);
+        jobScheduler = new JobScheduler(jobRepository, printerService, printMetrics, gcodeStager, busyPrinters, schedulerProperties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jobScheduler.close();
+        octoPrintClient.close();
+    }
+
+    @Benchmark
+    public void drainWaitingJobs(DrainRate drainRate) {
+        waiting.clear();
+        for (long id = 1; id <= printers; id++) {
+            waiting.add(new Job(id, item, null, new Status(1L, "Waiting"), null, null, null));
+        }
+        busyPrinters.invalidate();
+        jobScheduler.checkWaitingJobs();
+        drainRate.jobs += waiting.stream().filter(job -> job.getPrinter() != null).count();
+    }
+}
@@ -0,0 +1,80 @@
+package org.repro3d.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.repro3d.model.Role;
+import org.repro3d.model.User;
+import org.repro3d.repository.RoleRepository;
+import org.repro3d.repository.UserRepository;
+import org.repro3d.service.UserService;
+import org.repro3d.utils.ApiResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt cost of user registration in {@link UserService#createUser(User)}.
+ * <p>
+ * {@code createUser} hashes with the default cost factor of 10; {@code hash} shows how the time per
+ * registration, and thereby the registration throughput of one core, changes with the cost factor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private UserService userService;
+
+    /**
+     * Salt of a given BCrypt cost factor.
+     */
+    @State(Scope.Benchmark)
+    public static class Cost {
+
+        /**
+         * BCrypt cost factor, the base-2 logarithm of the number of key expansion rounds.
+         */
+        @Param({"8", "10", "12"})
+        public int cost;
+
+        private String salt;
+
+        @Setup
+        public void setUp() {
+            salt = BCrypt.gensalt(cost);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = Repositories.stub(UserRepository.class, Map.of("save", args -> args[0]));
+        RoleRepository roleRepository = Repositories.stub(RoleRepository.class, Map.of("existsById", args -> true));
+        userService = new UserService(userRepository, roleRepository);
+    }
+
+    @Benchmark
+    public String hash(Cost cost) {
+        return BCrypt.hashpw(PASSWORD, cost.salt);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> createUser() {
+        return userService.createUser(new User(null, "user@repro3d.org", "Campus 1, 7000 Eisenstadt", new Role(2L, "User"), PASSWORD));
+    }
+}
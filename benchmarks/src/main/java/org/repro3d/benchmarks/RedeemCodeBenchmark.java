@@ -0,0 +1,78 @@
+package org.repro3d.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.repro3d.model.RedeemCode;
+import org.repro3d.repository.OrderRepository;
+import org.repro3d.repository.RedeemCodeRepository;
+import org.repro3d.service.RedeemCodeService;
+import org.repro3d.utils.ApiResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation and validation of redeem codes in {@link RedeemCodeService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedeemCodeBenchmark {
+
+    /**
+     * Number of redeem codes already stored.
+     */
+    @Param({"1000", "100000"})
+    public int storedCodes;
+
+    private RedeemCodeService redeemCodeService;
+    private String[] codes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Map<String, RedeemCode> store = new HashMap<>();
+        codes = new String[storedCodes];
+        for (int i = 0; i < storedCodes; i++) {
+            codes[i] = Base64.getEncoder().encodeToString(UUID.randomUUID().toString().getBytes());
+            store.put(codes[i], new RedeemCode(codes[i], i % 2 == 0));
+        }
+        RedeemCodeRepository redeemCodeRepository = Repositories.stub(RedeemCodeRepository.class, Map.of(
+                "save", args -> args[0],
+                "findByRcCode", args -> Optional.ofNullable(store.get((String) args[0]))));
+        redeemCodeService = new RedeemCodeService(redeemCodeRepository, Repositories.stub(OrderRepository.class, Map.of()));
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> generate() {
+        return redeemCodeService.generateRedeemCode();
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> validate() {
+        next = (next + 1) % codes.length;
+        return redeemCodeService.validateRedeemCode(codes[next]);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiResponse> validateUnknown() {
+        return redeemCodeService.validateRedeemCode("unknown");
+    }
+}
@@ -0,0 +1,40 @@
+package org.repro3d.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for Spring Data repositories.
+ * <p>
+ * The benchmarks measure the services, not the database or a mocking framework, so each repository
+ * is replaced by a dynamic proxy that answers only the methods a benchmark needs.
+ */
+final class Repositories {
+
+    private Repositories() {
+    }
+
+    /**
+     * Creates a repository answering the given methods.
+     *
+     * @param type    The repository interface.
+     * @param methods The implementations of the used methods by method name, receiving the call arguments.
+     * @param <T>     The repository type.
+     * @return The repository; calls to any other method fail with an {@link UnsupportedOperationException}.
+     */
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            return switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> type.getSimpleName() + " stub";
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        }));
+    }
+}
@@ -0,0 +1,46 @@
+package org.repro3d.controller;
+
+import org.repro3d.model.DomainEvent;
+import org.repro3d.utils.ApiResponse;
+import org.repro3d.utils.EventInbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller receiving the domain events of other services.
+ * <p>
+ * Its endpoint is not routed by the gateway; it is called by the outbox relay of the services this
+ * one subscribed to, and only accepts requests carrying the secret shared by the services
+ * ({@link org.repro3d.utils.InternalRequestFilter}).
+ */
+@RestController
+@RequestMapping("/internal/events")
+@ConditionalOnProperty(prefix = "repro3d.events", name = "enabled", havingValue = "true")
+public class InternalEventController {
+
+    private final EventInbox eventInbox;
+
+    /**
+     * Constructs an {@code InternalEventController} with the necessary {@link EventInbox}.
+     * @param eventInbox The inbox handing the events to the listeners.
+     */
+    @Autowired
+    public InternalEventController(EventInbox eventInbox) {
+        this.eventInbox = eventInbox;
+    }
+
+    /**
+     * Handles a batch of delivered events. The batch is confirmed only if all of its events were handled.
+     * @param events The events in the order they were raised.
+     * @return A {@link ResponseEntity} containing an {@link ApiResponse} with the number of events handled.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse> receive(@RequestBody List<DomainEvent> events) {
+        int handled = eventInbox.receive(events);
+        return ResponseEntity.ok(new ApiResponse(true, "Events received", handled));
+    }
+}
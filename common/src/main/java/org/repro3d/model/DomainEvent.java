@@ -0,0 +1,121 @@
+package org.repro3d.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A change in one service that other services react to, e.g. a placed order or a started job.
+ * <p>
+ * Services raise events with the Spring {@code ApplicationEventPublisher} inside the transaction of
+ * the change. Listeners of the same service receive them right away; the {@code EventOutbox} stores
+ * those with subscribers in other services in the same transaction, and the {@code OutboxRelay}
+ * delivers them after the commit. Delivery is at least once, so receivers drop events they already
+ * handled by their {@link #getSource() source} and {@link #getEventId() ID}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainEvent {
+
+    /**
+     * An order was placed with its items and jobs. The aggregate is the order.
+     */
+    public static final String ORDER_PLACED = "OrderPlaced";
+
+    /**
+     * A redeem code was used to pay an order. The aggregate is the redeem code.
+     */
+    public static final String REDEEM_CODE_CONSUMED = "RedeemCodeConsumed";
+
+    /**
+     * A waiting job was created for an item of a placed order. The aggregate is the job.
+     */
+    public static final String JOB_CREATED = "JobCreated";
+
+    /**
+     * A job was started on a printer. The aggregate is the job.
+     */
+    public static final String JOB_STARTED = "JobStarted";
+
+    /**
+     * A job finished printing and awaits pick up. The aggregate is the job.
+     */
+    public static final String JOB_COMPLETED = "JobCompleted";
+
+    /**
+     * A printed job was picked up, which frees its printer. The aggregate is the job.
+     */
+    public static final String JOB_PICKED_UP = "JobPickedUp";
+
+    /**
+     * A job was changed through the API, possibly including its status. The aggregate is the job.
+     */
+    public static final String JOB_UPDATED = "JobUpdated";
+
+    /**
+     * The estimates of an item were recomputed from its G-code file. The aggregate is the item.
+     */
+    public static final String ITEM_CHANGED = "ItemChanged";
+
+    /**
+     * A catalog import added its items. The aggregate is the import.
+     */
+    public static final String ITEMS_IMPORTED = "ItemsImported";
+
+    /**
+     * The ID of the event in the outbox of its source, set on events received from another service.
+     */
+    private Long eventId;
+
+    /**
+     * The name of the service that raised the event, {@code null} until it is published.
+     */
+    private String source;
+
+    /**
+     * The type of the event, one of the constants of this class.
+     */
+    private String type;
+
+    /**
+     * The ID of the order, job, item, import or redeem code the event is about.
+     */
+    private Long aggregateId;
+
+    /**
+     * Further details of the event.
+     */
+    private Map<String, Object> payload;
+
+    /**
+     * The date the event was raised.
+     */
+    private Date createdAt;
+
+    /**
+     * Creates an event raised now.
+     *
+     * @param type        The type of the event.
+     * @param aggregateId The ID of the order, job, item or redeem code the event is about.
+     * @param payload     Further details of the event.
+     * @return The event, not stored yet.
+     */
+    public static DomainEvent of(String type, Long aggregateId, Map<String, Object> payload) {
+        return new DomainEvent(null, null, type, aggregateId, payload, new Date());
+    }
+
+    /**
+     * Reads a number of the payload.
+     *
+     * @param key The key of the number.
+     * @return The number, or {@code null} if the payload has none.
+     */
+    public Long payloadLong(String key) {
+        Object value = payload != null ? payload.get(key) : null;
+        return value instanceof Number number ? Long.valueOf(number.longValue()) : null;
+    }
+}
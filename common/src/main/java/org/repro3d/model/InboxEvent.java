@@ -0,0 +1,57 @@
+package org.repro3d.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A {@link DomainEvent} of another service that was handled, recorded in the transaction of its
+ * handling so a redelivery of the event is recognized and dropped.
+ * <p>
+ * The inbox is written with JDBC by the {@code EventInbox}; the entity defines the table.
+ */
+@Entity
+@Table(name = "inbox_event")
+@IdClass(InboxEvent.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxEvent {
+
+    /**
+     * The name of the service that raised the event.
+     */
+    @Id
+    @Column(name = "source", length = 50)
+    private String source;
+
+    /**
+     * The ID of the event in the outbox of its source.
+     */
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    /**
+     * The date the event was handled.
+     */
+    @Column(name = "received_at", nullable = false)
+    private Date receivedAt;
+
+    /**
+     * The identity of an event: its source and its ID there.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String source;
+
+        private Long eventId;
+    }
+}
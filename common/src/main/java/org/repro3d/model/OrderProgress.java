@@ -0,0 +1,145 @@
+package org.repro3d.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The print progress of an order: how many of its items are in each job status and when the
+ * last of them is expected to be printed.
+ * <p>
+ * The row is a summary of the jobs of the order kept next to them, so tracking an order is a single
+ * read by its ID. The Order Service writes it when the order is placed and the Printer Service
+ * every time it changes the status of one of the jobs; both recalculate it from the jobs with
+ * {@link #update(List, Date)} while holding a lock on the row.
+ */
+@Entity
+@Table(name = "order_progress")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderProgress {
+
+    /**
+     * The order the progress belongs to.
+     */
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    /**
+     * The number of items of the order.
+     */
+    @Column(name = "total_items")
+    private int totalItems;
+
+    /**
+     * The number of items whose job is waiting for a printer.
+     */
+    @Column(name = "waiting")
+    private int waiting;
+
+    /**
+     * The number of items being printed.
+     */
+    @Column(name = "in_progress")
+    private int inProgress;
+
+    /**
+     * The number of printed items awaiting pick up.
+     */
+    @Column(name = "awaiting_pickup")
+    private int awaitingPickup;
+
+    /**
+     * The number of items picked up.
+     */
+    @Column(name = "done")
+    private int done;
+
+    /**
+     * The estimated print time (in minutes) left: the estimates of the waiting items and the rest of
+     * the estimates of the items being printed. Items without an estimate count as zero.
+     */
+    @Column(name = "remaining_est_time")
+    private int remainingEstTime;
+
+    /**
+     * The date all items are expected to be printed, assuming they print one after another, or
+     * {@code null} once none is waiting or being printed.
+     */
+    @Column(name = "eta")
+    private Date eta;
+
+    /**
+     * The date the progress was last recalculated.
+     */
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    /**
+     * Constructs the progress of an order that has not been recalculated yet.
+     *
+     * @param orderId The ID of the order.
+     */
+    public OrderProgress(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    /**
+     * Recalculates the progress from the jobs of the items of the order.
+     *
+     * @param jobs The jobs of all items of the order; items without a job have a {@code null} status and
+     *             count as waiting, as the Printer Service has not created their job yet.
+     * @param now  The current date, from which the remaining time of started jobs and the ETA are reckoned.
+     */
+    public void update(List<? extends JobState> jobs, Date now) {
+        totalItems = jobs.size();
+        waiting = inProgress = awaitingPickup = done = 0;
+        long remainingMinutes = 0;
+        for (JobState job : jobs) {
+            int estTime = job.getEstTime() != null ? job.getEstTime() : 0;
+            long statusId = job.getStatusId() != null ? job.getStatusId() : 1L;
+            if (statusId == 1L) {
+                waiting++;
+                remainingMinutes += estTime;
+            } else if (statusId == 2L) {
+                inProgress++;
+                long elapsed = job.getStartDate() != null ? (now.getTime() - job.getStartDate().getTime()) / 60_000 : 0;
+                remainingMinutes += Math.max(0, estTime - elapsed);
+            } else if (statusId == 3L) {
+                awaitingPickup++;
+            } else if (statusId == 4L) {
+                done++;
+            }
+        }
+        remainingEstTime = (int) remainingMinutes;
+        eta = waiting + inProgress > 0 ? new Date(now.getTime() + remainingMinutes * 60_000) : null;
+        updatedAt = now;
+    }
+
+    /**
+     * The status and estimate of the job of an item, as read for {@link #update(List, Date)}.
+     */
+    public interface JobState {
+
+        /**
+         * @return The status ID of the job, or {@code null} if the item has no job.
+         */
+        Long getStatusId();
+
+        /**
+         * @return The estimated print time of the item in minutes, or {@code null} if unknown.
+         */
+        Integer getEstTime();
+
+        /**
+         * @return The date the job was started, or placed while it is waiting.
+         */
+        Date getStartDate();
+    }
+}
@@ -0,0 +1,74 @@
+package org.repro3d.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A {@link DomainEvent} stored in the outbox of the service that raised it, in the transaction of the
+ * change it describes, until the relay delivered it to a subscribing service. An event with several
+ * subscribers is stored once per subscriber, so each is delivered and retried on its own.
+ * <p>
+ * The outbox is written and read with JDBC by the {@code EventOutbox} and the {@code OutboxRelay};
+ * the entity defines the table.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "outbox_event_pending", columnList = "source, destination, published_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    /**
+     * The ID of the event, increasing in the order the events were stored and unique per source.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    /**
+     * The name of the service that raised the event.
+     */
+    @Column(name = "source", length = 50, nullable = false)
+    private String source;
+
+    /**
+     * The name of the service the event is delivered to.
+     */
+    @Column(name = "destination", length = 50, nullable = false)
+    private String destination;
+
+    /**
+     * The type of the event.
+     */
+    @Column(name = "type", length = 50, nullable = false)
+    private String type;
+
+    /**
+     * The ID of the order, job or redeem code the event is about.
+     */
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    /**
+     * The payload of the event as JSON.
+     */
+    @Column(name = "payload", columnDefinition = "LONGTEXT")
+    private String payload;
+
+    /**
+     * The date the event was raised.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    /**
+     * The date the event was delivered, {@code null} while it is pending.
+     */
+    @Column(name = "published_at")
+    private Date publishedAt;
+}
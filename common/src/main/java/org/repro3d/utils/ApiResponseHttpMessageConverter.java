@@ -0,0 +1,139 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes {@link ApiResponse} envelopes with Jackson's streaming generator.
+ * <p>
+ * The envelope fields are written directly to the response body and a collection in {@code data}
+ * is serialized element by element, flushing every {@value #FLUSH_EVERY} elements. Large lists
+ * therefore leave the service as a chunked stream instead of being rendered as one block, and
+ * {@code data} may also be a lazily produced {@link Iterator} or {@link Stream}, which is closed once written.
+ * <p>
+ * The same converter writes JSON or, given a Smile {@link ObjectMapper}, the binary Smile format.
+ * It is registered ahead of the default Jackson converter by {@link WireFormatConfig}. It only writes;
+ * request bodies are still read by the default converters.
+ */
+public class ApiResponseHttpMessageConverter extends AbstractHttpMessageConverter<ApiResponse> {
+
+    /**
+     * Number of list elements written between two flushes of the underlying stream.
+     */
+    static final int FLUSH_EVERY = 256;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter elementWriter;
+
+    /**
+     * Constructs a JSON converter on top of the application's {@link ObjectMapper}, so elements are
+     * serialized exactly like the default converter would serialize them.
+     *
+     * @param objectMapper The object mapper used for the elements of the envelope.
+     */
+    public ApiResponseHttpMessageConverter(ObjectMapper objectMapper) {
+        this(objectMapper, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    /**
+     * Constructs a converter writing the media types of the given {@link ObjectMapper}'s format.
+     *
+     * @param objectMapper        The object mapper whose factory creates the generator.
+     * @param supportedMediaTypes The media types written by this converter.
+     */
+    public ApiResponseHttpMessageConverter(ObjectMapper objectMapper, MediaType... supportedMediaTypes) {
+        super(supportedMediaTypes);
+        this.objectMapper = objectMapper;
+        this.elementWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiResponse readInternal(Class<? extends ApiResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ApiResponse is a write-only envelope.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse response, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            write(response, generator);
+        }
+    }
+
+    /**
+     * Writes the envelope to the given generator.
+     *
+     * @param response  The envelope to write.
+     * @param generator The generator to write to. It is flushed but not closed.
+     * @throws IOException If writing to the underlying stream fails.
+     */
+    public void write(ApiResponse response, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("success", response.isSuccess());
+        generator.writeStringField("message", response.getMessage());
+        generator.writeFieldName("data");
+        writeData(response.getData(), generator);
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    private void writeData(Object data, JsonGenerator generator) throws IOException {
+        Iterator<?> elements = elementsOf(data);
+        if (elements == null) {
+            elementWriter.writeValue(generator, data);
+            return;
+        }
+        try {
+            generator.writeStartArray();
+            int written = 0;
+            while (elements.hasNext()) {
+                elementWriter.writeValue(generator, elements.next());
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+        } finally {
+            if (data instanceof Stream<?> stream) {
+                stream.close();
+            }
+        }
+    }
+
+    private static Iterator<?> elementsOf(Object data) {
+        if (data instanceof Collection<?> collection) {
+            return collection.iterator();
+        }
+        if (data instanceof Iterator<?> iterator) {
+            return iterator;
+        }
+        if (data instanceof Stream<?> stream) {
+            return stream.iterator();
+        }
+        return null;
+    }
+}
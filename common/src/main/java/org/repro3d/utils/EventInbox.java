@@ -0,0 +1,96 @@
+package org.repro3d.utils;
+
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.InboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Hands the {@link DomainEvent}s delivered by the {@link OutboxRelay} of other services to the
+ * listeners of this service, each exactly once.
+ * <p>
+ * Every event is recorded in the {@link InboxEvent inbox} and published with the
+ * {@link ApplicationEventPublisher} in one transaction, so the listeners change the database in that
+ * transaction as well. A redelivered event finds its inbox row and is skipped. If a listener fails,
+ * the transaction is rolled back and the delivery fails, so the relay sends the event again.
+ */
+@Component
+@ConditionalOnProperty(prefix = "repro3d.events", name = "enabled", havingValue = "true")
+public class EventInbox {
+
+    private static final Logger log = LoggerFactory.getLogger(EventInbox.class);
+
+    static final String INSERT = "INSERT INTO inbox_event (source, event_id, received_at) VALUES (?, ?, ?)";
+    static final String DELETE_RECEIVED = "DELETE FROM inbox_event WHERE received_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventProperties properties;
+
+    /**
+     * Constructs an {@code EventInbox}.
+     *
+     * @param jdbcTemplate        The template writing the inbox.
+     * @param transactionTemplate The template running the handling of each event in a transaction.
+     * @param eventPublisher      The publisher passing the events to the listeners.
+     * @param properties          The settings naming the retention of the inbox.
+     */
+    @Autowired
+    public EventInbox(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                      ApplicationEventPublisher eventPublisher, EventProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+    }
+
+    /**
+     * Handles a batch of events in the order they were raised.
+     *
+     * @param events The events, each with its source and ID.
+     * @return The number of events handled, without the redelivered ones.
+     */
+    public int receive(List<DomainEvent> events) {
+        int handled = 0;
+        for (DomainEvent event : events) {
+            if (event.getSource() == null || event.getEventId() == null) {
+                throw new IllegalArgumentException("Event " + event.getType() + " has no source or ID");
+            }
+            Boolean first = transactionTemplate.execute(status -> {
+                try {
+                    jdbcTemplate.update(INSERT, event.getSource(), event.getEventId(), new Timestamp(System.currentTimeMillis()));
+                } catch (DuplicateKeyException e) {
+                    log.debug("Skipped redelivered event source={} eventId={}", event.getSource(), event.getEventId());
+                    return false;
+                }
+                eventPublisher.publishEvent(event);
+                return true;
+            });
+            if (Boolean.TRUE.equals(first)) {
+                handled++;
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * Deletes the inbox rows older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${repro3d.events.purge-rate:PT1H}")
+    public void purge() {
+        Timestamp before = new Timestamp(System.currentTimeMillis() - properties.getRetention().toMillis());
+        jdbcTemplate.update(DELETE_RECEIVED, before);
+    }
+}
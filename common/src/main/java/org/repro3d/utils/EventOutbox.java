@@ -0,0 +1,84 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.repro3d.model.DomainEvent;
+import org.repro3d.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Stores the {@link DomainEvent}s raised in this service that other services subscribed to in the
+ * {@link OutboxEvent outbox}, from where the {@link OutboxRelay} delivers them.
+ * <p>
+ * The event is stored with the connection of the transaction it is raised in, so it is delivered
+ * exactly when the change it describes is committed. Events raised outside of a transaction are
+ * stored right away. Events received from other services are not stored again.
+ */
+@Component
+@ConditionalOnProperty(prefix = "repro3d.events", name = "enabled", havingValue = "true")
+public class EventOutbox {
+
+    static final String INSERT = "INSERT INTO outbox_event (source, destination, type, aggregate_id, payload, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final EventProperties properties;
+    private final String source;
+
+    /**
+     * Constructs an {@code EventOutbox}.
+     *
+     * @param jdbcTemplate The template writing the outbox.
+     * @param objectMapper The mapper writing the payloads as JSON.
+     * @param properties   The settings naming the subscribers of each event type.
+     * @param source       The name of this service.
+     */
+    @Autowired
+    public EventOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, EventProperties properties,
+                       @Value("${spring.application.name}") String source) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.source = source;
+    }
+
+    /**
+     * Stores an event raised in this service once for every subscribing service. Runs before the
+     * other listeners, so they see the event with its source.
+     *
+     * @param event The event raised.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void store(DomainEvent event) {
+        if (event.getSource() != null) {
+            return;
+        }
+        event.setSource(source);
+        List<String> destinations = properties.subscribersOf(event.getType());
+        if (destinations.isEmpty()) {
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event.getPayload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload of " + event.getType() + " is not serializable", e);
+        }
+        Timestamp createdAt = new Timestamp(event.getCreatedAt().getTime());
+        jdbcTemplate.batchUpdate(INSERT, destinations.stream()
+                .map(destination -> new Object[]{source, destination, event.getType(), event.getAggregateId(), payload, createdAt})
+                .toList());
+    }
+}
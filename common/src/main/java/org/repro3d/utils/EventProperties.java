@@ -0,0 +1,59 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of the domain events sent between the services, bound from {@code repro3d.events.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "repro3d.events")
+public class EventProperties {
+
+    /**
+     * Whether the {@link EventOutbox}, the {@link OutboxRelay} and the {@link EventInbox} are active.
+     */
+    private boolean enabled;
+
+    /**
+     * The services each type of event raised here is delivered to, e.g.
+     * {@code subscribers[OrderPlaced]=printer-service,billing-service}.
+     */
+    private Map<String, List<String>> subscribers = new HashMap<>();
+
+    /**
+     * Delay between two runs of the relay.
+     */
+    private Duration relayRate = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of events sent to a service in one request.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Time allowed to connect to and get the response of a subscribing service.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /**
+     * Time delivered events are kept in the outbox and handled events in the inbox. Redeliveries
+     * arriving later are handled again.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Returns the services an event type is delivered to.
+     *
+     * @param type The type of the event.
+     * @return The names of the services, empty if no other service subscribed.
+     */
+    public List<String> subscribersOf(String type) {
+        return subscribers.getOrDefault(type, List.of());
+    }
+}
@@ -0,0 +1,77 @@
+package org.repro3d.utils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Rejects requests to the {@code /internal/**} endpoints, which the services call on each other, unless
+ * they carry the secret shared by the services ({@code repro3d.internal.secret}) in the {@value #HEADER}
+ * header.
+ * <p>
+ * The gateway does not route these paths, but the services are reachable on their own ports, so the
+ * secret keeps anyone else from injecting events or cache invalidations. Without a secret configured
+ * all internal requests are rejected.
+ */
+@Component
+public class InternalRequestFilter extends OncePerRequestFilter {
+
+    /**
+     * Header carrying the shared secret on requests between the services.
+     */
+    public static final String HEADER = "X-Internal-Secret";
+
+    /**
+     * Path prefix of the endpoints called between the services.
+     */
+    public static final String PATH_PREFIX = "/internal/";
+
+    private static final Logger log = LoggerFactory.getLogger(InternalRequestFilter.class);
+
+    private final byte[] secret;
+
+    /**
+     * Constructs an {@code InternalRequestFilter}.
+     *
+     * @param secret The secret shared by the services, blank to reject all internal requests.
+     */
+    @Autowired
+    public InternalRequestFilter(@Value("${repro3d.internal.secret:}") String secret) {
+        this.secret = secret.isBlank() ? null : secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips the requests to other than the internal endpoints.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + PATH_PREFIX);
+    }
+
+    /**
+     * Passes an internal request on if it carries the shared secret, and answers 401 otherwise.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        // Compared in constant time, so the response time does not reveal how much of the secret was guessed.
+        if (secret == null || presented == null || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Internal request rejected path={} remote={}", request.getRequestURI(), request.getRemoteAddr());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,181 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.repro3d.model.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delivers the events of the {@link EventOutbox} to the subscribing services.
+ * <p>
+ * Each run sends the pending events of every subscriber in batches, oldest first, with
+ * {@code POST /internal/events} to one of its instances found through the discovery client, and marks
+ * them delivered once the instance confirmed them. The requests carry the secret shared by the services,
+ * which the {@link InternalRequestFilter} of the receiver checks. Undelivered events are sent again on the next run,
+ * so a subscriber that is down only delays its own events. Delivery is at least once: an event can
+ * arrive twice if a confirmation is lost or two instances of this service relay the same events, and
+ * the {@link EventInbox} of the subscriber drops the second one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "repro3d.events", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final String SELECT_PENDING = "SELECT event_id, type, aggregate_id, payload, created_at FROM outbox_event "
+            + "WHERE source = ? AND destination = ? AND published_at IS NULL ORDER BY event_id LIMIT ?";
+    static final String MARK_PUBLISHED = "UPDATE outbox_event SET published_at = ? WHERE event_id = ?";
+    static final String DELETE_PUBLISHED = "DELETE FROM outbox_event WHERE source = ? AND published_at < ?";
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DiscoveryClient discoveryClient;
+    private final ObjectMapper objectMapper;
+    private final EventProperties properties;
+    private final String source;
+    private final RestClient restClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructs an {@code OutboxRelay}.
+     *
+     * @param jdbcTemplate    The template reading and updating the outbox.
+     * @param discoveryClient The client listing the instances of the subscribing services.
+     * @param objectMapper    The mapper reading the payloads and writing the batches as JSON.
+     * @param properties      The settings of the relay.
+     * @param source          The name of this service.
+     * @param secret          The secret shared by the services.
+     */
+    @Autowired
+    public OutboxRelay(JdbcTemplate jdbcTemplate, DiscoveryClient discoveryClient, ObjectMapper objectMapper,
+                       EventProperties properties, @Value("${spring.application.name}") String source,
+                       @Value("${repro3d.internal.secret:}") String secret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.discoveryClient = discoveryClient;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.source = source;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(properties.getTimeout()).executor(executor).build());
+        requestFactory.setReadTimeout(properties.getTimeout());
+        this.restClient = RestClient.builder()
+                .requestFactory(requestFactory)
+                .defaultHeader(InternalRequestFilter.HEADER, secret)
+                .build();
+    }
+
+    /**
+     * Delivers the pending events of every subscribing service.
+     */
+    @Scheduled(fixedDelayString = "${repro3d.events.relay-rate:PT1S}")
+    public void relay() {
+        Set<String> destinations = new TreeSet<>();
+        properties.getSubscribers().values().forEach(destinations::addAll);
+        for (String destination : destinations) {
+            relay(destination);
+        }
+    }
+
+    /**
+     * Delivers the pending events of one service, batch by batch, until none is left or a batch fails.
+     *
+     * @param destination The name of the service.
+     * @return The number of events delivered.
+     */
+    int relay(String destination) {
+        int delivered = 0;
+        List<DomainEvent> batch;
+        do {
+            batch = jdbcTemplate.query(SELECT_PENDING, eventMapper(), source, destination, properties.getBatchSize());
+            if (batch.isEmpty() || !deliver(destination, batch)) {
+                break;
+            }
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            jdbcTemplate.batchUpdate(MARK_PUBLISHED, batch.stream()
+                    .map(event -> new Object[]{now, event.getEventId()})
+                    .toList());
+            delivered += batch.size();
+        } while (batch.size() == properties.getBatchSize());
+        return delivered;
+    }
+
+    /**
+     * Deletes the delivered events older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${repro3d.events.purge-rate:PT1H}")
+    public void purge() {
+        Timestamp before = new Timestamp(System.currentTimeMillis() - properties.getRetention().toMillis());
+        int deleted = jdbcTemplate.update(DELETE_PUBLISHED, source, before);
+        if (deleted > 0) {
+            log.info("Deleted {} delivered events from the outbox", deleted);
+        }
+    }
+
+    /**
+     * Stops the HTTP client.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private boolean deliver(String destination, List<DomainEvent> batch) {
+        List<ServiceInstance> instances = discoveryClient.getInstances(destination);
+        if (instances.isEmpty()) {
+            log.debug("No instance of {} to deliver {} events to", destination, batch.size());
+            return false;
+        }
+        ServiceInstance instance = instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+        try {
+            restClient.post()
+                    .uri(instance.getUri() + "/internal/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(objectMapper.writeValueAsString(batch))
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Events not delivered destination={} instance={} events={} error={}",
+                    destination, instance.getUri(), batch.size(), e.toString());
+            return false;
+        }
+    }
+
+    private RowMapper<DomainEvent> eventMapper() {
+        return (rs, rowNum) -> {
+            String payload = rs.getString("payload");
+            try {
+                return new DomainEvent(rs.getLong("event_id"), source, rs.getString("type"),
+                        rs.getObject("aggregate_id", Long.class),
+                        payload != null ? objectMapper.readValue(payload, PAYLOAD) : null,
+                        rs.getTimestamp("created_at"));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable payload of event " + rs.getLong("event_id"), e);
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package org.repro3d.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks reads that must see the latest committed state and so are routed to the primary even inside a
+ * read-only transaction, such as the job queues the scheduler acts on and the rows loaded into caches
+ * right after a write. The {@link ReplicaRoutingDataSource} reads the mark of the calling thread.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    /**
+     * Runs reads against the primary. The transactions must start on the calling thread.
+     *
+     * @param reads The reads to run.
+     * @param <T>   The type of their result.
+     * @return The result of the reads.
+     */
+    public static <T> T call(Supplier<T> reads) {
+        if (Boolean.TRUE.equals(ACTIVE.get())) {
+            return reads.get();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    /**
+     * Returns whether the calling thread runs reads marked for the primary.
+     *
+     * @return {@code true} inside {@link #call(Supplier)}.
+     */
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+}
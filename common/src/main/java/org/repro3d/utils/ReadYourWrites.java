@@ -0,0 +1,115 @@
+package org.repro3d.utils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Sends the reads of a caller that just wrote to the primary, so it sees its own writes although the
+ * replica may lag behind.
+ * <p>
+ * When a write transaction commits during a request, the rest of the request reads from the primary and
+ * the response sets the cookie {@value #COOKIE} for the {@link ReplicaProperties#getStickiness()
+ * stickiness} window. Requests carrying the cookie read from the primary as well. As the cookie is set
+ * for the whole path of the gateway, it also covers the reads of the other services and of other
+ * instances of this one, e.g. the jobs of an order listed right after placing it.
+ */
+public class ReadYourWrites extends OncePerRequestFilter implements TransactionExecutionListener {
+
+    /**
+     * Name of the cookie sending the reads of a caller to the primary.
+     */
+    public static final String COOKIE = "repro3d-read-primary";
+
+    private final Duration stickiness;
+    private final ThreadLocal<Caller> caller = new ThreadLocal<>();
+
+    /**
+     * Constructs a {@code ReadYourWrites} filter.
+     *
+     * @param stickiness The time a caller reads from the primary after a write.
+     */
+    public ReadYourWrites(Duration stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    /**
+     * Returns whether the reads of the current request have to go to the primary.
+     *
+     * @return {@code true} if the caller wrote recently or during this request.
+     */
+    public boolean isPinnedToPrimary() {
+        Caller current = caller.get();
+        return current != null && current.pinned;
+    }
+
+    /**
+     * Handles a request, reading from the primary if its caller wrote recently.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        caller.set(new Caller(response, hasCookie(request)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            caller.remove();
+        }
+    }
+
+    /**
+     * Pins the current request and its caller to the primary once a write transaction committed.
+     *
+     * @param transaction   The committed transaction.
+     * @param commitFailure The failure of the commit, {@code null} if it succeeded.
+     */
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        Caller current = caller.get();
+        if (current == null || current.wrote || commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        current.pinned = true;
+        current.wrote = true;
+        if (!current.response.isCommitted()) {
+            current.response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, "1")
+                    .path("/").maxAge(stickiness).httpOnly(true).sameSite("Lax").build().toString());
+        }
+    }
+
+    private static boolean hasCookie(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The state of the request handled by the current thread.
+     */
+    private static final class Caller {
+
+        private final HttpServletResponse response;
+        private boolean pinned;
+        private boolean wrote;
+
+        Caller(HttpServletResponse response, boolean pinned) {
+            this.response = response;
+            this.pinned = pinned;
+        }
+    }
+}
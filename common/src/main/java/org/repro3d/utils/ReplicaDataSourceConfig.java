@@ -0,0 +1,120 @@
+package org.repro3d.utils;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the database access of a service between the primary and a read replica, configured with
+ * {@code repro3d.datasource.replica.url}.
+ * <p>
+ * The primary keeps the pool configured with {@code spring.datasource.*}; the replica gets a second,
+ * read-only pool. The data source used by JPA and JDBC routes every connection through the
+ * {@link ReplicaRoutingDataSource}. Without a replica URL the services keep their single pool.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "repro3d.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    /**
+     * Creates the pool of the primary from {@code spring.datasource.*}.
+     *
+     * @param properties The connection settings of the primary.
+     * @return The pool, configured further with {@code spring.datasource.hikari.*}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates the read-only pool of the replica.
+     *
+     * @param replica     The connection settings of the replica.
+     * @param primary     The connection settings of the primary, whose credentials are used by default.
+     * @param application The name of the service, naming the pool.
+     * @return The pool.
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(ReplicaProperties replica, DataSourceProperties primary,
+                                              @Value("${spring.application.name}") String application) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername() != null ? replica.getUsername() : primary.determineUsername())
+                .password(replica.getPassword() != null ? replica.getPassword() : primary.determinePassword())
+                .build();
+        dataSource.setPoolName(application + "-replica");
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Creates the monitor of the replication lag.
+     *
+     * @param replica    The pool of the replica.
+     * @param properties The settings of the replica.
+     * @return The monitor, measuring the lag from startup on.
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") HikariDataSource replica, ReplicaProperties properties) {
+        return new ReplicaLagMonitor(replica, properties);
+    }
+
+    /**
+     * Creates the filter sending the reads of callers that just wrote to the primary. It is registered
+     * with the servlet container and with the transaction manager.
+     *
+     * @param properties The settings of the replica.
+     * @return The filter.
+     */
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaProperties properties) {
+        return new ReadYourWrites(properties.getStickiness());
+    }
+
+    /**
+     * Creates the data source of the service, routing each connection to the primary or the replica.
+     *
+     * @param primary        The pool of the primary.
+     * @param replica        The pool of the replica.
+     * @param lagMonitor     The monitor telling whether the replica is usable.
+     * @param readYourWrites The filter telling whether the caller has to read from the primary.
+     * @return A data source fetching the connection of a transaction only when its first statement runs.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica,
+                                 ReplicaLagMonitor lagMonitor, ReadYourWrites readYourWrites) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWrites);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Lets Hibernate return the connection after every transaction instead of holding it until the end of
+     * the request, so every transaction of a request is routed on its own.
+     *
+     * @return The customizer of the Hibernate settings.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
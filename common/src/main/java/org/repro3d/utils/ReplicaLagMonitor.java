@@ -0,0 +1,116 @@
+package org.repro3d.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the replication lag of the read replica in the background and tells the
+ * {@link ReplicaRoutingDataSource} whether reads may go to it.
+ * <p>
+ * The replica is usable while its lag is at most {@link ReplicaProperties#getMaxLag() max-lag}. It is not
+ * usable before the first measurement, while replication is stopped and while the replica cannot be
+ * reached, so reads fall back to the primary instead of failing or returning data that is too old.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /**
+     * Column of the lag in the result of {@code SHOW SLAVE STATUS}.
+     */
+    static final String LAG_COLUMN = "Seconds_Behind_Master";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReplicaProperties properties;
+    private volatile boolean usable;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructs a {@code ReplicaLagMonitor}.
+     *
+     * @param replica    The connections to the replica.
+     * @param properties The query measuring the lag, the maximum lag and the rate of the measurements.
+     */
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.properties = properties;
+    }
+
+    /**
+     * Starts measuring the lag in the background, the first time right away.
+     */
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("replica-lag").factory());
+        executor.scheduleWithFixedDelay(this::check, 0, properties.getLagCheckRate().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops measuring the lag.
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns whether reads may go to the replica.
+     *
+     * @return {@code true} if the last measured lag was at most the maximum lag.
+     */
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * Measures the lag and updates whether the replica is usable.
+     */
+    public void check() {
+        Duration lag;
+        String reason;
+        try {
+            lag = jdbcTemplate.query(properties.getLagQuery(), ReplicaLagMonitor::readLag);
+            reason = lag == null ? "replication is stopped" : "lag is " + lag;
+        } catch (DataAccessException e) {
+            lag = null;
+            reason = "lag cannot be measured: " + e.getMessage();
+        }
+        boolean nowUsable = lag != null && lag.compareTo(properties.getMaxLag()) <= 0;
+        if (nowUsable && !usable) {
+            log.info("Reading from the replica, {}", reason);
+        } else if (!nowUsable && usable) {
+            log.warn("Reading from the primary, {}", reason);
+        }
+        usable = nowUsable;
+    }
+
+    private static Duration readLag(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return Duration.ZERO;
+        }
+        int column = 1;
+        ResultSetMetaData metaData = rs.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                column = i;
+            }
+        }
+        double seconds = rs.getDouble(column);
+        return rs.wasNull() ? null : Duration.ofMillis(Math.round(seconds * 1000));
+    }
+}
@@ -0,0 +1,57 @@
+package org.repro3d.utils;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the read replica, bound from {@code repro3d.datasource.replica.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "repro3d.datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * JDBC URL of the replica. Reads are only routed to a replica when it is set.
+     */
+    private String url;
+
+    /**
+     * User of the replica, the user of the primary if not set.
+     */
+    private String username;
+
+    /**
+     * Password of the replica, the password of the primary if not set.
+     */
+    private String password;
+
+    /**
+     * Maximum number of connections to the replica.
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * Replication lag above which reads go to the primary until the replica caught up.
+     */
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    /**
+     * Delay between two measurements of the replication lag.
+     */
+    private Duration lagCheckRate = Duration.ofSeconds(1);
+
+    /**
+     * Query run on the replica to measure its lag, in seconds, from the column
+     * {@code Seconds_Behind_Master} or else the first column. No row means no lag; a {@code NULL} lag
+     * means replication is stopped.
+     */
+    private String lagQuery = "SHOW SLAVE STATUS";
+
+    /**
+     * Time a caller reads from the primary after a write, so it sees its own writes even if the replica
+     * lags. Should be longer than {@link #maxLag}.
+     */
+    private Duration stickiness = Duration.ofSeconds(5);
+}
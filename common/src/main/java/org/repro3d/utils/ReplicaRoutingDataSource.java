@@ -0,0 +1,65 @@
+package org.repro3d.utils;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out connections to the read replica for read-only transactions and to the primary for
+ * everything else.
+ * <p>
+ * A read-only transaction, e.g. a method annotated with {@code @Transactional(readOnly = true)} or a
+ * read method inherited from a Spring Data repository, reads from the replica unless the
+ * {@link ReplicaLagMonitor} finds it lagging or unreachable, the caller wrote recently
+ * ({@link ReadYourWrites}), or the reads are marked to see the latest state ({@link PrimaryReads}). The
+ * replica may lag by up to the allowed lag, so reads that decide what to write, or fill a cache, take the
+ * mark. The decision is made when the first statement runs, so this data source is
+ * used behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers
+ * fetching the connection until the transaction has been started.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The databases a connection can be taken from.
+     */
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Constructs a {@code ReplicaRoutingDataSource}.
+     *
+     * @param primary        The connections to the primary.
+     * @param replica        The connections to the replica.
+     * @param lagMonitor     The monitor telling whether the replica is usable.
+     * @param readYourWrites The filter telling whether the caller has to read from the primary.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWrites readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Returns the database the next connection is taken from.
+     *
+     * @return {@link Target#REPLICA} in a read-only transaction while the replica is usable and the caller
+     *         did not write recently or mark its reads for the primary, {@link Target#PRIMARY} otherwise.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && lagMonitor.isReplicaUsable()
+                && !readYourWrites.isPinnedToPrimary()
+                && !PrimaryReads.isActive();
+        return replica ? Target.REPLICA : Target.PRIMARY;
+    }
+}
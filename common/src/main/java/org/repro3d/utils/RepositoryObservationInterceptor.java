@@ -0,0 +1,43 @@
+package org.repro3d.utils;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.function.Supplier;
+
+/**
+ * Observes the invocations of one repository interface, see {@link RepositoryObservationPostProcessor}.
+ */
+class RepositoryObservationInterceptor implements MethodInterceptor {
+
+    /**
+     * Name of the observations, and of the timer recorded for them.
+     */
+    static final String OBSERVATION_NAME = "repro3d.repository.invocations";
+
+    private final Supplier<ObservationRegistry> observationRegistry;
+    private final String repository;
+
+    /**
+     * Constructs a {@code RepositoryObservationInterceptor}.
+     *
+     * @param observationRegistry Supplies the registry the observations are reported to.
+     * @param repositoryInterface The observed repository interface.
+     */
+    RepositoryObservationInterceptor(Supplier<ObservationRegistry> observationRegistry, Class<?> repositoryInterface) {
+        this.observationRegistry = observationRegistry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        return Observation.createNotStarted(OBSERVATION_NAME, observationRegistry.get())
+                .contextualName(repository + "." + method)
+                .lowCardinalityKeyValue("repository", repository)
+                .lowCardinalityKeyValue("method", method)
+                .observeChecked(invocation::proceed);
+    }
+}
@@ -0,0 +1,41 @@
+package org.repro3d.utils;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every invocation of a Spring Data repository in a Micrometer {@code Observation}.
+ * <p>
+ * With tracing enabled, each repository call becomes a span named after the repository and
+ * method (e.g. {@code JobRepository.save}) below the span of the request or scheduled task that
+ * issued it, which tells time spent in the database apart from time spent in the services.
+ */
+@Component
+public class RepositoryObservationPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    /**
+     * Constructs a {@code RepositoryObservationPostProcessor}.
+     *
+     * @param observationRegistry The registry the observations are reported to, resolved on first use
+     *                            so that it is fully configured by then.
+     */
+    public RepositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryObservationInterceptor(
+                            () -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP),
+                            repositoryInformation.getRepositoryInterface()))));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,105 @@
+package org.repro3d.utils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, e.g. while blocking inside a
+ * {@code synchronized} block or a native frame.
+ * <p>
+ * A pinned virtual thread blocks its carrier, so a few of them can stall all request handling even
+ * though thousands of virtual threads exist. The monitor streams the JDK Flight Recorder event
+ * {@code jdk.VirtualThreadPinned} and logs every pin longer than the configured threshold together
+ * with the top of its stack. It is only active when virtual threads are enabled.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    /**
+     * Name of the Flight Recorder event emitted for pinned virtual threads.
+     */
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private RecordingStream stream;
+
+    /**
+     * Constructs a {@code VirtualThreadPinningMonitor}.
+     *
+     * @param threshold Minimum time a virtual thread must be pinned before it is reported.
+     */
+    public VirtualThreadPinningMonitor(@Value("${repro3d.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts streaming pinning events in the background.
+     */
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    /**
+     * Stops streaming pinning events.
+     */
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the number of pinning events reported since startup.
+     *
+     * @return The number of reported pinning events.
+     */
+    public long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        log.warn("Virtual thread {} pinned its carrier for {} ms at:\n{}",
+                event.getThread() != null ? event.getThread().getJavaName() : "?",
+                event.getDuration().toMillis(), topFrames(event.getStackTrace()));
+    }
+
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t<no stack trace>";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
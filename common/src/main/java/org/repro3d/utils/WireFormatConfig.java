@@ -0,0 +1,59 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configures the wire formats shared by all services.
+ * <p>
+ * JSON stays the default. Clients that send {@code Accept: application/x-jackson-smile} receive the
+ * compact binary Smile encoding of the same payload instead, and may also send Smile request bodies
+ * with the matching {@code Content-Type}. Both formats are produced from the same Jackson configuration,
+ * so field names and values are identical.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    /**
+     * Media type of the Smile binary JSON format.
+     */
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+
+    /**
+     * Constructs the configuration from the application's Jackson setup.
+     *
+     * @param objectMapper The object mapper used for JSON.
+     * @param builder      The builder used to create a Smile mapper with the same modules and features.
+     */
+    @Autowired
+    public WireFormatConfig(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        this.objectMapper = objectMapper;
+        this.smileMapper = builder.factory(new SmileFactory()).build();
+    }
+
+    /**
+     * Registers the streaming {@link ApiResponse} writers in front of the default converters, JSON first
+     * so it stays the format for {@code Accept: *}{@code /*}, and appends a general Smile converter
+     * for all other bodies after the default JSON converter.
+     *
+     * @param converters The converters configured so far.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ApiResponseHttpMessageConverter(objectMapper));
+        converters.add(1, new ApiResponseHttpMessageConverter(smileMapper, APPLICATION_SMILE));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+    }
+}
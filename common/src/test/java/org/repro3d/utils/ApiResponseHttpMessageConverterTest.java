@@ -0,0 +1,77 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Printer;
+import org.repro3d.model.Status;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiResponseHttpMessageConverterTest {
+
+    private ObjectMapper objectMapper;
+    private ApiResponseHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        converter = new ApiResponseHttpMessageConverter(objectMapper);
+    }
+
+    @Test
+    void writesListLikeDefaultSerialization() throws IOException {
+        List<Printer> printers = new ArrayList<>();
+        for (long i = 0; i < ApiResponseHttpMessageConverter.FLUSH_EVERY * 3 + 7; i++) {
+            printers.add(new Printer(i, "Printer" + i, "Room " + i, "192.168.1." + (i % 255), "key" + i));
+        }
+        ApiResponse response = new ApiResponse(true, "Printers retrieved successfully", printers);
+
+        assertEquals(objectMapper.writeValueAsString(response), write(response));
+    }
+
+    @Test
+    void writesSingleObjectAndNullData() throws IOException {
+        ApiResponse single = new ApiResponse(true, "Status found.", new Status(1L, "Waiting"));
+        ApiResponse empty = new ApiResponse(false, "Status not found for ID: 9", null);
+
+        assertEquals(objectMapper.writeValueAsString(single), write(single));
+        assertEquals(objectMapper.writeValueAsString(empty), write(empty));
+    }
+
+    @Test
+    void writesStreamAsArrayAndClosesIt() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Status> statuses = IntStream.rangeClosed(1, 3)
+                .mapToObj(i -> new Status((long) i, "S" + i))
+                .onClose(() -> closed.set(true));
+
+        String json = write(new ApiResponse(true, "ok", statuses));
+
+        assertEquals("{\"success\":true,\"message\":\"ok\",\"data\":[{\"status_id\":1,\"status\":\"S1\"},"
+                + "{\"status_id\":2,\"status\":\"S2\"},{\"status_id\":3,\"status\":\"S3\"}]}", json);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void onlyWritesApiResponses() {
+        assertTrue(converter.canWrite(ApiResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Printer.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(ApiResponse.class, MediaType.APPLICATION_JSON));
+    }
+
+    private String write(ApiResponse response) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(response, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsString();
+    }
+}
@@ -0,0 +1,82 @@
+package org.repro3d.utils;
+
+import jakarta.servlet.http.HttpServlet;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Embedded Tomcat for the services' load tests, configured like Spring Boot configures it in either
+ * threading mode: a bounded platform-thread pool of {@value #PLATFORM_MAX_THREADS} threads, or one
+ * virtual thread per request as with {@code spring.threads.virtual.enabled=true}.
+ */
+public final class EmbeddedServletServer implements AutoCloseable {
+
+    /**
+     * Spring Boot's default for {@code server.tomcat.threads.max}.
+     */
+    public static final int PLATFORM_MAX_THREADS = 200;
+
+    /**
+     * Threading mode of the request handling.
+     */
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+
+    private final Tomcat tomcat;
+    private final int port;
+
+    private EmbeddedServletServer(Tomcat tomcat, int port) {
+        this.tomcat = tomcat;
+        this.port = port;
+    }
+
+    /**
+     * Starts a server on a random port that serves every request with the given servlet.
+     *
+     * @param mode    The threading mode of the request handling.
+     * @param servlet The servlet handling all requests.
+     * @return The started server.
+     * @throws LifecycleException If Tomcat fails to start.
+     * @throws IOException        If the base directory cannot be created.
+     */
+    public static EmbeddedServletServer start(Mode mode, HttpServlet servlet) throws LifecycleException, IOException {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("tomcat-load").toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        if (mode == Mode.VIRTUAL) {
+            ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+        } else {
+            connector.setProperty("maxThreads", String.valueOf(PLATFORM_MAX_THREADS));
+        }
+        tomcat.setConnector(connector);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "app", servlet);
+        context.addServletMappingDecoded("/*", "app");
+        tomcat.start();
+        return new EmbeddedServletServer(tomcat, connector.getLocalPort());
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
@@ -0,0 +1,107 @@
+package org.repro3d.utils;
+
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.handler.PropagatingReceiverTracingObservationHandler;
+import io.micrometer.tracing.handler.PropagatingSenderTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+
+import java.util.List;
+
+/**
+ * OpenTelemetry tracing that collects the finished spans in memory instead of exporting them.
+ * <p>
+ * It is wired the way Spring Boot wires the OTLP exporter in the services: observations become spans
+ * through the Micrometer Tracing bridge and the trace context is propagated in W3C {@code traceparent}
+ * headers, so tests can assert on the span tree and on the headers sent downstream.
+ */
+public class InMemoryTracing implements AutoCloseable {
+
+    private final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    private final SdkTracerProvider tracerProvider;
+    private final Tracer tracer;
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+    /**
+     * Creates the tracing, sampling every trace.
+     */
+    public InMemoryTracing() {
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(Sampler.alwaysOn())
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        io.opentelemetry.api.trace.Tracer otelTracer = openTelemetry.getTracer("repro3d-test");
+        OtelCurrentTraceContext currentTraceContext = new OtelCurrentTraceContext();
+        tracer = new OtelTracer(otelTracer, currentTraceContext, event -> { },
+                new OtelBaggageManager(currentTraceContext, List.of(), List.of()));
+        Propagator propagator = new OtelPropagator(openTelemetry.getPropagators(), otelTracer);
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler.FirstMatchingCompositeObservationHandler(
+                new PropagatingSenderTracingObservationHandler<>(tracer, propagator),
+                new PropagatingReceiverTracingObservationHandler<>(tracer, propagator),
+                new DefaultTracingObservationHandler(tracer)));
+    }
+
+    /**
+     * Returns the registry whose observations are traced.
+     *
+     * @return The observation registry.
+     */
+    public ObservationRegistry getObservationRegistry() {
+        return observationRegistry;
+    }
+
+    /**
+     * Returns the tracer.
+     *
+     * @return The tracer.
+     */
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Returns the spans finished so far, in the order they finished.
+     *
+     * @return The finished spans.
+     */
+    public List<SpanData> getSpans() {
+        return exporter.getFinishedSpanItems();
+    }
+
+    /**
+     * Returns the finished span with the given name.
+     *
+     * @param name The span name.
+     * @return The span.
+     * @throws AssertionError If no span with the name was finished.
+     */
+    public SpanData getSpan(String name) {
+        return getSpans().stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No span named " + name + " in " + getSpans()));
+    }
+
+    @Override
+    public void close() {
+        tracerProvider.close();
+    }
+}
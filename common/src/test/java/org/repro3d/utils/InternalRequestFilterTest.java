@@ -0,0 +1,43 @@
+package org.repro3d.utils;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InternalRequestFilterTest {
+
+    @Test
+    void doFilter_RejectsInternalRequestsWithoutSecret() throws ServletException, IOException {
+        InternalRequestFilter filter = new InternalRequestFilter("s3cret");
+
+        assertEquals(401, filter(filter, "/internal/events", null).getStatus());
+        assertEquals(401, filter(filter, "/internal/item/1/changed", "guess").getStatus());
+        assertEquals(200, filter(filter, "/internal/events", "s3cret").getStatus());
+        assertEquals(200, filter(filter, "/api/item/1", null).getStatus());
+    }
+
+    @Test
+    void doFilter_RejectsAllInternalRequestsWithoutConfiguredSecret() throws ServletException, IOException {
+        InternalRequestFilter filter = new InternalRequestFilter("");
+
+        assertEquals(401, filter(filter, "/internal/events", "").getStatus());
+        assertEquals(200, filter(filter, "/api/item/1", null).getStatus());
+    }
+
+    private static MockHttpServletResponse filter(InternalRequestFilter filter, String path, String secret)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        if (secret != null) {
+            request.addHeader(InternalRequestFilter.HEADER, secret);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
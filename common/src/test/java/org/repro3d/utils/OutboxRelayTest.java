@@ -0,0 +1,149 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.DomainEvent;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Stores events in an in-memory outbox and relays them to a subscriber served by a local HTTP server.
+ */
+class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentLinkedQueue<JsonNode> batches = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> secrets = new ConcurrentLinkedQueue<>();
+    private volatile int status = 200;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private HttpServer subscriber;
+    private EventProperties properties;
+    private EventOutbox outbox;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE outbox_event (event_id BIGINT AUTO_INCREMENT PRIMARY KEY, source VARCHAR(50) NOT NULL, "
+                + "destination VARCHAR(50) NOT NULL, type VARCHAR(50) NOT NULL, aggregate_id BIGINT, payload CLOB, "
+                + "created_at TIMESTAMP NOT NULL, published_at TIMESTAMP)");
+
+        subscriber = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        subscriber.createContext("/internal/events", exchange -> {
+            batches.add(objectMapper.readTree(exchange.getRequestBody()));
+            secrets.add(String.valueOf(exchange.getRequestHeaders().getFirst(InternalRequestFilter.HEADER)));
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        subscriber.start();
+        DiscoveryClient discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances("printer-service")).thenReturn(List.of(
+                new DefaultServiceInstance("printer-1", "printer-service", "127.0.0.1", subscriber.getAddress().getPort(), false)));
+
+        properties = new EventProperties();
+        properties.setEnabled(true);
+        properties.setBatchSize(100);
+        properties.setTimeout(Duration.ofSeconds(2));
+        properties.setSubscribers(Map.of(
+                DomainEvent.ORDER_PLACED, List.of("printer-service", "billing-service"),
+                DomainEvent.JOB_STARTED, List.of("order-service")));
+        outbox = new EventOutbox(jdbcTemplate, objectMapper, properties, "order-service");
+        relay = new OutboxRelay(jdbcTemplate, discoveryClient, objectMapper, properties, "order-service", "s3cret");
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+        subscriber.stop(0);
+        database.shutdown();
+    }
+
+    @Test
+    void store_WritesEventOncePerSubscriberAndSkipsReceivedOnes() {
+        DomainEvent placed = DomainEvent.of(DomainEvent.ORDER_PLACED, 5L, Map.of("total", 30));
+        outbox.store(placed);
+        outbox.store(DomainEvent.of(DomainEvent.REDEEM_CODE_CONSUMED, 2L, Map.of()));
+        outbox.store(new DomainEvent(9L, "printer-service", DomainEvent.JOB_STARTED, 7L, Map.of(), placed.getCreatedAt()));
+
+        assertEquals("order-service", placed.getSource());
+        assertEquals(List.of("billing-service", "printer-service"), jdbcTemplate.queryForList(
+                "SELECT destination FROM outbox_event ORDER BY destination", String.class));
+    }
+
+    @Test
+    void relay_DeliversPendingEventsInBatchesAndMarksThem() {
+        properties.setBatchSize(2);
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            outbox.store(DomainEvent.of(DomainEvent.ORDER_PLACED, orderId, Map.of("total", 10)));
+        }
+
+        relay.relay();
+
+        assertEquals(List.of(2, 2, 1), batches.stream().map(JsonNode::size).toList());
+        JsonNode first = batches.peek().get(0);
+        assertEquals("order-service", first.get("source").asText());
+        assertEquals(DomainEvent.ORDER_PLACED, first.get("type").asText());
+        assertEquals(1, first.get("aggregateId").asLong());
+        assertEquals(10, first.get("payload").get("total").asInt());
+        assertTrue(first.get("eventId").asLong() > 0);
+        assertEquals(List.of("s3cret", "s3cret", "s3cret"), List.copyOf(secrets));
+        assertEquals(0, pending("printer-service"));
+        // No instance of the billing service is registered, its events wait without blocking the others.
+        assertEquals(5, pending("billing-service"));
+    }
+
+    @Test
+    void relay_RetriesBatchUntilSubscriberConfirmsIt() {
+        outbox.store(DomainEvent.of(DomainEvent.ORDER_PLACED, 1L, Map.of()));
+        status = 500;
+
+        relay.relay();
+        assertEquals(1, pending("printer-service"));
+
+        status = 200;
+        relay.relay();
+        relay.relay();
+
+        assertEquals(0, pending("printer-service"));
+        assertEquals(2, batches.size());
+        assertEquals(batches.peek().get(0).get("eventId"), batches.stream().skip(1).findFirst().orElseThrow().get(0).get("eventId"));
+    }
+
+    @Test
+    void purge_DeletesDeliveredEventsOlderThanRetention() throws InterruptedException {
+        outbox.store(DomainEvent.of(DomainEvent.ORDER_PLACED, 1L, Map.of()));
+        relay.relay();
+        properties.setRetention(Duration.ZERO);
+        Thread.sleep(10);
+
+        relay.purge();
+
+        assertEquals(List.of("billing-service"), jdbcTemplate.queryForList("SELECT destination FROM outbox_event", String.class));
+    }
+
+    private int pending(String destination) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_event WHERE destination = ? AND published_at IS NULL",
+                Integer.class, destination);
+    }
+}
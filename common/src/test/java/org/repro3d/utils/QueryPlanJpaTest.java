@@ -0,0 +1,39 @@
+package org.repro3d.utils;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice for the services' query plan tests: the schema is built by the service's Flyway migrations, in
+ * H2 emulating MariaDB, and validated against its entities, and the SQL Hibernate sends is recorded for
+ * {@link QueryPlans#assertUsesIndex}.
+ * <p>
+ * Tables of other services that the entities of a service map are created by the test migrations under
+ * {@code db/migration/peers}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.enabled=false",
+        // Would move Reactor's bounded elastic scheduler onto virtual threads for the rest of the test JVM
+        "spring.threads.virtual.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=MariaDB;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.repro3d.utils.QueryPlans$RecordingInspector",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.locations=classpath:db/migration/mariadb,classpath:db/migration/peers"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public @interface QueryPlanJpaTest {
+}
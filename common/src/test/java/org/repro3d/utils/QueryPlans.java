@@ -0,0 +1,57 @@
+package org.repro3d.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the index H2 plans the services' hot queries with, in tests annotated with {@link QueryPlanJpaTest}.
+ */
+public final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    /**
+     * Runs a query that sends a single statement and asserts that H2 plans it with the given index.
+     *
+     * @param jdbcTemplate The template on the test database, used to explain the statement.
+     * @param index        The name of the expected index.
+     * @param query        The repository call to check.
+     */
+    public static void assertUsesIndex(JdbcTemplate jdbcTemplate, String index, Runnable query) {
+        RecordingInspector.STATEMENTS.clear();
+        query.run();
+        assertEquals(1, RecordingInspector.STATEMENTS.size(), () -> "statements: " + RecordingInspector.STATEMENTS);
+        String plan = explain(jdbcTemplate, RecordingInspector.STATEMENTS.get(0));
+        assertTrue(plan.contains("/* public." + index), () -> "Expected " + index + " in:\n" + plan);
+    }
+
+    private static String explain(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql, statement -> {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setNull(i, Types.NULL);
+            }
+        }, rs -> rs.next() ? rs.getString(1) : "");
+    }
+
+    /**
+     * Records the SQL Hibernate sends to the database.
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.repro3d.utils;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes the transactions of a primary and a replica, both embedded H2 databases whose {@code node}
+ * table names the database a query ran on.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicaLagMonitor lagMonitor;
+    private ReadYourWrites readYourWrites;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_status (lag DOUBLE)");
+        new JdbcTemplate(replica).update("INSERT INTO replica_status VALUES (0)");
+
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setLagQuery("SELECT lag FROM replica_status");
+        properties.setMaxLag(Duration.ofSeconds(2));
+        lagMonitor = new ReplicaLagMonitor(replica, properties);
+        lagMonitor.check();
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(5));
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWrites);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.setTransactionExecutionListeners(List.of(readYourWrites));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsFromReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+        assertEquals("primary", writeTransaction.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void check_FallsBackToPrimaryWhileReplicaLags() {
+        new JdbcTemplate(replica).update("UPDATE replica_status SET lag = 30");
+        lagMonitor.check();
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+
+        new JdbcTemplate(replica).update("UPDATE replica_status SET lag = 0.5");
+        lagMonitor.check();
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    void check_FallsBackToPrimaryWhileReplicationIsStoppedOrLagUnknown() {
+        new JdbcTemplate(replica).update("UPDATE replica_status SET lag = NULL");
+        lagMonitor.check();
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+
+        new JdbcTemplate(replica).execute("DROP TABLE replica_status");
+        lagMonitor.check();
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    void afterWrite_ReadsOfRequestGoToPrimaryAndCookieIsSet() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> before = new AtomicReference<>();
+        AtomicReference<String> after = new AtomicReference<>();
+
+        readYourWrites.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            before.set(readOnlyTransaction.execute(status -> node()));
+            writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+            after.set(readOnlyTransaction.execute(status -> node()));
+        });
+
+        assertEquals("replica", before.get());
+        assertEquals("primary", after.get());
+        Cookie cookie = response.getCookie(ReadYourWrites.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(5, cookie.getMaxAge());
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    void primaryReads_SeeWritesTheStaleReplicaMisses() {
+        // The replica lags within the allowed lag: it still has the old name.
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = 'primary-updated'"));
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+
+        assertEquals("primary-updated", PrimaryReads.call(() -> readOnlyTransaction.execute(status -> node())));
+        assertFalse(PrimaryReads.isActive());
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    void requestWithCookie_ReadsFromPrimary() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE, "1"));
+        AtomicReference<String> read = new AtomicReference<>();
+
+        readYourWrites.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> read.set(readOnlyTransaction.execute(status -> node())));
+
+        assertEquals("primary", read.get());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        new JdbcTemplate(database).execute("CREATE TABLE node (name VARCHAR(20))");
+        new JdbcTemplate(database).update("INSERT INTO node VALUES (?)", name);
+        return database;
+    }
+}
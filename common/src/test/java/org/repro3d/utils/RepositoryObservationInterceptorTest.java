@@ -0,0 +1,76 @@
+package org.repro3d.utils;
+
+import io.micrometer.observation.Observation;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryObservationInterceptorTest {
+
+    interface WidgetRepository {
+        String findName(long id);
+
+        void delete(long id);
+    }
+
+    private final InMemoryTracing tracing = new InMemoryTracing();
+
+    @AfterEach
+    void tearDown() {
+        tracing.close();
+    }
+
+    @Test
+    void invoke_CreatesChildSpanPerCall() {
+        WidgetRepository repository = proxy(new WidgetRepository() {
+            @Override
+            public String findName(long id) {
+                return "widget-" + id;
+            }
+
+            @Override
+            public void delete(long id) {
+            }
+        });
+
+        String name = Observation.createNotStarted("request", tracing.getObservationRegistry())
+                .observe(() -> repository.findName(7));
+
+        assertEquals("widget-7", name);
+        SpanData request = tracing.getSpan("request");
+        SpanData call = tracing.getSpan("widget-repository.find-name");
+        assertEquals(request.getTraceId(), call.getTraceId());
+        assertEquals(request.getSpanId(), call.getParentSpanId());
+    }
+
+    @Test
+    void invoke_RecordsErrorAndRethrows() {
+        WidgetRepository repository = proxy(new WidgetRepository() {
+            @Override
+            public String findName(long id) {
+                return null;
+            }
+
+            @Override
+            public void delete(long id) {
+                throw new IllegalStateException("locked");
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> repository.delete(7));
+
+        SpanData call = tracing.getSpan("widget-repository.delete");
+        assertEquals(1, call.getEvents().size());
+        assertEquals("ERROR", call.getStatus().getStatusCode().name());
+    }
+
+    private WidgetRepository proxy(WidgetRepository target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(WidgetRepository.class);
+        proxyFactory.addAdvice(new RepositoryObservationInterceptor(tracing::getObservationRegistry, WidgetRepository.class));
+        return (WidgetRepository) proxyFactory.getProxy();
+    }
+}
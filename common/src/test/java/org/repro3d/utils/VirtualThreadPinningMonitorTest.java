@@ -0,0 +1,66 @@
+package org.repro3d.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20));
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void reportsBlockingInsideSynchronized() throws Exception {
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                sleep(100);
+            }
+        }).join();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (monitor.getPinnedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(monitor.getPinnedCount() > 0);
+    }
+
+    @Test
+    void ignoresBlockingOnJavaUtilConcurrentLocks() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                sleep(100);
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+
+        Thread.sleep(2000);
+        assertEquals(0, monitor.getPinnedCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.repro3d.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.repro3d.model.Printer;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatConfigTest {
+
+    private ObjectMapper objectMapper;
+    private List<HttpMessageConverter<?>> converters;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        converters = new ArrayList<>(List.of(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter(objectMapper)));
+        new WireFormatConfig(objectMapper, new Jackson2ObjectMapperBuilder()).extendMessageConverters(converters);
+    }
+
+    @Test
+    void keepsJsonAsDefaultAndSmileLast() {
+        assertEquals(5, converters.size());
+        assertTrue(converters.get(0).getSupportedMediaTypes().contains(MediaType.APPLICATION_JSON));
+        assertEquals(List.of(WireFormatConfig.APPLICATION_SMILE), converters.get(1).getSupportedMediaTypes());
+        assertInstanceOf(MappingJackson2SmileHttpMessageConverter.class, converters.get(4));
+        assertFalse(converters.get(4).canWrite(Printer.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void smileEnvelopeDecodesToSameTreeAsJsonAndIsSmaller() throws IOException {
+        List<Printer> printers = new ArrayList<>();
+        for (long i = 0; i < 500; i++) {
+            printers.add(new Printer(i, "Printer" + i, "Room " + i, "192.168.1." + (i % 255), "key" + i));
+        }
+        ApiResponse response = new ApiResponse(true, "Printers retrieved successfully", printers);
+
+        MockHttpOutputMessage json = new MockHttpOutputMessage();
+        ((HttpMessageConverter<ApiResponse>) converters.get(0)).write(response, MediaType.APPLICATION_JSON, json);
+        MockHttpOutputMessage smile = new MockHttpOutputMessage();
+        ((HttpMessageConverter<ApiResponse>) converters.get(1)).write(response, WireFormatConfig.APPLICATION_SMILE, smile);
+
+        JsonNode fromJson = objectMapper.readTree(json.getBodyAsBytes());
+        JsonNode fromSmile = new SmileMapper().readTree(smile.getBodyAsBytes());
+        assertEquals(fromJson, fromSmile);
+        assertTrue(smile.getBodyAsBytes().length < json.getBodyAsBytes().length);
+    }
+}